@@ -1,17 +1,15 @@
 package com.wzz.venom.aspect;
 
 import cn.dev33.satoken.stp.StpUtil;
-import com.wzz.venom.domain.entity.User;
 import com.wzz.venom.exception.BusinessException;
-import com.wzz.venom.service.user.UserService;
+import com.wzz.venom.service.user.FrozenUserService;
+import com.wzz.venom.service.user.UserCacheService;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.util.Objects;
-
 /**
  * 检查用户冻结状态的 AOP 切面
  */
@@ -20,7 +18,10 @@ import java.util.Objects;
 public class CheckUserFrozenAspect {
 
     @Autowired
-    private UserService userService;
+    private FrozenUserService frozenUserService;
+
+    @Autowired
+    private UserCacheService userCacheService;
 
     /**
      * 定义一个切点，匹配所有被 @CheckUserFrozen 注解标记的方法。
@@ -44,15 +45,14 @@ public class CheckUserFrozenAspect {
         // 2. 获取当前登录用户的ID
         Long userId = StpUtil.getLoginIdAsLong();
 
-        // 3. 查询用户信息
-        User user = userService.queryUserByUserId(userId);
-        if (Objects.isNull(user)) {
+        // 3. 确认用户仍然存在（冻结索引只记录冻结的用户，无法区分已删除的用户；两级缓存命中时无需查询数据库）
+        if (userCacheService.getById(userId) == null) {
             // 正常情况下，已登录的用户都能查到信息。查不到可能是数据异常。
             throw new BusinessException(0, "无法获取用户信息，请重新登录");
         }
 
-        // 4. 核心逻辑：检查冻结状态
-        if (Boolean.TRUE.equals(user.getIsFrozen())) {
+        // 4. 核心逻辑：检查冻结状态（内存索引查找，无需查询数据库）
+        if (frozenUserService.isFrozen(userId)) {
             // 如果用户被冻结，直接抛出业务异常，请求将被中断
             throw new BusinessException(0, "当前用户已被冻结");
         }
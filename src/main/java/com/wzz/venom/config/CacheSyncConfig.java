@@ -0,0 +1,53 @@
+package com.wzz.venom.config;
+
+import com.wzz.venom.service.config.SysConfigService;
+import com.wzz.venom.service.impl.config.SysConfigServiceImpl;
+import com.wzz.venom.service.impl.user.FrozenUserServiceImpl;
+import com.wzz.venom.service.impl.user.UserCacheServiceImpl;
+import com.wzz.venom.service.user.FrozenUserService;
+import com.wzz.venom.service.user.UserCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 进程内缓存跨节点同步配置
+ * 开启 venom.cache.redis-sync 后订阅系统配置、用户缓存的失效通知和冻结用户变更通知，收到其他节点的通知时更新本节点的对应缓存
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "venom.cache", name = "redis-sync", havingValue = "true")
+public class CacheSyncConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheSyncConfig.class);
+
+    @Bean
+    public RedisMessageListenerContainer cacheSyncListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                    SysConfigService sysConfigService,
+                                                                    UserCacheService userCacheService,
+                                                                    FrozenUserService frozenUserService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            String sourceNode = new String(message.getBody(), StandardCharsets.UTF_8);
+            if (SysConfigServiceImpl.NODE_ID.equals(sourceNode)) {
+                return;
+            }
+            log.info("【系统配置缓存】收到节点 {} 的配置变更通知，清空本地缓存", sourceNode);
+            sysConfigService.invalidateCache();
+        }, new ChannelTopic(SysConfigServiceImpl.CACHE_INVALIDATE_CHANNEL));
+        container.addMessageListener((message, pattern) ->
+                userCacheService.onRemoteInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserCacheServiceImpl.CACHE_INVALIDATE_CHANNEL));
+        container.addMessageListener((message, pattern) ->
+                frozenUserService.onRemoteChange(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(FrozenUserServiceImpl.CHANGE_CHANNEL));
+        return container;
+    }
+}
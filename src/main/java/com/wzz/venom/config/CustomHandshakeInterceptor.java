@@ -3,12 +3,16 @@ package com.wzz.venom.config;
 import cn.dev33.satoken.stp.StpUtil;
 import com.wzz.venom.domain.entity.User;
 import com.wzz.venom.service.user.UserService;
+import com.wzz.venom.utils.HandshakeAdmissionController;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
@@ -16,7 +20,7 @@ import java.util.Map;
 
 /**
  * 自定义 WebSocket 握手拦截器
- * 用于在 WebSocket 连接建立前进行用户身份认证
+ * 用于在 WebSocket 连接建立前进行准入控制和用户身份认证
  */
 @Component
 public class CustomHandshakeInterceptor implements HandshakeInterceptor {
@@ -27,39 +31,91 @@ public class CustomHandshakeInterceptor implements HandshakeInterceptor {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private HandshakeAdmissionController admissionController;
+
     /**
-     * 在握手之前执行，验证用户是否登录
+     * 在握手之前执行：先做准入控制（速率、并发），再验证用户是否登录
      * @return true: 允许握手, false: 拒绝握手
      */
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                    WebSocketHandler wsHandler, Map<String, Object> attributes) throws Exception {
+        // 1. 准入控制：速率和并发超限时直接拒绝，不触达 Redis 和数据库
+        if (!admissionController.tryAcquireRate()) {
+            reject(response, HttpStatus.TOO_MANY_REQUESTS);
+            return false;
+        }
+        if (!admissionController.tryEnterUpgrade()) {
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE);
+            return false;
+        }
+        boolean success = false;
         try {
-            // 核心：使用 sa-token 检查当前 HTTP 请求的登录状态
-            StpUtil.checkLogin();
-
-            // 如果检查通过（即用户已登录），获取用户ID
-            Long userId = StpUtil.getLoginIdAsLong();
-            User uu = userService.queryUserByUserId(userId);
+            // 2. 认证：优先使用短时缓存的身份，未命中时再读取 sa-token 登录态和用户信息
+            String token = StpUtil.getTokenValue();
+            HandshakeAdmissionController.Identity identity = admissionController.getIdentity(token);
+            if (identity == null) {
+                Object loginId = token == null ? null : StpUtil.getLoginIdByToken(token);
+                if (loginId == null) {
+                    admissionController.recordUnauthenticated();
+                    log.warn("WebSocket 握手失败: 用户未登录或 Token 无效");
+                    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                    return false;
+                }
+                Long userId = Long.valueOf(loginId.toString());
+                User uu = userService.queryUserByUserId(userId);
+                if (uu == null) {
+                    admissionController.recordUnauthenticated();
+                    log.warn("WebSocket 握手失败: 用户 {} 不存在", userId);
+                    response.setStatusCode(HttpStatus.UNAUTHORIZED);
+                    return false;
+                }
+                identity = admissionController.putIdentity(token, userId, uu.getUserName());
+            }
 
             // 将 userId 放入 WebSocketSession 的 attributes 中，以便后续处理器使用
-            attributes.put("userId", userId);
-            attributes.put("user", uu.getUserName());
+            attributes.put("userId", identity.userId());
+            attributes.put("user", identity.userName());
+            // 重连时客户端携带已收到的最大通知序号，连接建立后据此补发
+            String lastSeq = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("lastSeq");
+            if (lastSeq != null && lastSeq.matches("\\d{1,18}")) {
+                attributes.put("lastSeq", Long.valueOf(lastSeq));
+            }
 
-            log.info("WebSocket 握手成功, 用户ID: {}", userId);
+            log.info("WebSocket 握手成功, 用户ID: {}", identity.userId());
+            success = true;
             return true;
         } catch (Exception e) {
+            admissionController.recordUnauthenticated();
             log.warn("WebSocket 握手失败: 用户未登录或 Token 无效。异常: {}", e.getMessage());
             return false; // 拒绝连接
+        } finally {
+            // 握手通过时在 afterHandshake 中释放
+            if (!success) {
+                admissionController.exitUpgrade(false);
+            }
         }
     }
 
+    /**
+     * 拒绝握手并返回带随机抖动的重试时间（Retry-After 为秒，X-Retry-After-Ms 为毫秒）
+     */
+    private void reject(ServerHttpResponse response, HttpStatus status) {
+        long retryAfterMs = admissionController.retryAfterMillis();
+        response.setStatusCode(status);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf((retryAfterMs + 999) / 1000));
+        response.getHeaders().set("X-Retry-After-Ms", String.valueOf(retryAfterMs));
+        log.debug("WebSocket 握手被准入控制拒绝: {}，建议 {} ms 后重试", status, retryAfterMs);
+    }
+
     /**
      * 握手之后执行
      */
     @Override
     public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
                                WebSocketHandler wsHandler, Exception exception) {
-        // no-op
+        // 只有 beforeHandshake 返回 true 时才会调用，释放并发名额
+        admissionController.exitUpgrade(exception == null);
     }
 }
\ No newline at end of file
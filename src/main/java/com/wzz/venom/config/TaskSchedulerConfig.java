@@ -7,7 +7,8 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 /**
  * 定时任务调度器配置
  * <p>
- * 用于处理动态的、一次性的定时任务，例如产品到期结算。
+ * 用于执行 @Scheduled 周期任务，例如每日收益计算和到期产品轮询。
+ * 产品到期结算不再为每个产品在这里注册一次性定时任务，结算本身在独立的有界线程池中执行。
  * </p>
  */
 @Configuration
@@ -19,7 +20,7 @@ public class TaskSchedulerConfig {
         // 配置线程池大小，根据业务并发量调整，这里设置为10
         scheduler.setPoolSize(10);
         // 设置线程名前缀，方便日志追踪
-        scheduler.setThreadNamePrefix("product-settle-");
+        scheduler.setThreadNamePrefix("venom-scheduler-");
         // 设置当调度器shutdown时，是否等待任务执行完毕
         scheduler.setWaitForTasksToCompleteOnShutdown(true);
         // 设置等待时长
@@ -28,4 +29,4 @@ public class TaskSchedulerConfig {
         scheduler.initialize();
         return scheduler;
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,42 @@
 package com.wzz.venom.config;
 
+import com.wzz.venom.enums.RejectionPolicyEnum;
+import com.wzz.venom.enums.TaskCategoryEnum;
+import com.wzz.venom.utils.ManagedVirtualThreadExecutor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.AsyncTaskExecutor;
-import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.core.env.Environment;
 
-import java.util.concurrent.Executors;
+import java.util.EnumMap;
+import java.util.Map;
 
 
 /**
  * 线程池配置，启用JDK 21虚拟线程
+ * <p>
+ * 虚拟线程按任务类别限制并发，各类别的配置项为 venom.executor.{类别}.max-concurrency / max-queued / rejection-policy。
+ * 所有访问数据库的类别的并发上限之和应小于数据库连接池大小。
+ * </p>
  */
 @Configuration
 public class ThreadPoolConfig {
 
     public static final String VIRTUAL_THREAD_EXECUTOR = "virtualThreadExecutor";
 
-    @Bean(VIRTUAL_THREAD_EXECUTOR)
-    public AsyncTaskExecutor asyncTaskExecutor() {
-        // JDK 21 newVirtualThreadPerTaskExecutor() 会为每个任务创建一个新的虚拟线程
-        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    private static final String PREFIX = "venom.executor.";
+
+    @Bean(name = VIRTUAL_THREAD_EXECUTOR, destroyMethod = "shutdown")
+    public ManagedVirtualThreadExecutor asyncTaskExecutor(Environment environment) {
+        Map<TaskCategoryEnum, ManagedVirtualThreadExecutor.CategoryLimit> limits = new EnumMap<>(TaskCategoryEnum.class);
+        for (TaskCategoryEnum category : TaskCategoryEnum.values()) {
+            String key = PREFIX + category.getConfigKey() + ".";
+            limits.put(category, new ManagedVirtualThreadExecutor.CategoryLimit(
+                    environment.getProperty(key + "max-concurrency", Integer.class, 32),
+                    environment.getProperty(key + "max-queued", Integer.class, 1000),
+                    environment.getProperty(key + "rejection-policy", RejectionPolicyEnum.class, RejectionPolicyEnum.CALLER_RUNS)));
+        }
+        long drainTimeoutSeconds = environment.getProperty(PREFIX + "drain-timeout-seconds", Long.class, 30L);
+        // 每个任务仍使用 JDK 21 newVirtualThreadPerTaskExecutor() 创建的虚拟线程
+        return new ManagedVirtualThreadExecutor(limits, drainTimeoutSeconds * 1000L);
     }
 }
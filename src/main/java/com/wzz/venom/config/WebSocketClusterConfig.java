@@ -0,0 +1,33 @@
+package com.wzz.venom.config;
+
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * WebSocket 跨节点转发配置
+ * 开启 venom.websocket.cluster.enabled 后订阅广播频道和本节点的定向频道，收到的批量消息交给集群服务投递到本节点的连接
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "venom.websocket.cluster", name = "enabled", havingValue = "true")
+public class WebSocketClusterConfig {
+
+    @Bean
+    public RedisMessageListenerContainer webSocketRelayListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                         WebSocketClusterService webSocketClusterService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        for (String channel : webSocketClusterService.subscribedChannels()) {
+            container.addMessageListener((message, pattern) ->
+                    webSocketClusterService.onRelayMessage(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(channel));
+        }
+        return container;
+    }
+}
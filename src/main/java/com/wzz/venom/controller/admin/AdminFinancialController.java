@@ -2,9 +2,14 @@ package com.wzz.venom.controller.admin;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.wzz.venom.common.Result;
+import com.wzz.venom.domain.dto.AccrualReportDto;
+import com.wzz.venom.domain.dto.ExportQueryDto;
 import com.wzz.venom.domain.entity.UserFinancial;
+import com.wzz.venom.service.admin.DataExportService;
 import com.wzz.venom.service.user.UserFinancialService;
+import com.wzz.venom.service.user.UserIncomeRollupService;
 import com.wzz.venom.task.FinancialIncomeCalculationTask;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -21,6 +26,9 @@ public class AdminFinancialController {
     @Autowired
     private UserFinancialService userFinancialService;
 
+    @Autowired
+    private DataExportService dataExportService;
+
     /**
      * 查询所有用户理财记录
      *
@@ -32,6 +40,15 @@ public class AdminFinancialController {
         return Result.success(list);
     }
 
+    /**
+     * 流式导出所有用户理财记录（NDJSON / CSV），逐行写出，适合大数据量
+     * @param query 导出格式、导出字段与筛选条件
+     */
+    @GetMapping("/export")
+    public void exportFinancials(ExportQueryDto query, HttpServletResponse response) {
+        dataExportService.exportFinancials(query, response);
+    }
+
     /**
      *分页查询所有用户理财记录
      *
@@ -95,17 +112,39 @@ public class AdminFinancialController {
      * 手动触发每日理财收益计算任务
      * <p>
      * 该接口用于管理员手动执行一次全用户的理财收益计算与派发。
-     * 调用此接口会立即执行计算收益方法。
+     * 调用此接口会立即执行计算收益方法，并返回本次执行的吞吐与失败汇总。
+     * 当天已派发完成时不会重复派发；上次执行中断时从断点继续。
      * </p>
      * @return 操作结果
      */
     @PostMapping("/trigger-daily-income-calculation")
     public Result<?> manuallyTriggerDailyIncomeCalculation() {
         try {
-            financialIncomeCalculationTask.calculateDailyFinancialIncome();
-            return Result.success("手动触发每日收益计算任务已成功执行。");
+            AccrualReportDto report = financialIncomeCalculationTask.runDailyIncomeCalculation();
+            if (report == null) {
+                return Result.error("收益率配置无效，任务未执行，请查看服务器日志。");
+            }
+            if (report.isAlreadyCompleted()) {
+                return Result.success("今日收益已派发完成，本次未重复派发。", report);
+            }
+            return Result.success("手动触发每日收益计算任务已成功执行。", report);
         } catch (Exception e) {
             return Result.error("任务执行失败，请查看服务器日志获取详细信息。错误: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @Autowired
+    private UserIncomeRollupService userIncomeRollupService;
+
+    /**
+     * 由收益流水重建收益汇总（数据修复用）
+     *
+     * @param userName 用户名，不传则重建全部用户
+     * @return 重建的用户数
+     */
+    @PostMapping("/income-rollup/rebuild")
+    public Result<?> rebuildIncomeRollup(@RequestParam(required = false) String userName) {
+        int users = userIncomeRollupService.rebuild(userName == null || userName.isBlank() ? null : userName);
+        return Result.success("收益汇总重建完成", users);
+    }
+}
@@ -0,0 +1,116 @@
+package com.wzz.venom.controller.admin;
+
+import com.wzz.venom.common.Result;
+import com.wzz.venom.domain.dto.EventSinkStatsDto;
+import com.wzz.venom.domain.dto.ExecutorCategoryStatsDto;
+import com.wzz.venom.domain.dto.HandshakeStatsDto;
+import com.wzz.venom.domain.dto.WsClusterStatsDto;
+import com.wzz.venom.domain.dto.WsHeartbeatStatsDto;
+import com.wzz.venom.domain.dto.WsSessionStatsDto;
+import com.wzz.venom.service.event.DomainEventBus;
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
+import com.wzz.venom.utils.HandshakeAdmissionController;
+import com.wzz.venom.utils.TaskQueueUtil;
+import com.wzz.venom.utils.UserWebSocketSessionManager;
+import com.wzz.venom.utils.WebSocketSessionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 管理后台 - 运行状态监控接口
+ * 模块：执行器 / WebSocket / 领域事件总线 运行统计
+ */
+@RestController
+@RequestMapping("/api/admin/monitor")
+public class AdminMonitorController {
+
+    @Autowired
+    private WebSocketSessionManager webSocketSessionManager;
+
+    @Autowired
+    private UserWebSocketSessionManager userWebSocketSessionManager;
+
+    @Autowired
+    private ObjectProvider<WebSocketClusterService> webSocketClusterServiceProvider;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
+    @Autowired
+    private HandshakeAdmissionController handshakeAdmissionController;
+
+    @Autowired
+    private WebSocketHeartbeatService webSocketHeartbeatService;
+
+
+    // ==================== 执行器 ====================
+
+    /**
+     * 查看虚拟线程执行器各任务类别的并发、排队、拒绝和耗时统计
+     */
+    @GetMapping("/executor-stats")
+    public Result<List<ExecutorCategoryStatsDto>> getExecutorStats() {
+        return Result.success(TaskQueueUtil.stats());
+    }
+
+
+    // ==================== WebSocket ====================
+
+    /**
+     * 查看 WebSocket 各连接发送队列的排队、丢弃、合并和滞后统计
+     */
+    @GetMapping("/websocket-stats")
+    public Result<Map<String, List<WsSessionStatsDto>>> getWebSocketStats() {
+        Map<String, List<WsSessionStatsDto>> stats = new LinkedHashMap<>();
+        stats.put("admin", webSocketSessionManager.stats());
+        stats.put("user", userWebSocketSessionManager.stats());
+        return Result.success(stats);
+    }
+
+    /**
+     * 查看 WebSocket 跨节点转发统计（需开启 venom.websocket.cluster.enabled）
+     */
+    @GetMapping("/websocket-cluster-stats")
+    public Result<WsClusterStatsDto> getWebSocketClusterStats() {
+        WebSocketClusterService clusterService = webSocketClusterServiceProvider.getIfAvailable();
+        if (clusterService == null) {
+            return Result.error("未开启 WebSocket 集群转发");
+        }
+        return Result.success(clusterService.stats());
+    }
+
+    /**
+     * 查看用户端 WebSocket 握手准入统计（限流、并发拒绝、身份缓存命中）
+     */
+    @GetMapping("/websocket-handshake-stats")
+    public Result<HandshakeStatsDto> getWebSocketHandshakeStats() {
+        return Result.success(handshakeAdmissionController.stats());
+    }
+
+    /**
+     * 查看 WebSocket 服务端心跳统计（跟踪连接数、Ping/Pong 数、空闲断开数）
+     */
+    @GetMapping("/websocket-heartbeat-stats")
+    public Result<WsHeartbeatStatsDto> getWebSocketHeartbeatStats() {
+        return Result.success(webSocketHeartbeatService.stats());
+    }
+
+
+    // ==================== 领域事件总线 ====================
+
+    /**
+     * 查看领域事件总线各消费端的排队、处理、丢弃和滞后统计
+     */
+    @GetMapping("/event-bus-stats")
+    public Result<List<EventSinkStatsDto>> getEventBusStats() {
+        return Result.success(domainEventBus.stats());
+    }
+}
@@ -2,8 +2,11 @@ package com.wzz.venom.controller.admin;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.wzz.venom.common.Result;
+import com.wzz.venom.domain.dto.ExportQueryDto;
 import com.wzz.venom.domain.entity.UserProduct;
+import com.wzz.venom.service.admin.DataExportService;
 import com.wzz.venom.service.user.UserProductService;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,10 +22,13 @@ public class AdminProductController {
 
     private final UserProductService userProductService;
 
+    private final DataExportService dataExportService;
+
     // 使用构造函数注入，是Spring推荐的最佳实践
     @Autowired
-    public AdminProductController(UserProductService userProductService) {
+    public AdminProductController(UserProductService userProductService, DataExportService dataExportService) {
         this.userProductService = userProductService;
+        this.dataExportService = dataExportService;
     }
 
     /**
@@ -108,6 +114,15 @@ public class AdminProductController {
     public Result<?> findAll(){
         return Result.success("查询成功！",userProductService.findAllProducts());
     }
+
+    /**
+     * 流式导出所有用户产品（NDJSON / CSV），逐行写出，适合大数据量
+     * @param query 导出格式、导出字段与筛选条件
+     */
+    @GetMapping("/export")
+    public void exportProducts(ExportQueryDto query, HttpServletResponse response) {
+        dataExportService.exportProducts(query, response);
+    }
     /**
      * 根据状态查询商品列表
      */
@@ -3,12 +3,15 @@ package com.wzz.venom.controller.admin;
 import cn.dev33.satoken.stp.StpUtil;
 import com.wzz.venom.common.Result;
 import com.wzz.venom.domain.dto.AdminUserDto;
+import com.wzz.venom.domain.dto.ExportQueryDto;
 import com.wzz.venom.domain.dto.UserAmountDto;
 import com.wzz.venom.domain.entity.User;
 import com.wzz.venom.exception.BusinessException;
 import com.wzz.venom.service.admin.AdminUserService;
+import com.wzz.venom.service.admin.DataExportService;
 import com.wzz.venom.service.user.UserFundFlowService;
 import com.wzz.venom.service.user.UserService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
@@ -32,6 +35,9 @@ public class AdminUserController {
     @Autowired
     private UserFundFlowService userFundFlowService;
 
+    @Autowired
+    private DataExportService dataExportService;
+
     /**
      * 查询所有用户
      * @return 用户列表
@@ -42,6 +48,15 @@ public class AdminUserController {
         return Result.success(userList);
     }
 
+    /**
+     * 流式导出所有用户（NDJSON / CSV），逐行写出，适合大数据量
+     * @param query 导出格式、导出字段与筛选条件
+     */
+    @GetMapping("/export")
+    public void exportUsers(ExportQueryDto query, HttpServletResponse response) {
+        dataExportService.exportUsers(query, response);
+    }
+
     /**
      * 查询指定用户信息
      * @param userName 用户名
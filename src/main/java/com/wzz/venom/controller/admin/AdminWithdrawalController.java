@@ -1,11 +1,14 @@
 package com.wzz.venom.controller.admin;
 
 import com.wzz.venom.common.Result;
+import com.wzz.venom.domain.dto.ExportQueryDto;
 import com.wzz.venom.domain.dto.UpdateWithdrawalStatusByIdDTO;
 import com.wzz.venom.domain.dto.UpdateWithdrawalStatusDTO;
 import com.wzz.venom.domain.entity.UserFundFlow;
 import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.service.admin.DataExportService;
 import com.wzz.venom.service.user.UserFundFlowService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.util.StringUtils;
@@ -25,6 +28,9 @@ public class AdminWithdrawalController {
     @Autowired
     private UserFundFlowService userFundFlowService;
 
+    @Autowired
+    private DataExportService dataExportService;
+
     private static final String FUND_TYPE_WITHDRAW = "WITHDRAW";
 
     /**
@@ -43,6 +49,15 @@ public class AdminWithdrawalController {
         }
     }
 
+    /**
+     * 流式导出所有提现相关流水（提现和提现退款）（NDJSON / CSV），逐行写出，适合大数据量
+     * @param query 导出格式、导出字段与筛选条件
+     */
+    @GetMapping("/export")
+    public void exportWithdrawals(ExportQueryDto query, HttpServletResponse response) {
+        dataExportService.exportWithdrawals(query, response);
+    }
+
     /**
      * 查询指定用户的提现记录
      * @param user 用户名
@@ -43,10 +43,13 @@ public class UserFinancialFlowController {
     }
 
     /**
-     * 用户获取收益统计（总收益、昨日收益、收益列表）
+     * 用户获取收益统计（总收益、昨日收益、最近派发日期、最近的收益列表）
+     * @param current 收益列表页码，默认 1
+     * @param size    收益列表每页条数，默认 20，传 0 只返回汇总
      */
     @GetMapping("/income-stats")
-    public Result<?> userIncomeStatistics() {
+    public Result<?> userIncomeStatistics(@RequestParam(required = false) Integer current,
+                                          @RequestParam(required = false) Integer size) {
         try {
             StpUtil.checkLogin();
             Long userId = StpUtil.getLoginIdAsLong();
@@ -54,7 +57,7 @@ public class UserFinancialFlowController {
             if (u == null) {
                 return Result.error("无法查询该用户！");
             }
-            UserIncomeStatsDto statsDto = userFinancialStatementService.getIncomeStatistics(u.getUserName());
+            UserIncomeStatsDto statsDto = userFinancialStatementService.getIncomeStatistics(u.getUserName(), current, size);
 
             return Result.success("查询成功", statsDto);
         } catch (BusinessException e) {
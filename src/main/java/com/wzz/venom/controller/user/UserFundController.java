@@ -3,16 +3,18 @@ package com.wzz.venom.controller.user;
 import cn.dev33.satoken.stp.StpUtil;
 import com.wzz.venom.annotation.CheckUserFrozen;
 import com.wzz.venom.common.Result; // 假设这是您的统一返回结果类
+import com.wzz.venom.domain.dto.FundFlowPageDto;
 import com.wzz.venom.domain.entity.User;
 import com.wzz.venom.domain.entity.UserFundFlow;
 import com.wzz.venom.exception.BusinessException;
 import com.wzz.venom.service.user.UserFundFlowService;
 import com.wzz.venom.service.user.UserService;
-import com.wzz.venom.service.webSocket.WebSocketNotifyService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -31,9 +33,6 @@ public class UserFundController {
     @Autowired
     private UserService userService;
 
-    @Autowired
-    private WebSocketNotifyService webSocketNotifyService;
-
     /**
      * 用户提交充值申请
      * [重大修改] 此接口现在只创建一条"待审核"的记录，资金不会立即到账。
@@ -53,12 +52,8 @@ public class UserFundController {
             if (u==null){
                 return Result.error("无法查询该用户！");
             }
-            // 调用新的充值申请服务
+            // 调用新的充值申请服务（事务提交后由领域事件总线异步通知管理员）
             boolean success = userFundFlowService.requestRecharge(u.getUserName(), amount, "用户在线充值申请");
-            if (success){
-                // 通知管理员有新的充值请求
-                webSocketNotifyService.sendUserRechargeNotification(u.getUserName(),amount);
-            }
             return success ? Result.success("充值申请提交成功，等待管理员审核") : Result.error("充值申请失败，请稍后重试");
         } catch (BusinessException e) {
             return Result.error(e.getMessage());
@@ -137,10 +132,8 @@ public class UserFundController {
                     !StringUtils.hasText(u.getBankName())) {
                 return Result.error("请先完善您的真实姓名、银行卡号、开户行和银行名称信息后再申请提现");
             }
+            // 事务提交后由领域事件总线异步通知管理员
             boolean success = userFundFlowService.reduceUserTransactionAmountWITHDRA(u.getUserName(), amount, "用户申请提现");
-            if (success){
-                webSocketNotifyService.sendUserWithdrawalNotification(u.getUserName(),amount);
-            }
             return success ? Result.success("提现申请已提交") : Result.error("提现申请失败");
         }catch (BusinessException e) {
             return Result.error(e.getMessage());
@@ -166,6 +159,34 @@ public class UserFundController {
         }
     }
 
+    /**
+     * 用户游标分页查看自己的资金流水（由新到旧）
+     * @param cursor    上一页返回的 nextCursor，首页不传
+     * @param size      每页条数，默认 20，最大 100
+     * @param fundType  流水类型，可传多个
+     * @param startDate 开始日期（含），格式 yyyy-MM-dd
+     * @param endDate   结束日期（含），格式 yyyy-MM-dd
+     */
+    @GetMapping("/flow/page")
+    public Result<FundFlowPageDto> userFundFlowPage(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(required = false) Integer size,
+                                                    @RequestParam(required = false) List<String> fundType,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try{
+            StpUtil.checkLogin();
+            Long userId = StpUtil.getLoginIdAsLong();
+            User u =  userService.queryUserByUserId(userId);
+            if (u==null){
+                return Result.error("无法查询该用户！");
+            }
+            FundFlowPageDto page = userFundFlowService.queryUserFundFlowPage(u.getUserName(), cursor, size, fundType, startDate, endDate);
+            return Result.success(page);
+        }catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * (管理员)查询所有提现交易信息
      */
@@ -0,0 +1,43 @@
+package com.wzz.venom.controller.user;
+
+import cn.dev33.satoken.stp.StpUtil;
+import com.wzz.venom.common.Result;
+import com.wzz.venom.domain.dto.UserNotificationDto;
+import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 用户通知收件箱接口控制器
+ * 模块：按序号拉取通知（WebSocket 补发超出上限或无法使用 WebSocket 时使用）
+ */
+@RestController
+@RequestMapping("/api/user/notification")
+public class UserNotificationController {
+
+    @Autowired
+    private NotificationInboxService notificationInboxService;
+
+    /**
+     * 查询指定序号之后的通知（按序号升序）
+     * @param afterSeq 已收到的最大序号，默认 0
+     * @param size     每页条数，默认 50，最大 200
+     */
+    @GetMapping
+    public Result<List<UserNotificationDto>> listNotifications(@RequestParam(defaultValue = "0") Long afterSeq,
+                                                               @RequestParam(required = false) Integer size) {
+        try {
+            StpUtil.checkLogin();
+            Long userId = StpUtil.getLoginIdAsLong();
+            return Result.success(notificationInboxService.listAfter(userId, afterSeq, size));
+        } catch (BusinessException e) {
+            return Result.error(e.getMessage());
+        }
+    }
+}
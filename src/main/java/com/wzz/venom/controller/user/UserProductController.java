@@ -9,7 +9,6 @@ import com.wzz.venom.domain.entity.UserProduct;
 import com.wzz.venom.exception.BusinessException;
 import com.wzz.venom.service.user.UserProductService;
 import com.wzz.venom.service.user.UserService;
-import com.wzz.venom.service.webSocket.WebSocketNotifyService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,9 +33,6 @@ public class UserProductController {
     @Autowired
     private UserProductService userProductService;
 
-    @Autowired
-    private WebSocketNotifyService webSocketNotifyService;
-
     @Autowired
     private UserService userService;
 
@@ -64,15 +60,10 @@ public class UserProductController {
             UserProduct newProduct = convertDtoToEntity(productDTO);
             newProduct.setUserName(user.getUserName());
 
-            // 调用已经整合了扣款和下单逻辑的服务方法
+            // 调用已经整合了扣款和下单逻辑的服务方法（事务提交后由领域事件总线异步通知管理员）
             boolean success = userProductService.addUserProducts(newProduct);
 
             if (success) {
-                webSocketNotifyService.sendUserPurchaseNotification(
-                        user.getUserName(),
-                        productDTO.getProductName(),
-                        productDTO.getAmount() // 使用实际金额
-                );
                 return Result.success("下单成功！");
             } else {
                 return Result.error("下单失败，请稍后重试");
@@ -1,17 +1,25 @@
 package com.wzz.venom.controller.webSocket;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wzz.venom.domain.entity.User;
 import com.wzz.venom.service.user.UserService;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
 import com.wzz.venom.utils.WebSocketSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * 管理后台 WebSocket 通知控制器
@@ -19,15 +27,28 @@ import java.util.Map;
  *
  * 建议前端管理后台建立 WebSocket 连接地址：
  *    ws://<server-host>/ws/admin/notify
+ *
+ * 订阅协议（未订阅前默认接收全部事件）：
+ *    {"action": "subscribe", "events": ["USER_WITHDRAWAL", "USER_RECHARGE"], "users": ["alice"]}
+ *    {"action": "unsubscribe", "events": ["PRESENCE_DIGEST"]}
+ *    {"action": "subscribe", "all": true}
+ * 服务端回复 {"event": "SUBSCRIPTIONS", "topics": [...]}，为该连接当前订阅的全部主题。
  */
 @Component
 public class AdminWebSocketController extends TextWebSocketHandler {
 
+    private static final Logger log = LoggerFactory.getLogger(AdminWebSocketController.class);
+
     @Autowired
     private UserService userService;
 
     private final WebSocketSessionManager sessionManager;
 
+    @Autowired
+    private WebSocketHeartbeatService heartbeatService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
     @Autowired
     public AdminWebSocketController(WebSocketSessionManager sessionManager) {
         this.sessionManager = sessionManager;
@@ -57,11 +78,70 @@ public class AdminWebSocketController extends TextWebSocketHandler {
      */
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        // 收到任何消息都说明连接存活，推迟服务端 Ping
+        heartbeatService.touch(session);
         // 可解析 message.getPayload() 做业务处理
         String payload = message.getPayload();
         // 例如，简单的心跳检测
         if ("ping".equalsIgnoreCase(payload)) {
-            session.sendMessage(new TextMessage("pong"));
+            // 经由发送队列回复，避免与广播并发写同一连接
+            sessionManager.send(session, new TextMessage("pong"));
+        } else if (payload.startsWith("{")) {
+            handleSubscription(session, payload);
+        }
+    }
+
+    /**
+     * 收到服务端心跳 Ping 的回复
+     */
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        heartbeatService.onPong(session);
+    }
+
+    /**
+     * 处理订阅/取消订阅请求
+     */
+    @SuppressWarnings("unchecked")
+    private void handleSubscription(WebSocketSession session, String payload) {
+        Map<String, Object> request;
+        try {
+            request = objectMapper.readValue(payload, Map.class);
+        } catch (Exception e) {
+            log.warn("管理端 [ID: {}] 发送了无法解析的消息: {}", session.getId(), payload);
+            return;
+        }
+        String action = String.valueOf(request.get("action"));
+        List<String> topics = new ArrayList<>();
+        if (Boolean.TRUE.equals(request.get("all"))) {
+            topics.add(WebSocketSessionManager.TOPIC_ALL);
+        }
+        if (request.get("events") instanceof List<?> events) {
+            for (Object event : events) {
+                topics.add(WebSocketSessionManager.eventTopic(String.valueOf(event)));
+            }
+        }
+        if (request.get("users") instanceof List<?> users) {
+            for (Object user : users) {
+                topics.add(WebSocketSessionManager.userTopic(String.valueOf(user)));
+            }
+        }
+        Set<String> current;
+        if ("subscribe".equals(action)) {
+            current = sessionManager.subscribe(session, topics);
+        } else if ("unsubscribe".equals(action)) {
+            current = sessionManager.unsubscribe(session, topics);
+        } else {
+            log.warn("管理端 [ID: {}] 发送了未知的操作: {}", session.getId(), action);
+            return;
+        }
+        Map<String, Object> reply = new HashMap<>();
+        reply.put("event", "SUBSCRIPTIONS");
+        reply.put("topics", current);
+        try {
+            sessionManager.send(session, new TextMessage(objectMapper.writeValueAsString(reply)));
+        } catch (Exception e) {
+            log.error("订阅结果序列化失败", e);
         }
     }
 
@@ -83,7 +163,7 @@ public class AdminWebSocketController extends TextWebSocketHandler {
         message.put("user", user);
         message.put("productName", productName);
         message.put("amount", amount);
-        sessionManager.broadcast(message);
+        sessionManager.publish("USER_PURCHASE", user, message, null);
     }
 
     /** 通知管理后台：有用户发起提现 */
@@ -92,7 +172,7 @@ public class AdminWebSocketController extends TextWebSocketHandler {
         message.put("event", "USER_WITHDRAWAL");
         message.put("user", user);
         message.put("amount", amount);
-        sessionManager.broadcast(message);
+        sessionManager.publish("USER_WITHDRAWAL", user, message, null);
     }
 
     /** 通知管理后台：有用户发起充值 */
@@ -101,13 +181,13 @@ public class AdminWebSocketController extends TextWebSocketHandler {
         message.put("event", "USER_RECHARGE");
         message.put("user", user);
         message.put("amount", amount);
-        sessionManager.broadcast(message);
+        sessionManager.publish("USER_RECHARGE", user, message, null);
     }
 
     /**
      * 通用方法：通知管理后台，有来自用户的实时事件
      * @param userId 报告事件的用户ID
-     * @param eventType 事件类型 (例如: "USER_CONNECTED", "CONTACT_SUPPORT")
+     * @param eventType 事件类型 (例如: "CONTACT_SUPPORT")
      * @param data 事件相关数据 (可以为 null)
      */
     public void notifyAdminGenericUserEvent(Long userId, String eventType, Object data) {
@@ -118,12 +198,22 @@ public class AdminWebSocketController extends TextWebSocketHandler {
         }else {
             userNam = uu.getUserName();
         }
+        notifyAdminGenericUserEvent(userId, userNam, eventType, data);
+    }
 
+    /**
+     * 通用方法：通知管理后台，有来自用户的实时事件（调用方已知用户名，如 WebSocket 连接属性中的用户名，无需查库）
+     * @param userId 报告事件的用户ID
+     * @param userName 用户名
+     * @param eventType 事件类型 (例如: "CONTACT_SUPPORT")
+     * @param data 事件相关数据 (可以为 null)
+     */
+    public void notifyAdminGenericUserEvent(Long userId, String userName, String eventType, Object data) {
         Map<String, Object> message = new HashMap<>();
         message.put("event", eventType); // 给管理端定义一个新的事件类型，用于接收所有用户上报
         message.put("userId", userId);
         message.put("data", data);
-        message.put("user",userNam);
-        sessionManager.broadcast(message);
+        message.put("user", userName == null ? "" : userName);
+        sessionManager.publish(eventType, userName, message, null);
     }
 }
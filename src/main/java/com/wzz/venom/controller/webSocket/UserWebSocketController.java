@@ -1,12 +1,16 @@
 package com.wzz.venom.controller.webSocket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
+import com.wzz.venom.service.webSocket.PresenceService;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
 import com.wzz.venom.utils.UserWebSocketSessionManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.TextWebSocketHandler;
@@ -15,8 +19,9 @@ import java.util.Map;
 
 /**
  * 用户端 WebSocket 通知控制器
- * 模块：用户实时事件上报（理财操作、客服请求等）
- * 连接地址: ws://<your-server>/ws/user/notify
+ * 模块：用户实时事件上报（理财操作、客服请求等）、用户通知推送
+ * 连接地址: ws://<your-server>/ws/user/notify?lastSeq=<已收到的最大通知序号>
+ * 重连时携带 lastSeq，服务端补发之后的通知；连接中也可以发送 {"event": "REPLAY", "data": {"lastSeq": 12}} 请求补发
  */
 @Component
 public class UserWebSocketController extends TextWebSocketHandler {
@@ -28,11 +33,22 @@ public class UserWebSocketController extends TextWebSocketHandler {
     // 1. 新增：注入 AdminWebSocketController
     private final AdminWebSocketController adminWebSocketController;
 
+    private final PresenceService presenceService;
+
+    private final NotificationInboxService notificationInboxService;
+
+    private final WebSocketHeartbeatService heartbeatService;
+
     @Autowired
     // 2. 修改：更新构造函数以接收注入
-    public UserWebSocketController(UserWebSocketSessionManager sessionManager, AdminWebSocketController adminWebSocketController) {
+    public UserWebSocketController(UserWebSocketSessionManager sessionManager, AdminWebSocketController adminWebSocketController,
+                                   PresenceService presenceService, NotificationInboxService notificationInboxService,
+                                   WebSocketHeartbeatService heartbeatService) {
         this.sessionManager = sessionManager;
         this.adminWebSocketController = adminWebSocketController;
+        this.presenceService = presenceService;
+        this.notificationInboxService = notificationInboxService;
+        this.heartbeatService = heartbeatService;
     }
 
     /**
@@ -42,7 +58,7 @@ public class UserWebSocketController extends TextWebSocketHandler {
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         Long userId = (Long) session.getAttributes().get("userId");
-        String userName = session.getAttributes().get("user").toString();
+        String userName = userName(session);
         if (userId == null) {
             log.error("WebSocket 连接失败：无法从 session attributes 中获取 userId");
             try {
@@ -55,8 +71,10 @@ public class UserWebSocketController extends TextWebSocketHandler {
         sessionManager.addSession(userId, session);
         // 你可以在这里通知后台，某个用户上线了
         log.info("后台通知：用户 [ID: {}] 已连接 WebSocket 服务。", userId);
-        // 3. 新增：通知所有管理员，有新用户连接
-        adminWebSocketController.notifyAdminGenericUserEvent(userId, "USER_CONNECTED", null);
+        // 3. 记录上线，由在线状态服务按周期向管理员发布合并后的在线摘要
+        presenceService.onConnected(userId, userName);
+        // 4. 补发断线期间的通知（握手时携带的 lastSeq）
+        notificationInboxService.onConnected(userId, (Long) session.getAttributes().get("lastSeq"));
     }
 
     /**
@@ -65,13 +83,14 @@ public class UserWebSocketController extends TextWebSocketHandler {
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         Long userId = (Long) session.getAttributes().get("userId");
-        if (userId != null) {
-            sessionManager.removeSession(userId);
+        // 被同一用户的新连接替换的旧连接关闭时不算下线；
+        // 因空闲超时、慢连接或传输错误已先从连接池移除的，该用户没有其他连接时仍记录下线
+        if (userId != null && (sessionManager.removeSession(userId, session) || sessionManager.getSession(userId) == null)) {
             // 你可以在这里通知后台，某个用户下线了
             log.info("后台通知：用户 [ID: {}] 已断开 WebSocket 连接。状态: {}", userId, status);
-            // 4. 新增：通知所有管理员，有用户断开连接
-            Map<String, String> data = Map.of("reason", status.toString());
-            adminWebSocketController.notifyAdminGenericUserEvent(userId, "USER_DISCONNECTED", data);
+            // 4. 记录下线，由在线状态服务按周期向管理员发布合并后的在线摘要
+            presenceService.onDisconnected(userId, userName(session));
+            notificationInboxService.onDisconnected(userId);
         }
     }
 
@@ -83,6 +102,8 @@ public class UserWebSocketController extends TextWebSocketHandler {
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
         Long userId = (Long) session.getAttributes().get("userId");
         if (userId == null) return;
+        // 收到任何消息都说明连接存活，推迟服务端 Ping
+        heartbeatService.touch(session);
 
         try {
             String payload = message.getPayload();
@@ -104,7 +125,7 @@ public class UserWebSocketController extends TextWebSocketHandler {
                 case "FINANCIAL_TRANSFER_IN":
                     // 用户理财转入
                     log.info("后台通知：用户 [ID: {}] 发起理财转入操作，数据: {}", userId, data);
-                    adminWebSocketController.notifyAdminGenericUserEvent(userId, event, data);
+                    adminWebSocketController.notifyAdminGenericUserEvent(userId, userName(session), event, data);
 
                     // 在这里可以调用你的业务 Service 进行处理
                     // e.g., financeService.handleTransfer(userId, data);
@@ -112,7 +133,7 @@ public class UserWebSocketController extends TextWebSocketHandler {
                 case "FINANCIAL_TRANSFER_OUT":
                     // 用户理财转出
                     log.info("后台通知：用户 [ID: {}] 发起理财转出操作，数据: {}", userId, data);
-                    adminWebSocketController.notifyAdminGenericUserEvent(userId, event, data);
+                    adminWebSocketController.notifyAdminGenericUserEvent(userId, userName(session), event, data);
 
                     // 在这里可以调用你的业务 Service 进行处理
                     // e.g., financeService.handleTransfer(userId, data);
@@ -121,14 +142,20 @@ public class UserWebSocketController extends TextWebSocketHandler {
                 case "CONTACT_SUPPORT":
                     // 用户点击客服通知
                     log.info("后台通知：用户 [ID: {}] 请求人工客服支持。", userId);
-                    adminWebSocketController.notifyAdminGenericUserEvent(userId, event, data);
+                    adminWebSocketController.notifyAdminGenericUserEvent(userId, userName(session), event, data);
                     // 在这里可以调用你的业务 Service，例如创建一个客服工单
                     // e.g., supportService.createTicket(userId);
                     break;
 
+                case "REPLAY":
+                    // 客户端请求补发指定序号之后的通知
+                    Object lastSeq = data instanceof Map<?, ?> replay ? replay.get("lastSeq") : null;
+                    notificationInboxService.onConnected(userId, lastSeq instanceof Number number ? number.longValue() : null);
+                    break;
+
                 case "ping":
-                    // 心跳检测
-                    session.sendMessage(new TextMessage("pong"));
+                    // 心跳检测（经由发送队列回复，避免与推送并发写同一连接）
+                    sessionManager.sendLocal(userId, new TextMessage("pong"));
                     break;
 
                 default:
@@ -145,8 +172,25 @@ public class UserWebSocketController extends TextWebSocketHandler {
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         Long userId = (Long) session.getAttributes().get("userId");
         if (userId != null) {
-            sessionManager.removeSession(userId);
+            // 下线记录由随后的 afterConnectionClosed 统一处理
+            sessionManager.removeSession(userId, session);
             log.error("后台通知：用户 [ID: {}] 的 WebSocket 连接发生传输错误，已移除。", userId, exception);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * 收到服务端心跳 Ping 的回复
+     */
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) {
+        heartbeatService.onPong(session);
+    }
+
+    /**
+     * 握手时放入连接属性的用户名
+     */
+    private static String userName(WebSocketSession session) {
+        Object user = session.getAttributes().get("user");
+        return user == null ? "" : user.toString();
+    }
+}
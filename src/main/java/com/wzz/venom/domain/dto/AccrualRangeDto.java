@@ -0,0 +1,43 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * SQL 模式下单个主键区间的执行结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccrualRangeDto {
+
+    /** 区间起始ID（包含） */
+    private long startId;
+
+    /** 区间结束ID（不包含） */
+    private long endId;
+
+    /** 区间内待计息的持仓数（加锁时统计，区间失败时计入失败数） */
+    private long pendingRows;
+
+    /** 更新的理财持仓行数 */
+    private int updatedRows;
+
+    /** 写入的收益流水行数 */
+    private int insertedRows;
+
+    /** 写入的收益流水金额合计 */
+    private BigDecimal statementSum;
+
+    /** 理财本金变化合计 */
+    private BigDecimal balanceDelta;
+
+    /** 是否执行成功（流水合计与本金变化一致且已提交） */
+    private boolean success;
+
+    /** 失败原因 */
+    private String message;
+}
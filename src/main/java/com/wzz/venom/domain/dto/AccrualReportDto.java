@@ -0,0 +1,81 @@
+package com.wzz.venom.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.wzz.venom.enums.AccrualModeEnum;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 每日理财收益计算结果汇总
+ */
+@Data
+public class AccrualReportDto {
+
+    /** 运行台账ID */
+    private Long runId;
+
+    /** 业务日期（收益归属日） */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate businessDate;
+
+    /** 该业务日期是否已派发完成（为 true 时本次未做任何处理） */
+    private boolean alreadyCompleted;
+
+    /** 本次执行的起始断点（0 表示从头开始，大于 0 表示断点续跑） */
+    private long resumedFromId;
+
+    /** 本次是该业务日期的第几次执行 */
+    private int attemptCount;
+
+    /** 派发模式 */
+    private AccrualModeEnum mode;
+
+    /** 当日收益率 */
+    private BigDecimal dailyRate;
+
+    /** 本次执行扫描到的持仓数量（以下计数均不含之前执行的部分） */
+    private long scannedCount;
+
+    /** 成功派发收益的持仓数量 */
+    private long successCount;
+
+    /** 派发失败的持仓数量 */
+    private long failedCount;
+
+    /** 收益为 0 或状态已变化而跳过的持仓数量 */
+    private long skippedCount;
+
+    /** 处理的分块（SQL 模式下为主键区间）数量 */
+    private int chunkCount;
+
+    /** 失败的分块（SQL 模式下为主键区间）数量 */
+    private int failedChunkCount;
+
+    /** 本次派发的收益总额 */
+    private BigDecimal totalIncome = BigDecimal.ZERO;
+
+    /** 耗时（毫秒） */
+    private long elapsedMillis;
+
+    /** 吞吐量（持仓/秒） */
+    private double throughputPerSecond;
+
+    /** 开始时间 */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startTime;
+
+    /** 结束时间 */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime endTime;
+
+    /** 失败明细（最多保留前若干条） */
+    private List<String> failures = new ArrayList<>();
+
+    /** SQL 模式下各主键区间的执行结果 */
+    private List<AccrualRangeDto> ranges = new ArrayList<>();
+}
@@ -0,0 +1,33 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.enums.DomainEventTypeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * 领域事件：业务事务提交后由事件总线异步分发给各消费端
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DomainEventDto {
+
+    /** 事件类型 */
+    private DomainEventTypeEnum type;
+
+    /** 事件相关的用户名 */
+    private String userName;
+
+    /** 事件内容 */
+    private Map<String, Object> data;
+
+    /** 事件发生时间戳（毫秒），用于计算各消费端的滞后 */
+    private long occurredAt;
+
+    public static DomainEventDto of(DomainEventTypeEnum type, String userName, Map<String, Object> data) {
+        return new DomainEventDto(type, userName, data, System.currentTimeMillis());
+    }
+}
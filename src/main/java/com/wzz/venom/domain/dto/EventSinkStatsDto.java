@@ -0,0 +1,40 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 领域事件消费端统计
+ */
+@Data
+public class EventSinkStatsDto {
+
+    /** 消费端名称 */
+    private String sink;
+
+    /** 当前排队的事件数 */
+    private int queued;
+
+    /** 已处理的事件数 */
+    private long delivered;
+
+    /** 已处理的批次数 */
+    private long batches;
+
+    /** 处理失败的事件数 */
+    private long failed;
+
+    /** 因队列已满丢弃的事件数 */
+    private long dropped;
+
+    /** 当前滞后毫秒数（队首事件已等待的时间） */
+    private long lagMillis;
+
+    /** 最近一批事件从发生到处理完成的最大毫秒数 */
+    private long lastBatchLagMillis;
+
+    /** 历史最大滞后毫秒数 */
+    private long maxLagMillis;
+
+    /** 最近一次处理完成的时间戳（毫秒），从未处理为 0 */
+    private long lastDeliveredTime;
+}
@@ -0,0 +1,54 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.enums.RejectionPolicyEnum;
+import com.wzz.venom.enums.TaskCategoryEnum;
+import lombok.Data;
+
+/**
+ * 虚拟线程执行器单个任务类别的统计快照
+ */
+@Data
+public class ExecutorCategoryStatsDto {
+
+    /** 任务类别 */
+    private TaskCategoryEnum category;
+
+    /** 同时执行的最大任务数 */
+    private int maxConcurrency;
+
+    /** 最大排队任务数 */
+    private int maxQueued;
+
+    /** 拒绝策略 */
+    private RejectionPolicyEnum rejectionPolicy;
+
+    /** 正在执行的任务数 */
+    private int running;
+
+    /** 正在排队等待执行的任务数 */
+    private int queued;
+
+    /** 累计提交的任务数 */
+    private long submitted;
+
+    /** 累计正常完成的任务数 */
+    private long completed;
+
+    /** 累计执行异常的任务数 */
+    private long failed;
+
+    /** 累计被拒绝（抛出异常或丢弃）的任务数 */
+    private long rejected;
+
+    /** 累计因达到上限而在提交线程中执行的任务数 */
+    private long callerRuns;
+
+    /** 平均排队耗时（毫秒） */
+    private double avgWaitMillis;
+
+    /** 最大排队耗时（毫秒） */
+    private double maxWaitMillis;
+
+    /** 平均执行耗时（毫秒） */
+    private double avgExecMillis;
+}
@@ -0,0 +1,35 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.enums.ExportFormatEnum;
+import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 后台流式导出查询条件
+ */
+@Data
+public class ExportQueryDto {
+
+    /** 导出格式，默认 NDJSON */
+    private ExportFormatEnum format;
+
+    /** 导出的字段（实体属性名，如 userName），为空表示全部可导出字段 */
+    private List<String> columns;
+
+    /** 按用户名筛选 */
+    private String userName;
+
+    /** 按状态筛选（用户为冻结状态 0/1，其余为各表的 status 字段） */
+    private Integer status;
+
+    /** 创建日期下限（含） */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate startDate;
+
+    /** 创建日期上限（含） */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate endDate;
+}
@@ -0,0 +1,28 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 批量入账的单笔收入
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundCreditDto {
+
+    /** 用户名 */
+    private String userName;
+
+    /** 入账金额，必须为正数 */
+    private BigDecimal amount;
+
+    /** 流水描述 */
+    private String description;
+
+    /** 关联的业务单据，例如 PRODUCT:产品ID */
+    private String businessId;
+}
@@ -0,0 +1,26 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.domain.entity.UserFundFlow;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 资金流水游标分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FundFlowPageDto {
+
+    /** 本页流水，按ID倒序（即由新到旧） */
+    private List<UserFundFlow> records;
+
+    /** 下一页游标，原样传回即可；没有更多数据时为 null */
+    private String nextCursor;
+
+    /** 是否还有更多数据 */
+    private boolean hasMore;
+}
@@ -0,0 +1,37 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.Data;
+
+/**
+ * WebSocket 握手准入统计
+ */
+@Data
+public class HandshakeStatsDto {
+
+    /** 允许的握手数 */
+    private long admitted;
+
+    /** 因速率限制拒绝的握手数 */
+    private long rejectedByRate;
+
+    /** 因并发握手数达到上限拒绝的握手数 */
+    private long rejectedByConcurrency;
+
+    /** 认证失败的握手数 */
+    private long unauthenticated;
+
+    /** 当前正在处理的握手数 */
+    private int inFlight;
+
+    /** 令牌桶当前剩余令牌数 */
+    private double availableTokens;
+
+    /** 身份缓存命中次数 */
+    private long identityHits;
+
+    /** 身份缓存未命中次数（需读取 Redis 登录态和用户信息） */
+    private long identityMisses;
+
+    /** 身份缓存条目数 */
+    private int identityCacheSize;
+}
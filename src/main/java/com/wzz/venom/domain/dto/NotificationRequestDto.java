@@ -0,0 +1,24 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.enums.NotificationEventEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 待发送的单条用户通知
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationRequestDto {
+
+    /** 用户名 */
+    private String userName;
+
+    /** 通知类型 */
+    private NotificationEventEnum type;
+
+    /** 通知内容，序列化为 JSON */
+    private Object data;
+}
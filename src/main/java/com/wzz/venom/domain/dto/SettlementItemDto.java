@@ -0,0 +1,32 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.enums.SettlementOutcomeEnum;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 单个产品的结算结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementItemDto {
+
+    /** 用户持有的产品ID */
+    private Long productId;
+
+    /** 用户名 */
+    private String userName;
+
+    /** 处理结果 */
+    private SettlementOutcomeEnum outcome;
+
+    /** 结算回款金额（仅成功时有值） */
+    private BigDecimal amount;
+
+    /** 跳过或失败的原因 */
+    private String message;
+}
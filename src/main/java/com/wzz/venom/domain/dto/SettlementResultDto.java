@@ -0,0 +1,54 @@
+package com.wzz.venom.domain.dto;
+
+import com.wzz.venom.enums.SettlementOutcomeEnum;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一批产品的到期结算结果
+ */
+@Data
+public class SettlementResultDto {
+
+    /** 成功结算的产品数量 */
+    private int settledCount;
+
+    /** 跳过的产品数量 */
+    private int skippedCount;
+
+    /** 结算失败的产品数量 */
+    private int failedCount;
+
+    /** 本批回款总额 */
+    private BigDecimal totalPayout = BigDecimal.ZERO;
+
+    /** 每个产品的处理结果 */
+    private List<SettlementItemDto> items = new ArrayList<>();
+
+    /**
+     * 追加一个产品的处理结果并更新计数
+     */
+    public void addItem(SettlementItemDto item) {
+        items.add(item);
+        if (item.getOutcome() == SettlementOutcomeEnum.SETTLED) {
+            settledCount++;
+            if (item.getAmount() != null) {
+                totalPayout = totalPayout.add(item.getAmount());
+            }
+        } else if (item.getOutcome() == SettlementOutcomeEnum.SKIPPED) {
+            skippedCount++;
+        } else {
+            failedCount++;
+        }
+    }
+
+    /**
+     * 合并另一批的处理结果
+     */
+    public void merge(SettlementResultDto other) {
+        other.getItems().forEach(this::addItem);
+    }
+}
@@ -1,12 +1,14 @@
 // src/main/java/com/wzz/venom/domain/dto/UserIncomeStatsDto.java
 package com.wzz.venom.domain.dto;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.wzz.venom.domain.entity.UserFinancialStatement;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -23,6 +25,10 @@ public class UserIncomeStatsDto {
     /** 昨日收益 */
     private BigDecimal yesterdayIncome;
 
-    /** 收益记录列表 */
+    /** 收益记录列表（按页返回最近的收益记录） */
     private List<UserFinancialStatement> incomeRecords;
+
+    /** 最近一次派发收益的业务日期 */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate lastAccrualDate;
 }
\ No newline at end of file
@@ -0,0 +1,27 @@
+package com.wzz.venom.domain.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Data;
+
+/**
+ * 推送给用户的通知（WebSocket 消息与查询接口使用同一结构）
+ */
+@Data
+public class UserNotificationDto {
+
+    /** WebSocket 消息类型，固定为 NOTIFICATION */
+    private String event = "NOTIFICATION";
+
+    /** 用户内递增序号，客户端按序号去重和排序，重连时携带已收到的最大序号 */
+    private Long seq;
+
+    /** 通知类型，见 NotificationEventEnum */
+    private String type;
+
+    /** 通知内容（JSON 原样输出） */
+    @JsonRawValue
+    private String data;
+
+    /** 创建时间戳（毫秒） */
+    private Long time;
+}
@@ -0,0 +1,46 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.Data;
+
+/**
+ * WebSocket 跨节点转发统计
+ */
+@Data
+public class WsClusterStatsDto {
+
+    /** 本节点ID */
+    private String nodeId;
+
+    /** 本节点在线用户数 */
+    private int localUsers;
+
+    /** 集群在线用户数（各存活节点在线用户集合之和） */
+    private long clusterUsers;
+
+    /** 等待批量发出的转发消息数 */
+    private int pending;
+
+    /** 已发出的转发消息数 */
+    private long relayedItems;
+
+    /** 已发出的批次数 */
+    private long relayedBatches;
+
+    /** 收到的其他节点转发消息数 */
+    private long receivedItems;
+
+    /** 收到的批次数 */
+    private long receivedBatches;
+
+    /** 因转发队列已满丢弃的消息数 */
+    private long droppedItems;
+
+    /** 发布到 Redis 失败的批次数 */
+    private long failedBatches;
+
+    /** 目标用户不在任何节点在线、未转发的用户推送数 */
+    private long unroutable;
+
+    /** 清理的失效目录条目数（所在节点已下线，查找时或心跳时清理） */
+    private long staleEntries;
+}
@@ -0,0 +1,40 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.Data;
+
+/**
+ * WebSocket 服务端心跳统计
+ */
+@Data
+public class WsHeartbeatStatsDto {
+
+    /** 心跳跟踪中的连接数 */
+    private int trackedSessions;
+
+    /** 其中管理端连接数 */
+    private int adminSessions;
+
+    /** 其中用户端连接数 */
+    private int userSessions;
+
+    /** 已发送的 Ping 数 */
+    private long pingsSent;
+
+    /** 因发送队列积压未发送的 Ping 数 */
+    private long pingsSkipped;
+
+    /** 收到的 Pong 数 */
+    private long pongsReceived;
+
+    /** 因空闲超时断开的连接数 */
+    private long evictedIdle;
+
+    /** 扫描时发现已关闭、被清理的连接数 */
+    private long reapedClosed;
+
+    /** 最近一次扫描耗时（毫秒） */
+    private long lastSweepMillis;
+
+    /** 最近一次扫描处理的到期条目数 */
+    private int lastSweepDue;
+}
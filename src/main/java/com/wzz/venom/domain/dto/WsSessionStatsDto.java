@@ -0,0 +1,37 @@
+package com.wzz.venom.domain.dto;
+
+import lombok.Data;
+
+/**
+ * WebSocket 连接发送队列统计
+ */
+@Data
+public class WsSessionStatsDto {
+
+    /** 连接ID */
+    private String sessionId;
+
+    /** 连接所属（管理端为 admin，用户端为用户ID） */
+    private String owner;
+
+    /** 当前排队的消息数 */
+    private int queued;
+
+    /** 已发送的消息数 */
+    private long sent;
+
+    /** 因队列溢出丢弃的消息数 */
+    private long dropped;
+
+    /** 被同键新消息合并替换的消息数 */
+    private long coalesced;
+
+    /** 当前滞后毫秒数（队首消息已等待的时间） */
+    private long lagMillis;
+
+    /** 历史最大滞后毫秒数 */
+    private long maxLagMillis;
+
+    /** 最近一次发送完成的时间戳（毫秒），从未发送为 0 */
+    private long lastSendTime;
+}
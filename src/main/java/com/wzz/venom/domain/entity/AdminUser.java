@@ -3,8 +3,10 @@ package com.wzz.venom.domain.entity;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -12,6 +14,7 @@ import lombok.EqualsAndHashCode;
 @Data
 @TableComment("管理员用户表")
 @TableName("admin_name")
+@Index(name = "uk_admin_user_name", columns = {"admin_user_name"}, type = IndexType.UNIQUE, comment = "管理员用户名唯一索引")
 public class AdminUser extends BaseEntity {
     @ColumnComment("管理员用户姓名")
     @TableField("admin_user_name")
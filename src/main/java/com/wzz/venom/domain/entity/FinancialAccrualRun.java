@@ -0,0 +1,87 @@
+package com.wzz.venom.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
+import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
+import com.wzz.venom.annotation.TableComment;
+import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 理财收益派发运行台账实体类
+ * 对应数据库表：financial_accrual_run
+ * <p>
+ * 每个业务日期只有一条台账，记录派发进度（已处理到的持仓ID）和累计计数，用于崩溃后的断点续跑。
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("financial_accrual_run")
+@TableComment("理财收益派发运行台账表")
+@Index(name = "uk_business_date", columns = {"business_date"}, type = IndexType.UNIQUE, comment = "业务日期唯一索引，一天只有一次派发")
+public class FinancialAccrualRun extends BaseEntity {
+
+    /** 业务日期（收益归属日） */
+    @ColumnComment("业务日期（收益归属日）")
+    @TableField("business_date")
+    @ColumnType("DATE")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate businessDate;
+
+    /** 运行状态（0-执行中，1-已完成，2-失败待续跑） */
+    @ColumnComment("运行状态（0-执行中，1-已完成，2-失败待续跑）")
+    @TableField("status")
+    @DefaultValue("0")
+    private Integer status;
+
+    /** 派发模式（BATCH / SQL） */
+    @ColumnComment("派发模式（BATCH / SQL）")
+    @TableField("mode")
+    @ColumnType("VARCHAR(16)")
+    private String mode;
+
+    /** 当日收益率 */
+    @ColumnComment("当日收益率")
+    @TableField("daily_rate")
+    @ColumnType("DECIMAL(19,10)")
+    private BigDecimal dailyRate;
+
+    /** 已连续处理完成的最大持仓ID（断点） */
+    @ColumnComment("已连续处理完成的最大持仓ID（断点）")
+    @TableField("last_processed_id")
+    @DefaultValue("0")
+    private Long lastProcessedId;
+
+    /** 累计扫描的持仓数量 */
+    @ColumnComment("累计扫描的持仓数量")
+    @TableField("scanned_count")
+    @DefaultValue("0")
+    private Long scannedCount;
+
+    /** 累计成功派发的持仓数量 */
+    @ColumnComment("累计成功派发的持仓数量")
+    @TableField("success_count")
+    @DefaultValue("0")
+    private Long successCount;
+
+    /** 累计派发失败的持仓数量 */
+    @ColumnComment("累计派发失败的持仓数量")
+    @TableField("failed_count")
+    @DefaultValue("0")
+    private Long failedCount;
+
+    /** 执行次数（首次执行为 1，每次续跑加 1） */
+    @ColumnComment("执行次数（首次执行为 1，每次续跑加 1）")
+    @TableField("attempt_count")
+    @DefaultValue("0")
+    private Integer attemptCount;
+}
@@ -4,9 +4,11 @@ import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.ColumnComment;
 import com.wzz.venom.annotation.ForeignKey;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity; // 假设您有类似的基类
 import com.wzz.venom.enums.ForeignKeyAction;
+import com.wzz.venom.enums.IndexType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -28,6 +30,7 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = true) // 如果继承了BaseEntity，建议加上这个注解
 @TableName("invitation_code")
 @TableComment("邀请码表")
+@Index(name = "uk_code", columns = {"code"}, type = IndexType.UNIQUE, comment = "邀请码唯一索引")
 public class InvitationCode extends BaseEntity { // 建议继承统一的BaseEntity
 
     /**
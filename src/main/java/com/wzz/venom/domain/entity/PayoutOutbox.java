@@ -0,0 +1,85 @@
+package com.wzz.venom.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
+import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
+import com.wzz.venom.annotation.TableComment;
+import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 回款发件箱实体类
+ * 对应数据库表：payout_outbox
+ * <p>
+ * 产品结算在同一事务内写入回款事件，由中继任务异步批量入账，保证回款至少投递一次且不会丢失。
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("payout_outbox")
+@TableComment("回款发件箱表")
+@Index(name = "uk_event_key", columns = {"event_key"}, type = IndexType.UNIQUE, comment = "事件幂等键唯一索引")
+@Index(name = "idx_status_next_attempt", columns = {"status", "next_attempt_time"}, comment = "按状态和下次投递时间拉取待投递事件")
+public class PayoutOutbox extends BaseEntity {
+
+    /** 事件幂等键，例如 PRODUCT:产品ID，入账时写入资金流水的 business_id */
+    @ColumnComment("事件幂等键")
+    @TableField("event_key")
+    @ColumnType("VARCHAR(64)")
+    private String eventKey;
+
+    /** 用户名 */
+    @ColumnComment("用户名")
+    @TableField("user_name")
+    private String userName;
+
+    /** 回款金额 */
+    @ColumnComment("回款金额")
+    @TableField("amount")
+    @DefaultValue("0")
+    private BigDecimal amount;
+
+    /** 流水描述 */
+    @ColumnComment("流水描述")
+    @TableField("description")
+    private String description;
+
+    /** 状态（0-待投递，1-已入账，2-投递失败需人工处理） */
+    @ColumnComment("状态（0-待投递，1-已入账，2-投递失败需人工处理）")
+    @TableField("status")
+    @DefaultValue("0")
+    private Integer status;
+
+    /** 已尝试投递次数 */
+    @ColumnComment("已尝试投递次数")
+    @TableField("attempts")
+    @DefaultValue("0")
+    private Integer attempts;
+
+    /** 下次投递时间 */
+    @ColumnComment("下次投递时间")
+    @TableField("next_attempt_time")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime nextAttemptTime;
+
+    /** 最近一次投递失败的原因 */
+    @ColumnComment("最近一次投递失败的原因")
+    @TableField("last_error")
+    @ColumnType("VARCHAR(500)")
+    private String lastError;
+
+    /** 入账完成时间 */
+    @ColumnComment("入账完成时间")
+    @TableField("processed_time")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime processedTime;
+}
@@ -5,7 +5,9 @@ import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
 import com.wzz.venom.handler.HutoolJsonObjectTypeHandler;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
@@ -16,6 +18,7 @@ import lombok.EqualsAndHashCode;
 @EqualsAndHashCode(callSuper = true)
 @Data
 @TableName(value = "sys_config", autoResultMap = true)
+@Index(name = "uk_config_name", columns = {"config_name"}, type = IndexType.UNIQUE, comment = "配置名唯一索引")
 public class SysConfig extends BaseEntity {
     /**
      * 配置名
@@ -6,8 +6,10 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.wzz.venom.annotation.ColumnComment;
 import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -17,6 +19,8 @@ import java.math.BigDecimal;
 @Data
 @TableName("b_user")
 @TableComment("用户表")
+@Index(name = "uk_user_name", columns = {"user_name"}, type = IndexType.UNIQUE, comment = "用户名唯一索引，登录和按用户名查询")
+@Index(name = "idx_is_frozen", columns = {"is_frozen"}, comment = "冻结状态索引，加载冻结用户")
 public class User extends BaseEntity {
     /** 用户名 */
     @ColumnComment("用户名")
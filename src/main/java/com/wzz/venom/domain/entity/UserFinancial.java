@@ -4,13 +4,16 @@ package com.wzz.venom.domain.entity;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
 import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity; // 假设您有类似的基类
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.math.BigDecimal; // 导入 BigDecimal 类
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -21,6 +24,8 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = true)
 @TableName("user_financial")
 @TableComment("用户理财信息表")
+@Index(name = "idx_user_name", columns = {"user_name"}, comment = "按用户查询理财持仓")
+@Index(name = "idx_update_time", columns = {"update_time"}, comment = "后台按更新时间倒序分页")
 public class UserFinancial extends BaseEntity {
 
     /** 用户名 */
@@ -50,4 +55,10 @@ public class UserFinancial extends BaseEntity {
     @ColumnComment("状态哈希（数据完整性校验）")
     @TableField("state_hash")
     private String stateHash;
+
+    /** 最近一次派发收益的业务日期（同一业务日期只派发一次） */
+    @ColumnComment("最近一次派发收益的业务日期")
+    @TableField("last_accrual_date")
+    @ColumnType("DATE")
+    private LocalDate lastAccrualDate;
 }
@@ -4,13 +4,17 @@ package com.wzz.venom.domain.entity;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
 import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity; // 假设您有类似的基类
+import com.wzz.venom.enums.IndexType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.math.BigDecimal; // 导入 BigDecimal 类
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 /**
@@ -21,6 +25,9 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = true) // 如果继承了BaseEntity，建议加上这个注解
 @TableName("user_financial_statement")
 @TableComment("用户理财流水表")
+// 同一持仓同一业务日期只能有一条收益流水；买入/赎回流水的 accrual_date 为空，不受约束
+@Index(name = "uk_financial_accrual_date", columns = {"financial_id", "accrual_date"}, type = IndexType.UNIQUE, comment = "持仓ID和收益日期的联合唯一索引")
+@Index(name = "idx_user_type_time", columns = {"user_name", "transaction_type", "create_time"}, comment = "按用户查询指定类型的理财流水（收益汇总、昨日收益）")
 public class UserFinancialStatement extends BaseEntity { // 建议继承统一的BaseEntity
 
     /** 用户名 */
@@ -44,4 +51,9 @@ public class UserFinancialStatement extends BaseEntity { // 建议继承统一
     @DefaultValue("0")
     private BigDecimal amount; //
 
+    /** 收益归属的业务日期（仅收益派发流水有值） */
+    @ColumnComment("收益归属的业务日期（仅收益派发流水有值）")
+    @TableField("accrual_date")
+    @ColumnType("DATE")
+    private LocalDate accrualDate;
 }
\ No newline at end of file
@@ -6,9 +6,11 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.ColumnComment;
 import com.wzz.venom.annotation.DefaultValue;
 import com.wzz.venom.annotation.ForeignKey;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity; // 假设您有类似的基类
 import com.wzz.venom.enums.ForeignKeyAction;
+import com.wzz.venom.enums.IndexType;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
@@ -22,6 +24,12 @@ import java.math.BigDecimal; // 导入 BigDecimal 类
 @EqualsAndHashCode(callSuper = true) // 如果继承了BaseEntity，建议加上这个注解
 @TableName("user_fund_flow")
 @TableComment("用户资金流水表")
+// 业务单据号作为幂等键：同一业务单据只能入账一次；未关联业务单据的流水为空，不受约束
+@Index(name = "uk_business_id", columns = {"business_id"}, type = IndexType.UNIQUE, comment = "业务单据唯一索引（入账幂等键）")
+@Index(name = "idx_user_effective_id", columns = {"user_name", "is_effective", "id"}, comment = "按用户查询生效流水")
+@Index(name = "idx_user_id_cover", columns = {"user_name", "id", "fund_type", "is_effective", "create_time"}, comment = "用户流水游标分页覆盖索引（按ID倒序，筛选列均在索引内）")
+@Index(name = "idx_user_type_status_time", columns = {"user_name", "fund_type", "status", "create_time"}, comment = "按用户查询指定类型和状态的最新流水（如处理中的提现）")
+@Index(name = "idx_type_effective_time", columns = {"fund_type", "is_effective", "create_time"}, comment = "后台按类型查询流水（待审核充值、提现记录）")
 @ForeignKey(
         name = "fk_account_user_id",               // 约束名称
         columns = {"user_id"},                     // 当前表的列
@@ -0,0 +1,50 @@
+package com.wzz.venom.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
+import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
+import com.wzz.venom.annotation.TableComment;
+import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 用户每日收益汇总实体类
+ * 对应数据库表：user_income_daily
+ * <p>
+ * 按收益流水的创建日期汇总，与收益汇总表在同一事务内更新；昨日收益即为一次主键点查。
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("user_income_daily")
+@TableComment("用户每日收益汇总表")
+@Index(name = "uk_user_income_date", columns = {"user_name", "income_date"}, type = IndexType.UNIQUE, comment = "用户和日期联合唯一索引")
+public class UserIncomeDaily extends BaseEntity {
+
+    /** 用户名 */
+    @ColumnComment("用户名")
+    @TableField("user_name")
+    private String userName;
+
+    /** 收益日期（收益流水的创建日期） */
+    @ColumnComment("收益日期（收益流水的创建日期）")
+    @TableField("income_date")
+    @ColumnType("DATE")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate incomeDate;
+
+    /** 当日收益合计 */
+    @ColumnComment("当日收益合计")
+    @TableField("amount")
+    @DefaultValue("0")
+    private BigDecimal amount;
+}
@@ -0,0 +1,51 @@
+package com.wzz.venom.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
+import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
+import com.wzz.venom.annotation.TableComment;
+import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 用户收益汇总实体类
+ * 对应数据库表：user_income_rollup
+ * <p>
+ * 每个用户一行，由写入收益流水（transaction_type = 3）的一方在同一事务内累加，
+ * 收益统计接口直接读取该行，不再对全部收益流水求和。
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("user_income_rollup")
+@TableComment("用户收益汇总表")
+@Index(name = "uk_user_name", columns = {"user_name"}, type = IndexType.UNIQUE, comment = "用户名唯一索引，每个用户一行汇总")
+public class UserIncomeRollup extends BaseEntity {
+
+    /** 用户名 */
+    @ColumnComment("用户名")
+    @TableField("user_name")
+    private String userName;
+
+    /** 累计收益 */
+    @ColumnComment("累计收益")
+    @TableField("total_income")
+    @DefaultValue("0")
+    private BigDecimal totalIncome;
+
+    /** 最近一次派发收益的业务日期 */
+    @ColumnComment("最近一次派发收益的业务日期")
+    @TableField("last_accrual_date")
+    @ColumnType("DATE")
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate lastAccrualDate;
+}
@@ -0,0 +1,50 @@
+package com.wzz.venom.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.ColumnType;
+import com.wzz.venom.annotation.Index;
+import com.wzz.venom.annotation.TableComment;
+import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 用户通知收件箱实体类
+ * 对应数据库表：user_notification
+ * <p>
+ * 每条通知带有按用户递增、连续的序号，客户端重连时携带已收到的最大序号，服务端补发之后的通知。
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("user_notification")
+@TableComment("用户通知收件箱表")
+@Index(name = "uk_user_seq", columns = {"user_id", "seq"}, type = IndexType.UNIQUE, comment = "用户和序号联合唯一索引，按序号补发")
+@Index(name = "idx_create_time", columns = {"create_time"}, comment = "按创建时间清理过期通知")
+public class UserNotification extends BaseEntity {
+
+    /** 用户ID */
+    @ColumnComment("用户ID")
+    @TableField("user_id")
+    private Long userId;
+
+    /** 用户内递增序号 */
+    @ColumnComment("用户内递增序号")
+    @TableField("seq")
+    private Long seq;
+
+    /** 通知类型，见 NotificationEventEnum */
+    @ColumnComment("通知类型")
+    @TableField("event_type")
+    @ColumnType("VARCHAR(32)")
+    private String eventType;
+
+    /** 通知内容（JSON） */
+    @ColumnComment("通知内容（JSON）")
+    @TableField("payload")
+    @ColumnType("TEXT")
+    private String payload;
+}
@@ -0,0 +1,38 @@
+package com.wzz.venom.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.wzz.venom.annotation.ColumnComment;
+import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
+import com.wzz.venom.annotation.TableComment;
+import com.wzz.venom.common.BaseEntity;
+import com.wzz.venom.enums.IndexType;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 用户通知序号实体类
+ * 对应数据库表：user_notification_seq
+ * <p>
+ * 分配序号时累加并锁定该行直到事务提交，同一用户的通知按序号顺序提交，补发时不会漏掉尚未提交的较小序号。
+ * </p>
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@TableName("user_notification_seq")
+@TableComment("用户通知序号表")
+@Index(name = "uk_user_id", columns = {"user_id"}, type = IndexType.UNIQUE, comment = "用户ID唯一索引")
+public class UserNotificationSeq extends BaseEntity {
+
+    /** 用户ID */
+    @ColumnComment("用户ID")
+    @TableField("user_id")
+    private Long userId;
+
+    /** 已分配的最大序号 */
+    @ColumnComment("已分配的最大序号")
+    @TableField("last_seq")
+    @DefaultValue("0")
+    private Long lastSeq;
+}
@@ -8,6 +8,7 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.wzz.venom.annotation.ColumnComment;
 import com.wzz.venom.annotation.DefaultValue;
+import com.wzz.venom.annotation.Index;
 import com.wzz.venom.annotation.TableComment;
 import com.wzz.venom.common.BaseEntity; // 假设您有类似的基类
 import com.wzz.venom.enums.ProductIncomeStatusEnum;
@@ -24,6 +25,10 @@ import java.time.LocalDateTime;
 @EqualsAndHashCode(callSuper = true) // 如果继承了BaseEntity，建议加上这个注解
 @TableName("user_products")
 @TableComment("用户持有产品表")
+@Index(name = "idx_status_end_time", columns = {"status", "end_time"}, comment = "状态和到期时间联合索引，用于按到期时间轮询待结算产品")
+@Index(name = "idx_user_status", columns = {"user_name", "status"}, comment = "按用户查询指定状态的产品")
+@Index(name = "idx_user_update_time", columns = {"user_name", "update_time"}, comment = "按用户查询产品并按更新时间倒序")
+@Index(name = "idx_status_update_time", columns = {"status", "update_time"}, comment = "后台按状态查询产品并按更新时间倒序")
 public class UserProduct extends BaseEntity { // 建议继承统一的BaseEntity，便于统一处理公共字段如ID、创建时间等
 
     /** 用户名 */
@@ -0,0 +1,16 @@
+package com.wzz.venom.enums;
+
+/**
+ * 每日理财收益派发模式枚举
+ */
+public enum AccrualModeEnum {
+    /**
+     * 批量模式：在 Java 中逐条计算收益，按分块以 JDBC 批量写入
+     */
+    BATCH,
+
+    /**
+     * SQL 模式：按主键区间执行集合式 UPDATE 与 INSERT ... SELECT，由数据库完成复投计算
+     */
+    SQL
+}
@@ -0,0 +1,21 @@
+package com.wzz.venom.enums;
+
+/**
+ * 领域事件类型枚举
+ */
+public enum DomainEventTypeEnum {
+    /**
+     * 用户购买理财产品（已扣款并创建持有产品）
+     */
+    USER_PURCHASE,
+
+    /**
+     * 用户提交充值申请（待审核）
+     */
+    USER_RECHARGE,
+
+    /**
+     * 用户提交提现申请（已扣款，处理中）
+     */
+    USER_WITHDRAWAL
+}
@@ -0,0 +1,27 @@
+package com.wzz.venom.enums;
+
+import lombok.Getter;
+
+/**
+ * 数据导出格式枚举
+ */
+@Getter
+public enum ExportFormatEnum {
+    /**
+     * 每行一个 JSON 对象，以换行分隔
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+
+    /**
+     * 逗号分隔，首行为列名
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormatEnum(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+}
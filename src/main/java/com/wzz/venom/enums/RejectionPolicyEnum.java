@@ -0,0 +1,21 @@
+package com.wzz.venom.enums;
+
+/**
+ * 任务拒绝策略枚举：执行中和排队中的任务都已达到上限时如何处理新提交的任务
+ */
+public enum RejectionPolicyEnum {
+    /**
+     * 抛出 TaskRejectedException，由调用方处理
+     */
+    ABORT,
+
+    /**
+     * 在提交任务的线程中直接执行，使提交方放慢速度
+     */
+    CALLER_RUNS,
+
+    /**
+     * 丢弃任务并记录日志
+     */
+    DISCARD
+}
@@ -0,0 +1,13 @@
+package com.wzz.venom.enums;
+
+/**
+ * 产品到期结算的单个产品处理结果
+ */
+public enum SettlementOutcomeEnum {
+    /** 结算成功：产品已标记为已结束，回款已入账 */
+    SETTLED,
+    /** 跳过：产品不存在或已被结算 */
+    SKIPPED,
+    /** 失败：产品保持持有中，等待下一轮重试 */
+    FAILED
+}
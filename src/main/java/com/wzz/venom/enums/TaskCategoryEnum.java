@@ -0,0 +1,29 @@
+package com.wzz.venom.enums;
+
+/**
+ * 虚拟线程任务类别枚举
+ * <p>
+ * 每个类别有独立的并发上限、排队上限和拒绝策略，配置项为 venom.executor.{configKey}.*
+ * </p>
+ */
+public enum TaskCategoryEnum {
+    /**
+     * 默认类别：未指定类别的任务
+     */
+    DEFAULT("default"),
+
+    /**
+     * 回款发件箱中继
+     */
+    PAYOUT("payout");
+
+    private final String configKey;
+
+    TaskCategoryEnum(String configKey) {
+        this.configKey = configKey;
+    }
+
+    public String getConfigKey() {
+        return configKey;
+    }
+}
@@ -0,0 +1,21 @@
+package com.wzz.venom.enums;
+
+/**
+ * WebSocket 发送队列溢出策略枚举：连接的待发送消息达到上限时如何处理新消息
+ */
+public enum WsOverflowPolicyEnum {
+    /**
+     * 丢弃队列中最早的消息，保留最新的消息
+     */
+    DROP_OLDEST,
+
+    /**
+     * 新消息带有合并键时替换队列中同键的旧消息（如同一用户的上下线状态）；无可合并的消息时丢弃最早的消息
+     */
+    COALESCE,
+
+    /**
+     * 断开慢连接，由客户端重连后重新同步
+     */
+    DISCONNECT
+}
@@ -0,0 +1,57 @@
+package com.wzz.venom.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.wzz.venom.domain.entity.FinancialAccrualRun;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Mapper
+public interface FinancialAccrualRunMapper extends BaseMapper<FinancialAccrualRun> {
+
+    /**
+     * 按业务日期查询运行台账
+     */
+    @Select("SELECT * FROM financial_accrual_run WHERE business_date = #{businessDate} LIMIT 1")
+    FinancialAccrualRun selectByBusinessDate(@Param("businessDate") LocalDate businessDate);
+
+    /**
+     * 接管一条失败或心跳超时的运行台账（以 update_time 作为乐观锁，多个实例同时接管时只有一个成功）
+     * @return 1 表示接管成功，0 表示已被其他实例接管或已完成
+     */
+    @Update("UPDATE financial_accrual_run SET status = 0, mode = #{mode}, attempt_count = attempt_count + 1, update_time = #{now} " +
+            "WHERE id = #{id} AND status <> 1 AND update_time = #{expectedUpdateTime}")
+    int takeOver(@Param("id") Long id,
+                 @Param("mode") String mode,
+                 @Param("expectedUpdateTime") LocalDateTime expectedUpdateTime,
+                 @Param("now") LocalDateTime now);
+
+    /**
+     * 写入断点和累计计数，同时刷新心跳
+     */
+    @Update("UPDATE financial_accrual_run SET last_processed_id = #{lastProcessedId}, scanned_count = #{scanned}, " +
+            "success_count = #{success}, failed_count = #{failed}, update_time = #{now} WHERE id = #{id} AND status = 0")
+    int saveCheckpoint(@Param("id") Long id,
+                       @Param("lastProcessedId") long lastProcessedId,
+                       @Param("scanned") long scanned,
+                       @Param("success") long success,
+                       @Param("failed") long failed,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * 结束一次运行，写入最终状态
+     */
+    @Update("UPDATE financial_accrual_run SET status = #{status}, last_processed_id = #{lastProcessedId}, scanned_count = #{scanned}, " +
+            "success_count = #{success}, failed_count = #{failed}, update_time = #{now} WHERE id = #{id}")
+    int finish(@Param("id") Long id,
+               @Param("status") int status,
+               @Param("lastProcessedId") long lastProcessedId,
+               @Param("scanned") long scanned,
+               @Param("success") long success,
+               @Param("failed") long failed,
+               @Param("now") LocalDateTime now);
+}
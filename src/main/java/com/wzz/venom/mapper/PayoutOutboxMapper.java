@@ -0,0 +1,57 @@
+package com.wzz.venom.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.wzz.venom.domain.entity.PayoutOutbox;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface PayoutOutboxMapper extends BaseMapper<PayoutOutbox> {
+
+    /**
+     * 锁定一批到期待投递的事件；已被其他中继线程锁定的行直接跳过，多个线程可以并行拉取不同的批次
+     * @param now   当前时间
+     * @param limit 每批条数
+     * @return 按ID升序的待投递事件
+     */
+    @Select("SELECT * FROM payout_outbox WHERE status = 0 AND next_attempt_time <= #{now} " +
+            "ORDER BY id ASC LIMIT #{limit} FOR UPDATE SKIP LOCKED")
+    List<PayoutOutbox> selectDueForUpdate(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 锁定单个待投递事件
+     */
+    @Select("SELECT * FROM payout_outbox WHERE id = #{id} AND status = 0 FOR UPDATE")
+    PayoutOutbox selectPendingForUpdate(@Param("id") Long id);
+
+    /**
+     * 标记一批事件已入账
+     */
+    @Update("<script>UPDATE payout_outbox SET status = 1, processed_time = #{now}, update_time = #{now} " +
+            "WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int markDelivered(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 记录一次投递失败，并安排下次投递时间或转为失败状态
+     */
+    @Update("UPDATE payout_outbox SET status = #{status}, attempts = attempts + 1, next_attempt_time = #{nextAttemptTime}, " +
+            "last_error = #{lastError}, update_time = #{now} WHERE id = #{id} AND status = 0")
+    int markAttemptFailed(@Param("id") Long id,
+                          @Param("status") int status,
+                          @Param("nextAttemptTime") LocalDateTime nextAttemptTime,
+                          @Param("lastError") String lastError,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * 统计待投递事件数量
+     */
+    @Select("SELECT COUNT(*) FROM payout_outbox WHERE status = 0")
+    long countPending();
+}
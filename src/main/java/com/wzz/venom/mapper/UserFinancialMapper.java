@@ -1,9 +1,42 @@
 package com.wzz.venom.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.wzz.venom.domain.entity.UserFinancial;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDate;
+import java.util.List;
 
 @Mapper
 public interface UserFinancialMapper extends BaseMapper<UserFinancial> {
+
+    /**
+     * 按主键游标分页读取持有中、且指定业务日期尚未派发收益的理财持仓（status = 0 且 amount > 0）
+     * @param lastId       上一批次最后一条记录的ID，首批传断点ID（从头开始为 0）
+     * @param businessDate 业务日期
+     * @param limit        每批读取条数
+     * @return id 升序排列的持仓列表
+     */
+    @Select("SELECT * FROM user_financial WHERE status = 0 AND amount > 0 AND id > #{lastId} " +
+            "AND (last_accrual_date IS NULL OR last_accrual_date < #{businessDate}) ORDER BY id ASC LIMIT #{limit}")
+    List<UserFinancial> selectActivePositionsAfterId(@Param("lastId") long lastId,
+                                                     @Param("businessDate") LocalDate businessDate,
+                                                     @Param("limit") int limit);
+
+    /**
+     * 按条件流式扫描（导出用），MySQL 驱动逐行返回结果，不在内存中缓存整个结果集
+     * <p>须在事务内调用并在事务结束前读完游标；wrapper 必须通过 select 指定查询列</p>
+     * @param wrapper 查询条件
+     * @return 结果游标
+     */
+    @Select("SELECT ${ew.sqlSelect} FROM user_financial ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<UserFinancial> streamByWrapper(@Param(Constants.WRAPPER) Wrapper<UserFinancial> wrapper);
 }
@@ -1,9 +1,61 @@
 package com.wzz.venom.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.wzz.venom.domain.entity.UserFundFlow;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface UserFundFlowMapper extends BaseMapper<UserFundFlow> {
+
+    /**
+     * 按ID倒序游标分页查询用户可见的资金流水（已生效或用户发起的充值）
+     * <p>
+     * 走 idx_user_id_cover(user_name, id, fund_type, is_effective, create_time)：按ID倒序扫描索引，
+     * 筛选条件都在索引内判断，只有命中的行才回表，无论翻到第几页耗时都不变。
+     * </p>
+     * @param userName  用户名
+     * @param lastId    上一页最后一条的ID，首页传 null
+     * @param fundTypes 流水类型筛选，为空表示不筛选
+     * @param startTime 创建时间下限（含），为 null 表示不限
+     * @param endTime   创建时间上限（不含），为 null 表示不限
+     * @param limit     读取条数
+     * @return 资金流水
+     */
+    @Select("<script>SELECT * FROM user_fund_flow WHERE user_name = #{userName} " +
+            "<if test='lastId != null'>AND id &lt; #{lastId} </if>" +
+            "<if test='fundTypes != null and fundTypes.size() > 0'>AND fund_type IN " +
+            "<foreach collection='fundTypes' item='fundType' open='(' separator=',' close=')'>#{fundType}</foreach> </if>" +
+            "<if test='startTime != null'>AND create_time &gt;= #{startTime} </if>" +
+            "<if test='endTime != null'>AND create_time &lt; #{endTime} </if>" +
+            "AND (is_effective = #{effectiveActive} OR fund_type = #{rechargeType}) " +
+            "ORDER BY id DESC LIMIT #{limit}</script>")
+    List<UserFundFlow> selectVisibleFlowsBeforeId(@Param("userName") String userName,
+                                                  @Param("lastId") Long lastId,
+                                                  @Param("fundTypes") Collection<String> fundTypes,
+                                                  @Param("startTime") LocalDateTime startTime,
+                                                  @Param("endTime") LocalDateTime endTime,
+                                                  @Param("effectiveActive") int effectiveActive,
+                                                  @Param("rechargeType") String rechargeType,
+                                                  @Param("limit") int limit);
+
+    /**
+     * 按条件流式扫描（导出用），MySQL 驱动逐行返回结果，不在内存中缓存整个结果集
+     * <p>须在事务内调用并在事务结束前读完游标；wrapper 必须通过 select 指定查询列</p>
+     * @param wrapper 查询条件
+     * @return 结果游标
+     */
+    @Select("SELECT ${ew.sqlSelect} FROM user_fund_flow ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<UserFundFlow> streamByWrapper(@Param(Constants.WRAPPER) Wrapper<UserFundFlow> wrapper);
 }
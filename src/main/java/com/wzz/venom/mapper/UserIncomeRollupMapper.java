@@ -0,0 +1,107 @@
+package com.wzz.venom.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.wzz.venom.domain.entity.UserIncomeRollup;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Mapper
+public interface UserIncomeRollupMapper extends BaseMapper<UserIncomeRollup> {
+
+    /**
+     * 收益汇总累加子句：累计收益加上本次增量，最近派发日期只前进不后退
+     * （VALUES(last_accrual_date) 为 NULL 时比较结果为 NULL，保留原值）
+     */
+    String ROLLUP_ON_DUPLICATE = "ON DUPLICATE KEY UPDATE total_income = total_income + VALUES(total_income), " +
+            "last_accrual_date = CASE WHEN last_accrual_date IS NULL OR VALUES(last_accrual_date) > last_accrual_date " +
+            "THEN VALUES(last_accrual_date) ELSE last_accrual_date END, update_time = VALUES(update_time)";
+
+    /**
+     * 每日收益累加子句
+     */
+    String DAILY_ON_DUPLICATE = "ON DUPLICATE KEY UPDATE amount = amount + VALUES(amount), update_time = VALUES(update_time)";
+
+    /**
+     * 按用户累加收益汇总，不存在则新建
+     * <p>调用方应传入按用户名排序的 Map（如 TreeMap），使并发事务以相同顺序加锁，避免死锁</p>
+     * @param incomeByUser 用户名 -> 收益增量（可为负，用于更正）
+     * @param accrualDate  收益业务日期，可为 null
+     * @param now          当前时间
+     */
+    @Insert("<script>INSERT INTO user_income_rollup (user_name, total_income, last_accrual_date, create_time, update_time) VALUES " +
+            "<foreach collection='incomeByUser' index='userName' item='amount' separator=','>" +
+            "(#{userName}, #{amount}, #{accrualDate}, #{now}, #{now})</foreach> " + ROLLUP_ON_DUPLICATE + "</script>")
+    int upsertRollups(@Param("incomeByUser") Map<String, BigDecimal> incomeByUser,
+                      @Param("accrualDate") LocalDate accrualDate,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * 按用户累加指定日期的收益，不存在则新建
+     * @param incomeByUser 用户名 -> 收益增量（可为负，用于更正）
+     * @param incomeDate   收益日期
+     * @param now          当前时间
+     */
+    @Insert("<script>INSERT INTO user_income_daily (user_name, income_date, amount, create_time, update_time) VALUES " +
+            "<foreach collection='incomeByUser' index='userName' item='amount' separator=','>" +
+            "(#{userName}, #{incomeDate}, #{amount}, #{now}, #{now})</foreach> " + DAILY_ON_DUPLICATE + "</script>")
+    int upsertDailies(@Param("incomeByUser") Map<String, BigDecimal> incomeByUser,
+                      @Param("incomeDate") LocalDate incomeDate,
+                      @Param("now") LocalDateTime now);
+
+    /**
+     * 查询用户指定日期的收益合计
+     * @return 收益合计，没有记录时为 null
+     */
+    @Select("SELECT amount FROM user_income_daily WHERE user_name = #{userName} AND income_date = #{incomeDate}")
+    BigDecimal selectDailyIncome(@Param("userName") String userName, @Param("incomeDate") LocalDate incomeDate);
+
+    /**
+     * 收益汇总表是否为空（用于首次启动时判断是否需要回填）
+     */
+    @Select("SELECT COUNT(*) FROM (SELECT 1 FROM user_income_rollup LIMIT 1) t")
+    int countAnyRollup();
+
+    /**
+     * 删除收益汇总，userName 为 null 时删除全部
+     */
+    @Delete("<script>DELETE FROM user_income_rollup<if test='userName != null'> WHERE user_name = #{userName}</if></script>")
+    int deleteRollups(@Param("userName") String userName);
+
+    /**
+     * 删除每日收益汇总，userName 为 null 时删除全部
+     */
+    @Delete("<script>DELETE FROM user_income_daily<if test='userName != null'> WHERE user_name = #{userName}</if></script>")
+    int deleteDailies(@Param("userName") String userName);
+
+    /**
+     * 由收益流水重新生成收益汇总，userName 为 null 时处理全部用户
+     * @param incomeType 收益流水的交易类型
+     */
+    @Insert("<script>INSERT INTO user_income_rollup (user_name, total_income, last_accrual_date, create_time, update_time) " +
+            "SELECT user_name, SUM(amount), MAX(accrual_date), #{now}, #{now} FROM user_financial_statement " +
+            "WHERE transaction_type = #{incomeType}<if test='userName != null'> AND user_name = #{userName}</if> " +
+            "GROUP BY user_name</script>")
+    int rebuildRollups(@Param("userName") String userName,
+                       @Param("incomeType") int incomeType,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * 由收益流水按创建日期重新生成每日收益汇总，userName 为 null 时处理全部用户
+     * @param incomeType 收益流水的交易类型
+     */
+    @Insert("<script>INSERT INTO user_income_daily (user_name, income_date, amount, create_time, update_time) " +
+            "SELECT user_name, DATE(create_time), SUM(amount), #{now}, #{now} FROM user_financial_statement " +
+            "WHERE transaction_type = #{incomeType}<if test='userName != null'> AND user_name = #{userName}</if> " +
+            "GROUP BY user_name, DATE(create_time)</script>")
+    int rebuildDailies(@Param("userName") String userName,
+                       @Param("incomeType") int incomeType,
+                       @Param("now") LocalDateTime now);
+}
@@ -1,9 +1,75 @@
 package com.wzz.venom.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.wzz.venom.domain.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
+
+    /**
+     * 原子地变更用户余额：加锁与变更在同一条语句内完成，扣减时余额不足则不更新
+     * @param userName 用户名
+     * @param delta    变更金额（正为增加，负为减少）
+     * @param now      更新时间
+     * @return 受影响行数，0 表示用户不存在或余额不足
+     */
+    @Update("UPDATE b_user SET balance = balance + #{delta}, update_time = #{now} " +
+            "WHERE user_name = #{userName} AND (#{delta} >= 0 OR balance + #{delta} >= 0)")
+    int applyBalanceDelta(@Param("userName") String userName,
+                          @Param("delta") BigDecimal delta,
+                          @Param("now") LocalDateTime now);
+
+    /**
+     * 只读取用户ID和余额（在变更余额的同一事务内调用时，读到的是本事务刚写入的余额）
+     * @param userName 用户名
+     * @return 仅包含 id、user_name、balance 的用户对象，不存在时返回 null
+     */
+    @Select("SELECT id, user_name, balance FROM b_user WHERE user_name = #{userName} LIMIT 1")
+    User selectBalanceByUserName(@Param("userName") String userName);
+
+    /**
+     * 只读取登录密码（用户缓存不保存密码，校验时直接查库）
+     * @param userName 用户名
+     * @return 登录密码，用户不存在时返回 null
+     */
+    @Select("SELECT password FROM b_user WHERE user_name = #{userName} LIMIT 1")
+    String selectPasswordByUserName(@Param("userName") String userName);
+
+    /**
+     * 只读取提现密码（用户缓存不保存密码，校验时直接查库）
+     * @param userName 用户名
+     * @return 提现密码，用户不存在时返回 null
+     */
+    @Select("SELECT withdrawal_password FROM b_user WHERE user_name = #{userName} LIMIT 1")
+    String selectWithdrawalPasswordByUserName(@Param("userName") String userName);
+
+    /**
+     * 查询全部冻结用户的ID
+     * @return 冻结用户ID
+     */
+    @Select("SELECT id FROM b_user WHERE is_frozen = 1")
+    List<Long> selectFrozenUserIds();
+
+    /**
+     * 按条件流式扫描（导出用），MySQL 驱动逐行返回结果，不在内存中缓存整个结果集
+     * <p>须在事务内调用并在事务结束前读完游标；wrapper 必须通过 select 指定查询列</p>
+     * @param wrapper 查询条件
+     * @return 结果游标
+     */
+    @Select("SELECT ${ew.sqlSelect} FROM b_user ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<User> streamByWrapper(@Param(Constants.WRAPPER) Wrapper<User> wrapper);
 }
@@ -0,0 +1,60 @@
+package com.wzz.venom.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.wzz.venom.domain.entity.UserNotification;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface UserNotificationMapper extends BaseMapper<UserNotification> {
+
+    /**
+     * 为用户分配 count 个序号（累加已分配的最大序号），不存在则新建；该行锁保持到事务提交
+     * @param userId 用户ID
+     * @param count  分配数量
+     * @param now    当前时间
+     */
+    @Insert("INSERT INTO user_notification_seq (user_id, last_seq, create_time, update_time) " +
+            "VALUES (#{userId}, #{count}, #{now}, #{now}) " +
+            "ON DUPLICATE KEY UPDATE last_seq = last_seq + VALUES(last_seq), update_time = VALUES(update_time)")
+    int allocateSeq(@Param("userId") Long userId, @Param("count") int count, @Param("now") LocalDateTime now);
+
+    /**
+     * 查询用户已分配的最大序号
+     * @param userId 用户ID
+     * @return 最大序号，从未收到通知时为 null
+     */
+    @Select("SELECT last_seq FROM user_notification_seq WHERE user_id = #{userId}")
+    Long selectLastSeq(@Param("userId") Long userId);
+
+    /**
+     * 批量写入通知
+     */
+    @Insert("<script>INSERT INTO user_notification (user_id, seq, event_type, payload, create_time, update_time) VALUES " +
+            "<foreach collection='rows' item='row' separator=','>" +
+            "(#{row.userId}, #{row.seq}, #{row.eventType}, #{row.payload}, #{row.createTime}, #{row.updateTime})</foreach></script>")
+    int insertBatch(@Param("rows") List<UserNotification> rows);
+
+    /**
+     * 按序号升序查询用户指定序号之后的通知
+     * @param userId   用户ID
+     * @param afterSeq 已收到的最大序号（不含）
+     * @param limit    最多条数
+     */
+    @Select("SELECT * FROM user_notification WHERE user_id = #{userId} AND seq > #{afterSeq} ORDER BY seq LIMIT #{limit}")
+    List<UserNotification> selectAfterSeq(@Param("userId") Long userId, @Param("afterSeq") long afterSeq, @Param("limit") int limit);
+
+    /**
+     * 删除指定时间之前创建的通知
+     * @param before 截止时间（不含）
+     * @param limit  单次最多删除条数
+     */
+    @Delete("DELETE FROM user_notification WHERE create_time < #{before} LIMIT #{limit}")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -1,9 +1,67 @@
 package com.wzz.venom.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.wzz.venom.domain.entity.UserProduct;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface UserProductMapper extends BaseMapper<UserProduct> {
+
+    /**
+     * 按 (end_time, id) 游标分批读取已到期、仍持有中的产品ID（走 idx_status_end_time 索引）
+     * @param now         截止时间，end_time 不晚于该时间的产品视为到期
+     * @param lastEndTime 上一批最后一条记录的 end_time，首批传一个足够早的时间
+     * @param lastId      上一批最后一条记录的ID，首批传 0
+     * @param limit       每批读取条数
+     * @return 仅包含 id 和 end_time 的产品列表，按到期时间升序
+     */
+    @Select("SELECT id, end_time FROM user_products WHERE status = 0 AND end_time <= #{now} " +
+            "AND (end_time > #{lastEndTime} OR (end_time = #{lastEndTime} AND id > #{lastId})) " +
+            "ORDER BY end_time ASC, id ASC LIMIT #{limit}")
+    List<UserProduct> selectDueProductsAfter(@Param("now") LocalDateTime now,
+                                             @Param("lastEndTime") LocalDateTime lastEndTime,
+                                             @Param("lastId") long lastId,
+                                             @Param("limit") int limit);
+
+    /**
+     * 读取并锁定一批仍持有中的产品（需在事务内调用，锁持有到事务结束）
+     * @param ids 产品ID集合，不能为空
+     * @return 其中仍为持有中的产品，按ID升序
+     */
+    @Select("<script>SELECT * FROM user_products WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "ORDER BY id ASC FOR UPDATE</script>")
+    List<UserProduct> selectHeldForUpdate(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 以一条条件更新认领一批产品：只有仍为持有中的产品会被标记为已结束
+     * @param ids 产品ID集合，不能为空
+     * @param now 更新时间
+     * @return 实际认领的产品数量
+     */
+    @Update("<script>UPDATE user_products SET status = 1, update_time = #{now} WHERE status = 0 AND id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int claimProducts(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    /**
+     * 按条件流式扫描（导出用），MySQL 驱动逐行返回结果，不在内存中缓存整个结果集
+     * <p>须在事务内调用并在事务结束前读完游标；wrapper 必须通过 select 指定查询列</p>
+     * @param wrapper 查询条件
+     * @return 结果游标
+     */
+    @Select("SELECT ${ew.sqlSelect} FROM user_products ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<UserProduct> streamByWrapper(@Param(Constants.WRAPPER) Wrapper<UserProduct> wrapper);
 }
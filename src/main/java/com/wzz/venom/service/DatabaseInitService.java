@@ -4,7 +4,9 @@ import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.wzz.venom.annotation.*;
+import com.wzz.venom.enums.IndexType;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.core.type.filter.AnnotationTypeFilter;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -18,14 +20,29 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
 public class DatabaseInitService {
 
+    /** 唯一索引重复数据检查最多列出的重复键数量 */
+    private static final int MAX_REPORTED_DUPLICATES = 20;
+
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    /** 是否以在线方式（ALGORITHM=INPLACE, LOCK=NONE）为已有表添加缺失的索引 */
+    @Value("${venom.database.online-index-migration:true}")
+    private boolean onlineIndexMigration;
+
+    /** 在线建索引时输出进度的间隔秒数 */
+    @Value("${venom.database.index-progress-interval-seconds:10}")
+    private long indexProgressIntervalSeconds;
+
     public void initDatabase() throws SQLException {
         List<Class<?>> entityClasses = scanEntityClasses("com.wzz.venom.domain.entity");
 
@@ -190,6 +207,14 @@ public class DatabaseInitService {
             for (Index index : indexes) {
                 // 在内存中检查
                 if (!existingIndexes.contains(index.name().toLowerCase())) {
+                    if (index.type() == IndexType.UNIQUE) {
+                        // 已有数据存在重复时唯一索引必然创建失败，依赖该唯一性的代码不能带着重复数据启动
+                        assertNoDuplicateKeys(tableName, index);
+                    }
+                    if (onlineIndexMigration) {
+                        addIndexOnline(tableName, index);
+                        continue;
+                    }
                     String addIndexSql = "ALTER TABLE " + tableName + " ADD " + buildIndexDefinition(index) + ";";
                     try {
                         System.out.println("Executing SQL: " + addIndexSql);
@@ -197,6 +222,7 @@ public class DatabaseInitService {
                         System.out.println("Added index " + index.name() + " to table " + tableName);
                     } catch (Exception e) {
                         System.err.println("Failed to add index " + index.name() + " to table " + tableName + ": " + e.getMessage());
+                        failIfUnique(tableName, index, e);
                     }
                 }
             }
@@ -224,6 +250,127 @@ public class DatabaseInitService {
     }
 
 
+    /**
+     * 为已有表添加唯一索引前检查重复数据（任一列为 NULL 的行不参与唯一约束），存在重复时列出重复的键并中止启动
+     */
+    private void assertNoDuplicateKeys(String tableName, Index index) {
+        String columns = "`" + String.join("`, `", index.columns()) + "`";
+        String notNull = Arrays.stream(index.columns())
+                .map(column -> "`" + column + "` IS NOT NULL")
+                .collect(Collectors.joining(" AND "));
+        String sql = "SELECT " + columns + ", COUNT(*) AS duplicate_count FROM " + tableName
+                + " WHERE " + notNull + " GROUP BY " + columns
+                + " HAVING COUNT(*) > 1 ORDER BY duplicate_count DESC LIMIT " + MAX_REPORTED_DUPLICATES;
+        List<Map<String, Object>> duplicates = jdbcTemplate.queryForList(sql);
+        if (duplicates.isEmpty()) {
+            return;
+        }
+        String keys = duplicates.stream()
+                .map(row -> Arrays.stream(index.columns())
+                        .map(column -> column + "=" + row.get(column))
+                        .collect(Collectors.joining(", ", "(", ")")) + " x" + row.get("duplicate_count"))
+                .collect(Collectors.joining("; "));
+        String message = "Cannot add unique index " + index.name() + " to table " + tableName
+                + ": duplicate keys found (showing at most " + MAX_REPORTED_DUPLICATES + "): " + keys
+                + ". Remove the duplicates and restart.";
+        System.err.println(message);
+        throw new IllegalStateException(message);
+    }
+
+    /**
+     * 唯一索引未能创建时中止启动（例如检查之后又写入了重复数据），普通索引失败只记录
+     */
+    private void failIfUnique(String tableName, Index index, Throwable cause) {
+        if (index.type() == IndexType.UNIQUE) {
+            throw new IllegalStateException("Failed to add unique index " + index.name() + " to table " + tableName, cause);
+        }
+    }
+
+    /**
+     * 在线添加索引：ALGORITHM=INPLACE, LOCK=NONE，建索引期间表仍可读写。
+     * DDL 在单独的线程中执行，当前线程按间隔输出进度（优先读取 performance_schema 中 InnoDB 的 ALTER 阶段进度，不可用时只输出耗时）。
+     * 无法在线执行时（例如 MySQL 不支持该索引的在线构建）只记录失败，不会退回锁表方式；唯一索引失败时中止启动。
+     */
+    private void addIndexOnline(String tableName, Index index) {
+        // 全文索引不支持 LOCK=NONE，最多只能允许并发读
+        String lockClause = index.type() == IndexType.FULLTEXT ? "LOCK=SHARED" : "LOCK=NONE";
+        String addIndexSql = "ALTER TABLE " + tableName + " ADD " + buildIndexDefinition(index)
+                + ", ALGORITHM=INPLACE, " + lockClause + ";";
+        System.out.println("Executing online index migration on " + tableName + " (about "
+                + estimateTableRows(tableName) + " rows): " + addIndexSql);
+
+        FutureTask<Void> ddl = new FutureTask<>(() -> {
+            jdbcTemplate.execute(addIndexSql);
+            return null;
+        });
+        Thread worker = new Thread(ddl, "index-migration-" + tableName);
+        worker.setDaemon(true);
+        worker.start();
+
+        long startMillis = System.currentTimeMillis();
+        try {
+            while (true) {
+                try {
+                    ddl.get(indexProgressIntervalSeconds, TimeUnit.SECONDS);
+                    break;
+                } catch (TimeoutException e) {
+                    reportIndexProgress(tableName, index, startMillis);
+                }
+            }
+            System.out.println("Added index " + index.name() + " to table " + tableName + " online in "
+                    + (System.currentTimeMillis() - startMillis) + " ms");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() == null ? e : e.getCause();
+            System.err.println("Failed to add index " + index.name() + " to table " + tableName + " online: " + cause.getMessage());
+            failIfUnique(tableName, index, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Interrupted while waiting for index " + index.name() + " on table " + tableName
+                    + ", the DDL keeps running in the background");
+        }
+    }
+
+    /**
+     * 输出在线建索引的进度
+     */
+    private void reportIndexProgress(String tableName, Index index, long startMillis) {
+        long elapsedSeconds = (System.currentTimeMillis() - startMillis) / 1000;
+        try {
+            List<Map<String, Object>> stages = jdbcTemplate.queryForList(
+                    "SELECT EVENT_NAME, WORK_COMPLETED, WORK_ESTIMATED FROM performance_schema.events_stages_current " +
+                            "WHERE EVENT_NAME LIKE 'stage/innodb/alter%'");
+            for (Map<String, Object> stage : stages) {
+                Number completed = (Number) stage.get("WORK_COMPLETED");
+                Number estimated = (Number) stage.get("WORK_ESTIMATED");
+                if (completed != null && estimated != null && estimated.longValue() > 0) {
+                    System.out.printf("Index %s on %s: %s %.1f%% (%d/%d), %d s elapsed%n",
+                            index.name(), tableName, stage.get("EVENT_NAME"),
+                            completed.longValue() * 100.0 / estimated.longValue(),
+                            completed.longValue(), estimated.longValue(), elapsedSeconds);
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            // performance_schema 未开启或无权限时只输出耗时
+        }
+        System.out.println("Index " + index.name() + " on " + tableName + " still building, " + elapsedSeconds + " s elapsed");
+    }
+
+    /**
+     * 估算表的行数（information_schema 的统计值，不扫描表）
+     */
+    private long estimateTableRows(String tableName) {
+        try {
+            Long rows = jdbcTemplate.queryForObject(
+                    "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?",
+                    Long.class, tableName);
+            return rows == null ? 0L : rows;
+        } catch (Exception e) {
+            return -1L;
+        }
+    }
+
+
 // ▼▼▼ 新增的辅助方法：用于批量获取元数据 ▼▼▼
 
     /**
@@ -0,0 +1,42 @@
+package com.wzz.venom.service.admin;
+
+import com.wzz.venom.domain.dto.ExportQueryDto;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * 后台数据流式导出服务接口
+ * <p>
+ * 以游标逐行读取数据库并直接写入响应输出流，内存占用与导出行数无关。
+ * 参数校验失败时抛出 BusinessException（此时尚未写出任何内容）。
+ * </p>
+ */
+public interface DataExportService {
+
+    /**
+     * 导出用户列表，status 对应冻结状态（0 正常 / 1 冻结）
+     * @param query    导出条件
+     * @param response HTTP 响应
+     */
+    void exportUsers(ExportQueryDto query, HttpServletResponse response);
+
+    /**
+     * 导出用户产品列表
+     * @param query    导出条件
+     * @param response HTTP 响应
+     */
+    void exportProducts(ExportQueryDto query, HttpServletResponse response);
+
+    /**
+     * 导出用户理财记录
+     * @param query    导出条件
+     * @param response HTTP 响应
+     */
+    void exportFinancials(ExportQueryDto query, HttpServletResponse response);
+
+    /**
+     * 导出提现相关流水（提现和提现退款）
+     * @param query    导出条件
+     * @param response HTTP 响应
+     */
+    void exportWithdrawals(ExportQueryDto query, HttpServletResponse response);
+}
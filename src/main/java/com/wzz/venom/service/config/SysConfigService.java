@@ -19,4 +19,9 @@ public interface SysConfigService extends IService<SysConfig> {
     SysConfig getConfigById(Long id);
 
     List<SysConfig> listAllConfigs();
+
+    /**
+     * 清空本节点的配置缓存（其他节点变更配置后通过 Redis 通知调用）
+     */
+    void invalidateCache();
 }
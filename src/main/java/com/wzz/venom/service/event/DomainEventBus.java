@@ -0,0 +1,27 @@
+package com.wzz.venom.service.event;
+
+import com.wzz.venom.domain.dto.DomainEventDto;
+import com.wzz.venom.domain.dto.EventSinkStatsDto;
+
+import java.util.List;
+
+/**
+ * 领域事件总线
+ * <p>
+ * 在事务内发布的事件只在事务提交后分发，事务回滚时丢弃；不在事务内发布的事件立即分发。
+ * 分发是异步的：事件放入各消费端的队列后立即返回，不阻塞业务请求。
+ * </p>
+ */
+public interface DomainEventBus {
+
+    /**
+     * 发布事件
+     * @param event 事件
+     */
+    void publish(DomainEventDto event);
+
+    /**
+     * @return 各消费端的统计
+     */
+    List<EventSinkStatsDto> stats();
+}
@@ -0,0 +1,32 @@
+package com.wzz.venom.service.event;
+
+import com.wzz.venom.domain.dto.DomainEventDto;
+
+import java.util.List;
+
+/**
+ * 领域事件消费端
+ * <p>
+ * 每个消费端有独立的队列和分发线程，按批次接收事件；一个消费端处理慢或失败不影响其他消费端。
+ * </p>
+ */
+public interface DomainEventSink {
+
+    /**
+     * @return 消费端名称，用于日志和统计
+     */
+    String name();
+
+    /**
+     * @return 是否消费该事件，默认全部消费
+     */
+    default boolean accepts(DomainEventDto event) {
+        return true;
+    }
+
+    /**
+     * 处理一批事件（按发布顺序）
+     * @param events 事件列表
+     */
+    void handle(List<DomainEventDto> events);
+}
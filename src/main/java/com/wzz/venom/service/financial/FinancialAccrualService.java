@@ -0,0 +1,24 @@
+package com.wzz.venom.service.financial;
+
+import com.wzz.venom.domain.dto.AccrualReportDto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 理财收益批量派发引擎
+ */
+public interface FinancialAccrualService {
+
+    /**
+     * 按当日收益率为所有持有中的理财持仓派发收益（收益复投到理财本金）
+     * <p>
+     * 同一业务日期只会派发一次：已完成的日期直接返回；上次中断的日期从台账断点继续，
+     * 已派发过的持仓不会重复派发。
+     * </p>
+     * @param businessDate 业务日期（收益归属日）
+     * @param dailyRate    当日收益率，必须为正数；断点续跑时以台账中记录的收益率为准
+     * @return 本次执行的汇总结果
+     */
+    AccrualReportDto runDailyAccrual(LocalDate businessDate, BigDecimal dailyRate);
+}
@@ -0,0 +1,309 @@
+package com.wzz.venom.service.impl.admin;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.core.toolkit.ReflectionKit;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.dto.ExportQueryDto;
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.domain.entity.UserFinancial;
+import com.wzz.venom.domain.entity.UserFundFlow;
+import com.wzz.venom.domain.entity.UserProduct;
+import com.wzz.venom.enums.ExportFormatEnum;
+import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.mapper.UserFinancialMapper;
+import com.wzz.venom.mapper.UserFundFlowMapper;
+import com.wzz.venom.mapper.UserMapper;
+import com.wzz.venom.mapper.UserProductMapper;
+import com.wzz.venom.service.admin.DataExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 后台数据流式导出服务实现
+ * <p>
+ * 每次导出在一个只读事务内打开 MyBatis 游标（MySQL 流式结果集），逐行格式化后写入响应；
+ * 写出缓冲区大小固定，并每隔 {@link #FLUSH_EVERY_ROWS} 行刷新一次，客户端可以边下载边处理。
+ * 可导出字段取自实体的表映射信息，标注了 {@link JsonIgnore} 的字段（如密码）与列表接口一样不会导出。
+ * </p>
+ */
+@Slf4j
+@Service
+public class DataExportServiceImpl implements DataExportService {
+
+    /** 每写出多少行刷新一次输出流 */
+    private static final int FLUSH_EVERY_ROWS = 1000;
+    /** 输出缓冲区大小（字符） */
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    /** 时间字段格式，与实体上的 @JsonFormat 保持一致 */
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final DateTimeFormatter FILE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+    /** UTF-8 BOM，便于 Excel 正确识别 CSV 中的中文 */
+    private static final char UTF8_BOM = '\uFEFF';
+
+    private static final String FUND_TYPE_WITHDRAW = "WITHDRAW";
+    private static final String FUND_TYPE_WITHDRAW_REFUND = "WITHDRAW_REFUND";
+
+    /** 各实体可导出字段，按属性名索引，保持声明顺序 */
+    private final Map<Class<?>, Map<String, ExportColumn>> exportColumnCache = new ConcurrentHashMap<>();
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserProductMapper userProductMapper;
+
+    @Autowired
+    private UserFinancialMapper userFinancialMapper;
+
+    @Autowired
+    private UserFundFlowMapper userFundFlowMapper;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public DataExportServiceImpl(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+    }
+
+    @Override
+    public void exportUsers(ExportQueryDto query, HttpServletResponse response) {
+        QueryWrapper<User> wrapper = new QueryWrapper<>();
+        wrapper.eq(StringUtils.hasText(query.getUserName()), "user_name", query.getUserName())
+                .eq(query.getStatus() != null, "is_frozen", query.getStatus());
+        applyDateRange(wrapper, query);
+        export("users", User.class, query, wrapper, userMapper::streamByWrapper, response);
+    }
+
+    @Override
+    public void exportProducts(ExportQueryDto query, HttpServletResponse response) {
+        QueryWrapper<UserProduct> wrapper = new QueryWrapper<>();
+        wrapper.eq(StringUtils.hasText(query.getUserName()), "user_name", query.getUserName())
+                .eq(query.getStatus() != null, "status", query.getStatus());
+        applyDateRange(wrapper, query);
+        export("products", UserProduct.class, query, wrapper, userProductMapper::streamByWrapper, response);
+    }
+
+    @Override
+    public void exportFinancials(ExportQueryDto query, HttpServletResponse response) {
+        QueryWrapper<UserFinancial> wrapper = new QueryWrapper<>();
+        wrapper.eq(StringUtils.hasText(query.getUserName()), "user_name", query.getUserName())
+                .eq(query.getStatus() != null, "status", query.getStatus());
+        applyDateRange(wrapper, query);
+        export("financials", UserFinancial.class, query, wrapper, userFinancialMapper::streamByWrapper, response);
+    }
+
+    @Override
+    public void exportWithdrawals(ExportQueryDto query, HttpServletResponse response) {
+        QueryWrapper<UserFundFlow> wrapper = new QueryWrapper<>();
+        wrapper.in("fund_type", FUND_TYPE_WITHDRAW, FUND_TYPE_WITHDRAW_REFUND)
+                .eq(StringUtils.hasText(query.getUserName()), "user_name", query.getUserName())
+                .eq(query.getStatus() != null, "status", query.getStatus());
+        applyDateRange(wrapper, query);
+        export("withdrawals", UserFundFlow.class, query, wrapper, userFundFlowMapper::streamByWrapper, response);
+    }
+
+    /**
+     * 通用导出流程：校验参数 -> 设置响应头 -> 只读事务内打开游标逐行写出
+     */
+    private <T> void export(String name, Class<T> entityClass, ExportQueryDto query, QueryWrapper<T> wrapper,
+                            Function<Wrapper<T>, Cursor<T>> scanner, HttpServletResponse response) {
+        ExportFormatEnum format = query.getFormat() == null ? ExportFormatEnum.NDJSON : query.getFormat();
+        List<ExportColumn> columns = resolveColumns(entityClass, query.getColumns());
+        if (query.getStartDate() != null && query.getEndDate() != null && query.getStartDate().isAfter(query.getEndDate())) {
+            throw new BusinessException(0, "开始日期不能晚于结束日期");
+        }
+        // 只查询需要导出的列，按主键顺序扫描
+        wrapper.select(columns.stream().map(ExportColumn::column).toArray(String[]::new)).orderByAsc("id");
+
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentType(format.getContentType() + ";charset=UTF-8");
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + name + "-"
+                + LocalDateTime.now().format(FILE_TIME_FORMATTER) + "." + format.getExtension() + "\"");
+
+        long startNanos = System.nanoTime();
+        long rows;
+        try {
+            Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+            rows = readOnlyTransactionTemplate.execute(status -> {
+                try (Cursor<T> cursor = scanner.apply(wrapper)) {
+                    return writeRows(cursor, columns, format, writer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        } catch (IOException | UncheckedIOException e) {
+            // 通常是客户端中途断开，响应已部分写出，无法再返回错误结果
+            log.warn("【数据导出】{} 导出中断：{}", name, e.getMessage());
+            return;
+        }
+        log.info("【数据导出】{} 导出完成，格式={}，行数={}，耗时={}ms",
+                name, format, rows, (System.nanoTime() - startNanos) / 1_000_000);
+    }
+
+    private <T> long writeRows(Cursor<T> cursor, List<ExportColumn> columns, ExportFormatEnum format,
+                               Writer writer) throws IOException {
+        if (format == ExportFormatEnum.CSV) {
+            writer.write(UTF8_BOM);
+            List<String> header = new ArrayList<>(columns.size());
+            for (ExportColumn column : columns) {
+                header.add(column.property());
+            }
+            writeCsvLine(writer, header);
+        }
+        long rows = 0;
+        Map<String, Object> json = new LinkedHashMap<>();
+        List<String> csv = new ArrayList<>(columns.size());
+        for (T row : cursor) {
+            if (format == ExportFormatEnum.CSV) {
+                csv.clear();
+                for (ExportColumn column : columns) {
+                    Object value = formatValue(column.read(row));
+                    csv.add(value == null ? "" : value.toString());
+                }
+                writeCsvLine(writer, csv);
+            } else {
+                json.clear();
+                for (ExportColumn column : columns) {
+                    json.put(column.property(), formatValue(column.read(row)));
+                }
+                writer.write(objectMapper.writeValueAsString(json));
+                writer.write('\n');
+            }
+            if (++rows % FLUSH_EVERY_ROWS == 0) {
+                writer.flush();
+            }
+        }
+        return rows;
+    }
+
+    private static void writeCsvLine(Writer writer, List<String> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values.get(i);
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * 时间按实体约定的格式输出，枚举输出名称，其余保持原值交给 JSON/CSV 写出
+     */
+    private static Object formatValue(Object value) {
+        if (value instanceof LocalDateTime dateTime) {
+            return dateTime.format(DATE_TIME_FORMATTER);
+        }
+        if (value instanceof Enum<?> e) {
+            return e.name();
+        }
+        if (value instanceof TemporalAccessor) {
+            return value.toString();
+        }
+        return value;
+    }
+
+    private static <T> void applyDateRange(QueryWrapper<T> wrapper, ExportQueryDto query) {
+        wrapper.ge(query.getStartDate() != null, "create_time",
+                        query.getStartDate() == null ? null : query.getStartDate().atStartOfDay())
+                .lt(query.getEndDate() != null, "create_time",
+                        query.getEndDate() == null ? null : query.getEndDate().plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * 解析导出列：未指定时导出全部可导出字段；指定时按请求顺序校验并返回
+     */
+    private List<ExportColumn> resolveColumns(Class<?> entityClass, List<String> requested) {
+        Map<String, ExportColumn> available = exportColumnCache.computeIfAbsent(entityClass, DataExportServiceImpl::loadExportColumns);
+        if (requested == null || requested.isEmpty()) {
+            return new ArrayList<>(available.values());
+        }
+        List<ExportColumn> columns = new ArrayList<>(requested.size());
+        for (String property : requested) {
+            ExportColumn column = available.get(property == null ? null : property.trim());
+            if (column == null) {
+                throw new BusinessException(0, "不支持的导出字段：" + property);
+            }
+            if (!columns.contains(column)) {
+                columns.add(column);
+            }
+        }
+        return columns;
+    }
+
+    private static Map<String, ExportColumn> loadExportColumns(Class<?> entityClass) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null) {
+            throw new BusinessException(0, "实体未注册表映射：" + entityClass.getSimpleName());
+        }
+        Map<String, ExportColumn> columns = new LinkedHashMap<>();
+        Map<String, Field> fields = ReflectionKit.getFieldMap(entityClass);
+        if (tableInfo.havePK()) {
+            addColumn(columns, tableInfo.getKeyProperty(), tableInfo.getKeyColumn(), fields.get(tableInfo.getKeyProperty()));
+        }
+        for (TableFieldInfo fieldInfo : tableInfo.getFieldList()) {
+            addColumn(columns, fieldInfo.getProperty(), fieldInfo.getColumn(), fieldInfo.getField());
+        }
+        return columns;
+    }
+
+    private static void addColumn(Map<String, ExportColumn> columns, String property, String column, Field field) {
+        if (field == null || field.isAnnotationPresent(JsonIgnore.class)) {
+            return;
+        }
+        field.setAccessible(true);
+        columns.put(property, new ExportColumn(property, column, field));
+    }
+
+    /**
+     * 可导出的列：实体属性名、数据库列名与读取字段
+     */
+    private record ExportColumn(String property, String column, Field field) {
+        Object read(Object row) {
+            try {
+                return field.get(row);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("读取导出字段失败：" + property, e);
+            }
+        }
+    }
+}
@@ -1,33 +1,85 @@
 package com.wzz.venom.service.impl.config;
 
+import cn.hutool.json.JSONObject;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.wzz.venom.domain.entity.SysConfig;
 import com.wzz.venom.mapper.SysConfigMapper;
 import com.wzz.venom.service.config.SysConfigService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.Assert;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 系统配置服务实现类
+ * <p>
+ * 按配置名缓存在进程内：读取配置只是一次 Map 查找，JSON 只在加载时解析一次。
+ * 新增、更新、删除配置时递增缓存版本号并清空缓存；加载期间版本号发生变化的结果不会写入缓存，避免旧值覆盖新值。
+ * 开启 venom.cache.redis-sync 后，变更通过 Redis 发布订阅通知其他节点清空缓存。
+ * </p>
+ */
 @Service
 public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper,SysConfig> implements SysConfigService {
 
+    private static final Logger log = LoggerFactory.getLogger(SysConfigServiceImpl.class);
+
+    /** 跨节点缓存失效通知的 Redis 频道 */
+    public static final String CACHE_INVALIDATE_CHANNEL = "venom:sys-config:invalidate";
+
+    /** 本节点标识，收到自己发出的失效通知时忽略 */
+    public static final String NODE_ID = UUID.randomUUID().toString();
+
+    /** 配置不存在的缓存占位，避免不存在的配置名每次都查询数据库 */
+    private static final CachedConfig MISSING = new CachedConfig(null, Map.of());
+
     @Autowired
     private SysConfigMapper sysConfigMapper;
 
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Value("${venom.cache.redis-sync:false}")
+    private boolean redisSync;
+
+    /** 缓存版本号，每次配置变更递增 */
+    private final AtomicLong cacheVersion = new AtomicLong();
+
+    private final Map<String, CachedConfig> cache = new ConcurrentHashMap<>();
+
     /**
      * 根据配置名获取配置详情
      * Mybatis-Plus会把驼峰命名的configName自动映射到数据库的config_name字段
+     * 返回的是缓存的副本，调用方修改后需调用 {@link #updateConfig(SysConfig)} 才会生效
      */
     @Override
     public SysConfig getConfigByName(String configName) {
         Assert.hasText(configName, "配置名不能为空");
-        QueryWrapper<SysConfig> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("config_name", configName);
-        return sysConfigMapper.selectOne(queryWrapper);
+        SysConfig cached = loadCached(configName).config();
+        if (cached == null) {
+            return null;
+        }
+        SysConfig copy = new SysConfig();
+        copy.setId(cached.getId());
+        copy.setConfigName(cached.getConfigName());
+        copy.setConfigValue(cached.getConfigValue() == null ? null : new JSONObject(cached.getConfigValue()));
+        copy.setCreateTime(cached.getCreateTime());
+        copy.setUpdateTime(cached.getUpdateTime());
+        return copy;
     }
 
 
@@ -35,20 +87,14 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper,SysConfig>
      * 【新增】根据配置名和配置项的键获取具体的值
      * @param configName 配置名, 例如 "aliyun_oss"
      * @param key JSON配置中的字段名, 例如 "accessKeyId"
-     * @return 对应字段的值，可以是任意类型 (String, Integer, Boolean, JSONObject, etc.)，如果未找到则返回 null
+     * @return 对应字段的值，可以是任意类型 (String, Integer, Boolean, JSONObject, etc.)，如果未找到则返回 null。
+     *         返回值与缓存共享，调用方不要修改
      */
     @Override
     public Object getConfigValueByNameAndKey(String configName, String key) {
         Assert.hasText(configName, "配置名不能为空");
         Assert.hasText(key, "配置字段Key不能为空");
-
-        SysConfig sysConfig = this.getConfigByName(configName);
-
-        // 使用 Optional 避免多层 if-null 判断，代码更优雅
-        return Optional.ofNullable(sysConfig)
-                .map(SysConfig::getConfigValue)
-                .map(configValue -> configValue.get(key))
-                .orElse(null);
+        return loadCached(configName).values().get(key);
     }
 
     /**
@@ -60,13 +106,14 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper,SysConfig>
         Assert.notNull(newSysConfig, "配置实体不能为空");
         Assert.hasText(newSysConfig.getConfigName(), "配置名不能为空");
 
-        // 检查配置名是否已存在
-        SysConfig existingConfig = this.getConfigByName(newSysConfig.getConfigName());
-        if (existingConfig != null) {
+        // 检查配置名是否已存在（直接查库，不受缓存影响）
+        if (selectByName(newSysConfig.getConfigName()) != null) {
             throw new IllegalArgumentException("配置名 '" + newSysConfig.getConfigName() + "' 已存在");
         }
 
-        return sysConfigMapper.insert(newSysConfig) > 0;
+        boolean success = sysConfigMapper.insert(newSysConfig) > 0;
+        onConfigChanged();
+        return success;
     }
 
     /**
@@ -75,7 +122,9 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper,SysConfig>
     @Override
     public boolean deleteConfigById(Long id) {
         Assert.notNull(id, "配置ID不能为空");
-        return sysConfigMapper.deleteById(id) > 0;
+        boolean success = sysConfigMapper.deleteById(id) > 0;
+        onConfigChanged();
+        return success;
     }
 
     /**
@@ -85,7 +134,9 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper,SysConfig>
     public boolean updateConfig(SysConfig newSysConfig) {
         Assert.notNull(newSysConfig, "配置实体不能为空");
         Assert.notNull(newSysConfig.getId(), "更新时配置ID不能为空");
-        return sysConfigMapper.updateById(newSysConfig) > 0;
+        boolean success = sysConfigMapper.updateById(newSysConfig) > 0;
+        onConfigChanged();
+        return success;
     }
 
     /**
@@ -104,4 +155,83 @@ public class SysConfigServiceImpl extends ServiceImpl<SysConfigMapper,SysConfig>
     public List<SysConfig> listAllConfigs() {
         return sysConfigMapper.selectList(null);
     }
+
+    /**
+     * 清空本节点的配置缓存
+     */
+    @Override
+    public void invalidateCache() {
+        cacheVersion.incrementAndGet();
+        cache.clear();
+    }
+
+    private CachedConfig loadCached(String configName) {
+        CachedConfig cached = cache.get(configName);
+        if (cached != null) {
+            return cached;
+        }
+        long version = cacheVersion.get();
+        SysConfig config = selectByName(configName);
+        CachedConfig loaded = MISSING;
+        if (config != null) {
+            Map<String, Object> values = config.getConfigValue() == null
+                    ? Map.of()
+                    : Collections.unmodifiableMap(new HashMap<>(config.getConfigValue()));
+            loaded = new CachedConfig(config, values);
+        }
+        if (cacheVersion.get() == version) {
+            cache.put(configName, loaded);
+            // 写入缓存的同时发生了变更，撤回刚写入的旧值
+            if (cacheVersion.get() != version) {
+                cache.remove(configName, loaded);
+            }
+        }
+        return loaded;
+    }
+
+    private SysConfig selectByName(String configName) {
+        QueryWrapper<SysConfig> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("config_name", configName);
+        return sysConfigMapper.selectOne(queryWrapper);
+    }
+
+    /**
+     * 配置变更后清空缓存；处于事务中时在提交后再清空一次，避免提交前读到的旧值被缓存
+     */
+    private void onConfigChanged() {
+        invalidateCache();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateCache();
+                    publishInvalidation();
+                }
+            });
+        } else {
+            publishInvalidation();
+        }
+    }
+
+    private void publishInvalidation() {
+        if (!redisSync) {
+            return;
+        }
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CACHE_INVALIDATE_CHANNEL, NODE_ID);
+        } catch (Exception e) {
+            // 通知失败只影响其他节点的缓存时效，不影响本次变更
+            log.warn("【系统配置缓存】发布缓存失效通知失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 缓存条目：配置实体和预先解析好的配置项
+     */
+    private record CachedConfig(SysConfig config, Map<String, Object> values) {
+    }
 }
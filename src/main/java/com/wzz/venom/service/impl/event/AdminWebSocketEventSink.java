@@ -0,0 +1,39 @@
+package com.wzz.venom.service.impl.event;
+
+import com.wzz.venom.domain.dto.DomainEventDto;
+import com.wzz.venom.service.event.DomainEventSink;
+import com.wzz.venom.service.webSocket.WebSocketNotifyService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 领域事件消费端：推送给管理端 WebSocket
+ */
+@Component
+public class AdminWebSocketEventSink implements DomainEventSink {
+
+    @Autowired
+    private WebSocketNotifyService webSocketNotifyService;
+
+    @Override
+    public String name() {
+        return "admin-websocket";
+    }
+
+    @Override
+    public void handle(List<DomainEventDto> events) {
+        for (DomainEventDto event : events) {
+            Map<String, Object> data = event.getData();
+            Double amount = ((Number) data.get("amount")).doubleValue();
+            switch (event.getType()) {
+                case USER_PURCHASE -> webSocketNotifyService.sendUserPurchaseNotification(
+                        event.getUserName(), (String) data.get("productName"), amount);
+                case USER_RECHARGE -> webSocketNotifyService.sendUserRechargeNotification(event.getUserName(), amount);
+                case USER_WITHDRAWAL -> webSocketNotifyService.sendUserWithdrawalNotification(event.getUserName(), amount);
+            }
+        }
+    }
+}
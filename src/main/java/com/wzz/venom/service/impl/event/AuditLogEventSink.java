@@ -0,0 +1,41 @@
+package com.wzz.venom.service.impl.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.dto.DomainEventDto;
+import com.wzz.venom.service.event.DomainEventSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 领域事件消费端：审计日志
+ * 输出到名为 venom.audit 的日志记录器，可在日志配置中单独输出到审计文件
+ */
+@Component
+public class AuditLogEventSink implements DomainEventSink {
+
+    private static final Logger audit = LoggerFactory.getLogger("venom.audit");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public String name() {
+        return "audit-log";
+    }
+
+    @Override
+    public void handle(List<DomainEventDto> events) {
+        for (DomainEventDto event : events) {
+            String data;
+            try {
+                data = objectMapper.writeValueAsString(event.getData());
+            } catch (JsonProcessingException e) {
+                data = String.valueOf(event.getData());
+            }
+            audit.info("【审计】{} 用户={} 时间={} 内容={}", event.getType(), event.getUserName(), event.getOccurredAt(), data);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.wzz.venom.service.impl.event;
+
+import com.wzz.venom.domain.dto.DomainEventDto;
+import com.wzz.venom.domain.dto.EventSinkStatsDto;
+import com.wzz.venom.service.event.DomainEventBus;
+import com.wzz.venom.service.event.DomainEventSink;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 领域事件总线实现类
+ * <p>
+ * 每个消费端一个有界队列和一个分发线程（虚拟线程）：取到第一个事件后在等待时间内继续收集，
+ * 达到批量大小或等待时间到达后整批交给消费端，一批事件只产生一次广播或一次数据库事务。
+ * </p>
+ */
+@Service
+public class DomainEventBusImpl implements DomainEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(DomainEventBusImpl.class);
+
+    @Autowired
+    private List<DomainEventSink> sinks;
+
+    /** 每批最多事件数 */
+    @Value("${venom.event-bus.batch-size:50}")
+    private int batchSize;
+
+    /** 攒批最长等待毫秒数 */
+    @Value("${venom.event-bus.linger-ms:20}")
+    private long lingerMs;
+
+    /** 每个消费端的队列容量 */
+    @Value("${venom.event-bus.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private final List<SinkWorker> workers = new ArrayList<>();
+    private ExecutorService dispatchers;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        dispatchers = Executors.newVirtualThreadPerTaskExecutor();
+        for (DomainEventSink sink : sinks) {
+            SinkWorker worker = new SinkWorker(sink, Math.max(1, queueCapacity));
+            workers.add(worker);
+            dispatchers.submit(worker::run);
+        }
+        log.info("【领域事件】事件总线已启动，消费端：{}", workers.stream().map(worker -> worker.sink.name()).toList());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        dispatchers.shutdown();
+        try {
+            if (!dispatchers.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("【领域事件】关闭时仍有事件未分发");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void publish(DomainEventDto event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(event);
+                }
+            });
+            return;
+        }
+        dispatch(event);
+    }
+
+    @Override
+    public List<EventSinkStatsDto> stats() {
+        List<EventSinkStatsDto> result = new ArrayList<>(workers.size());
+        for (SinkWorker worker : workers) {
+            result.add(worker.stats());
+        }
+        return result;
+    }
+
+    private void dispatch(DomainEventDto event) {
+        for (SinkWorker worker : workers) {
+            if (worker.sink.accepts(event)) {
+                worker.offer(event);
+            }
+        }
+    }
+
+    /**
+     * 单个消费端的队列和分发循环
+     */
+    private final class SinkWorker {
+        private final DomainEventSink sink;
+        private final BlockingQueue<DomainEventDto> queue;
+
+        // --- 统计 ---
+        private final AtomicLong delivered = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong dropped = new AtomicLong();
+        private volatile long lastBatchLagMillis;
+        private volatile long maxLagMillis;
+        private volatile long lastDeliveredTime;
+
+        private SinkWorker(DomainEventSink sink, int capacity) {
+            this.sink = sink;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void offer(DomainEventDto event) {
+            if (!running || !queue.offer(event)) {
+                long count = dropped.incrementAndGet();
+                if (count % 1000 == 1) {
+                    log.warn("【领域事件】消费端 {} 队列已满，累计丢弃 {} 个事件", sink.name(), count);
+                }
+            }
+        }
+
+        private void run() {
+            List<DomainEventDto> batch = new ArrayList<>(batchSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    DomainEventDto first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                    while (batch.size() < batchSize) {
+                        long remaining = deadline - System.nanoTime();
+                        DomainEventDto next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        batch.add(next);
+                    }
+                    handle(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+
+        private void handle(List<DomainEventDto> batch) {
+            try {
+                sink.handle(batch);
+                delivered.addAndGet(batch.size());
+            } catch (Exception e) {
+                failed.addAndGet(batch.size());
+                log.error("【领域事件】消费端 {} 处理 {} 个事件失败", sink.name(), batch.size(), e);
+            }
+            batches.incrementAndGet();
+            long now = System.currentTimeMillis();
+            long lag = now - batch.get(0).getOccurredAt();
+            lastBatchLagMillis = lag;
+            if (lag > maxLagMillis) {
+                maxLagMillis = lag;
+            }
+            lastDeliveredTime = now;
+        }
+
+        private EventSinkStatsDto stats() {
+            EventSinkStatsDto dto = new EventSinkStatsDto();
+            dto.setSink(sink.name());
+            dto.setQueued(queue.size());
+            dto.setDelivered(delivered.get());
+            dto.setBatches(batches.get());
+            dto.setFailed(failed.get());
+            dto.setDropped(dropped.get());
+            DomainEventDto head = queue.peek();
+            dto.setLagMillis(head == null ? 0 : Math.max(0, System.currentTimeMillis() - head.getOccurredAt()));
+            dto.setLastBatchLagMillis(lastBatchLagMillis);
+            dto.setMaxLagMillis(maxLagMillis);
+            dto.setLastDeliveredTime(lastDeliveredTime);
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.wzz.venom.service.impl.event;
+
+import com.wzz.venom.domain.dto.DomainEventDto;
+import com.wzz.venom.domain.dto.NotificationRequestDto;
+import com.wzz.venom.enums.NotificationEventEnum;
+import com.wzz.venom.service.event.DomainEventSink;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 领域事件消费端：写入用户通知收件箱（账户异动），一批事件在一个事务内写入
+ */
+@Component
+public class UserInboxEventSink implements DomainEventSink {
+
+    @Autowired
+    private NotificationInboxService notificationInboxService;
+
+    @Override
+    public String name() {
+        return "user-inbox";
+    }
+
+    @Override
+    public void handle(List<DomainEventDto> events) {
+        List<NotificationRequestDto> requests = new ArrayList<>(events.size());
+        for (DomainEventDto event : events) {
+            Map<String, Object> data = new LinkedHashMap<>();
+            data.put("action", event.getType().name());
+            data.putAll(event.getData());
+            requests.add(new NotificationRequestDto(event.getUserName(), NotificationEventEnum.ACCOUNT_ACTIVITY, data));
+        }
+        notificationInboxService.pushAll(requests);
+    }
+}
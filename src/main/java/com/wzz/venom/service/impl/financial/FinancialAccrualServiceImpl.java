@@ -0,0 +1,697 @@
+package com.wzz.venom.service.impl.financial;
+
+import com.wzz.venom.domain.dto.AccrualRangeDto;
+import com.wzz.venom.domain.dto.AccrualReportDto;
+import com.wzz.venom.domain.entity.FinancialAccrualRun;
+import com.wzz.venom.domain.entity.UserFinancial;
+import com.wzz.venom.enums.AccrualModeEnum;
+import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.mapper.FinancialAccrualRunMapper;
+import com.wzz.venom.mapper.UserFinancialMapper;
+import com.wzz.venom.mapper.UserIncomeRollupMapper;
+import com.wzz.venom.service.financial.FinancialAccrualService;
+import com.wzz.venom.service.user.UserIncomeRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 理财收益批量派发引擎实现类
+ * <p>
+ * 按主键游标分块读取持有中的理财持仓，分块提交到有界工作线程池并行处理。
+ * 每个分块在一个事务内锁定持仓、按最新本金计算收益，以 JDBC 批量的方式完成本金复投和收益流水写入。
+ * </p>
+ * <p>
+ * 配置 {@code venom.accrual.mode=SQL} 时改为集合式 SQL 模式：按主键区间直接在数据库中执行
+ * UPDATE 与 INSERT ... SELECT，并校验每个区间的流水合计与本金变化一致。
+ * </p>
+ * <p>
+ * 每个业务日期在 financial_accrual_run 中有一条运行台账，记录连续完成的最大持仓ID作为断点。
+ * 持仓上的 last_accrual_date 和流水上的 (financial_id, accrual_date) 唯一索引保证同一持仓一天只派发一次，
+ * 因此中断后重新执行只会从断点继续，不会重复派发。
+ * </p>
+ */
+@Service
+public class FinancialAccrualServiceImpl implements FinancialAccrualService {
+
+    private static final Logger log = LoggerFactory.getLogger(FinancialAccrualServiceImpl.class);
+
+    /** 理财流水类型：3-收益派发 */
+    private static final int TRANSACTION_TYPE_INCOME = 3;
+    /** 汇总结果中最多保留的失败明细条数 */
+    private static final int MAX_REPORTED_FAILURES = 50;
+
+    // --- 运行台账状态 ---
+    private static final int RUN_STATUS_RUNNING = 0;
+    private static final int RUN_STATUS_COMPLETED = 1;
+    private static final int RUN_STATUS_FAILED = 2;
+
+    /** 持仓在指定业务日期尚未派发过收益 */
+    private static final String NOT_ACCRUED_PREDICATE = "(last_accrual_date IS NULL OR last_accrual_date < ?)";
+
+    private static final String UPDATE_AMOUNT_SQL =
+            "UPDATE user_financial SET amount = amount + ?, last_accrual_date = ?, update_time = ? " +
+                    "WHERE id = ? AND status = 0 AND " + NOT_ACCRUED_PREDICATE;
+    /** 分块事务内锁定并重新读取本金，%s 为持仓ID占位符列表 */
+    private static final String LOCK_POSITIONS_SQL_TEMPLATE =
+            "SELECT id, amount FROM user_financial WHERE id IN (%s) AND status = 0 AND amount > 0 AND " +
+                    NOT_ACCRUED_PREDICATE + " FOR UPDATE";
+    private static final String INSERT_STATEMENT_SQL =
+            "INSERT INTO user_financial_statement (user_name, financial_id, transaction_type, amount, accrual_date, create_time, update_time) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    // --- SQL 模式：区间内的复投条件，所有写语句必须使用同一条件 ---
+    private static final String RANGE_PREDICATE =
+            "id >= ? AND id < ? AND status = 0 AND amount > 0 AND ROUND(amount * ?, 2) > 0 AND " + NOT_ACCRUED_PREDICATE;
+    private static final String RANGE_ACTIVE_ID_BOUNDS_SQL =
+            "SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM user_financial " +
+                    "WHERE id > ? AND status = 0 AND amount > 0 AND " + NOT_ACCRUED_PREDICATE;
+    private static final String RANGE_LOCK_SQL =
+            "SELECT COALESCE(SUM(CASE WHEN " + NOT_ACCRUED_PREDICATE + " THEN 1 ELSE 0 END), 0) AS cnt, " +
+                    "COALESCE(SUM(amount), 0) AS total FROM user_financial " +
+                    "WHERE id >= ? AND id < ? AND status = 0 AND amount > 0 FOR UPDATE";
+    private static final String RANGE_PENDING_COUNT_SQL =
+            "SELECT COUNT(*) FROM user_financial WHERE id >= ? AND id < ? AND status = 0 AND amount > 0 AND " + NOT_ACCRUED_PREDICATE;
+    private static final String RANGE_SUM_SQL =
+            "SELECT COALESCE(SUM(amount), 0) FROM user_financial WHERE id >= ? AND id < ? AND status = 0 AND amount > 0";
+    private static final String RANGE_INSERT_STATEMENT_SQL =
+            "INSERT INTO user_financial_statement (user_name, financial_id, transaction_type, amount, accrual_date, create_time, update_time) " +
+                    "SELECT user_name, id, ?, ROUND(amount * ?, 2), ?, ?, ? FROM user_financial WHERE " + RANGE_PREDICATE;
+    // 收益汇总须在复投本金之前按同一条件累加（复投后 last_accrual_date 已变化，条件不再成立）
+    private static final String RANGE_UPSERT_ROLLUP_SQL =
+            "INSERT INTO user_income_rollup (user_name, total_income, last_accrual_date, create_time, update_time) " +
+                    "SELECT user_name, SUM(ROUND(amount * ?, 2)), ?, ?, ? FROM user_financial WHERE " + RANGE_PREDICATE +
+                    " GROUP BY user_name ORDER BY user_name " + UserIncomeRollupMapper.ROLLUP_ON_DUPLICATE;
+    private static final String RANGE_UPSERT_DAILY_SQL =
+            "INSERT INTO user_income_daily (user_name, income_date, amount, create_time, update_time) " +
+                    "SELECT user_name, ?, SUM(ROUND(amount * ?, 2)), ?, ? FROM user_financial WHERE " + RANGE_PREDICATE +
+                    " GROUP BY user_name ORDER BY user_name " + UserIncomeRollupMapper.DAILY_ON_DUPLICATE;
+    private static final String RANGE_UPDATE_AMOUNT_SQL =
+            "UPDATE user_financial SET amount = amount + ROUND(amount * ?, 2), last_accrual_date = ?, update_time = ? WHERE " + RANGE_PREDICATE;
+    private static final String RANGE_STATEMENT_SUM_SQL =
+            "SELECT COALESCE(SUM(amount), 0) FROM user_financial_statement " +
+                    "WHERE financial_id >= ? AND financial_id < ? AND transaction_type = ? AND accrual_date = ?";
+
+    /** 每个分块读取的持仓数量 */
+    @Value("${venom.accrual.chunk-size:500}")
+    private int chunkSize;
+
+    /** 并行处理分块的工作线程数 */
+    @Value("${venom.accrual.parallelism:4}")
+    private int parallelism;
+
+    /** 派发模式：BATCH 或 SQL */
+    @Value("${venom.accrual.mode:BATCH}")
+    private AccrualModeEnum mode;
+
+    /** SQL 模式下每个主键区间的跨度 */
+    @Value("${venom.accrual.range-size:10000}")
+    private long rangeSize;
+
+    /** 执行中的台账超过该秒数未刷新心跳，视为执行实例已崩溃，可被接管 */
+    @Value("${venom.accrual.stale-seconds:600}")
+    private long staleSeconds;
+
+    /** 本实例内的执行标记，避免定时任务与手动触发同时执行 */
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    private final UserFinancialMapper userFinancialMapper;
+    private final FinancialAccrualRunMapper financialAccrualRunMapper;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserIncomeRollupService userIncomeRollupService;
+
+    @Autowired
+    public FinancialAccrualServiceImpl(UserFinancialMapper userFinancialMapper,
+                                       FinancialAccrualRunMapper financialAccrualRunMapper,
+                                       JdbcTemplate jdbcTemplate,
+                                       TransactionTemplate transactionTemplate,
+                                       UserIncomeRollupService userIncomeRollupService) {
+        this.userFinancialMapper = userFinancialMapper;
+        this.financialAccrualRunMapper = financialAccrualRunMapper;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.userIncomeRollupService = userIncomeRollupService;
+    }
+
+    @Override
+    public AccrualReportDto runDailyAccrual(LocalDate businessDate, BigDecimal dailyRate) {
+        if (businessDate == null) {
+            throw new IllegalArgumentException("业务日期不能为空");
+        }
+        if (dailyRate == null || dailyRate.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("当日收益率必须为正数");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new BusinessException(0, "每日理财收益派发正在执行中，请勿重复触发");
+        }
+        try {
+            return runWithLedger(businessDate, dailyRate);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * 获取（或创建、接管）当日台账后执行派发，并把最终结果写回台账
+     */
+    private AccrualReportDto runWithLedger(LocalDate businessDate, BigDecimal requestedRate) {
+        AccrualModeEnum effectiveMode = mode == null ? AccrualModeEnum.BATCH : mode;
+        int effectiveParallelism = Math.max(1, parallelism);
+
+        AccrualReportDto report = new AccrualReportDto();
+        report.setMode(effectiveMode);
+        report.setBusinessDate(businessDate);
+        report.setStartTime(now());
+
+        FinancialAccrualRun run = acquireRun(businessDate, requestedRate, effectiveMode);
+        report.setRunId(run.getId());
+        report.setAttemptCount(run.getAttemptCount());
+        if (run.getStatus() == RUN_STATUS_COMPLETED) {
+            report.setAlreadyCompleted(true);
+            report.setDailyRate(run.getDailyRate());
+            report.setEndTime(now());
+            log.info("【每日理财收益计算任务】业务日期 {} 的收益已派发完成（台账ID: {}），本次不再重复派发。", businessDate, run.getId());
+            return report;
+        }
+
+        // 断点续跑时沿用台账中的收益率，保证同一天内所有持仓按同一收益率派发
+        BigDecimal dailyRate = run.getDailyRate() != null ? run.getDailyRate() : requestedRate;
+        long resumeFromId = run.getLastProcessedId() == null ? 0L : run.getLastProcessedId();
+        report.setDailyRate(dailyRate);
+        report.setResumedFromId(resumeFromId);
+        if (resumeFromId > 0) {
+            log.info("【每日理财收益计算任务】业务日期 {} 从断点 ID {} 继续派发，第 {} 次执行。", businessDate, resumeFromId, run.getAttemptCount());
+        }
+
+        long startNanos = System.nanoTime();
+        RunStats stats = new RunStats();
+        CheckpointTracker checkpoint = new CheckpointTracker(run, resumeFromId, stats);
+        AccrualContext context = new AccrualContext(businessDate, dailyRate, stats, checkpoint);
+        boolean aborted = false;
+        ThreadPoolExecutor workers = newWorkerPool(effectiveParallelism);
+        try {
+            List<Future<?>> futures = effectiveMode == AccrualModeEnum.SQL
+                    ? submitRanges(workers, context, resumeFromId, effectiveParallelism)
+                    : submitChunks(workers, context, resumeFromId, effectiveParallelism);
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // 分块/区间内部已经捕获并记录了业务异常，这里只兜底
+                    aborted = true;
+                    log.error("【每日理财收益计算任务】分块执行出现未捕获异常", e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            aborted = true;
+            stats.recordFailure("任务被中断");
+            log.error("【每日理财收益计算任务】等待分块完成时被中断", e);
+        } catch (RuntimeException e) {
+            // 读取分块等派发线程本身的异常：台账标记为失败，等待下次续跑
+            aborted = true;
+            stats.recordFailure("派发中断: " + e.getMessage());
+            log.error("【每日理财收益计算任务】派发过程中出现异常，已保留断点等待续跑", e);
+        } finally {
+            workers.shutdown();
+        }
+
+        boolean completed = !aborted && stats.failedChunks.get() == 0;
+        checkpoint.finish(completed ? RUN_STATUS_COMPLETED : RUN_STATUS_FAILED);
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        stats.fill(report);
+        report.setElapsedMillis(elapsedMillis);
+        report.setThroughputPerSecond(elapsedMillis == 0 ? report.getScannedCount()
+                : report.getScannedCount() * 1000.0 / elapsedMillis);
+        report.setEndTime(now());
+
+        log.info("【每日理财收益计算任务】{} 模式派发{}。业务日期 {}，断点 {} -> {}，扫描 {}，成功 {}，失败 {}，跳过 {}，分块 {}（失败 {}），收益合计 {}，耗时 {} ms，吞吐 {}/s",
+                effectiveMode, completed ? "完成" : "未完成（已保留断点）", businessDate, resumeFromId, checkpoint.watermark(),
+                report.getScannedCount(), report.getSuccessCount(), report.getFailedCount(),
+                report.getSkippedCount(), report.getChunkCount(), report.getFailedChunkCount(), report.getTotalIncome(),
+                elapsedMillis, String.format("%.1f", report.getThroughputPerSecond()));
+        return report;
+    }
+
+    /**
+     * 获取业务日期对应的运行台账：
+     * 不存在则新建；已完成则原样返回；失败或心跳超时则以乐观锁接管；其他实例正在执行则拒绝。
+     */
+    private FinancialAccrualRun acquireRun(LocalDate businessDate, BigDecimal dailyRate, AccrualModeEnum effectiveMode) {
+        FinancialAccrualRun run = financialAccrualRunMapper.selectByBusinessDate(businessDate);
+        if (run == null) {
+            FinancialAccrualRun newRun = new FinancialAccrualRun();
+            newRun.setBusinessDate(businessDate);
+            newRun.setStatus(RUN_STATUS_RUNNING);
+            newRun.setMode(effectiveMode.name());
+            newRun.setDailyRate(dailyRate);
+            newRun.setLastProcessedId(0L);
+            newRun.setScannedCount(0L);
+            newRun.setSuccessCount(0L);
+            newRun.setFailedCount(0L);
+            newRun.setAttemptCount(1);
+            try {
+                financialAccrualRunMapper.insert(newRun);
+                return newRun;
+            } catch (DuplicateKeyException e) {
+                // 其他实例刚刚创建了同一天的台账
+                run = financialAccrualRunMapper.selectByBusinessDate(businessDate);
+            }
+        }
+        if (run.getStatus() == RUN_STATUS_COMPLETED) {
+            return run;
+        }
+
+        LocalDateTime now = now();
+        if (run.getStatus() == RUN_STATUS_RUNNING && run.getUpdateTime() != null
+                && run.getUpdateTime().isAfter(now.minusSeconds(staleSeconds))) {
+            throw new BusinessException(0, "业务日期 " + businessDate + " 的收益派发正在其他实例执行中，请稍后再试");
+        }
+        if (financialAccrualRunMapper.takeOver(run.getId(), effectiveMode.name(), run.getUpdateTime(), now) == 0) {
+            throw new BusinessException(0, "业务日期 " + businessDate + " 的收益派发已被其他实例接管");
+        }
+        log.warn("【每日理财收益计算任务】接管业务日期 {} 的运行台账（ID: {}，原状态: {}，上次心跳: {}）",
+                businessDate, run.getId(), run.getStatus(), run.getUpdateTime());
+        run.setStatus(RUN_STATUS_RUNNING);
+        run.setMode(effectiveMode.name());
+        run.setAttemptCount((run.getAttemptCount() == null ? 0 : run.getAttemptCount()) + 1);
+        return run;
+    }
+
+    /**
+     * 批量模式：从断点开始按主键游标分块读取持仓，并提交到工作线程池
+     */
+    private List<Future<?>> submitChunks(ThreadPoolExecutor workers, AccrualContext context, long resumeFromId,
+                                         int effectiveParallelism) {
+        int effectiveChunkSize = Math.max(1, chunkSize);
+        log.info("【每日理财收益计算任务】开始分块派发，分块大小: {}，并行度: {}，日收益率: {}",
+                effectiveChunkSize, effectiveParallelism, context.dailyRate());
+
+        List<Future<?>> futures = new ArrayList<>();
+        long lastId = resumeFromId;
+        while (true) {
+            List<UserFinancial> chunk = userFinancialMapper.selectActivePositionsAfterId(lastId, context.businessDate(), effectiveChunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastId = chunk.get(chunk.size() - 1).getId();
+            context.stats().scanned.addAndGet(chunk.size());
+            context.stats().chunks.incrementAndGet();
+            // 先登记再提交：CallerRuns 时分块可能在本线程立即执行完
+            long chunkLastId = lastId;
+            context.checkpoint().register(chunkLastId);
+            // 队列满时由读取线程自己执行该分块，形成天然的背压
+            futures.add(workers.submit(() -> context.checkpoint().complete(chunkLastId, processChunk(chunk, context))));
+            if (chunk.size() < effectiveChunkSize) {
+                break;
+            }
+        }
+        return futures;
+    }
+
+    /**
+     * SQL 模式：从断点开始按未派发持仓的最小/最大ID切分主键区间，并提交到工作线程池
+     */
+    private List<Future<?>> submitRanges(ThreadPoolExecutor workers, AccrualContext context, long resumeFromId,
+                                         int effectiveParallelism) {
+        long effectiveRangeSize = Math.max(1L, rangeSize);
+        List<Future<?>> futures = new ArrayList<>();
+        Map<String, Object> bounds = jdbcTemplate.queryForMap(RANGE_ACTIVE_ID_BOUNDS_SQL, resumeFromId, context.businessDate());
+        if (bounds.get("min_id") == null) {
+            log.info("【每日理财收益计算任务】没有找到待派发收益的理财持仓，任务结束。");
+            return futures;
+        }
+        long minId = ((Number) bounds.get("min_id")).longValue();
+        long maxId = ((Number) bounds.get("max_id")).longValue();
+        log.info("【每日理财收益计算任务】开始 SQL 区间派发，ID 范围: [{}, {}]，区间跨度: {}，并行度: {}，日收益率: {}",
+                minId, maxId, effectiveRangeSize, effectiveParallelism, context.dailyRate());
+
+        for (long startId = minId; startId <= maxId; startId += effectiveRangeSize) {
+            long rangeStart = startId;
+            long rangeEnd = startId + effectiveRangeSize;
+            // 断点不越过本次扫描到的最大ID，之后新增的持仓在续跑时仍会被处理
+            long rangeLastId = Math.min(rangeEnd - 1, maxId);
+            context.stats().chunks.incrementAndGet();
+            context.checkpoint().register(rangeLastId);
+            futures.add(workers.submit(() -> context.checkpoint().complete(rangeLastId,
+                    processRange(rangeStart, rangeEnd, context))));
+        }
+        return futures;
+    }
+
+    /**
+     * SQL 模式下在一个事务内处理一个主键区间 [startId, endId)：
+     * 先锁定区间内的持仓并记录本金合计，再用 INSERT ... SELECT 写入收益流水，
+     * 然后用集合式 UPDATE 复投本金，最后校验新增流水合计与本金变化一致，不一致则回滚整个区间。
+     * @return 区间是否处理成功
+     */
+    private boolean processRange(long startId, long endId, AccrualContext context) {
+        LocalDate businessDate = context.businessDate();
+        BigDecimal dailyRate = context.dailyRate();
+        RunStats stats = context.stats();
+        LocalDateTime now = now();
+        AccrualRangeDto range = new AccrualRangeDto();
+        range.setStartId(startId);
+        range.setEndId(endId);
+        try {
+            transactionTemplate.executeWithoutResult(txStatus -> {
+                // 锁定区间内全部持有中的持仓，保证校验期间本金合计不会被其他事务改动
+                Map<String, Object> locked = jdbcTemplate.queryForMap(RANGE_LOCK_SQL, businessDate, startId, endId);
+                long pendingCount = ((Number) locked.get("cnt")).longValue();
+                range.setPendingRows(pendingCount);
+                BigDecimal before = toBigDecimal(locked.get("total"));
+                // 区间内可能已有上次执行提交的当日流水，因此按前后差值校验
+                BigDecimal statementsBefore = toBigDecimal(jdbcTemplate.queryForObject(RANGE_STATEMENT_SUM_SQL, BigDecimal.class,
+                        startId, endId, TRANSACTION_TYPE_INCOME, businessDate));
+
+                int inserted = jdbcTemplate.update(RANGE_INSERT_STATEMENT_SQL,
+                        TRANSACTION_TYPE_INCOME, dailyRate, businessDate, now, now, startId, endId, dailyRate, businessDate);
+                jdbcTemplate.update(RANGE_UPSERT_ROLLUP_SQL,
+                        dailyRate, businessDate, now, now, startId, endId, dailyRate, businessDate);
+                jdbcTemplate.update(RANGE_UPSERT_DAILY_SQL,
+                        now.toLocalDate(), dailyRate, now, now, startId, endId, dailyRate, businessDate);
+                int updated = jdbcTemplate.update(RANGE_UPDATE_AMOUNT_SQL,
+                        dailyRate, businessDate, now, startId, endId, dailyRate, businessDate);
+
+                BigDecimal after = toBigDecimal(jdbcTemplate.queryForObject(RANGE_SUM_SQL, BigDecimal.class, startId, endId));
+                BigDecimal statementsAfter = toBigDecimal(jdbcTemplate.queryForObject(RANGE_STATEMENT_SUM_SQL, BigDecimal.class,
+                        startId, endId, TRANSACTION_TYPE_INCOME, businessDate));
+                BigDecimal statementSum = statementsAfter.subtract(statementsBefore);
+                BigDecimal delta = after.subtract(before);
+
+                range.setInsertedRows(inserted);
+                range.setUpdatedRows(updated);
+                range.setStatementSum(statementSum);
+                range.setBalanceDelta(delta);
+                if (inserted != updated || statementSum.compareTo(delta) != 0) {
+                    throw new IllegalStateException(String.format(
+                            "流水与本金不一致：写入流水 %d 行/%s，更新持仓 %d 行/%s", inserted, statementSum, updated, delta));
+                }
+                stats.scanned.addAndGet(pendingCount);
+                stats.skipped.addAndGet(pendingCount - updated);
+            });
+            range.setSuccess(true);
+            stats.success.addAndGet(range.getUpdatedRows());
+            stats.addIncome(range.getStatementSum());
+        } catch (Exception e) {
+            range.setSuccess(false);
+            range.setMessage(e.getMessage());
+            // 区间整体回滚，区间内待计息的持仓全部计为失败（updatedRows 在回滚前可能为 0，不能作为失败数）
+            long failedRows = range.getPendingRows() > 0 ? range.getPendingRows() : countPendingRows(startId, endId, businessDate);
+            stats.scanned.addAndGet(failedRows);
+            stats.failed.addAndGet(failedRows);
+            stats.failedChunks.incrementAndGet();
+            stats.recordFailure(String.format("区间 [%d, %d) 处理失败: %s", startId, endId, e.getMessage()));
+            log.error("【每日理财收益计算任务】区间 [{}, {}) 处理失败，已回滚该区间: {}", startId, endId, e.getMessage(), e);
+        }
+        stats.ranges.add(range);
+        return range.isSuccess();
+    }
+
+    /**
+     * 加锁前就失败（如锁等待超时）时，不加锁统计区间内待计息的持仓数
+     */
+    private long countPendingRows(long startId, long endId, LocalDate businessDate) {
+        try {
+            Long count = jdbcTemplate.queryForObject(RANGE_PENDING_COUNT_SQL, Long.class, startId, endId, businessDate);
+            return count == null ? 0 : count;
+        } catch (Exception e) {
+            log.warn("【每日理财收益计算任务】统计区间 [{}, {}) 的待计息持仓数失败: {}", startId, endId, e.getMessage());
+            return 0;
+        }
+    }
+
+    private static BigDecimal toBigDecimal(Object value) {
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+    }
+
+    /**
+     * 在一个事务内处理一个分块：先锁定并重新读取本金，再批量复投本金，为实际复投成功的持仓批量写入收益流水
+     * <p>
+     * 分块是在事务外按游标读取的，读取之后持仓可能被追加或部分赎回，因此收益按事务内加锁读到的本金计算，
+     * 流水、汇总与本金变化使用同一个值。
+     * </p>
+     * @return 分块是否处理成功
+     */
+    private boolean processChunk(List<UserFinancial> chunk, AccrualContext context) {
+        LocalDate businessDate = context.businessDate();
+        RunStats stats = context.stats();
+        LocalDateTime now = now();
+        long firstId = chunk.get(0).getId();
+        long lastId = chunk.get(chunk.size() - 1).getId();
+        try {
+            ChunkResult result = transactionTemplate.execute(txStatus -> {
+                // 读取之后状态已变化（如已赎回）或当日已派发过的持仓不会被锁定，也不应生成收益流水
+                Map<Long, BigDecimal> lockedAmounts = lockPendingAmounts(chunk, businessDate);
+                List<UserFinancial> payable = new ArrayList<>(lockedAmounts.size());
+                List<BigDecimal> earningsList = new ArrayList<>(lockedAmounts.size());
+                for (UserFinancial userFinancial : chunk) {
+                    BigDecimal amount = lockedAmounts.get(userFinancial.getId());
+                    if (amount == null) {
+                        continue;
+                    }
+                    BigDecimal earnings = amount.multiply(context.dailyRate()).setScale(2, RoundingMode.HALF_UP);
+                    if (earnings.compareTo(BigDecimal.ZERO) <= 0) {
+                        continue;
+                    }
+                    payable.add(userFinancial);
+                    earningsList.add(earnings);
+                }
+                if (payable.isEmpty()) {
+                    return new ChunkResult(0, chunk.size(), BigDecimal.ZERO);
+                }
+
+                List<Object[]> updateArgs = new ArrayList<>(payable.size());
+                for (int i = 0; i < payable.size(); i++) {
+                    updateArgs.add(new Object[]{earningsList.get(i), businessDate, now, payable.get(i).getId(), businessDate});
+                }
+                int[] updateCounts = jdbcTemplate.batchUpdate(UPDATE_AMOUNT_SQL, updateArgs);
+
+                List<Object[]> statementArgs = new ArrayList<>(payable.size());
+                Map<String, BigDecimal> incomeByUser = new TreeMap<>();
+                BigDecimal chunkIncome = BigDecimal.ZERO;
+                for (int i = 0; i < payable.size(); i++) {
+                    if (updateCounts[i] == 0) {
+                        continue;
+                    }
+                    UserFinancial userFinancial = payable.get(i);
+                    BigDecimal earnings = earningsList.get(i);
+                    statementArgs.add(new Object[]{userFinancial.getUserName(), userFinancial.getId(),
+                            TRANSACTION_TYPE_INCOME, earnings, businessDate, now, now});
+                    incomeByUser.merge(userFinancial.getUserName(), earnings, BigDecimal::add);
+                    chunkIncome = chunkIncome.add(earnings);
+                }
+                if (!statementArgs.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_STATEMENT_SQL, statementArgs);
+                    // 收益汇总与流水在同一事务内累加，每个用户一次写入
+                    userIncomeRollupService.applyIncomeBatch(incomeByUser, businessDate, now);
+                }
+                return new ChunkResult(statementArgs.size(), chunk.size() - statementArgs.size(), chunkIncome);
+            });
+            if (result != null) {
+                stats.success.addAndGet(result.applied());
+                stats.skipped.addAndGet(result.notApplied());
+                stats.addIncome(result.income());
+            }
+            return true;
+        } catch (Exception e) {
+            stats.failed.addAndGet(chunk.size());
+            stats.failedChunks.incrementAndGet();
+            stats.recordFailure(String.format("分块 [%d - %d] 处理失败: %s", firstId, lastId, e.getMessage()));
+            log.error("【每日理财收益计算任务】分块 [{} - {}] 处理失败，已回滚该分块: {}", firstId, lastId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /**
+     * 锁定分块内仍待派发的持仓并读取当前本金，须在分块事务内调用
+     * @return 持仓ID -> 加锁后读到的本金
+     */
+    private Map<Long, BigDecimal> lockPendingAmounts(List<UserFinancial> chunk, LocalDate businessDate) {
+        StringJoiner placeholders = new StringJoiner(", ");
+        Object[] args = new Object[chunk.size() + 1];
+        for (int i = 0; i < chunk.size(); i++) {
+            placeholders.add("?");
+            args[i] = chunk.get(i).getId();
+        }
+        args[chunk.size()] = businessDate;
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                String.format(LOCK_POSITIONS_SQL_TEMPLATE, placeholders), args);
+        Map<Long, BigDecimal> amounts = new HashMap<>(rows.size() * 2);
+        for (Map<String, Object> row : rows) {
+            amounts.put(((Number) row.get("id")).longValue(), toBigDecimal(row.get("amount")));
+        }
+        return amounts;
+    }
+
+    /**
+     * 创建有界工作线程池：固定线程数 + 有界队列，队列满时由提交线程执行（CallerRuns）
+     */
+    private ThreadPoolExecutor newWorkerPool(int threads) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "financial-accrual-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("Asia/Shanghai"));
+    }
+
+    /**
+     * 一次执行的上下文
+     */
+    private record AccrualContext(LocalDate businessDate, BigDecimal dailyRate, RunStats stats,
+                                  CheckpointTracker checkpoint) {
+    }
+
+    /**
+     * 单个分块事务的处理结果
+     */
+    private record ChunkResult(int applied, int notApplied, BigDecimal income) {
+    }
+
+    /**
+     * 断点跟踪器
+     * <p>
+     * 分块/区间并行执行、完成顺序不确定，只有从断点开始连续成功的部分才能推进断点；
+     * 失败的分块会一直挡住断点，续跑时从它开始重新处理（其后已成功的持仓靠 last_accrual_date 跳过）。
+     * </p>
+     */
+    private final class CheckpointTracker {
+        private final FinancialAccrualRun run;
+        private final RunStats stats;
+        /** 已登记的分块最大ID -> 是否已成功 */
+        private final TreeMap<Long, Boolean> pending = new TreeMap<>();
+        private long watermark;
+
+        CheckpointTracker(FinancialAccrualRun run, long resumeFromId, RunStats stats) {
+            this.run = run;
+            this.stats = stats;
+            this.watermark = resumeFromId;
+        }
+
+        synchronized void register(long lastId) {
+            pending.put(lastId, Boolean.FALSE);
+        }
+
+        synchronized void complete(long lastId, boolean succeeded) {
+            if (!succeeded) {
+                return;
+            }
+            pending.put(lastId, Boolean.TRUE);
+            boolean advanced = false;
+            while (!pending.isEmpty() && pending.firstEntry().getValue()) {
+                watermark = pending.pollFirstEntry().getKey();
+                advanced = true;
+            }
+            if (advanced) {
+                // 同时作为心跳，防止执行中的台账被其他实例误判为超时
+                financialAccrualRunMapper.saveCheckpoint(run.getId(), watermark,
+                        base(run.getScannedCount()) + stats.scanned.get(),
+                        base(run.getSuccessCount()) + stats.success.get(),
+                        base(run.getFailedCount()) + stats.failed.get(), now());
+            }
+        }
+
+        synchronized long watermark() {
+            return watermark;
+        }
+
+        synchronized void finish(int status) {
+            try {
+                financialAccrualRunMapper.finish(run.getId(), status, watermark,
+                        base(run.getScannedCount()) + stats.scanned.get(),
+                        base(run.getSuccessCount()) + stats.success.get(),
+                        base(run.getFailedCount()) + stats.failed.get(), now());
+            } catch (Exception e) {
+                // 台账停留在执行中，超时后可被接管续跑
+                log.error("【每日理财收益计算任务】写入运行台账最终状态失败，台账ID: {}", run.getId(), e);
+            }
+        }
+
+        private long base(Long value) {
+            return value == null ? 0L : value;
+        }
+    }
+
+    /**
+     * 一次执行过程中的线程安全计数器
+     */
+    private static final class RunStats {
+        private final AtomicLong scanned = new AtomicLong();
+        private final AtomicLong success = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicInteger chunks = new AtomicInteger();
+        private final AtomicInteger failedChunks = new AtomicInteger();
+        private final AtomicReference<BigDecimal> income = new AtomicReference<>(BigDecimal.ZERO);
+        private final List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        private final List<AccrualRangeDto> ranges = Collections.synchronizedList(new ArrayList<>());
+
+        void addIncome(BigDecimal amount) {
+            income.accumulateAndGet(amount, BigDecimal::add);
+        }
+
+        void recordFailure(String message) {
+            if (failures.size() < MAX_REPORTED_FAILURES) {
+                failures.add(message);
+            }
+        }
+
+        void fill(AccrualReportDto report) {
+            report.setScannedCount(scanned.get());
+            report.setSuccessCount(success.get());
+            report.setFailedCount(failed.get());
+            report.setSkippedCount(skipped.get());
+            report.setChunkCount(chunks.get());
+            report.setFailedChunkCount(failedChunks.get());
+            report.setTotalIncome(income.get());
+            synchronized (failures) {
+                report.setFailures(new ArrayList<>(failures));
+            }
+            synchronized (ranges) {
+                List<AccrualRangeDto> sorted = new ArrayList<>(ranges);
+                sorted.sort((a, b) -> Long.compare(a.getStartId(), b.getStartId()));
+                report.setRanges(sorted);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.wzz.venom.service.impl.product;
+
+import com.wzz.venom.domain.dto.FundCreditDto;
+import com.wzz.venom.domain.entity.PayoutOutbox;
+import com.wzz.venom.mapper.PayoutOutboxMapper;
+import com.wzz.venom.service.product.PayoutOutboxService;
+import com.wzz.venom.service.user.UserFundFlowService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 回款发件箱服务实现类
+ * <p>
+ * 投递语义为至少一次：事件入账与标记已入账在同一事务内完成，事务失败时事件保持待投递并按指数退避重试；
+ * 资金流水 business_id 上的唯一索引保证同一事件重复投递时不会重复入账。
+ * </p>
+ */
+@Service
+public class PayoutOutboxServiceImpl implements PayoutOutboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutOutboxServiceImpl.class);
+
+    /** 待投递 */
+    public static final int STATUS_PENDING = 0;
+    /** 已入账 */
+    public static final int STATUS_DELIVERED = 1;
+    /** 超过最大重试次数，需人工处理 */
+    public static final int STATUS_DEAD = 2;
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private PayoutOutboxMapper payoutOutboxMapper;
+
+    @Autowired
+    private UserFundFlowService userFundFlowService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${venom.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${venom.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${venom.outbox.backoff-base-seconds:5}")
+    private long backoffBaseSeconds;
+
+    @Value("${venom.outbox.backoff-max-seconds:600}")
+    private long backoffMaxSeconds;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY, rollbackFor = Exception.class)
+    public void enqueue(List<FundCreditDto> credits) {
+        if (credits == null || credits.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<PayoutOutbox> events = new ArrayList<>(credits.size());
+        for (FundCreditDto credit : credits) {
+            PayoutOutbox event = new PayoutOutbox();
+            event.setEventKey(credit.getBusinessId());
+            event.setUserName(credit.getUserName());
+            event.setAmount(credit.getAmount());
+            event.setDescription(credit.getDescription());
+            event.setStatus(STATUS_PENDING);
+            event.setAttempts(0);
+            event.setNextAttemptTime(now);
+            events.add(event);
+        }
+        payoutOutboxMapper.insert(events);
+    }
+
+    @Override
+    public int relayBatch() {
+        List<PayoutOutbox> events = new ArrayList<>();
+        try {
+            // 整批在一个事务内：锁定（跳过其他中继线程已锁定的行）-> 入账 -> 标记已入账
+            transactionTemplate.executeWithoutResult(status -> {
+                LocalDateTime now = LocalDateTime.now();
+                events.addAll(payoutOutboxMapper.selectDueForUpdate(now, batchSize));
+                if (events.isEmpty()) {
+                    return;
+                }
+                userFundFlowService.increaseUserTransactionAmountBatch(toCredits(events));
+                payoutOutboxMapper.markDelivered(events.stream().map(PayoutOutbox::getId).toList(), now);
+            });
+        } catch (RuntimeException e) {
+            if (events.isEmpty()) {
+                throw e;
+            }
+            log.warn("【回款中继】批量入账失败，逐条重试 {} 个事件：{}", events.size(), e.getMessage());
+            events.forEach(this::relayOne);
+        }
+        return events.size();
+    }
+
+    @Override
+    public long countPending() {
+        return payoutOutboxMapper.countPending();
+    }
+
+    /**
+     * 单独投递一个事件，失败时记录原因并安排下次投递
+     */
+    private void relayOne(PayoutOutbox event) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // 批量事务回滚后行锁已释放，重新锁定并确认仍待投递
+                PayoutOutbox locked = payoutOutboxMapper.selectPendingForUpdate(event.getId());
+                if (locked == null) {
+                    return;
+                }
+                userFundFlowService.increaseUserTransactionAmountBatch(toCredits(List.of(locked)));
+                payoutOutboxMapper.markDelivered(List.of(locked.getId()), LocalDateTime.now());
+            });
+        } catch (DuplicateKeyException e) {
+            // 资金流水已存在：之前的投递已入账（余额变更随本事务一起回滚），只是未能标记，这里直接补标记
+            log.info("【回款中继】事件 {} 已入账，补记为已入账", event.getEventKey());
+            payoutOutboxMapper.markDelivered(List.of(event.getId()), LocalDateTime.now());
+        } catch (RuntimeException e) {
+            recordFailure(event, e);
+        }
+    }
+
+    private void recordFailure(PayoutOutbox event, RuntimeException e) {
+        int attempts = (event.getAttempts() == null ? 0 : event.getAttempts()) + 1;
+        LocalDateTime now = LocalDateTime.now();
+        String error = e.getMessage() == null ? e.getClass().getName() : e.getMessage();
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        if (attempts >= maxAttempts) {
+            payoutOutboxMapper.markAttemptFailed(event.getId(), STATUS_DEAD, now, error, now);
+            log.error("【回款中继】事件 {}（用户 {}，金额 {}）已重试 {} 次仍失败，转为人工处理：{}",
+                    event.getEventKey(), event.getUserName(), event.getAmount(), attempts, error);
+            return;
+        }
+        // 指数退避：base * 2^(attempts-1)，不超过上限
+        long delaySeconds = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(attempts - 1, 20));
+        payoutOutboxMapper.markAttemptFailed(event.getId(), STATUS_PENDING, now.plusSeconds(delaySeconds), error, now);
+        log.warn("【回款中继】事件 {} 第 {} 次投递失败，{} 秒后重试：{}", event.getEventKey(), attempts, delaySeconds, error);
+    }
+
+    private List<FundCreditDto> toCredits(List<PayoutOutbox> events) {
+        List<FundCreditDto> credits = new ArrayList<>(events.size());
+        for (PayoutOutbox event : events) {
+            credits.add(new FundCreditDto(event.getUserName(), event.getAmount(), event.getDescription(), event.getEventKey()));
+        }
+        return credits;
+    }
+}
@@ -1,39 +1,121 @@
 package com.wzz.venom.service.impl.product;
 
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.wzz.venom.domain.dto.SettlementResultDto;
 import com.wzz.venom.domain.entity.UserProduct;
+import com.wzz.venom.mapper.UserProductMapper;
 import com.wzz.venom.service.product.ProductSchedulingService;
 import com.wzz.venom.service.product.ProductSettlementService;
-import com.wzz.venom.service.user.UserProductService;
+import com.wzz.venom.utils.HierarchicalTimingWheel;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 产品结算任务调度服务实现类
+ * <p>
+ * 持久化轮询调度：定期按 (end_time, id) 游标从 idx_status_end_time 索引分批读取已到期产品，
+ * 提交到有界线程池结算，每批全部完成后再读取下一批。
+ * 结算状态只保存在数据库中，重启或停机后首轮轮询即会按到期先后补结算，不会为积压的产品创建大量线程。
+ * </p>
+ * <p>
+ * 秒级精度由内存中的分层时间轮负责：每轮轮询把未来 preload-seconds 内到期的产品ID预加载到时间轮，
+ * 新购买且落在预加载窗口内的产品直接加入时间轮；时间轮每个刻度批量取出到期ID提交结算。
+ * 时间轮只保存产品ID和到期刻度，丢失（如重启）时由轮询兜底。
+ * </p>
  */
 @Service
 public class ProductSchedulingServiceImpl implements ProductSchedulingService {
 
     private static final Logger log = LoggerFactory.getLogger(ProductSchedulingServiceImpl.class);
 
-    @Autowired
-    private ThreadPoolTaskScheduler taskScheduler;
+    /** 游标起点：早于任何产品的到期时间 */
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(1970, 1, 1, 0, 0);
 
     @Autowired
     private ProductSettlementService productSettlementService;
 
     @Autowired
-    private UserProductService userProductService;
+    private UserProductMapper userProductMapper;
+
+    /** 每批读取的到期产品数量 */
+    @Value("${venom.settlement.batch-size:200}")
+    private int batchSize;
+
+    /** 每个结算事务包含的产品数量 */
+    @Value("${venom.settlement.settle-batch-size:50}")
+    private int settleBatchSize;
+
+    /** 结算线程数 */
+    @Value("${venom.settlement.parallelism:8}")
+    private int parallelism;
+
+    /** 时间轮刻度（毫秒） */
+    @Value("${venom.settlement.tick-millis:1000}")
+    private long tickMillis;
+
+    /** 每轮轮询预加载到时间轮的时间窗口（秒），应大于轮询间隔 */
+    @Value("${venom.settlement.preload-seconds:120}")
+    private long preloadSeconds;
+
+    private ThreadPoolExecutor settlementExecutor;
+
+    /** 到期时间轮，只保存产品ID和到期刻度 */
+    private HierarchicalTimingWheel expiryWheel;
+
+    /** 已预加载到时间轮的到期时间上界（毫秒时间戳），到期时间不晚于它的新产品直接进入时间轮 */
+    private volatile long preloadedUntilMillis;
+
+    /** 正在结算的产品ID，避免时间轮与轮询同时提交同一个产品 */
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    public void initExecutor() {
+        int threads = Math.max(1, parallelism);
+        AtomicInteger threadIndex = new AtomicInteger();
+        // 有界队列 + CallerRuns：队列满时由轮询线程自己结算，积压再多也不会无限创建线程
+        settlementExecutor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-settle-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        // 第 0 层 512 个槽位：秒级刻度下约 8.5 分钟，第 1 层约 3 天，更远的按需创建
+        expiryWheel = new HierarchicalTimingWheel(Math.max(1L, tickMillis), 512, System.currentTimeMillis());
+    }
+
+    @PreDestroy
+    public void shutdownExecutor() {
+        settlementExecutor.shutdown();
+        try {
+            if (!settlementExecutor.awaitTermination(60, TimeUnit.SECONDS)) {
+                log.warn("产品结算线程池在 60 秒内未能结束，剩余任务将在下次启动后由轮询补结算。");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
     @Override
     public void scheduleProductSettlement(UserProduct product) {
@@ -41,61 +123,165 @@ public class ProductSchedulingServiceImpl implements ProductSchedulingService {
             log.error("调度任务失败：产品ID或结束时间为空。Product: {}", product);
             return;
         }
+        long expireMillis = toEpochMillis(product.getEndTime());
+        // 超出预加载窗口的产品由后续轮询预加载，这里不占用内存
+        if (expireMillis <= preloadedUntilMillis) {
+            expiryWheel.add(product.getId(), expireMillis);
+        }
+        log.info("产品ID: {} 已登记到期结算，预计执行时间: {}", product.getId(), product.getEndTime());
+    }
 
-        // 获取产品的到期时间
-        LocalDateTime endTime = product.getEndTime();
-
-        // 如果到期时间已过，则不再安排任务
-        if (endTime.isBefore(LocalDateTime.now())) {
-            log.warn("产品ID: {} 的到期时间已过，不再安排调度任务。", product.getId());
+    /**
+     * 推进时间轮，把本刻度到期的产品批量提交结算
+     */
+    @Scheduled(fixedRateString = "${venom.settlement.tick-millis:1000}")
+    public void fireExpiredProducts() {
+        long[] dueIds = expiryWheel.advanceTo(System.currentTimeMillis());
+        if (dueIds.length == 0) {
             return;
         }
+        List<Long> ids = new ArrayList<>(dueIds.length);
+        for (long productId : dueIds) {
+            ids.add(productId);
+        }
+        submitSettlements(ids);
+    }
 
-        // 创建一个Runnable任务，任务内容就是调用结算服务
-        Runnable task = () -> productSettlementService.settleProduct(product.getId());
+    /**
+     * 定时轮询到期产品，上一轮结束后间隔 poll-interval-ms 再执行下一轮，轮次之间不会重叠
+     */
+    @Scheduled(fixedDelayString = "${venom.settlement.poll-interval-ms:30000}",
+            initialDelayString = "${venom.settlement.initial-delay-ms:5000}")
+    public void scheduledPoll() {
+        try {
+            pollDueProducts();
+        } catch (Exception e) {
+            log.error("轮询到期产品失败，将在下一轮重试。", e);
+        }
+    }
 
-        // 将LocalDateTime转换为Instant以供TaskScheduler使用
-        Instant instant = endTime.atZone(ZoneId.systemDefault()).toInstant();
+    @Override
+    public int pollDueProducts() {
+        int limit = Math.max(1, batchSize);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime lastEndTime = CURSOR_START;
+        long lastId = 0L;
+        int submitted = 0;
+        while (true) {
+            List<UserProduct> dueProducts = userProductMapper.selectDueProductsAfter(now, lastEndTime, lastId, limit);
+            if (dueProducts.isEmpty()) {
+                break;
+            }
+            UserProduct last = dueProducts.get(dueProducts.size() - 1);
+            lastEndTime = last.getEndTime();
+            lastId = last.getId();
 
-        // 提交任务到调度器
-        taskScheduler.schedule(task, instant);
+            List<Long> ids = new ArrayList<>(dueProducts.size());
+            for (UserProduct product : dueProducts) {
+                ids.add(product.getId());
+            }
+            List<Future<?>> futures = submitSettlements(ids);
+            // 等本批结算完再读下一批，控制积压时的数据库压力
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.error("产品结算任务出现未捕获异常", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return submitted;
+                }
+            }
+            submitted += ids.size();
+            if (dueProducts.size() < limit) {
+                break;
+            }
+        }
+        if (submitted > 0) {
+            log.info("本轮到期产品轮询完成，共提交结算 {} 个产品。", submitted);
+        }
+        preloadUpcomingProducts(now);
+        return submitted;
+    }
 
-        log.info("已成功安排产品ID: {} 的结算任务，预计执行时间: {}", product.getId(), endTime);
+    /**
+     * 把 (上次预加载上界, now + preload-seconds] 内到期的产品ID加载到时间轮
+     */
+    private void preloadUpcomingProducts(LocalDateTime now) {
+        LocalDateTime horizon = now.plusSeconds(Math.max(1L, preloadSeconds));
+        long nowMillis = toEpochMillis(now);
+        // 首次（或重启后）从当前时间开始，已到期的部分由上面的轮询负责
+        LocalDateTime lastEndTime = preloadedUntilMillis < nowMillis ? now
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(preloadedUntilMillis), ZoneId.systemDefault());
+        // lastId 取最大值：游标条件退化为 end_time > lastEndTime
+        long lastId = Long.MAX_VALUE;
+        int limit = Math.max(1, batchSize);
+        int loaded = 0;
+        while (true) {
+            List<UserProduct> upcoming = userProductMapper.selectDueProductsAfter(horizon, lastEndTime, lastId, limit);
+            for (UserProduct product : upcoming) {
+                expiryWheel.add(product.getId(), toEpochMillis(product.getEndTime()));
+            }
+            loaded += upcoming.size();
+            if (upcoming.size() < limit) {
+                break;
+            }
+            UserProduct last = upcoming.get(upcoming.size() - 1);
+            lastEndTime = last.getEndTime();
+            lastId = last.getId();
+        }
+        preloadedUntilMillis = toEpochMillis(horizon);
+        if (loaded > 0) {
+            log.info("已预加载 {} 个即将到期的产品到时间轮，预加载至: {}", loaded, horizon);
+        }
     }
 
     /**
-     * 在服务启动后，自动检查并重新调度未完成的任务
-     * 这是为了防止服务重启导致内存中的定时任务丢失
+     * 跳过正在结算的产品，其余按 settle-batch-size 分组提交批量结算
+     * @return 每组结算任务的 Future
      */
-    //todo
-    @PostConstruct
-    @Override
-    public void reschedulePendingTasksOnStartup() {
-        log.info("服务启动，开始重新调度未完成的产品结算任务...");
-        QueryWrapper<UserProduct> queryWrapper = new QueryWrapper<>();
-        // 查询所有"持有中"的产品
-        queryWrapper.eq("status", 0);
-        List<UserProduct> pendingProducts = userProductService.list(queryWrapper);
-
-        if (pendingProducts.isEmpty()) {
-            log.info("没有需要重新调度的任务。");
-            return;
+    private List<Future<?>> submitSettlements(List<Long> productIds) {
+        List<Long> claimed = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            if (inFlight.add(productId)) {
+                claimed.add(productId);
+            }
         }
+        int groupSize = Math.max(1, settleBatchSize);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int from = 0; from < claimed.size(); from += groupSize) {
+            List<Long> group = new ArrayList<>(claimed.subList(from, Math.min(from + groupSize, claimed.size())));
+            try {
+                futures.add(settlementExecutor.submit(() -> {
+                    try {
+                        settleQuietly(group);
+                    } finally {
+                        group.forEach(inFlight::remove);
+                    }
+                }));
+            } catch (RuntimeException e) {
+                group.forEach(inFlight::remove);
+                throw e;
+            }
+        }
+        return futures;
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
 
-        int rescheduledCount = 0;
-        for (UserProduct product : pendingProducts) {
-            // 检查到期时间，如果服务停机期间已经到期，立即结算
-            if (product.getEndTime().isBefore(LocalDateTime.now())) {
-                log.warn("产品ID: {} 在服务离线期间已到期，将立即执行结算。", product.getId());
-                // 在新线程中执行，避免阻塞主启动流程
-                new Thread(() -> productSettlementService.settleProduct(product.getId())).start();
-                rescheduledCount++;
-            } else {
-                // 如果尚未到期，重新安排定时任务
-                scheduleProductSettlement(product);
-                rescheduledCount++;
+    /**
+     * 批量结算一组产品，失败只记录日志：失败的产品仍为持有中，下一轮轮询会重试
+     */
+    private void settleQuietly(List<Long> productIds) {
+        try {
+            SettlementResultDto result = productSettlementService.settleProducts(productIds);
+            if (result.getFailedCount() > 0) {
+                log.warn("本组 {} 个产品中有 {} 个结算失败，将在下一轮轮询中重试。", productIds.size(), result.getFailedCount());
             }
+        } catch (Exception e) {
+            log.error("产品 {} 结算失败，将在下一轮轮询中重试。", productIds, e);
         }
-        log.info("任务重新调度完成，共处理 {} 个任务。", rescheduledCount);
     }
-}
\ No newline at end of file
+}
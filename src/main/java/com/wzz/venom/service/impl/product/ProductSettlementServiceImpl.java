@@ -1,25 +1,41 @@
 package com.wzz.venom.service.impl.product;
 
+import com.wzz.venom.domain.dto.FundCreditDto;
+import com.wzz.venom.domain.dto.NotificationRequestDto;
+import com.wzz.venom.domain.dto.SettlementItemDto;
+import com.wzz.venom.domain.dto.SettlementResultDto;
 import com.wzz.venom.domain.entity.UserProduct;
-import com.wzz.venom.enums.ProductIncomeStatusEnum;
-import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.enums.NotificationEventEnum;
+import com.wzz.venom.enums.SettlementOutcomeEnum;
+import com.wzz.venom.mapper.UserProductMapper;
+import com.wzz.venom.service.product.PayoutOutboxService;
 import com.wzz.venom.service.product.ProductSettlementService;
-import com.wzz.venom.service.user.UserFundFlowService;
-import com.wzz.venom.service.user.UserProductService;
-import com.wzz.venom.service.webSocket.WebSocketNotifyService;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
 import com.wzz.venom.utils.FinancialCalculatorUtils;
-import com.wzz.venom.utils.TaskQueueUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 产品到期结算服务实现类
+ * <p>
+ * 单个与批量结算共用同一条路径：锁定 -> 计算 -> 条件更新认领 -> 写入回款发件箱，全部在同一个事务内完成；回款由 {@link PayoutOutboxService} 异步入账。
+ * </p>
  */
 @Service
 public class ProductSettlementServiceImpl implements ProductSettlementService {
@@ -27,76 +43,129 @@ public class ProductSettlementServiceImpl implements ProductSettlementService {
     private static final Logger log = LoggerFactory.getLogger(ProductSettlementServiceImpl.class);
 
     @Autowired
-    private UserProductService userProductService;
+    private UserProductMapper userProductMapper;
 
     @Autowired
-    private UserFundFlowService userFundFlowService;
+    private PayoutOutboxService payoutOutboxService;
 
     @Autowired
-    private WebSocketNotifyService webSocketNotifyService;
+    private NotificationInboxService notificationInboxService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     @Override
-    @Transactional(rollbackFor = Exception.class)
     public void settleProduct(Long userProductId) {
         log.info("开始结算产品，ID: {}", userProductId);
-        UserProduct product = userProductService.getById(userProductId);
-        // 2. 健壮性检查
-        if (Objects.isNull(product)) {
-            log.warn("结算任务执行失败：未找到ID为 {} 的产品。", userProductId);
-            return;
-        }
-        if (product.getStatus() != 0) {
-            log.warn("产品 ID: {} 状态不为 '持有中'，可能已被处理，跳过结算。", userProductId);
-            return;
+        SettlementResultDto result = settleProducts(List.of(userProductId));
+        SettlementItemDto item = result.getItems().get(0);
+        switch (item.getOutcome()) {
+            case SETTLED -> log.info("产品ID: {} 结算成功！结算金额: {}", userProductId, item.getAmount());
+            case SKIPPED -> log.warn("产品 ID: {} 跳过结算：{}", userProductId, item.getMessage());
+            case FAILED -> log.error("产品 ID: {} 结算失败：{}", userProductId, item.getMessage());
         }
+    }
 
-        // 3. 调用工具类计算最终金额
-        BigDecimal finalAmount = FinancialCalculatorUtils.calculateFinalAmount(
-                product.getIncomeStatus(),
-                product.getAmount(),
-                product.getInterestRate()
-        );
-
-        log.info("产品ID: {}, 用户: {}, 本金: {}, 利率: {}, 收益状态: {}, 结算金额: {}",
-                product.getId(), product.getUserName(), product.getAmount(),
-                product.getInterestRate(), product.getIncomeStatus(), finalAmount);
-
-
+    @Override
+    public SettlementResultDto settleProducts(Collection<Long> userProductIds) {
+        List<Long> ids = userProductIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.collectingAndThen(Collectors.toCollection(LinkedHashSet::new), ArrayList::new));
+        SettlementResultDto result = new SettlementResultDto();
+        if (ids.isEmpty()) {
+            return result;
+        }
+        try {
+            result = transactionTemplate.execute(status -> settleInTransaction(ids));
+        } catch (Exception e) {
+            if (ids.size() == 1) {
+                result.addItem(new SettlementItemDto(ids.get(0), null, SettlementOutcomeEnum.FAILED, null, e.getMessage()));
+                return result;
+            }
+            // 整批回滚后逐个重试，把失败限制在出问题的产品上
+            log.warn("批量结算 {} 个产品失败，退化为逐个结算。原因: {}", ids.size(), e.getMessage());
+            result = new SettlementResultDto();
+            for (Long id : ids) {
+                result.merge(settleProducts(List.of(id)));
+            }
+        }
+        if (ids.size() > 1) {
+            log.info("批量结算完成：共 {} 个，成功 {}，跳过 {}，失败 {}，回款合计 {}",
+                    ids.size(), result.getSettledCount(), result.getSkippedCount(), result.getFailedCount(), result.getTotalPayout());
+        }
+        return result;
+    }
 
-        // 提交一个任务到队列中，使用Lambda表达式
-        TaskQueueUtil.execute(() -> {
+    /**
+     * 在当前事务内结算一批产品
+     */
+    private SettlementResultDto settleInTransaction(List<Long> ids) {
+        SettlementResultDto result = new SettlementResultDto();
+        // 1. 锁定仍为持有中的产品，其余视为不存在或已结算
+        Map<Long, UserProduct> heldById = userProductMapper.selectHeldForUpdate(ids).stream()
+                .collect(Collectors.toMap(UserProduct::getId, Function.identity()));
+
+        // 2. 计算每个产品的回款金额，计算失败的产品不认领，保持持有中
+        List<Long> claimIds = new ArrayList<>(heldById.size());
+        List<FundCreditDto> credits = new ArrayList<>(heldById.size());
+        List<SettlementItemDto> settledItems = new ArrayList<>(heldById.size());
+        List<NotificationRequestDto> notifications = new ArrayList<>(heldById.size());
+        for (Long id : ids) {
+            UserProduct product = heldById.get(id);
+            if (product == null) {
+                result.addItem(new SettlementItemDto(id, null, SettlementOutcomeEnum.SKIPPED, null, "产品不存在或已结算"));
+                continue;
+            }
+            BigDecimal finalAmount;
             try {
-                String description = String.format("产品 '%s' 到期结算回款", product.getProductName());
-                // 注意：increaseUserTransactionAmount接收的是Double，这里做转换
-                boolean flowAdded = userFundFlowService.increaseUserTransactionAmount(
-                        product.getUserName(),
-                        finalAmount.doubleValue(),
-                        description
-                );
-                if (!flowAdded) {
-                    // 如果流水增加失败，抛出异常，整个事务回滚
-                    throw new RuntimeException("为用户 " + product.getUserName() + " 增加资金流水失败！");
-                }
-            } catch (BusinessException e) {
-                Thread.currentThread().interrupt();
-                log.error("任务被中断", e);
+                finalAmount = FinancialCalculatorUtils.calculateFinalAmount(
+                        product.getIncomeStatus(),
+                        product.getAmount(),
+                        product.getInterestRate()
+                ).setScale(2, RoundingMode.HALF_UP);
+            } catch (Exception e) {
+                result.addItem(new SettlementItemDto(id, product.getUserName(), SettlementOutcomeEnum.FAILED, null, e.getMessage()));
+                continue;
             }
-        });
-
-
+            if (finalAmount.compareTo(BigDecimal.ZERO) < 0) {
+                result.addItem(new SettlementItemDto(id, product.getUserName(), SettlementOutcomeEnum.FAILED, null,
+                        "结算金额为负数: " + finalAmount));
+                continue;
+            }
+            log.info("产品ID: {}, 用户: {}, 本金: {}, 利率: {}, 收益状态: {}, 结算金额: {}",
+                    product.getId(), product.getUserName(), product.getAmount(),
+                    product.getInterestRate(), product.getIncomeStatus(), finalAmount);
 
-        // 5. 更新产品状态为 "已结束" (status=1)
-        product.setStatus(1);
-        boolean productUpdated = userProductService.updateUserProducts(product);
-        if (!productUpdated) {
-            throw new RuntimeException("更新产品 " + product.getId() + " 状态失败！");
+            claimIds.add(id);
+            // 亏损至 0 的产品只需结束，不产生回款流水
+            if (finalAmount.compareTo(BigDecimal.ZERO) > 0) {
+                String description = String.format("产品 '%s' 到期结算回款", product.getProductName());
+                credits.add(new FundCreditDto(product.getUserName(), finalAmount, description, "PRODUCT:" + id));
+            }
+            settledItems.add(new SettlementItemDto(id, product.getUserName(), SettlementOutcomeEnum.SETTLED, finalAmount, null));
+            Map<String, Object> notifyData = new LinkedHashMap<>();
+            notifyData.put("productId", id);
+            notifyData.put("productName", product.getProductName());
+            notifyData.put("principal", product.getAmount());
+            notifyData.put("amount", finalAmount);
+            notifications.add(new NotificationRequestDto(product.getUserName(), NotificationEventEnum.PRODUCT_EXPIRATION, notifyData));
+        }
+        if (claimIds.isEmpty()) {
+            return result;
         }
 
-        // 6. （可选）通过WebSocket通知用户
-        String notifyMessage = String.format("您的产品 '%s' 已到期结算，金额 %s 已存入您的账户。", product.getProductName(), finalAmount);
-//        webSocketNotifyService.sendToUser(product.getUserName(), notifyMessage);
+        // 3. 一条条件更新认领全部产品（行已锁定，认领数量必然一致，不一致说明数据被并发修改）
+        int claimed = userProductMapper.claimProducts(claimIds, LocalDateTime.now());
+        if (claimed != claimIds.size()) {
+            throw new IllegalStateException("认领产品数量不一致：预期 " + claimIds.size() + "，实际 " + claimed);
+        }
 
+        // 4. 回款事件与产品状态在同一事务内写入发件箱，由中继任务异步入账（事件键即资金流水的 business_id，保证只入账一次）
+        payoutOutboxService.enqueue(credits);
+        settledItems.forEach(result::addItem);
 
-        log.info("产品ID: {} 结算成功！", userProductId);
+        // 5. 到期通知写入用户收件箱（随本事务提交，提交后推送给在线用户）
+        notificationInboxService.pushAll(notifications);
+        return result;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,154 @@
+package com.wzz.venom.service.impl.user;
+
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.mapper.UserMapper;
+import com.wzz.venom.service.impl.config.SysConfigServiceImpl;
+import com.wzz.venom.service.user.FrozenUserService;
+import com.wzz.venom.utils.CopyOnWriteLongSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 冻结用户索引服务实现类
+ */
+@Service
+public class FrozenUserServiceImpl implements FrozenUserService {
+
+    private static final Logger log = LoggerFactory.getLogger(FrozenUserServiceImpl.class);
+
+    /** 跨节点冻结状态变更通知的 Redis 频道 */
+    public static final String CHANGE_CHANNEL = "venom:frozen-user:changed";
+
+    /** 全量重载因并发变更被丢弃时的最大重试次数 */
+    private static final int RELOAD_ATTEMPTS = 3;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Value("${venom.cache.redis-sync:false}")
+    private boolean redisSync;
+
+    private final CopyOnWriteLongSet frozenIds = new CopyOnWriteLongSet();
+
+    private volatile boolean loaded;
+
+    /** 变更版本：每次增量变更递增，全量重载期间发生变更时丢弃读到的旧列表 */
+    private final AtomicLong changeVersion = new AtomicLong();
+
+    @Override
+    public boolean isFrozen(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        if (loaded) {
+            return frozenIds.contains(userId);
+        }
+        User user = userMapper.selectById(userId);
+        return user != null && Boolean.TRUE.equals(user.getIsFrozen());
+    }
+
+    @Override
+    public void onFreezeStatusChanged(Long userId, boolean frozen) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyChange(userId, frozen);
+                    publishChange(userId, frozen);
+                }
+            });
+            return;
+        }
+        applyChange(userId, frozen);
+        publishChange(userId, frozen);
+    }
+
+    /**
+     * 启动完成后全量加载，之后定时全量重载，兜底未收到的变更通知
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${venom.frozen-user.reload-interval-ms:300000}",
+            initialDelayString = "${venom.frozen-user.reload-interval-ms:300000}")
+    @Override
+    public void reload() {
+        try {
+            for (int attempt = 1; attempt <= RELOAD_ATTEMPTS; attempt++) {
+                long version = changeVersion.get();
+                List<Long> ids = userMapper.selectFrozenUserIds();
+                long[] values = ids.stream().mapToLong(Long::longValue).toArray();
+                // 与 applyChange 互斥：读取期间有增量变更时，读到的列表可能不含该变更，不能覆盖
+                synchronized (changeVersion) {
+                    if (changeVersion.get() == version) {
+                        frozenIds.replaceAll(values);
+                        if (!loaded) {
+                            loaded = true;
+                            log.info("【冻结用户索引】加载完成，冻结用户 {} 个", frozenIds.size());
+                        }
+                        return;
+                    }
+                }
+                log.info("【冻结用户索引】全量重载期间冻结状态发生变更，丢弃本次结果（第 {} 次）", attempt);
+            }
+            log.warn("【冻结用户索引】连续 {} 次全量重载均与变更冲突，等待下一次定时重载", RELOAD_ATTEMPTS);
+        } catch (Exception e) {
+            log.error("【冻结用户索引】加载冻结用户失败", e);
+        }
+    }
+
+    @Override
+    public void onRemoteChange(String message) {
+        // 格式：节点ID|用户ID|1（冻结）或 0（解冻）
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || SysConfigServiceImpl.NODE_ID.equals(parts[0])) {
+            return;
+        }
+        applyChange(Long.valueOf(parts[1]), "1".equals(parts[2]));
+    }
+
+    private void applyChange(Long userId, boolean frozen) {
+        synchronized (changeVersion) {
+            changeVersion.incrementAndGet();
+            if (frozen) {
+                frozenIds.add(userId);
+            } else {
+                frozenIds.remove(userId);
+            }
+        }
+        log.info("【冻结用户索引】用户 {} 已{}", userId, frozen ? "冻结" : "解冻");
+    }
+
+    private void publishChange(Long userId, boolean frozen) {
+        if (!redisSync) {
+            return;
+        }
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANGE_CHANNEL, SysConfigServiceImpl.NODE_ID + "|" + userId + "|" + (frozen ? "1" : "0"));
+        } catch (Exception e) {
+            // 通知失败时其他节点在下一次定时全量重载时同步
+            log.warn("【冻结用户索引】发布冻结状态变更通知失败：{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.wzz.venom.service.impl.user;
+
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.mapper.UserMapper;
+import com.wzz.venom.service.user.UserBalanceLedgerService;
+import com.wzz.venom.service.user.UserCacheService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * 用户余额账本服务实现类
+ * <p>
+ * 一次资金变动只需两条语句：条件 UPDATE 完成加锁、余额校验与变更，随后在同一事务内读回新余额。
+ * </p>
+ */
+@Service
+public class UserBalanceLedgerServiceImpl implements UserBalanceLedgerService {
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public User applyDelta(String userName, BigDecimal delta) {
+        if (delta == null) {
+            throw new BusinessException(0, "变更金额不能为空");
+        }
+        int rows = userMapper.applyBalanceDelta(userName, delta, LocalDateTime.now(ZoneId.of("Asia/Shanghai")));
+        if (rows == 0) {
+            // 只有失败时才多查一次，用于区分失败原因
+            if (userMapper.selectBalanceByUserName(userName) == null) {
+                throw new BusinessException(0, "用户不存在");
+            }
+            throw new BusinessException(0, "账户余额不足，操作失败！");
+        }
+        User balanceAfter = userMapper.selectBalanceByUserName(userName);
+        userCacheService.evict(balanceAfter.getId(), userName);
+        return balanceAfter;
+    }
+}
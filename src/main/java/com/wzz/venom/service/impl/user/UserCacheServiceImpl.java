@@ -0,0 +1,346 @@
+package com.wzz.venom.service.impl.user;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.json.JSONUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.mapper.UserMapper;
+import com.wzz.venom.service.impl.config.SysConfigServiceImpl;
+import com.wzz.venom.service.user.UserCacheService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 用户信息两级缓存服务实现类
+ * <p>
+ * 查询顺序：本事务已修改过的用户直接读库 -> 进程内近缓存（秒级过期）-> Redis（分钟级过期）-> 数据库。
+ * 写入后先立即删除缓存，事务提交后再删除一次（延迟双删），避免其他线程在提交前读到的旧值回填缓存。
+ * 进程内缓存另按用户ID分段记录版本号，加载期间发生变更的结果不写入近缓存。
+ * 登录密码和提现密码不进入任何一级缓存。Redis 不可用时直接读库，不影响业务。
+ * </p>
+ */
+@Service
+public class UserCacheServiceImpl implements UserCacheService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserCacheServiceImpl.class);
+
+    /** 跨节点缓存失效通知的 Redis 频道 */
+    public static final String CACHE_INVALIDATE_CHANNEL = "venom:user-cache:invalidate";
+
+    private static final String ID_KEY_PREFIX = "venom:user:id:";
+    private static final String NAME_KEY_PREFIX = "venom:user:name:";
+
+    /** 版本号分段数 */
+    private static final int VERSION_STRIPES = 1024;
+
+    /** 事务内已修改的用户，作为事务资源绑定 */
+    private static final Object DIRTY_RESOURCE_KEY = new Object();
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Value("${venom.user-cache.local-ttl-seconds:10}")
+    private long localTtlSeconds;
+
+    @Value("${venom.user-cache.local-max-size:10000}")
+    private int localMaxSize;
+
+    @Value("${venom.user-cache.redis-enabled:true}")
+    private boolean redisEnabled;
+
+    @Value("${venom.user-cache.redis-ttl-seconds:300}")
+    private long redisTtlSeconds;
+
+    @Value("${venom.cache.redis-sync:false}")
+    private boolean redisSync;
+
+    private final Map<Long, LocalEntry> localById = new ConcurrentHashMap<>();
+
+    /** 用户名 -> 用户ID，随用户条目一起失效 */
+    private final Map<String, Long> localIdByName = new ConcurrentHashMap<>();
+
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    @Override
+    public User getById(Long id) {
+        if (id == null) {
+            return null;
+        }
+        DirtySet dirty = currentDirty();
+        if (dirty != null && dirty.ids.contains(id)) {
+            return withoutCredentials(userMapper.selectById(id));
+        }
+        LocalEntry entry = localById.get(id);
+        if (entry != null && !entry.isExpired()) {
+            return copy(entry.user());
+        }
+        long version = versions.get(stripe(id));
+        User user = readRedis(ID_KEY_PREFIX + id);
+        if (user == null) {
+            user = withoutCredentials(userMapper.selectById(id));
+            if (user == null) {
+                return null;
+            }
+            writeRedis(user);
+        }
+        putLocal(user, version);
+        return copy(user);
+    }
+
+    @Override
+    public User getByUserName(String userName) {
+        if (userName == null) {
+            return null;
+        }
+        DirtySet dirty = currentDirty();
+        if (dirty != null && dirty.names.contains(userName)) {
+            return withoutCredentials(selectByUserName(userName));
+        }
+        Long id = localIdByName.get(userName);
+        if (id == null) {
+            id = readRedisId(userName);
+        }
+        if (id != null && (dirty == null || !dirty.ids.contains(id))) {
+            User user = getById(id);
+            // 用户名可能已被修改，名称对应关系以数据库为准
+            if (user != null && userName.equals(user.getUserName())) {
+                return user;
+            }
+        }
+        User user = withoutCredentials(selectByUserName(userName));
+        if (user != null && (dirty == null || !dirty.ids.contains(user.getId()))) {
+            writeRedis(user);
+            putLocal(user, versions.get(stripe(user.getId())));
+        }
+        return user;
+    }
+
+    @Override
+    public void evict(Long id, String userName) {
+        evictNow(id, userName);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publishInvalidation(id, userName);
+            return;
+        }
+        DirtySet dirty = currentDirty();
+        if (dirty == null) {
+            DirtySet created = new DirtySet();
+            TransactionSynchronizationManager.bindResource(DIRTY_RESOURCE_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(DIRTY_RESOURCE_KEY);
+                    // 无论提交还是回滚都再清除一次：提交前被其他线程回填的旧值在这里被清掉
+                    for (Long dirtyId : created.ids) {
+                        evictNow(dirtyId, null);
+                    }
+                    for (String dirtyName : created.names) {
+                        evictNow(null, dirtyName);
+                    }
+                    created.ids.forEach(dirtyId -> publishInvalidation(dirtyId, null));
+                    created.names.forEach(dirtyName -> publishInvalidation(null, dirtyName));
+                }
+            });
+            dirty = created;
+        }
+        if (id != null) {
+            dirty.ids.add(id);
+        }
+        if (userName != null) {
+            dirty.names.add(userName);
+        }
+    }
+
+    @Override
+    public void onRemoteInvalidation(String message) {
+        // 格式：节点ID|用户ID|用户名，未知的部分为空
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || SysConfigServiceImpl.NODE_ID.equals(parts[0])) {
+            return;
+        }
+        Long id = parts[1].isEmpty() ? null : Long.valueOf(parts[1]);
+        String userName = parts[2].isEmpty() ? null : parts[2];
+        evictLocal(id, userName);
+    }
+
+    private void evictNow(Long id, String userName) {
+        evictLocal(id, userName);
+        if (!redisEnabled) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(2);
+        if (id != null) {
+            keys.add(ID_KEY_PREFIX + id);
+        }
+        if (userName != null) {
+            keys.add(NAME_KEY_PREFIX + userName);
+        }
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null || keys.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.delete(keys);
+        } catch (Exception e) {
+            log.warn("【用户缓存】删除 Redis 缓存失败：{}", e.getMessage());
+        }
+    }
+
+    private void evictLocal(Long id, String userName) {
+        if (userName != null) {
+            Long mappedId = localIdByName.remove(userName);
+            if (id == null) {
+                id = mappedId;
+            }
+        }
+        if (id != null) {
+            versions.incrementAndGet(stripe(id));
+            LocalEntry removed = localById.remove(id);
+            if (removed != null) {
+                localIdByName.remove(removed.user().getUserName(), id);
+            }
+        }
+    }
+
+    private void putLocal(User user, long version) {
+        if (localById.size() >= localMaxSize) {
+            // 近缓存只保存热点用户，超过容量时整体清空，由后续请求重新加载
+            localById.clear();
+            localIdByName.clear();
+        }
+        long expiresAt = System.nanoTime() + Duration.ofSeconds(localTtlSeconds).toNanos();
+        localById.put(user.getId(), new LocalEntry(user, expiresAt));
+        localIdByName.put(user.getUserName(), user.getId());
+        // 加载期间发生了变更，撤回刚写入的旧值
+        if (versions.get(stripe(user.getId())) != version) {
+            localById.remove(user.getId());
+            localIdByName.remove(user.getUserName(), user.getId());
+        }
+    }
+
+    private User readRedis(String key) {
+        StringRedisTemplate redisTemplate = redisEnabled ? redisTemplateProvider.getIfAvailable() : null;
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(key);
+            // 兼容旧版本写入的含密码的缓存
+            return json == null ? null : withoutCredentials(JSONUtil.toBean(json, User.class));
+        } catch (Exception e) {
+            log.warn("【用户缓存】读取 Redis 缓存失败，直接查询数据库：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Long readRedisId(String userName) {
+        StringRedisTemplate redisTemplate = redisEnabled ? redisTemplateProvider.getIfAvailable() : null;
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String id = redisTemplate.opsForValue().get(NAME_KEY_PREFIX + userName);
+            return id == null ? null : Long.valueOf(id);
+        } catch (Exception e) {
+            log.warn("【用户缓存】读取 Redis 缓存失败，直接查询数据库：{}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(User user) {
+        StringRedisTemplate redisTemplate = redisEnabled ? redisTemplateProvider.getIfAvailable() : null;
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            Duration ttl = Duration.ofSeconds(redisTtlSeconds);
+            // 使用 Hutool 序列化：不受实体上面向前端的 Jackson 注解（金额格式化）影响；密码已在读库时清空
+            redisTemplate.opsForValue().set(ID_KEY_PREFIX + user.getId(), JSONUtil.toJsonStr(user), ttl);
+            redisTemplate.opsForValue().set(NAME_KEY_PREFIX + user.getUserName(), String.valueOf(user.getId()), ttl);
+        } catch (Exception e) {
+            log.warn("【用户缓存】写入 Redis 缓存失败：{}", e.getMessage());
+        }
+    }
+
+    private void publishInvalidation(Long id, String userName) {
+        if (!redisSync) {
+            return;
+        }
+        StringRedisTemplate redisTemplate = redisTemplateProvider.getIfAvailable();
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            String message = SysConfigServiceImpl.NODE_ID + "|"
+                    + (id == null ? "" : id) + "|" + (userName == null ? "" : userName);
+            redisTemplate.convertAndSend(CACHE_INVALIDATE_CHANNEL, message);
+        } catch (Exception e) {
+            log.warn("【用户缓存】发布缓存失效通知失败：{}", e.getMessage());
+        }
+    }
+
+    private User selectByUserName(String userName) {
+        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(User::getUserName, userName);
+        return userMapper.selectOne(queryWrapper);
+    }
+
+    private DirtySet currentDirty() {
+        return (DirtySet) TransactionSynchronizationManager.getResource(DIRTY_RESOURCE_KEY);
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id, (long) VERSION_STRIPES);
+    }
+
+    /**
+     * 清空登录密码和提现密码，缓存中只保存不含凭据的用户信息
+     */
+    private static User withoutCredentials(User user) {
+        if (user != null) {
+            user.setPassword(null);
+            user.setWithdrawalPassword(null);
+        }
+        return user;
+    }
+
+    private static User copy(User user) {
+        return BeanUtil.copyProperties(user, User.class);
+    }
+
+    /**
+     * 近缓存条目
+     */
+    private record LocalEntry(User user, long expiresAtNanos) {
+        boolean isExpired() {
+            return System.nanoTime() - expiresAtNanos > 0;
+        }
+    }
+
+    /**
+     * 当前事务内已修改的用户
+     */
+    private static final class DirtySet {
+        private final Set<Long> ids = new HashSet<>();
+        private final Set<String> names = new HashSet<>();
+    }
+}
@@ -1,17 +1,21 @@
 package com.wzz.venom.service.impl.user;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.wzz.venom.domain.dto.UserIncomeStatsDto;
 import com.wzz.venom.domain.entity.UserFinancialStatement;
+import com.wzz.venom.domain.entity.UserIncomeRollup;
 import com.wzz.venom.mapper.UserFinancialStatementMapper;
 import com.wzz.venom.service.user.UserFinancialStatementService;
+import com.wzz.venom.service.user.UserIncomeRollupService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -23,9 +27,13 @@ public class UserFinancialStatementServiceImpl implements UserFinancialStatement
     // 推荐使用构造函数注入
     private final UserFinancialStatementMapper userFinancialStatementMapper;
 
+    private final UserIncomeRollupService userIncomeRollupService;
+
     @Autowired
-    public UserFinancialStatementServiceImpl(UserFinancialStatementMapper userFinancialStatementMapper) {
+    public UserFinancialStatementServiceImpl(UserFinancialStatementMapper userFinancialStatementMapper,
+                                             UserIncomeRollupService userIncomeRollupService) {
         this.userFinancialStatementMapper = userFinancialStatementMapper;
+        this.userIncomeRollupService = userIncomeRollupService;
     }
 
     /**
@@ -37,7 +45,13 @@ public class UserFinancialStatementServiceImpl implements UserFinancialStatement
     @Transactional // 开启事务
     public boolean addUserFinancialStatements(UserFinancialStatement statement) {
         // 调用MyBatis-Plus的insert方法，插入成功返回影响的行数（1）
-        return userFinancialStatementMapper.insert(statement) > 0;
+        boolean inserted = userFinancialStatementMapper.insert(statement) > 0;
+        if (inserted && isIncome(statement.getTransactionType())) {
+            // 收益流水同步累加收益汇总
+            userIncomeRollupService.applyIncome(statement.getUserName(), statement.getAmount(),
+                    statement.getAccrualDate(), statement.getCreateTime());
+        }
+        return inserted;
     }
 
     /**
@@ -48,8 +62,23 @@ public class UserFinancialStatementServiceImpl implements UserFinancialStatement
     @Override
     @Transactional // 开启事务
     public boolean updateUserFinancialStatements(UserFinancialStatement statement) {
+        UserFinancialStatement old = statement.getId() == null ? null : userFinancialStatementMapper.selectById(statement.getId());
         // 根据主键ID更新，更新成功返回影响的行数（1）
-        return userFinancialStatementMapper.updateById(statement) > 0;
+        boolean updated = userFinancialStatementMapper.updateById(statement) > 0;
+        if (updated && old != null) {
+            // updateById 不更新空字段，按更新后的实际值更正收益汇总：先扣除旧值，再计入新值
+            String userName = statement.getUserName() != null ? statement.getUserName() : old.getUserName();
+            Integer type = statement.getTransactionType() != null ? statement.getTransactionType() : old.getTransactionType();
+            BigDecimal amount = statement.getAmount() != null ? statement.getAmount() : old.getAmount();
+            LocalDate accrualDate = statement.getAccrualDate() != null ? statement.getAccrualDate() : old.getAccrualDate();
+            if (isIncome(old.getTransactionType()) && old.getAmount() != null) {
+                userIncomeRollupService.applyIncome(old.getUserName(), old.getAmount().negate(), null, old.getCreateTime());
+            }
+            if (isIncome(type)) {
+                userIncomeRollupService.applyIncome(userName, amount, accrualDate, old.getCreateTime());
+            }
+        }
+        return updated;
     }
 
     /**
@@ -76,8 +105,14 @@ public class UserFinancialStatementServiceImpl implements UserFinancialStatement
     @Override
     @Transactional // 开启事务
     public boolean deleteSpecifiedNumberInformation(Long id) {
+        UserFinancialStatement old = userFinancialStatementMapper.selectById(id);
         // 根据主键ID删除，删除成功返回影响的行数（1）
-        return userFinancialStatementMapper.deleteById(id) > 0;
+        boolean deleted = userFinancialStatementMapper.deleteById(id) > 0;
+        if (deleted && old != null && isIncome(old.getTransactionType()) && old.getAmount() != null) {
+            // 扣除被删除的收益；最近派发日期只前进不后退，不做回退
+            userIncomeRollupService.applyIncome(old.getUserName(), old.getAmount().negate(), null, old.getCreateTime());
+        }
+        return deleted;
     }
 
     /**
@@ -123,66 +158,48 @@ public class UserFinancialStatementServiceImpl implements UserFinancialStatement
     // 定义一个常量来表示“收益派发”的交易类型，避免使用魔法数字
     private static final int TRANSACTION_TYPE_INCOME = 3;
 
-    @Override
-    public UserIncomeStatsDto getIncomeStatistics(String userName) {
-        // 1. 计算总收益
-        BigDecimal totalIncome = calculateTotalIncome(userName);
-
-        // 2. 计算昨日收益
-        BigDecimal yesterdayIncome = calculateYesterdayIncome(userName);
+    /** 收益记录默认每页条数 */
+    private static final int DEFAULT_INCOME_PAGE_SIZE = 20;
+    /** 收益记录每页最大条数 */
+    private static final int MAX_INCOME_PAGE_SIZE = 100;
 
-        // 3. 查询所有收益记录列表
-        List<UserFinancialStatement> incomeRecords = queryIncomeRecords(userName);
-
-        // 4. 组装并返回结果
-        return new UserIncomeStatsDto(totalIncome, yesterdayIncome, incomeRecords);
-    }
-
-    /**
-     * 私有辅助方法：计算总收益
-     */
-    private BigDecimal calculateTotalIncome(String userName) {
-        QueryWrapper<UserFinancialStatement> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("user_name", userName)
-                .eq("transaction_type", TRANSACTION_TYPE_INCOME)
-                .select("SUM(amount) as totalAmount"); // 使用 SQL 的 SUM 函数
-
-        // selectObjs 返回一个 Object 列表，这里我们只需要第一个
-        List<Object> result = userFinancialStatementMapper.selectObjs(queryWrapper);
-        if (result != null && !result.isEmpty() && result.get(0) != null) {
-            return (BigDecimal) result.get(0);
+    @Override
+    public UserIncomeStatsDto getIncomeStatistics(String userName, Integer current, Integer size) {
+        // 1. 总收益和最近派发日期：读取收益汇总（单行）
+        UserIncomeRollup rollup = userIncomeRollupService.getRollup(userName);
+
+        // 2. 昨日收益：读取每日收益汇总（单行）
+        LocalDate yesterday = LocalDate.now(ZoneId.of("Asia/Shanghai")).minusDays(1);
+        BigDecimal yesterdayIncome = userIncomeRollupService.getDailyIncome(userName, yesterday);
+
+        UserIncomeStatsDto statsDto = new UserIncomeStatsDto();
+        statsDto.setTotalIncome(rollup == null || rollup.getTotalIncome() == null ? BigDecimal.ZERO : rollup.getTotalIncome());
+        statsDto.setYesterdayIncome(yesterdayIncome);
+        statsDto.setLastAccrualDate(rollup == null ? null : rollup.getLastAccrualDate());
+
+        // 3. 可选：最近的收益记录（分页，size 为 0 时不查询）
+        int pageSize = size == null ? DEFAULT_INCOME_PAGE_SIZE : Math.min(size, MAX_INCOME_PAGE_SIZE);
+        if (pageSize > 0) {
+            statsDto.setIncomeRecords(queryRecentIncomeRecords(userName, current == null ? 1 : Math.max(1, current), pageSize));
+        } else {
+            statsDto.setIncomeRecords(Collections.emptyList());
         }
-        return BigDecimal.ZERO; // 如果没有记录，则返回 0
+        return statsDto;
     }
 
     /**
-     * 私有辅助方法：计算昨日收益
+     * 私有辅助方法：分页查询最近的收益记录（不统计总数）
      */
-    private BigDecimal calculateYesterdayIncome(String userName) {
-        LocalDate yesterday = LocalDate.now().minusDays(1);
+    private List<UserFinancialStatement> queryRecentIncomeRecords(String userName, int current, int size) {
         QueryWrapper<UserFinancialStatement> queryWrapper = new QueryWrapper<>();
         queryWrapper.eq("user_name", userName)
                 .eq("transaction_type", TRANSACTION_TYPE_INCOME)
-                // 查询创建时间在昨天一整天范围内的数据
-                .between("create_time", yesterday.atStartOfDay(), yesterday.atTime(LocalTime.MAX))
-                .select("SUM(amount) as yesterdayAmount");
+                .orderByDesc("create_time"); // 按创建时间降序排列
 
-        List<Object> result = userFinancialStatementMapper.selectObjs(queryWrapper);
-        if (result != null && !result.isEmpty() && result.get(0) != null) {
-            return (BigDecimal) result.get(0);
-        }
-        return BigDecimal.ZERO;
+        return userFinancialStatementMapper.selectPage(new Page<>(current, size, false), queryWrapper).getRecords();
     }
 
-    /**
-     * 私有辅助方法：查询所有收益记录
-     */
-    private List<UserFinancialStatement> queryIncomeRecords(String userName) {
-        QueryWrapper<UserFinancialStatement> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("user_name", userName)
-                .eq("transaction_type", TRANSACTION_TYPE_INCOME)
-                .orderByDesc("create_time"); // 按创建时间降序排列
-
-        return userFinancialStatementMapper.selectList(queryWrapper);
+    private static boolean isIncome(Integer transactionType) {
+        return transactionType != null && transactionType == TRANSACTION_TYPE_INCOME;
     }
-}
\ No newline at end of file
+}
@@ -2,13 +2,21 @@ package com.wzz.venom.service.impl.user;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.wzz.venom.domain.dto.DomainEventDto;
+import com.wzz.venom.domain.dto.FundCreditDto;
+import com.wzz.venom.domain.dto.FundFlowPageDto;
 import com.wzz.venom.domain.dto.UserDTO;
 import com.wzz.venom.domain.entity.User;
 import com.wzz.venom.domain.entity.UserFundFlow;
+import com.wzz.venom.enums.DomainEventTypeEnum;
+import com.wzz.venom.enums.NotificationEventEnum;
 import com.wzz.venom.exception.BusinessException;
 import com.wzz.venom.mapper.UserFundFlowMapper;
+import com.wzz.venom.service.event.DomainEventBus;
+import com.wzz.venom.service.user.UserBalanceLedgerService;
 import com.wzz.venom.service.user.UserFundFlowService;
 import com.wzz.venom.service.user.UserService;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,8 +24,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
 
 /**
  * 用户资金流水服务实现类
@@ -34,6 +50,15 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserBalanceLedgerService userBalanceLedgerService;
+
+    @Autowired
+    private NotificationInboxService notificationInboxService;
+
+    @Autowired
+    private DomainEventBus domainEventBus;
+
     // --- 定义常量以避免魔术值 ---
     /** 资金类型：充值 */
     private static final String FUND_TYPE_RECHARGE = "RECHARGE";
@@ -65,6 +90,13 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
     /** [新增] 生效状态：拒绝 */
     private static final int EFFECTIVE_STATUS_REFUSE= 2;
 
+    /** 游标分页：默认每页条数 */
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    /** 游标分页：每页最大条数 */
+    private static final int MAX_PAGE_SIZE = 100;
+    /** 游标格式版本，格式变化时递增，旧游标将被拒绝 */
+    private static final String CURSOR_VERSION = "v1";
+
 
     // --- 充值审核相关新方法 ---
 
@@ -94,7 +126,13 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
 
         // 注意：此处不更新用户主余额，也不计算新余额，因为资金尚未实际到账
         // 插入待审核的流水记录
-        return userFundFlowMapper.insert(newFlow) > 0;
+        boolean success = userFundFlowMapper.insert(newFlow) > 0;
+        if (success) {
+            // 事务提交后通知管理员有新的充值申请
+            domainEventBus.publish(DomainEventDto.of(DomainEventTypeEnum.USER_RECHARGE, userName,
+                    Map.of("flowId", newFlow.getId(), "amount", transactionAmount)));
+        }
+        return success;
     }
 
 
@@ -171,30 +209,16 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
             throw new BusinessException(0, "该记录不是一条待审核的充值申请");
         }
 
-        // 3. 获取当前最新的【生效】余额，以计算新余额
-        UserFundFlow lastEffectiveFlow = userFundFlowMapper.selectOne(
-                new QueryWrapper<UserFundFlow>()
-                        .eq("user_name", pendingRecharge.getUserName())
-                        .eq("is_effective", EFFECTIVE_STATUS_ACTIVE) // 确保只基于生效记录计算
-                        .orderByDesc("id")
-                        .last("limit 1")
-        );
-        BigDecimal currentBalance = (lastEffectiveFlow != null) ? lastEffectiveFlow.getBalance() : BigDecimal.ZERO;
-        BigDecimal newBalance = currentBalance.add(pendingRecharge.getAmount());
+        // 3. 原子地把充值金额加到用户主表余额上，并取回变更后的余额
+        User balanceAfter = userBalanceLedgerService.applyDelta(pendingRecharge.getUserName(), pendingRecharge.getAmount());
 
         // 4. 更新这条记录，使其生效
         pendingRecharge.setIsEffective(EFFECTIVE_STATUS_ACTIVE);
         pendingRecharge.setStatus(STATUS_SUCCESS);
-        pendingRecharge.setBalance(newBalance); // 记录下操作后的最终余额
+        pendingRecharge.setBalance(balanceAfter.getBalance()); // 记录下操作后的最终余额
         pendingRecharge.setDescription(pendingRecharge.getDescription() + " (审核通过)");
 
-        // 5. 更新用户主表中的余额
-        boolean balanceSuccess = userService.updateByUserBalance(pendingRecharge.getUserName(), newBalance.doubleValue());
-        if (!balanceSuccess) {
-            throw new BusinessException(0, "更新用户主表余额失败，事务已回滚");
-        }
-
-        // 6. 将更新后的流水记录持久化到数据库
+        // 5. 将更新后的流水记录持久化到数据库
         return userFundFlowMapper.updateById(pendingRecharge) > 0;
     }
 
@@ -203,38 +227,19 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
 
     /**
      * 核心私有方法：新增一条【生效的】资金流水记录
-     * [重要修改] 此方法现在只用于创建立即生效的流水，并且在计算余额时会过滤掉未生效的记录。
+     * [重要修改] 余额以用户主表为准，由 {@link UserBalanceLedgerService} 在一条 UPDATE 内完成加锁、校验和变更，
+     * 不再读取"最后一条生效流水"推算余额，并发的资金变动不会基于同一个旧余额计算。
      */
     private boolean addFlowRecord(String userName, BigDecimal transactionAmount, String fundType, String description) {
-        // 1. 获取用户最新的【已生效】资金流水，以确定当前余额
-        UserFundFlow lastFlow = userFundFlowMapper.selectOne(
-                new QueryWrapper<UserFundFlow>()
-                        .eq("user_name", userName)
-                        .eq("is_effective", EFFECTIVE_STATUS_ACTIVE) // 关键变更：只查询生效的流水
-                        .orderByDesc("id")
-                        .last("limit 1")
-        );
-
-        BigDecimal currentBalance = (lastFlow != null) ? lastFlow.getBalance() : BigDecimal.ZERO;
-        BigDecimal newBalance = currentBalance.add(transactionAmount);
-
-        if (transactionAmount.compareTo(BigDecimal.ZERO) < 0 && newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new BusinessException(0,"账户余额不足，操作失败！");
-        }
-
-        UserDTO userDTO = new UserDTO();
-        userDTO.setUserName(userName);
-        User uu =  userService.selectByUserName(userDTO);
-        if (uu==null){
-            throw new BusinessException(0,"用户不存在");
-        }
+        // 1. 原子地变更用户余额，余额不足或用户不存在时直接抛出业务异常
+        User balanceAfter = userBalanceLedgerService.applyDelta(userName, transactionAmount);
 
         UserFundFlow newFlow = new UserFundFlow();
         newFlow.setUserName(userName);
         newFlow.setAmount(transactionAmount);
-        newFlow.setBalance(newBalance);
+        newFlow.setBalance(balanceAfter.getBalance());
         newFlow.setFundType(fundType);
-        newFlow.setUserId(uu.getId());
+        newFlow.setUserId(balanceAfter.getId());
         newFlow.setDescription(description);
         newFlow.setIsEffective(EFFECTIVE_STATUS_ACTIVE); // 默认设为已生效
 
@@ -246,11 +251,7 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
             newFlow.setStatus(STATUS_SUCCESS);
         }
 
-        boolean balanceSuccess = userService.updateByUserBalance(userName, newBalance.doubleValue());
-        if (!balanceSuccess) {
-            throw new BusinessException(0, "更新用户余额失败");
-        }
-
+        // 2. 写入流水，与余额变更处于同一事务，行锁保持到事务提交
         return userFundFlowMapper.insert(newFlow) > 0;
     }
 
@@ -280,6 +281,68 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
         return userFundFlowMapper.selectList(queryWrapper);
     }
 
+    @Override
+    public FundFlowPageDto queryUserFundFlowPage(String user, String cursor, Integer size,
+                                                 List<String> fundTypes, LocalDate startDate, LocalDate endDate) {
+        if (user == null || user.isEmpty()) {
+            throw new BusinessException(0, "用户名不能为空");
+        }
+        if (startDate != null && endDate != null && startDate.isAfter(endDate)) {
+            throw new BusinessException(0, "开始日期不能晚于结束日期");
+        }
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessException(0, "每页条数必须在 1-" + MAX_PAGE_SIZE + " 之间");
+        }
+        // 去重排序后参与游标指纹计算，保证同一组筛选条件得到同一个指纹
+        List<String> types = fundTypes == null ? List.of()
+                : fundTypes.stream().filter(t -> t != null && !t.isBlank()).map(String::trim).distinct().sorted().toList();
+        String fingerprint = filterFingerprint(user, types, startDate, endDate);
+        Long lastId = cursor == null || cursor.isEmpty() ? null : decodeCursor(cursor, fingerprint);
+
+        // 多取一条用于判断是否还有下一页
+        List<UserFundFlow> rows = userFundFlowMapper.selectVisibleFlowsBeforeId(user, lastId, types,
+                startDate == null ? null : startDate.atStartOfDay(),
+                endDate == null ? null : endDate.plusDays(1).atStartOfDay(),
+                EFFECTIVE_STATUS_ACTIVE, FUND_TYPE_RECHARGE, pageSize + 1);
+        boolean hasMore = rows.size() > pageSize;
+        List<UserFundFlow> records = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = hasMore ? encodeCursor(records.get(records.size() - 1).getId(), fingerprint) : null;
+        return new FundFlowPageDto(records, nextCursor, hasMore);
+    }
+
+    /**
+     * 游标内容为 "版本:最后一条ID:筛选条件指纹"，Base64URL 编码后对客户端不透明；
+     * 指纹用于拒绝在更换筛选条件后继续使用旧游标
+     */
+    private static String encodeCursor(Long lastId, String fingerprint) {
+        String raw = CURSOR_VERSION + ":" + lastId + ":" + fingerprint;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor, String fingerprint) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (parts.length == 3 && CURSOR_VERSION.equals(parts[0]) && fingerprint.equals(parts[2])) {
+                long lastId = Long.parseLong(parts[1]);
+                if (lastId > 0) {
+                    return lastId;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Base64 或数字格式错误，统一按无效游标处理
+        }
+        throw new BusinessException(0, "游标无效，请从第一页重新查询");
+    }
+
+    private static String filterFingerprint(String user, List<String> types, LocalDate startDate, LocalDate endDate) {
+        CRC32 crc = new CRC32();
+        String key = user + "|" + String.join(",", types) + "|" + startDate + "|" + endDate;
+        crc.update(key.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+
     @Override
     public List<UserFundFlow> queryAllWithdrawalTransactionInformation() {
         QueryWrapper<UserFundFlow> queryWrapper = new QueryWrapper<>();
@@ -322,7 +385,11 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
         }
 
         latestWithdrawal.setStatus(status);
-        return userFundFlowMapper.updateById(latestWithdrawal) > 0;
+        boolean success = userFundFlowMapper.updateById(latestWithdrawal) > 0;
+        if (success) {
+            notifyWithdrawalResult(latestWithdrawal);
+        }
+        return success;
     }
 
     @Override
@@ -332,6 +399,49 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
         return addFlowRecord(user, transactionAmount, FUND_TYPE_INCOME, describe);
     }
 
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public List<UserFundFlow> increaseUserTransactionAmountBatch(List<FundCreditDto> credits) {
+        if (credits == null || credits.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 按用户名排序分组：并发的批次总是以相同顺序锁定用户行，避免死锁
+        Map<String, List<FundCreditDto>> creditsByUser = new TreeMap<>();
+        for (FundCreditDto credit : credits) {
+            if (credit.getAmount() == null || credit.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+                throw new BusinessException(0, "入账金额必须为正数");
+            }
+            creditsByUser.computeIfAbsent(credit.getUserName(), k -> new ArrayList<>()).add(credit);
+        }
+
+        List<UserFundFlow> flows = new ArrayList<>(credits.size());
+        for (Map.Entry<String, List<FundCreditDto>> entry : creditsByUser.entrySet()) {
+            BigDecimal total = BigDecimal.ZERO;
+            for (FundCreditDto credit : entry.getValue()) {
+                total = total.add(credit.getAmount());
+            }
+            // 每个用户只变更一次余额，再从入账前余额逐笔推算每条流水的余额
+            User balanceAfter = userBalanceLedgerService.applyDelta(entry.getKey(), total);
+            BigDecimal runningBalance = balanceAfter.getBalance().subtract(total);
+            for (FundCreditDto credit : entry.getValue()) {
+                runningBalance = runningBalance.add(credit.getAmount());
+                UserFundFlow flow = new UserFundFlow();
+                flow.setUserName(entry.getKey());
+                flow.setUserId(balanceAfter.getId());
+                flow.setBusinessId(credit.getBusinessId());
+                flow.setAmount(credit.getAmount());
+                flow.setBalance(runningBalance);
+                flow.setFundType(FUND_TYPE_INCOME);
+                flow.setDescription(credit.getDescription());
+                flow.setStatus(STATUS_SUCCESS);
+                flow.setIsEffective(EFFECTIVE_STATUS_ACTIVE);
+                flows.add(flow);
+            }
+        }
+        userFundFlowMapper.insert(flows);
+        return flows;
+    }
+
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean reduceUserTransactionAmount(String user, Double amount, String describe) {
@@ -343,7 +453,13 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
     @Override
     public boolean reduceUserTransactionAmountWITHDRA(String user, Double amount, String describe) {
         BigDecimal transactionAmount = BigDecimal.valueOf(amount).negate();
-        return addFlowRecord(user, transactionAmount, FUND_TYPE_WITHDRAW, describe);
+        boolean success = addFlowRecord(user, transactionAmount, FUND_TYPE_WITHDRAW, describe);
+        if (success) {
+            // 事务提交后通知管理员有新的提现申请
+            domainEventBus.publish(DomainEventDto.of(DomainEventTypeEnum.USER_WITHDRAWAL, user,
+                    Map.of("amount", transactionAmount.negate())));
+        }
+        return success;
     }
 
     @Override
@@ -380,7 +496,23 @@ public class UserFundFlowServiceImpl implements UserFundFlowService {
             throw new BusinessException(0, "提供了无效的目标状态值！");
         }
 
-        return userFundFlowMapper.updateById(withdrawalFlow) > 0;
+        boolean success = userFundFlowMapper.updateById(withdrawalFlow) > 0;
+        if (success) {
+            notifyWithdrawalResult(withdrawalFlow);
+        }
+        return success;
+    }
+
+    /**
+     * 提现处理结果写入用户收件箱（随当前事务提交）
+     */
+    private void notifyWithdrawalResult(UserFundFlow withdrawalFlow) {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("flowId", withdrawalFlow.getId());
+        data.put("amount", withdrawalFlow.getAmount().abs());
+        data.put("status", withdrawalFlow.getStatus());
+        data.put("approved", Objects.equals(STATUS_SUCCESS, withdrawalFlow.getStatus()));
+        notificationInboxService.push(withdrawalFlow.getUserName(), NotificationEventEnum.WITHDRAWAL_RESULT, data);
     }
 
 
@@ -0,0 +1,119 @@
+package com.wzz.venom.service.impl.user;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.wzz.venom.domain.entity.UserIncomeRollup;
+import com.wzz.venom.mapper.UserIncomeRollupMapper;
+import com.wzz.venom.service.user.UserIncomeRollupService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 用户收益汇总服务实现类
+ */
+@Service
+public class UserIncomeRollupServiceImpl implements UserIncomeRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserIncomeRollupServiceImpl.class);
+
+    /** 理财流水类型：3-收益派发 */
+    private static final int TRANSACTION_TYPE_INCOME = 3;
+
+    @Autowired
+    private UserIncomeRollupMapper userIncomeRollupMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyIncome(String userName, BigDecimal amount, LocalDate accrualDate, LocalDateTime incomeTime) {
+        if (userName == null || amount == null || amount.signum() == 0) {
+            return;
+        }
+        applyIncomeBatch(Map.of(userName, amount), accrualDate, incomeTime);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyIncomeBatch(Map<String, BigDecimal> incomeByUser, LocalDate accrualDate, LocalDateTime incomeTime) {
+        if (incomeByUser == null || incomeByUser.isEmpty()) {
+            return;
+        }
+        // 按用户名排序后写入，并发事务以相同顺序对汇总行加锁
+        Map<String, BigDecimal> sorted = incomeByUser instanceof TreeMap ? incomeByUser : new TreeMap<>(incomeByUser);
+        LocalDateTime now = now();
+        LocalDate incomeDate = (incomeTime == null ? now : incomeTime).toLocalDate();
+        userIncomeRollupMapper.upsertRollups(sorted, accrualDate, now);
+        userIncomeRollupMapper.upsertDailies(sorted, incomeDate, now);
+    }
+
+    @Override
+    public UserIncomeRollup getRollup(String userName) {
+        QueryWrapper<UserIncomeRollup> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_name", userName);
+        return userIncomeRollupMapper.selectOne(queryWrapper);
+    }
+
+    @Override
+    public BigDecimal getDailyIncome(String userName, LocalDate incomeDate) {
+        BigDecimal amount = userIncomeRollupMapper.selectDailyIncome(userName, incomeDate);
+        return amount == null ? BigDecimal.ZERO : amount;
+    }
+
+    @Override
+    @Transactional
+    public int rebuild(String userName) {
+        LocalDateTime now = now();
+        userIncomeRollupMapper.deleteRollups(userName);
+        userIncomeRollupMapper.deleteDailies(userName);
+        int users = userIncomeRollupMapper.rebuildRollups(userName, TRANSACTION_TYPE_INCOME, now);
+        userIncomeRollupMapper.rebuildDailies(userName, TRANSACTION_TYPE_INCOME, now);
+        log.info("【收益汇总】已由收益流水重建收益汇总，范围: {}，用户数: {}", userName == null ? "全部用户" : userName, users);
+        return users;
+    }
+
+    /**
+     * 首次启动（汇总表为空）时由已有收益流水回填汇总，之后由写入方增量维护
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (userIncomeRollupMapper.countAnyRollup() > 0) {
+                return;
+            }
+            LocalDateTime now = now();
+            Integer users = transactionTemplate.execute(status -> {
+                int count = userIncomeRollupMapper.rebuildRollups(null, TRANSACTION_TYPE_INCOME, now);
+                userIncomeRollupMapper.rebuildDailies(null, TRANSACTION_TYPE_INCOME, now);
+                return count;
+            });
+            if (users != null && users > 0) {
+                log.info("【收益汇总】首次启动，已由收益流水回填 {} 个用户的收益汇总", users);
+            }
+        } catch (DuplicateKeyException e) {
+            // 多个节点同时启动，其他节点已经完成回填
+            log.info("【收益汇总】收益汇总已由其他节点回填");
+        } catch (Exception e) {
+            log.error("【收益汇总】回填收益汇总失败，可通过管理接口手动重建", e);
+        }
+    }
+
+    private static LocalDateTime now() {
+        return LocalDateTime.now(ZoneId.of("Asia/Shanghai"));
+    }
+}
@@ -3,8 +3,11 @@ package com.wzz.venom.service.impl.user;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.wzz.venom.domain.dto.DomainEventDto;
 import com.wzz.venom.domain.entity.UserProduct;
+import com.wzz.venom.enums.DomainEventTypeEnum;
 import com.wzz.venom.mapper.UserProductMapper;
+import com.wzz.venom.service.event.DomainEventBus;
 import com.wzz.venom.service.impl.product.ProductSchedulingServiceImpl;
 import com.wzz.venom.service.product.ProductSchedulingService;
 import com.wzz.venom.service.user.UserFundFlowService;
@@ -15,6 +18,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional; // 建议对写操作添加事务管理
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * 用户持有产品服务实现类
@@ -78,6 +82,9 @@ public class UserProductServiceImpl extends ServiceImpl<UserProductMapper, UserP
     @Autowired
     private ProductSchedulingService productSchedulingService;
 
+    @Autowired
+    private DomainEventBus domainEventBus;
+
     /**
      * 添加用户产品 (已重构，增加扣款和任务调度逻辑)
      * @param product 产品对象
@@ -96,6 +103,9 @@ public class UserProductServiceImpl extends ServiceImpl<UserProductMapper, UserP
         boolean success = userProductMapper.insert(product) > 0;
         if (success) {
             productSchedulingService.scheduleProductSettlement(product);
+            // 事务提交后通知管理员有新的购买
+            domainEventBus.publish(DomainEventDto.of(DomainEventTypeEnum.USER_PURCHASE, product.getUserName(),
+                    Map.of("productId", product.getId(), "productName", product.getProductName(), "amount", product.getAmount())));
         }
 
         return success;
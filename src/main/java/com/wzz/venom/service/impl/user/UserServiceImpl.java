@@ -5,11 +5,15 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.wzz.venom.domain.dto.UserDTO;
 import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.enums.NotificationEventEnum;
 import com.wzz.venom.enums.UserStatusEnum;
 import com.wzz.venom.exception.BusinessException;
 import com.wzz.venom.mapper.UserMapper;
 import com.wzz.venom.service.InvitationCode.InvitationCodeService;
+import com.wzz.venom.service.user.FrozenUserService;
+import com.wzz.venom.service.user.UserCacheService;
 import com.wzz.venom.service.user.UserService;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -18,6 +22,7 @@ import org.springframework.util.StringUtils;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -30,6 +35,15 @@ public class UserServiceImpl implements UserService {
     @Autowired
     private InvitationCodeService invitationCodeService;
 
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private FrozenUserService frozenUserService;
+
+    @Autowired
+    private NotificationInboxService notificationInboxService;
+
     /**
      * 新增用户
      * @param user 用户实体
@@ -102,7 +116,13 @@ public class UserServiceImpl implements UserService {
         updateUser.setBalance(user.getBalance());
         updateUser.setWithdrawalPassword(user.getWithdrawalPassword());
         updateUser.setCreditScore(user.getCreditScore());
-        return userMapper.updateById(user) > 0;
+        boolean success = userMapper.updateById(user) > 0;
+        userCacheService.evict(dbUser.getId(), dbUser.getUserName());
+        userCacheService.evict(null, user.getUserName());
+        if (user.getIsFrozen() != null && !user.getIsFrozen().equals(dbUser.getIsFrozen())) {
+            frozenUserService.onFreezeStatusChanged(dbUser.getId(), user.getIsFrozen());
+        }
+        return success;
     }
 
     /**
@@ -124,9 +144,7 @@ public class UserServiceImpl implements UserService {
         if (userName==null){
             throw new BusinessException(0,"用户名不能为空");
         }
-        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
-        queryWrapper.eq(User::getUserName, userName);
-        return userMapper.selectOne(queryWrapper);
+        return userCacheService.getByUserName(userName);
     }
 
     /**
@@ -146,7 +164,7 @@ public class UserServiceImpl implements UserService {
         LambdaUpdateWrapper<User> updateWrapper = new LambdaUpdateWrapper<>();
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getAccountStatus, UserStatusEnum.CANCELLED);
-        return userMapper.update(null, updateWrapper) > 0;
+        return updateAndEvict(updateWrapper, user);
     }
 
     /**
@@ -161,7 +179,8 @@ public class UserServiceImpl implements UserService {
         if (user==null){
             throw new BusinessException(0,"用户 {"+userName+"} 不存在");
         }
-        return Objects.equals(password, user.getPassword());
+        // 缓存中不含密码，只查询密码列
+        return Objects.equals(password, userMapper.selectPasswordByUserName(userName));
     }
 
     /**
@@ -179,7 +198,7 @@ public class UserServiceImpl implements UserService {
 
         // 在实际项目中，应使用加密匹配
         // return passwordEncoder.matches(withdrawalPassword, user.getWithdrawalPassword());
-        return Objects.equals(withdrawalPassword, user.getWithdrawalPassword());
+        return Objects.equals(withdrawalPassword, userMapper.selectWithdrawalPasswordByUserName(userName));
     }
 
     /**
@@ -191,7 +210,8 @@ public class UserServiceImpl implements UserService {
     @Override
     @Transactional(rollbackFor = Exception.class)
     public boolean modifyUserBalance(String userName, Double amount) {
-        User user = this.queryUser(userName);
+        // 基于当前余额计算新余额，必须读库，不能使用缓存
+        User user = selectUserFromDb(userName);
         if (user==null){
             throw new BusinessException(0,"用户 {"+userName+"} 不存在");
         }
@@ -211,7 +231,7 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getBalance, newBalance.doubleValue());
 
-        return userMapper.update(null, updateWrapper) > 0;
+        return updateAndEvict(updateWrapper, user);
     }
 
     /**
@@ -219,12 +239,15 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public Boolean updateByUserBalance(String userName, Double amount) {
-        User user = this.queryUser(userName);
+        // 整行更新，必须读库，避免把缓存中的旧字段写回
+        User user = selectUserFromDb(userName);
         if (user==null){
             throw new BusinessException(0,"用户 {"+userName+"} 不存在");
         }
         user.setBalance(BigDecimal.valueOf(amount));
-        return userMapper.updateById(user)>0;
+        boolean success = userMapper.updateById(user)>0;
+        userCacheService.evict(user.getId(), userName);
+        return success;
     }
 
     /**
@@ -247,7 +270,7 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getCreditScore, creditScore);
 
-        return userMapper.update(null, updateWrapper) > 0;
+        return updateAndEvict(updateWrapper, user);
     }
 
     /**
@@ -270,7 +293,7 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getBankCard, bankCard);
 
-        return userMapper.update(null, updateWrapper) > 0;
+        return updateAndEvict(updateWrapper, user);
     }
 
     /**
@@ -292,7 +315,11 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getPassword, password);
 
-        return userMapper.update(null, updateWrapper) > 0;
+        boolean success = updateAndEvict(updateWrapper, user);
+        if (success) {
+            notifyAccountActivity(userName, "PASSWORD_CHANGED");
+        }
+        return success;
     }
 
     /**
@@ -314,11 +341,16 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getWithdrawalPassword, withdrawalPassword);
 
-        return userMapper.update(null, updateWrapper) > 0;
+        boolean success = updateAndEvict(updateWrapper, user);
+        if (success) {
+            notifyAccountActivity(userName, "WITHDRAWAL_PASSWORD_CHANGED");
+        }
+        return success;
     }
 
     @Override
     public User selectByUserName(UserDTO userDTO) {
+        // 登录校验读库，不经过缓存
         LambdaQueryWrapper<User> lambdaQueryWrapper = new LambdaQueryWrapper<>();
         lambdaQueryWrapper.eq(User::getUserName,userDTO.getUserName());
         return userMapper.selectOne(lambdaQueryWrapper);
@@ -328,7 +360,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public User queryUserByUserId(Long id) {
-        User s = userMapper.selectById(id);
+        User s = userCacheService.getById(id);
         if (s==null){
             throw new BusinessException(0,"查询不到该用户");
         }
@@ -361,10 +393,36 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getId, userId)
                 .set(User::getBankCard, bankCard);
 
-        return userMapper.update(null, updateWrapper) > 0;
+        return updateAndEvict(updateWrapper, user);
     }
 
     // --- 辅助私有方法 ---
+    /**
+     * 执行更新并清除该用户的缓存
+     * @param updateWrapper 更新条件
+     * @param user          被更新的用户
+     * @return 是否成功
+     */
+    private boolean updateAndEvict(LambdaUpdateWrapper<User> updateWrapper, User user) {
+        boolean success = userMapper.update(null, updateWrapper) > 0;
+        userCacheService.evict(user.getId(), user.getUserName());
+        return success;
+    }
+
+    /**
+     * 不经过缓存，直接从数据库查询用户
+     * @param userName 用户名
+     * @return 用户信息
+     */
+    private User selectUserFromDb(String userName) {
+        if (userName==null){
+            throw new BusinessException(0,"用户名不能为空");
+        }
+        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(User::getUserName, userName);
+        return userMapper.selectOne(queryWrapper);
+    }
+
     /**
      * 检查用户是否被冻结
      * @param user 用户对象
@@ -436,7 +494,7 @@ public class UserServiceImpl implements UserService {
                 .set(User::getBankName, user.getBankName())
                 .set(User::getBankBranch, user.getBankBranch())
                 .set(User::getBankCard, user.getBankCard());
-        return userMapper.update(null, updateWrapper) > 0;
+        return updateAndEvict(updateWrapper, user);
     }
 
     /**
@@ -456,7 +514,20 @@ public class UserServiceImpl implements UserService {
         updateWrapper.eq(User::getUserName, userName)
                 .set(User::getIsFrozen, freeze);
 
-        return userMapper.update(null, updateWrapper) > 0;
+        boolean success = updateAndEvict(updateWrapper, user);
+        if (success) {
+            frozenUserService.onFreezeStatusChanged(user.getId(), freeze);
+            notifyAccountActivity(userName, freeze ? "ACCOUNT_FROZEN" : "ACCOUNT_UNFROZEN");
+        }
+        return success;
+    }
+
+    /**
+     * 账户安全事件写入用户收件箱（随当前事务提交）
+     * @param action 事件，例如 PASSWORD_CHANGED
+     */
+    private void notifyAccountActivity(String userName, String action) {
+        notificationInboxService.push(userName, NotificationEventEnum.ACCOUNT_ACTIVITY, Map.of("action", action));
     }
 
 }
\ No newline at end of file
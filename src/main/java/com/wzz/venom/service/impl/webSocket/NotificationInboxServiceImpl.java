@@ -0,0 +1,322 @@
+package com.wzz.venom.service.impl.webSocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.dto.NotificationRequestDto;
+import com.wzz.venom.domain.dto.UserNotificationDto;
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.domain.entity.UserNotification;
+import com.wzz.venom.enums.NotificationEventEnum;
+import com.wzz.venom.mapper.UserNotificationMapper;
+import com.wzz.venom.service.user.UserCacheService;
+import com.wzz.venom.service.webSocket.NotificationInboxService;
+import com.wzz.venom.utils.UserWebSocketSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户通知收件箱服务实现类
+ */
+@Service
+public class NotificationInboxServiceImpl implements NotificationInboxService {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationInboxServiceImpl.class);
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Shanghai");
+
+    /** 同步消息类型：告知客户端当前最大序号，truncated 为 true 时其余通知需通过查询接口拉取 */
+    public static final String SYNC_EVENT = "NOTIFICATION_SYNC";
+
+    /** 查询接口默认/最大条数 */
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
+    /** 清理过期通知时单次删除的条数 */
+    private static final int CLEANUP_BATCH_SIZE = 5000;
+
+    @Autowired
+    private UserNotificationMapper userNotificationMapper;
+
+    @Autowired
+    private UserCacheService userCacheService;
+
+    @Autowired
+    private UserWebSocketSessionManager userWebSocketSessionManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /** 每个用户环形缓冲保留的通知条数 */
+    @Value("${venom.notification.ring-size:64}")
+    private int ringSize;
+
+    /** 重连时最多补发的条数 */
+    @Value("${venom.notification.replay-max:100}")
+    private int replayMax;
+
+    /** 用户断开后环形缓冲保留的秒数 */
+    @Value("${venom.notification.ring-idle-seconds:300}")
+    private long ringIdleSeconds;
+
+    /** 通知保留天数 */
+    @Value("${venom.notification.retention-days:7}")
+    private int retentionDays;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** 用户ID -> 环形缓冲，只为本节点近期在线的用户保留 */
+    private final Map<Long, Ring> rings = new ConcurrentHashMap<>();
+
+    @Override
+    public void push(String userName, NotificationEventEnum type, Object data) {
+        pushAll(List.of(new NotificationRequestDto(userName, type, data)));
+    }
+
+    @Override
+    public void pushAll(List<NotificationRequestDto> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return;
+        }
+        // 按用户ID排序分组，并发事务以相同顺序锁定序号行，避免死锁
+        Map<Long, List<UserNotification>> byUser = new TreeMap<>();
+        LocalDateTime now = LocalDateTime.now(ZONE);
+        for (NotificationRequestDto request : requests) {
+            User user = userCacheService.getByUserName(request.getUserName());
+            if (user == null || request.getType() == null) {
+                log.warn("【通知收件箱】用户 {} 不存在或通知类型为空，通知未发送", request.getUserName());
+                continue;
+            }
+            UserNotification row = new UserNotification();
+            row.setUserId(user.getId());
+            row.setEventType(request.getType().name());
+            row.setPayload(toJson(request.getData()));
+            row.setCreateTime(now);
+            row.setUpdateTime(now);
+            byUser.computeIfAbsent(user.getId(), id -> new ArrayList<>()).add(row);
+        }
+        if (byUser.isEmpty()) {
+            return;
+        }
+
+        // 在调用方事务内持久化，提交后再推送；没有事务时单独开启一个
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            List<UserNotification> rows = persist(byUser, now);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(rows);
+                }
+            });
+            return;
+        }
+        List<UserNotification> rows = transactionTemplate.execute(status -> persist(byUser, now));
+        deliver(rows);
+    }
+
+    @Override
+    public void onConnected(Long userId, Long lastSeq) {
+        Ring ring = rings.computeIfAbsent(userId, id -> new Ring(ringSize));
+        synchronized (ring) {
+            ring.touch();
+            Long stored = userNotificationMapper.selectLastSeq(userId);
+            long current = stored == null ? 0 : stored;
+            boolean truncated = false;
+            if (lastSeq != null && lastSeq < current) {
+                List<String> cached = ring.since(lastSeq, current);
+                if (cached != null) {
+                    cached.forEach(json -> userWebSocketSessionManager.sendLocal(userId, new TextMessage(json)));
+                    log.debug("【通知收件箱】用户 {} 从内存补发 {} 条通知", userId, cached.size());
+                } else {
+                    List<UserNotification> rows = userNotificationMapper.selectAfterSeq(userId, lastSeq, replayMax + 1);
+                    truncated = rows.size() > replayMax;
+                    for (UserNotification row : truncated ? rows.subList(0, replayMax) : rows) {
+                        userWebSocketSessionManager.sendLocal(userId, new TextMessage(toMessage(row)));
+                    }
+                    log.debug("【通知收件箱】用户 {} 从数据库补发 {} 条通知", userId, Math.min(rows.size(), replayMax));
+                }
+            }
+            Map<String, Object> sync = Map.of("event", SYNC_EVENT, "lastSeq", current, "truncated", truncated);
+            userWebSocketSessionManager.sendLocal(userId, new TextMessage(toJson(sync)));
+        }
+    }
+
+    @Override
+    public void onDisconnected(Long userId) {
+        Ring ring = rings.get(userId);
+        if (ring != null) {
+            ring.touch();
+        }
+    }
+
+    @Override
+    public List<UserNotificationDto> listAfter(Long userId, long afterSeq, Integer size) {
+        int limit = size == null || size <= 0 ? DEFAULT_PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        List<UserNotification> rows = userNotificationMapper.selectAfterSeq(userId, Math.max(0, afterSeq), limit);
+        List<UserNotificationDto> result = new ArrayList<>(rows.size());
+        for (UserNotification row : rows) {
+            result.add(toDto(row));
+        }
+        return result;
+    }
+
+    /**
+     * 清理断开已超过保留时间的用户的环形缓冲
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdleRings() {
+        long deadline = System.currentTimeMillis() - ringIdleSeconds * 1000;
+        rings.entrySet().removeIf(entry -> entry.getValue().lastTouched < deadline
+                && userWebSocketSessionManager.getSession(entry.getKey()) == null);
+    }
+
+    /**
+     * 分批删除超过保留天数的通知
+     */
+    @Scheduled(fixedDelayString = "${venom.notification.cleanup-interval-ms:3600000}")
+    public void cleanupExpired() {
+        LocalDateTime before = LocalDateTime.now(ZONE).minusDays(retentionDays);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = userNotificationMapper.deleteCreatedBefore(before, CLEANUP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH_SIZE);
+        if (total > 0) {
+            log.info("【通知收件箱】清理 {} 之前的通知 {} 条", before, total);
+        }
+    }
+
+    /**
+     * 为每个用户分配连续序号并批量写入
+     */
+    private List<UserNotification> persist(Map<Long, List<UserNotification>> byUser, LocalDateTime now) {
+        List<UserNotification> rows = new ArrayList<>();
+        for (Map.Entry<Long, List<UserNotification>> entry : byUser.entrySet()) {
+            List<UserNotification> userRows = entry.getValue();
+            userNotificationMapper.allocateSeq(entry.getKey(), userRows.size(), now);
+            long last = userNotificationMapper.selectLastSeq(entry.getKey());
+            long seq = last - userRows.size();
+            for (UserNotification row : userRows) {
+                row.setSeq(++seq);
+            }
+            rows.addAll(userRows);
+        }
+        userNotificationMapper.insertBatch(rows);
+        return rows;
+    }
+
+    /**
+     * 推送已提交的通知：本节点有环形缓冲的用户先写入缓冲，再经由用户连接管理器推送（用户不在本节点时跨节点转发）
+     */
+    private void deliver(List<UserNotification> rows) {
+        if (rows == null) {
+            return;
+        }
+        for (UserNotification row : rows) {
+            String json = toMessage(row);
+            Ring ring = rings.get(row.getUserId());
+            if (ring != null) {
+                // 与重连补发互斥，保证同一连接上补发的通知先于新通知
+                synchronized (ring) {
+                    ring.append(row.getSeq(), json);
+                    userWebSocketSessionManager.send(row.getUserId(), new TextMessage(json));
+                }
+            } else {
+                userWebSocketSessionManager.send(row.getUserId(), new TextMessage(json));
+            }
+        }
+    }
+
+    private UserNotificationDto toDto(UserNotification row) {
+        UserNotificationDto dto = new UserNotificationDto();
+        dto.setSeq(row.getSeq());
+        dto.setType(row.getEventType());
+        dto.setData(row.getPayload());
+        dto.setTime(row.getCreateTime() == null ? null : row.getCreateTime().atZone(ZONE).toInstant().toEpochMilli());
+        return dto;
+    }
+
+    private String toMessage(UserNotification row) {
+        return toJson(toDto(row));
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.error("【通知收件箱】通知内容序列化失败: {}", value, e);
+            return "null";
+        }
+    }
+
+    /**
+     * 单个用户的有界环形缓冲，保存最近的通知消息；调用方持有该对象的锁
+     */
+    private static final class Ring {
+        private final long[] seqs;
+        private final String[] messages;
+        private int head;
+        private int size;
+        private volatile long lastTouched = System.currentTimeMillis();
+
+        private Ring(int capacity) {
+            this.seqs = new long[Math.max(1, capacity)];
+            this.messages = new String[seqs.length];
+        }
+
+        private void touch() {
+            lastTouched = System.currentTimeMillis();
+        }
+
+        private void append(long seq, String message) {
+            int index = (head + size) % seqs.length;
+            if (size == seqs.length) {
+                head = (head + 1) % seqs.length;
+            } else {
+                size++;
+            }
+            seqs[index] = seq;
+            messages[index] = message;
+        }
+
+        /**
+         * @return 序号 (afterSeq, upToSeq] 的全部消息；缓冲中不连续或未覆盖该区间时返回 null
+         */
+        private List<String> since(long afterSeq, long upToSeq) {
+            if (size == 0 || seqs[head] > afterSeq + 1 || seqs[(head + size - 1) % seqs.length] < upToSeq) {
+                return null;
+            }
+            List<String> result = new ArrayList<>();
+            long expected = afterSeq + 1;
+            for (int i = 0; i < size; i++) {
+                int index = (head + i) % seqs.length;
+                if (seqs[index] <= afterSeq) {
+                    continue;
+                }
+                // 其他节点发出的通知不在本节点缓冲中，序号出现缺口时改为查库
+                if (seqs[index] != expected) {
+                    return null;
+                }
+                result.add(messages[index]);
+                expected++;
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.wzz.venom.service.impl.webSocket;
+
+import com.wzz.venom.service.impl.config.SysConfigServiceImpl;
+import com.wzz.venom.service.webSocket.PresenceService;
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import com.wzz.venom.utils.WebSocketSessionManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 用户在线状态服务实现类
+ */
+@Service
+public class PresenceServiceImpl implements PresenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(PresenceServiceImpl.class);
+
+    /** 在线摘要事件类型，管理端可按该事件类型订阅 */
+    public static final String DIGEST_EVENT = "PRESENCE_DIGEST";
+
+    @Autowired
+    private WebSocketSessionManager webSocketSessionManager;
+
+    /** 集群转发服务，未开启集群时不存在 */
+    @Autowired
+    private ObjectProvider<WebSocketClusterService> clusterServiceProvider;
+
+    /** 摘要中最多列出的上线/下线用户数，超出部分只计数 */
+    @Value("${venom.websocket.presence.max-ids:200}")
+    private int maxIds;
+
+    /** 在线用户：userId -> 用户名 */
+    private final Map<Long, String> online = new ConcurrentHashMap<>();
+
+    /** 本周期的变化，受 this 锁保护 */
+    private Window window = new Window();
+
+    @Override
+    public void onConnected(Long userId, String userName) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (this) {
+            boolean wasOnline = online.put(userId, userName == null ? "" : userName) != null;
+            window.record(userId, userName, wasOnline, true);
+            window.connects++;
+        }
+    }
+
+    @Override
+    public void onDisconnected(Long userId, String userName) {
+        if (userId == null) {
+            return;
+        }
+        synchronized (this) {
+            boolean wasOnline = online.remove(userId) != null;
+            window.record(userId, userName, wasOnline, false);
+            window.disconnects++;
+        }
+    }
+
+    @Override
+    public int onlineCount() {
+        return online.size();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${venom.websocket.presence.digest-interval-ms:2000}")
+    public void publishDigest() {
+        Window closed;
+        synchronized (this) {
+            if (window.connects == 0 && window.disconnects == 0) {
+                return;
+            }
+            closed = window;
+            window = new Window();
+        }
+        long now = System.currentTimeMillis();
+        // 周期内状态反复变化但首尾一致的用户不列出
+        List<Map<String, Object>> connected = new ArrayList<>();
+        List<Map<String, Object>> disconnected = new ArrayList<>();
+        int connectedTotal = 0;
+        int disconnectedTotal = 0;
+        for (Map.Entry<Long, Change> entry : closed.changes.entrySet()) {
+            Change change = entry.getValue();
+            if (change.initiallyOnline == change.online) {
+                continue;
+            }
+            if (change.online) {
+                connectedTotal++;
+                if (connected.size() < maxIds) {
+                    connected.add(Map.of("userId", entry.getKey(), "user", change.userName));
+                }
+            } else {
+                disconnectedTotal++;
+                if (disconnected.size() < maxIds) {
+                    disconnected.add(Map.of("userId", entry.getKey(), "user", change.userName));
+                }
+            }
+        }
+
+        Map<String, Object> digest = new LinkedHashMap<>();
+        digest.put("event", DIGEST_EVENT);
+        digest.put("online", online.size());
+        // 多节点部署时每个节点发布自己的摘要，online 为本节点在线数，clusterOnline 为集群在线数
+        digest.put("node", SysConfigServiceImpl.NODE_ID);
+        WebSocketClusterService clusterService = clusterServiceProvider.getIfAvailable();
+        if (clusterService != null) {
+            digest.put("clusterOnline", clusterService.clusterOnlineCount());
+        }
+        digest.put("connects", closed.connects);
+        digest.put("disconnects", closed.disconnects);
+        digest.put("since", closed.startMillis);
+        digest.put("until", now);
+        digest.put("connected", connected);
+        digest.put("connectedTotal", connectedTotal);
+        digest.put("disconnected", disconnected);
+        digest.put("disconnectedTotal", disconnectedTotal);
+        digest.put("truncated", connectedTotal > connected.size() || disconnectedTotal > disconnected.size());
+        webSocketSessionManager.publish(DIGEST_EVENT, null, digest, null);
+        log.debug("【在线状态】发布在线摘要：在线 {}，+{} / -{}（{} ms）",
+                online.size(), closed.connects, closed.disconnects, now - closed.startMillis);
+    }
+
+    /**
+     * 一个统计周期内的变化
+     */
+    private static final class Window {
+        private final long startMillis = System.currentTimeMillis();
+        private final Map<Long, Change> changes = new LinkedHashMap<>();
+        private int connects;
+        private int disconnects;
+
+        private void record(Long userId, String userName, boolean wasOnline, boolean nowOnline) {
+            Change change = changes.computeIfAbsent(userId, id -> new Change(wasOnline));
+            change.online = nowOnline;
+            if (userName != null) {
+                change.userName = userName;
+            }
+        }
+    }
+
+    /**
+     * 单个用户在周期内的状态：周期开始时是否在线、当前是否在线
+     */
+    private static final class Change {
+        private final boolean initiallyOnline;
+        private boolean online;
+        private String userName = "";
+
+        private Change(boolean initiallyOnline) {
+            this.initiallyOnline = initiallyOnline;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package com.wzz.venom.service.impl.webSocket;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.dto.WsClusterStatsDto;
+import com.wzz.venom.service.impl.config.SysConfigServiceImpl;
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import com.wzz.venom.utils.UserWebSocketSessionManager;
+import com.wzz.venom.utils.WebSocketSessionManager;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 集群服务实现类
+ * <p>
+ * 分布式会话目录：Redis Hash {@value #DIRECTORY_KEY} 保存 用户ID -> 节点ID，节点存活键 {@value #NODE_KEY_PREFIX}&lt;节点ID&gt;
+ * 带过期时间并由心跳续期。目录指向已下线节点的条目在查找时清理，本节点的条目在心跳时重新登记，Redis 重启后可自愈。
+ * </p>
+ * <p>
+ * 在线人数：每个节点的在线用户另存一份 Set {@value #NODE_USERS_KEY_PREFIX}&lt;节点ID&gt;，与节点存活键同样由心跳续期，
+ * 节点宕机后随之过期；集群在线数只累加仍存活节点的 Set。心跳时发现已下线的节点，顺带清理目录中指向它的条目。
+ * </p>
+ * <p>
+ * 节点间转发：管理端事件发布到广播频道，用户推送发布到目标节点的定向频道。
+ * 待转发的消息先进入有界队列，由一个发送线程按频道攒批（达到批量大小或等待时间）后发布，一个批次只占用一次 Redis 往返。
+ * </p>
+ */
+@Service
+@ConditionalOnProperty(prefix = "venom.websocket.cluster", name = "enabled", havingValue = "true")
+public class WebSocketClusterServiceImpl implements WebSocketClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketClusterServiceImpl.class);
+
+    /** 分布式会话目录：用户ID -> 节点ID */
+    public static final String DIRECTORY_KEY = "venom:ws:user-node";
+    /** 节点存活键前缀 */
+    public static final String NODE_KEY_PREFIX = "venom:ws:node:";
+    /** 已登记的节点ID集合 */
+    public static final String NODES_KEY = "venom:ws:nodes";
+    /** 节点在线用户集合前缀 */
+    public static final String NODE_USERS_KEY_PREFIX = "venom:ws:node-users:";
+    /** 管理端事件广播频道 */
+    public static final String BROADCAST_CHANNEL = "venom:ws:relay:broadcast";
+    /** 节点定向频道前缀 */
+    public static final String NODE_CHANNEL_PREFIX = "venom:ws:relay:node:";
+
+    private static final String KIND_ADMIN = "A";
+    private static final String KIND_USER = "U";
+
+    /** 只删除仍指向指定节点的目录条目，避免误删用户在其他节点的新连接 */
+    private static final DefaultRedisScript<Long> UNREGISTER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then return redis.call('HDEL', KEYS[1], ARGV[1]) end return 0",
+            Long.class);
+
+    /** 节点存活状态在本地缓存的毫秒数 */
+    private static final long NODE_ALIVE_CACHE_MILLIS = 5000;
+
+    /** 心跳时重新登记本节点用户，每次写入的条目数 */
+    private static final int REGISTER_CHUNK_SIZE = 500;
+
+    @Autowired
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Autowired
+    private WebSocketSessionManager webSocketSessionManager;
+
+    @Autowired
+    private UserWebSocketSessionManager userWebSocketSessionManager;
+
+    /** 每个转发批次最多包含的消息数 */
+    @Value("${venom.websocket.cluster.relay-batch-size:100}")
+    private int relayBatchSize;
+
+    /** 攒批最长等待毫秒数 */
+    @Value("${venom.websocket.cluster.relay-linger-ms:10}")
+    private long relayLingerMs;
+
+    /** 待转发消息队列容量 */
+    @Value("${venom.websocket.cluster.relay-queue-capacity:10000}")
+    private int relayQueueCapacity;
+
+    /** 节点存活键过期秒数 */
+    @Value("${venom.websocket.cluster.node-ttl-seconds:30}")
+    private long nodeTtlSeconds;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** 节点ID -> 存活状态缓存到期时间 */
+    private final Map<String, Long> aliveNodes = new ConcurrentHashMap<>();
+
+    private BlockingQueue<Outgoing> outbound;
+    private ExecutorService flusher;
+    private volatile boolean running;
+
+    // --- 统计 ---
+    private final AtomicLong relayedItems = new AtomicLong();
+    private final AtomicLong relayedBatches = new AtomicLong();
+    private final AtomicLong receivedItems = new AtomicLong();
+    private final AtomicLong receivedBatches = new AtomicLong();
+    private final AtomicLong droppedItems = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong unroutable = new AtomicLong();
+    private final AtomicLong staleEntries = new AtomicLong();
+
+    @PostConstruct
+    public void start() {
+        outbound = new ArrayBlockingQueue<>(Math.max(1, relayQueueCapacity));
+        running = true;
+        heartbeat();
+        flusher = Executors.newVirtualThreadPerTaskExecutor();
+        flusher.submit(this::flushLoop);
+        log.info("【WebSocket 集群】节点 {} 已启用跨节点转发", SysConfigServiceImpl.NODE_ID);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        flusher.shutdown();
+        try {
+            if (!flusher.awaitTermination(5, TimeUnit.SECONDS)) {
+                log.warn("【WebSocket 集群】关闭时仍有 {} 条转发消息未发出", outbound.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            // 其他节点据此将本节点的目录条目视为失效
+            stringRedisTemplate.delete(List.of(NODE_KEY_PREFIX + SysConfigServiceImpl.NODE_ID, nodeUsersKey()));
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】删除节点存活键失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 续期本节点存活键，重新登记本节点的在线用户，并清理已下线节点的残留条目
+     */
+    @Scheduled(fixedDelayString = "${venom.websocket.cluster.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        try {
+            Duration ttl = Duration.ofSeconds(nodeTtlSeconds);
+            stringRedisTemplate.opsForValue().set(NODE_KEY_PREFIX + SysConfigServiceImpl.NODE_ID,
+                    String.valueOf(System.currentTimeMillis()), ttl);
+            stringRedisTemplate.opsForSet().add(NODES_KEY, SysConfigServiceImpl.NODE_ID);
+            Map<String, String> chunk = new LinkedHashMap<>();
+            for (Long userId : userWebSocketSessionManager.localUserIds()) {
+                chunk.put(String.valueOf(userId), SysConfigServiceImpl.NODE_ID);
+                if (chunk.size() >= REGISTER_CHUNK_SIZE) {
+                    registerChunk(chunk);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                registerChunk(chunk);
+            }
+            stringRedisTemplate.expire(nodeUsersKey(), ttl);
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】节点心跳失败：{}", e.getMessage());
+        }
+        pruneDeadNodes();
+    }
+
+    @Override
+    public void registerUser(Long userId) {
+        try {
+            String field = String.valueOf(userId);
+            stringRedisTemplate.opsForHash().put(DIRECTORY_KEY, field, SysConfigServiceImpl.NODE_ID);
+            stringRedisTemplate.opsForSet().add(nodeUsersKey(), field);
+        } catch (Exception e) {
+            // 下一次心跳时重新登记
+            log.warn("【WebSocket 集群】登记用户 {} 的连接失败：{}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public void unregisterUser(Long userId) {
+        removeEntry(userId, SysConfigServiceImpl.NODE_ID);
+        try {
+            stringRedisTemplate.opsForSet().remove(nodeUsersKey(), String.valueOf(userId));
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】从本节点在线集合移除用户 {} 失败：{}", userId, e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean relayToUser(Long userId, String json) {
+        String node;
+        try {
+            Object value = stringRedisTemplate.opsForHash().get(DIRECTORY_KEY, String.valueOf(userId));
+            node = value == null ? null : value.toString();
+            if (node != null && !SysConfigServiceImpl.NODE_ID.equals(node) && !isNodeAlive(node)) {
+                removeEntry(userId, node);
+                staleEntries.incrementAndGet();
+                node = null;
+            }
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】查询用户 {} 的连接节点失败：{}", userId, e.getMessage());
+            return false;
+        }
+        // 目录指向本节点时本地已查过没有连接（连接刚断开），同样视为不在线
+        if (node == null || SysConfigServiceImpl.NODE_ID.equals(node)) {
+            unroutable.incrementAndGet();
+            return false;
+        }
+        return enqueue(NODE_CHANNEL_PREFIX + node, RelayItem.user(userId, json));
+    }
+
+    @Override
+    public void relayAdminEvent(String eventType, String userName, String json, String coalesceKey) {
+        enqueue(BROADCAST_CHANNEL, RelayItem.admin(eventType, userName, json, coalesceKey));
+    }
+
+    @Override
+    public void onRelayMessage(String body) {
+        RelayEnvelope envelope;
+        try {
+            envelope = objectMapper.readValue(body, RelayEnvelope.class);
+        } catch (JsonProcessingException e) {
+            log.warn("【WebSocket 集群】无法解析转发消息：{}", e.getMessage());
+            return;
+        }
+        if (envelope.items == null || SysConfigServiceImpl.NODE_ID.equals(envelope.node)) {
+            return;
+        }
+        receivedBatches.incrementAndGet();
+        receivedItems.addAndGet(envelope.items.size());
+        for (RelayItem item : envelope.items) {
+            if (item.p == null) {
+                continue;
+            }
+            TextMessage message = new TextMessage(item.p);
+            if (KIND_ADMIN.equals(item.k)) {
+                webSocketSessionManager.publishLocal(item.e, item.u, message, item.c);
+            } else if (KIND_USER.equals(item.k) && item.id != null) {
+                if (!userWebSocketSessionManager.sendLocal(item.id, message)) {
+                    log.debug("【WebSocket 集群】用户 {} 已不在本节点，转发的消息未送达", item.id);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Collection<String> subscribedChannels() {
+        return List.of(BROADCAST_CHANNEL, NODE_CHANNEL_PREFIX + SysConfigServiceImpl.NODE_ID);
+    }
+
+    @Override
+    public long clusterOnlineCount() {
+        try {
+            Set<String> nodes = stringRedisTemplate.opsForSet().members(NODES_KEY);
+            long total = 0;
+            if (nodes != null) {
+                for (String node : nodes) {
+                    // 已下线节点的集合随存活键过期，这里再按存活状态过滤一次，避免过期前重复计入
+                    if (!SysConfigServiceImpl.NODE_ID.equals(node) && !isNodeAlive(node)) {
+                        continue;
+                    }
+                    Long size = stringRedisTemplate.opsForSet().size(NODE_USERS_KEY_PREFIX + node);
+                    total += size == null ? 0 : size;
+                }
+            }
+            return total;
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】查询集群在线用户数失败：{}", e.getMessage());
+            return userWebSocketSessionManager.onlineCount();
+        }
+    }
+
+    @Override
+    public WsClusterStatsDto stats() {
+        WsClusterStatsDto dto = new WsClusterStatsDto();
+        dto.setNodeId(SysConfigServiceImpl.NODE_ID);
+        dto.setLocalUsers(userWebSocketSessionManager.onlineCount());
+        dto.setClusterUsers(clusterOnlineCount());
+        dto.setPending(outbound.size());
+        dto.setRelayedItems(relayedItems.get());
+        dto.setRelayedBatches(relayedBatches.get());
+        dto.setReceivedItems(receivedItems.get());
+        dto.setReceivedBatches(receivedBatches.get());
+        dto.setDroppedItems(droppedItems.get());
+        dto.setFailedBatches(failedBatches.get());
+        dto.setUnroutable(unroutable.get());
+        dto.setStaleEntries(staleEntries.get());
+        return dto;
+    }
+
+    private boolean isNodeAlive(String node) {
+        long now = System.currentTimeMillis();
+        Long until = aliveNodes.get(node);
+        if (until != null && until > now) {
+            return true;
+        }
+        if (Boolean.TRUE.equals(stringRedisTemplate.hasKey(NODE_KEY_PREFIX + node))) {
+            aliveNodes.put(node, now + NODE_ALIVE_CACHE_MILLIS);
+            return true;
+        }
+        aliveNodes.remove(node);
+        return false;
+    }
+
+    private static String nodeUsersKey() {
+        return NODE_USERS_KEY_PREFIX + SysConfigServiceImpl.NODE_ID;
+    }
+
+    private void registerChunk(Map<String, String> chunk) {
+        stringRedisTemplate.opsForHash().putAll(DIRECTORY_KEY, chunk);
+        stringRedisTemplate.opsForSet().add(nodeUsersKey(), chunk.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * 清理已下线节点：从节点集合移除，删除其在线用户集合，并删除目录中仍指向它的条目
+     */
+    private void pruneDeadNodes() {
+        try {
+            Set<String> nodes = stringRedisTemplate.opsForSet().members(NODES_KEY);
+            if (nodes == null) {
+                return;
+            }
+            for (String node : nodes) {
+                if (SysConfigServiceImpl.NODE_ID.equals(node) || isNodeAlive(node)) {
+                    continue;
+                }
+                // 多个节点可能同时清理同一个节点，只有移除成功的一方继续清理目录
+                Long removed = stringRedisTemplate.opsForSet().remove(NODES_KEY, node);
+                if (removed == null || removed == 0) {
+                    continue;
+                }
+                stringRedisTemplate.delete(NODE_USERS_KEY_PREFIX + node);
+                int pruned = pruneDirectory(node);
+                staleEntries.addAndGet(pruned);
+                log.info("【WebSocket 集群】节点 {} 已下线，清理其目录条目 {} 条", node, pruned);
+            }
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】清理已下线节点失败：{}", e.getMessage());
+        }
+    }
+
+    private int pruneDirectory(String node) {
+        List<Long> userIds = new ArrayList<>();
+        ScanOptions options = ScanOptions.scanOptions().count(REGISTER_CHUNK_SIZE).build();
+        try (Cursor<Map.Entry<Object, Object>> cursor = stringRedisTemplate.opsForHash().scan(DIRECTORY_KEY, options)) {
+            while (cursor.hasNext()) {
+                Map.Entry<Object, Object> entry = cursor.next();
+                if (node.equals(String.valueOf(entry.getValue()))) {
+                    userIds.add(Long.valueOf(entry.getKey().toString()));
+                }
+            }
+        }
+        // 逐条按节点比较后删除，用户已在其他节点重新登记的条目不受影响
+        for (Long userId : userIds) {
+            removeEntry(userId, node);
+        }
+        return userIds.size();
+    }
+
+    private void removeEntry(Long userId, String node) {
+        try {
+            stringRedisTemplate.execute(UNREGISTER_SCRIPT, List.of(DIRECTORY_KEY), String.valueOf(userId), node);
+        } catch (Exception e) {
+            log.warn("【WebSocket 集群】注销用户 {} 的连接失败：{}", userId, e.getMessage());
+        }
+    }
+
+    private boolean enqueue(String channel, RelayItem item) {
+        if (!running || !outbound.offer(new Outgoing(channel, item))) {
+            long dropped = droppedItems.incrementAndGet();
+            if (dropped % 1000 == 1) {
+                log.warn("【WebSocket 集群】转发队列已满，累计丢弃 {} 条消息", dropped);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 发送线程：取到第一条消息后在等待时间内继续收集，按频道分组后每个频道发布一个批次
+     */
+    private void flushLoop() {
+        List<Outgoing> batch = new ArrayList<>(relayBatchSize);
+        while (running || !outbound.isEmpty()) {
+            try {
+                Outgoing first = outbound.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(relayLingerMs);
+                while (batch.size() < relayBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Outgoing next = remaining > 0 ? outbound.poll(remaining, TimeUnit.NANOSECONDS) : outbound.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                publishBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("【WebSocket 集群】发送转发批次异常", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publishBatch(List<Outgoing> batch) {
+        // 按频道分组，组内保持入队顺序
+        Map<String, List<RelayItem>> byChannel = new LinkedHashMap<>();
+        for (Outgoing outgoing : batch) {
+            byChannel.computeIfAbsent(outgoing.channel, key -> new ArrayList<>()).add(outgoing.item);
+        }
+        for (Map.Entry<String, List<RelayItem>> entry : byChannel.entrySet()) {
+            try {
+                RelayEnvelope envelope = new RelayEnvelope();
+                envelope.node = SysConfigServiceImpl.NODE_ID;
+                envelope.items = entry.getValue();
+                stringRedisTemplate.convertAndSend(entry.getKey(), objectMapper.writeValueAsString(envelope));
+                relayedBatches.incrementAndGet();
+                relayedItems.addAndGet(entry.getValue().size());
+            } catch (Exception e) {
+                failedBatches.incrementAndGet();
+                log.warn("【WebSocket 集群】发布 {} 条转发消息到 {} 失败：{}", entry.getValue().size(), entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private record Outgoing(String channel, RelayItem item) {
+    }
+
+    /**
+     * 转发批次：来源节点和消息列表
+     */
+    static final class RelayEnvelope {
+        public String node;
+        public List<RelayItem> items;
+    }
+
+    /**
+     * 单条转发消息，字段名取短名以减小批次体积
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static final class RelayItem {
+        /** 类型：A 管理端事件 / U 用户推送 */
+        public String k;
+        /** 事件类型 */
+        public String e;
+        /** 事件相关的用户名 */
+        public String u;
+        /** 合并键 */
+        public String c;
+        /** 目标用户ID */
+        public Long id;
+        /** 已序列化的消息 */
+        public String p;
+
+        static RelayItem admin(String eventType, String userName, String json, String coalesceKey) {
+            RelayItem item = new RelayItem();
+            item.k = KIND_ADMIN;
+            item.e = eventType;
+            item.u = userName;
+            item.c = coalesceKey;
+            item.p = json;
+            return item;
+        }
+
+        static RelayItem user(Long userId, String json) {
+            RelayItem item = new RelayItem();
+            item.k = KIND_USER;
+            item.id = userId;
+            item.p = json;
+            return item;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.wzz.venom.service.impl.webSocket;
+
+import com.wzz.venom.domain.dto.WsHeartbeatStatsDto;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
+import com.wzz.venom.utils.HierarchicalTimingWheel;
+import com.wzz.venom.utils.WebSocketSendQueue;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 服务端心跳服务实现类
+ * <p>
+ * 每个连接在时间轮中只有一个条目，收到数据时只更新最近活动时间，不操作时间轮；
+ * 条目到期时按最近活动时间重新计算下次检查时间（惰性重排），活跃连接不产生额外开销。
+ * 每个刻度发送的 Ping 数有上限，超出的推迟到下一刻度，避免大量连接同时到期时集中写出。
+ * </p>
+ */
+@Service
+public class WebSocketHeartbeatServiceImpl implements WebSocketHeartbeatService {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketHeartbeatServiceImpl.class);
+
+    /** 管理端连接的所属标记，见 WebSocketSessionManager */
+    private static final String ADMIN_OWNER = "admin";
+
+    /** 时间轮刻度毫秒数 */
+    @Value("${venom.websocket.heartbeat.tick-millis:1000}")
+    private long tickMillis;
+
+    /** 空闲多少秒后发送 Ping */
+    @Value("${venom.websocket.heartbeat.ping-interval-seconds:25}")
+    private long pingIntervalSeconds;
+
+    /** 空闲多少秒后断开连接 */
+    @Value("${venom.websocket.heartbeat.idle-timeout-seconds:75}")
+    private long idleTimeoutSeconds;
+
+    /** 每个刻度最多发送的 Ping 数 */
+    @Value("${venom.websocket.heartbeat.ping-batch-size:500}")
+    private int pingBatchSize;
+
+    private HierarchicalTimingWheel wheel;
+
+    private final AtomicLong idSequence = new AtomicLong();
+
+    /** 时间轮条目ID -> 跟踪中的连接 */
+    private final Map<Long, Tracked> byId = new ConcurrentHashMap<>();
+
+    /** sessionId -> 跟踪中的连接 */
+    private final Map<String, Tracked> bySession = new ConcurrentHashMap<>();
+
+    // --- 统计 ---
+    private final AtomicLong pingsSent = new AtomicLong();
+    private final AtomicLong pingsSkipped = new AtomicLong();
+    private final AtomicLong pongsReceived = new AtomicLong();
+    private final AtomicLong evictedIdle = new AtomicLong();
+    private final AtomicLong reapedClosed = new AtomicLong();
+    private volatile long lastSweepMillis;
+    private volatile int lastSweepDue;
+
+    @PostConstruct
+    public void init() {
+        // 第 0 层 512 个槽位：秒级刻度下约 8.5 分钟，足以覆盖 Ping 间隔和空闲超时
+        wheel = new HierarchicalTimingWheel(Math.max(1L, tickMillis), 512, System.currentTimeMillis());
+    }
+
+    @Override
+    public void register(WebSocketSendQueue queue) {
+        Tracked tracked = new Tracked(idSequence.incrementAndGet(), queue);
+        Tracked previous = bySession.put(queue.getSession().getId(), tracked);
+        if (previous != null) {
+            byId.remove(previous.id);
+        }
+        byId.put(tracked.id, tracked);
+        // 首次检查时间在 [间隔/2, 间隔] 内随机分布，同时建立的大量连接不会在同一刻度集中 Ping
+        long interval = pingIntervalMillis();
+        long firstCheck = tracked.lastActivity + interval / 2 + ThreadLocalRandom.current().nextLong(interval / 2 + 1);
+        wheel.add(tracked.id, firstCheck);
+    }
+
+    @Override
+    public void unregister(WebSocketSession session) {
+        Tracked tracked = bySession.remove(session.getId());
+        if (tracked != null) {
+            // 时间轮中的条目到期时找不到对应连接，直接丢弃
+            byId.remove(tracked.id);
+        }
+    }
+
+    @Override
+    public void touch(WebSocketSession session) {
+        Tracked tracked = bySession.get(session.getId());
+        if (tracked != null) {
+            tracked.lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void onPong(WebSocketSession session) {
+        pongsReceived.incrementAndGet();
+        touch(session);
+    }
+
+    /**
+     * 推进时间轮，检查到期的连接
+     */
+    @Scheduled(fixedRateString = "${venom.websocket.heartbeat.tick-millis:1000}")
+    public void sweep() {
+        long start = System.currentTimeMillis();
+        long[] dueIds = wheel.advanceTo(start);
+        long pingInterval = pingIntervalMillis();
+        long idleTimeout = Math.max(pingInterval, idleTimeoutSeconds * 1000);
+        int pings = 0;
+        for (long id : dueIds) {
+            Tracked tracked = byId.get(id);
+            if (tracked == null) {
+                continue;
+            }
+            WebSocketSendQueue queue = tracked.queue;
+            if (!queue.isOpen()) {
+                // 连接已关闭但未收到关闭回调，直接清理（触发连接池移除）
+                reapedClosed.incrementAndGet();
+                unregister(queue.getSession());
+                queue.close(CloseStatus.SESSION_NOT_RELIABLE);
+                continue;
+            }
+            long idle = start - tracked.lastActivity;
+            if (idle >= idleTimeout) {
+                evictedIdle.incrementAndGet();
+                log.info("【WebSocket心跳】连接 [{}] ({}) 已 {} 秒无响应，断开", queue.getSession().getId(), queue.getOwner(), idle / 1000);
+                unregister(queue.getSession());
+                queue.close(CloseStatus.SESSION_NOT_RELIABLE.withReason("idle timeout"));
+                continue;
+            }
+            if (idle < pingInterval) {
+                // 期间有过活动，按最近活动时间重新安排
+                wheel.add(id, tracked.lastActivity + pingInterval);
+                continue;
+            }
+            if (pings >= pingBatchSize) {
+                // 本刻度 Ping 已达上限，推迟到下一刻度
+                wheel.add(id, start + tickMillis);
+                continue;
+            }
+            pings++;
+            if (queue.ping()) {
+                pingsSent.incrementAndGet();
+            } else {
+                pingsSkipped.incrementAndGet();
+            }
+            // 下次检查：再过一个 Ping 间隔，但不晚于空闲超时
+            wheel.add(id, Math.min(start + pingInterval, tracked.lastActivity + idleTimeout));
+        }
+        lastSweepDue = dueIds.length;
+        lastSweepMillis = System.currentTimeMillis() - start;
+    }
+
+    @Override
+    public WsHeartbeatStatsDto stats() {
+        WsHeartbeatStatsDto dto = new WsHeartbeatStatsDto();
+        int admin = 0;
+        for (Tracked tracked : bySession.values()) {
+            if (ADMIN_OWNER.equals(tracked.queue.getOwner())) {
+                admin++;
+            }
+        }
+        int total = bySession.size();
+        dto.setTrackedSessions(total);
+        dto.setAdminSessions(admin);
+        dto.setUserSessions(Math.max(0, total - admin));
+        dto.setPingsSent(pingsSent.get());
+        dto.setPingsSkipped(pingsSkipped.get());
+        dto.setPongsReceived(pongsReceived.get());
+        dto.setEvictedIdle(evictedIdle.get());
+        dto.setReapedClosed(reapedClosed.get());
+        dto.setLastSweepMillis(lastSweepMillis);
+        dto.setLastSweepDue(lastSweepDue);
+        return dto;
+    }
+
+    private long pingIntervalMillis() {
+        return Math.max(tickMillis, pingIntervalSeconds * 1000);
+    }
+
+    /**
+     * 跟踪中的连接
+     */
+    private static final class Tracked {
+        private final long id;
+        private final WebSocketSendQueue queue;
+        private volatile long lastActivity = System.currentTimeMillis();
+
+        private Tracked(long id, WebSocketSendQueue queue) {
+            this.id = id;
+            this.queue = queue;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.wzz.venom.service.product;
+
+import com.wzz.venom.domain.dto.FundCreditDto;
+
+import java.util.List;
+
+/**
+ * 回款发件箱服务接口
+ */
+public interface PayoutOutboxService {
+
+    /**
+     * 在调用方事务内写入回款事件（businessId 作为事件幂等键）
+     * @param credits 回款明细
+     */
+    void enqueue(List<FundCreditDto> credits);
+
+    /**
+     * 拉取并投递一批到期的回款事件：整批在一个事务内入账；整批失败时逐条重试，失败的事件按退避时间稍后再投递
+     * @return 本批处理的事件数量，0 表示当前没有待投递的事件
+     */
+    int relayBatch();
+
+    /**
+     * @return 待投递的事件数量
+     */
+    long countPending();
+}
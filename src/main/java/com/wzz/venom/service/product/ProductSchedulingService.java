@@ -2,26 +2,28 @@ package com.wzz.venom.service.product;
 
 
 import com.wzz.venom.domain.entity.UserProduct;
-import jakarta.annotation.PostConstruct;
 
 /**
  * 产品结算任务调度服务接口
+ * <p>
+ * 到期结算以数据库为准：轮询 user_products 中已到期、仍持有中的产品并结算，
+ * 不为每个产品在内存中保留定时器，服务重启后自动从数据库继续。
+ * </p>
  */
 public interface ProductSchedulingService {
 
     /**
-     * 安排一个产品到期结算任务
+     * 登记一个产品的到期结算
+     * <p>
+     * 产品入库后即会被轮询发现；到期时间落在已预加载窗口内的产品直接加入时间轮，以保证秒级精度。
+     * </p>
      * @param product 用户购买的产品实体，必须包含ID和endTime
      */
     void scheduleProductSettlement(UserProduct product);
 
-    //todo
-    @PostConstruct
-    void reschedulePendingTasksOnStartup();
-
     /**
-     * 取消一个产品的结算任务（如果需要）
-     * @param userProductId 产品ID
+     * 轮询一次已到期的产品，按到期时间顺序分批提交到有界线程池结算，并把即将到期的产品预加载到时间轮
+     * @return 本次提交结算的产品数量
      */
-    // void cancelScheduledTask(Long userProductId); // 可选扩展
-}
\ No newline at end of file
+    int pollDueProducts();
+}
@@ -1,5 +1,9 @@
 package com.wzz.venom.service.product;
 
+import com.wzz.venom.domain.dto.SettlementResultDto;
+
+import java.util.Collection;
+
 /**
  * 产品到期结算服务接口
  */
@@ -11,4 +15,16 @@ public interface ProductSettlementService {
      * @param userProductId 用户持有的产品ID
      */
     void settleProduct(Long userProductId);
-}
\ No newline at end of file
+
+    /**
+     * 批量结算一批到期产品
+     * <p>
+     * 在一个事务内锁定并以一条条件更新认领仍持有中的产品，并在同一事务内写入回款事件，回款由发件箱中继任务异步入账。
+     * 整批失败时退化为逐个结算，单个产品的失败不影响其他产品。
+     * </p>
+     *
+     * @param userProductIds 用户持有的产品ID集合
+     * @return 每个产品的处理结果
+     */
+    SettlementResultDto settleProducts(Collection<Long> userProductIds);
+}
@@ -0,0 +1,36 @@
+package com.wzz.venom.service.user;
+
+/**
+ * 冻结用户索引服务接口
+ * <p>
+ * 在内存中保存全部冻结用户的ID，冻结检查无需查询数据库。
+ * 启动时全量加载，冻结状态变更时增量更新并通知其他节点，另有定时全量重载兜底。
+ * </p>
+ */
+public interface FrozenUserService {
+
+    /**
+     * 判断用户是否被冻结
+     * @param userId 用户ID
+     * @return 是否冻结；索引尚未加载时查询数据库
+     */
+    boolean isFrozen(Long userId);
+
+    /**
+     * 用户冻结状态变更后更新索引（处于事务中时在提交后更新），并通知其他节点
+     * @param userId 用户ID
+     * @param frozen 是否冻结
+     */
+    void onFreezeStatusChanged(Long userId, boolean frozen);
+
+    /**
+     * 从数据库全量重新加载冻结用户
+     */
+    void reload();
+
+    /**
+     * 处理其他节点发来的冻结状态变更通知
+     * @param message 通知内容
+     */
+    void onRemoteChange(String message);
+}
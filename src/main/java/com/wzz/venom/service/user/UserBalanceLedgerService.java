@@ -0,0 +1,27 @@
+package com.wzz.venom.service.user;
+
+import com.wzz.venom.domain.entity.User;
+
+import java.math.BigDecimal;
+
+/**
+ * 用户余额账本服务接口
+ * <p>
+ * 所有资金变动统一通过本接口变更 b_user.balance，变更在一条 UPDATE 内完成，并发写入不会丢失更新。
+ * </p>
+ */
+public interface UserBalanceLedgerService {
+
+    /**
+     * 原子地变更用户余额并返回变更后的余额
+     * <p>
+     * 需要在调用方的事务内执行：UPDATE 持有的行锁会一直保持到事务结束，
+     * 调用方据此写入的资金流水余额与用户主表一致。
+     * </p>
+     * @param userName 用户名
+     * @param delta    变更金额（正为增加，负为减少）
+     * @return 仅包含 id、userName、balance 的用户对象，balance 为变更后的余额
+     * @throws com.wzz.venom.exception.BusinessException 用户不存在或余额不足时抛出
+     */
+    User applyDelta(String userName, BigDecimal delta);
+}
@@ -0,0 +1,45 @@
+package com.wzz.venom.service.user;
+
+import com.wzz.venom.domain.entity.User;
+
+/**
+ * 用户信息两级缓存服务接口
+ * <p>
+ * 第一级为进程内近缓存，第二级为 Redis，按用户ID和用户名均可查询。返回的用户对象是副本，调用方可以修改。
+ * 缓存不保存登录密码和提现密码，返回的用户对象中这两个字段始终为 null，校验密码须直接查库。
+ * 修改 b_user 的代码必须在写入后调用 {@link #evict(Long, String)}。
+ * </p>
+ */
+public interface UserCacheService {
+
+    /**
+     * 按用户ID查询
+     * @param id 用户ID
+     * @return 用户信息，不存在时返回 null
+     */
+    User getById(Long id);
+
+    /**
+     * 按用户名查询
+     * @param userName 用户名
+     * @return 用户信息，不存在时返回 null
+     */
+    User getByUserName(String userName);
+
+    /**
+     * 用户信息变更后清除缓存
+     * <p>
+     * 立即清除本节点和 Redis 中的缓存；处于事务中时，本事务后续的查询直接读库（读到自己的写入），
+     * 并在事务结束后再清除一次并通知其他节点。
+     * </p>
+     * @param id       用户ID，未知时传 null
+     * @param userName 用户名，未知时传 null
+     */
+    void evict(Long id, String userName);
+
+    /**
+     * 处理其他节点发来的缓存失效通知
+     * @param message 通知内容
+     */
+    void onRemoteInvalidation(String message);
+}
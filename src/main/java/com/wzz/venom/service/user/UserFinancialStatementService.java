@@ -50,5 +50,12 @@ public interface UserFinancialStatementService {
      */
     boolean reduceUserUnderstandingOfTransactionAmounts(String user, Double amount);
 
-    UserIncomeStatsDto getIncomeStatistics(String userName);
+    /**
+     * 查询用户收益统计：总收益、昨日收益、最近派发日期读取收益汇总，收益记录按页返回最近的部分
+     * @param userName 用户名
+     * @param current  收益记录页码，默认 1
+     * @param size     收益记录每页条数，默认 20，为 0 时不返回收益记录
+     * @return 收益统计
+     */
+    UserIncomeStatsDto getIncomeStatistics(String userName, Integer current, Integer size);
 }
@@ -1,11 +1,14 @@
 package com.wzz.venom.service.user;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.wzz.venom.domain.dto.FundCreditDto;
+import com.wzz.venom.domain.dto.FundFlowPageDto;
 import com.wzz.venom.domain.entity.UserFinancialStatement;
 import com.wzz.venom.domain.entity.UserFundFlow;
 import org.springframework.data.domain.Page;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
 /**
  * 用户资金流水（账本）服务接口
@@ -41,6 +44,19 @@ public interface UserFundFlowService {
      */
     List<UserFundFlow> queryTheUserSFundFlowList(String user);
 
+    /**
+     * 游标分页查询指定用户的资金流水（按ID由新到旧）
+     * @param user      用户名
+     * @param cursor    上一页返回的游标，首页传 null
+     * @param size      每页条数（1-100，默认 20）
+     * @param fundTypes 流水类型筛选，为空表示全部
+     * @param startDate 开始日期（含），为 null 表示不限
+     * @param endDate   结束日期（含），为 null 表示不限
+     * @return 本页流水和下一页游标
+     */
+    FundFlowPageDto queryUserFundFlowPage(String user, String cursor, Integer size,
+                                          List<String> fundTypes, LocalDate startDate, LocalDate endDate);
+
     /**
      * 查询所有提现相关流水记录
      * @return 提现记录列表
@@ -67,6 +83,16 @@ public interface UserFundFlowService {
      */
     boolean increaseUserTransactionAmount(String user, Double amount, String describe);
 
+    /**
+     * 批量入账（生成正向资金流水）
+     * <p>
+     * 按用户分组，每个用户只变更一次余额，流水一次性批量写入；每条流水记录入账后的余额。
+     * </p>
+     * @param credits 入账明细，金额必须为正数
+     * @return 写入的资金流水
+     */
+    List<UserFundFlow> increaseUserTransactionAmountBatch(List<FundCreditDto> credits);
+
     /**
      * 减少用户交易金额（生成负向资金流水）
      * @param user 用户名
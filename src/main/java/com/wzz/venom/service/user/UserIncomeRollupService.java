@@ -0,0 +1,57 @@
+package com.wzz.venom.service.user;
+
+import com.wzz.venom.domain.entity.UserIncomeRollup;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * 用户收益汇总服务接口
+ * <p>
+ * 维护每个用户的累计收益、每日收益和最近派发日期。写入或更正收益流水的一方
+ * 必须在同一事务内调用本服务累加增量，收益统计接口只读取汇总结果。
+ * </p>
+ */
+public interface UserIncomeRollupService {
+
+    /**
+     * 累加单个用户的收益（须在事务内调用）
+     * @param userName    用户名
+     * @param amount      收益增量（可为负，用于更正或删除收益流水）
+     * @param accrualDate 收益业务日期，可为 null
+     * @param incomeTime  收益流水的创建时间，决定计入哪一天
+     */
+    void applyIncome(String userName, BigDecimal amount, LocalDate accrualDate, LocalDateTime incomeTime);
+
+    /**
+     * 批量累加多个用户同一天的收益（须在事务内调用）
+     * @param incomeByUser 用户名 -> 收益增量
+     * @param accrualDate  收益业务日期，可为 null
+     * @param incomeTime   收益流水的创建时间，决定计入哪一天
+     */
+    void applyIncomeBatch(Map<String, BigDecimal> incomeByUser, LocalDate accrualDate, LocalDateTime incomeTime);
+
+    /**
+     * 查询用户收益汇总
+     * @param userName 用户名
+     * @return 收益汇总，用户从未获得收益时为 null
+     */
+    UserIncomeRollup getRollup(String userName);
+
+    /**
+     * 查询用户指定日期的收益合计
+     * @param userName   用户名
+     * @param incomeDate 日期
+     * @return 收益合计，没有收益时为 0
+     */
+    BigDecimal getDailyIncome(String userName, LocalDate incomeDate);
+
+    /**
+     * 由收益流水重新生成收益汇总（用于数据修复）
+     * @param userName 用户名，为 null 时重建全部用户
+     * @return 重建的用户数
+     */
+    int rebuild(String userName);
+}
@@ -0,0 +1,52 @@
+package com.wzz.venom.service.webSocket;
+
+import com.wzz.venom.domain.dto.NotificationRequestDto;
+import com.wzz.venom.domain.dto.UserNotificationDto;
+import com.wzz.venom.enums.NotificationEventEnum;
+
+import java.util.List;
+
+/**
+ * 用户通知收件箱服务
+ * <p>
+ * 通知先持久化（在调用方事务内写入，随业务一起提交），提交后推送给在线用户；离线用户上线时按序号补发。
+ * 本节点为近期在线的用户保留一个有界环形缓冲，重连补发优先从内存读取，缓冲覆盖不到时再查库。
+ * </p>
+ */
+public interface NotificationInboxService {
+
+    /**
+     * 发送一条通知
+     * @param userName 用户名
+     * @param type     通知类型
+     * @param data     通知内容
+     */
+    void push(String userName, NotificationEventEnum type, Object data);
+
+    /**
+     * 批量发送通知（如一批产品到期结算），同一用户的多条通知按列表顺序分配序号
+     * @param requests 通知列表
+     */
+    void pushAll(List<NotificationRequestDto> requests);
+
+    /**
+     * 用户连接建立：补发已收到的最大序号之后的通知，并发送一条同步消息告知当前最大序号
+     * @param userId  用户ID
+     * @param lastSeq 客户端已收到的最大序号，首次连接为 null（只同步序号，不补发）
+     */
+    void onConnected(Long userId, Long lastSeq);
+
+    /**
+     * 用户连接断开：环形缓冲保留一段时间，用于短暂断线后的快速补发
+     * @param userId 用户ID
+     */
+    void onDisconnected(Long userId);
+
+    /**
+     * 查询用户指定序号之后的通知（供客户端补发超出上限时或不使用 WebSocket 时拉取）
+     * @param userId   用户ID
+     * @param afterSeq 已收到的最大序号
+     * @param size     最多条数
+     */
+    List<UserNotificationDto> listAfter(Long userId, long afterSeq, Integer size);
+}
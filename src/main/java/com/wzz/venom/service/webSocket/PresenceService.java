@@ -0,0 +1,35 @@
+package com.wzz.venom.service.webSocket;
+
+/**
+ * 用户在线状态服务接口
+ * <p>
+ * 在内存中维护在线用户和一个统计周期内的上下线变化，按配置的间隔向管理端发布合并后的在线摘要
+ * （PRESENCE_DIGEST），替代每个连接一条的上下线通知；用户名取自连接属性，不查询数据库。
+ * </p>
+ */
+public interface PresenceService {
+
+    /**
+     * 用户连接建立
+     * @param userId   用户ID
+     * @param userName 用户名
+     */
+    void onConnected(Long userId, String userName);
+
+    /**
+     * 用户连接断开（被同一用户的新连接替换的旧连接不应调用）
+     * @param userId   用户ID
+     * @param userName 用户名
+     */
+    void onDisconnected(Long userId, String userName);
+
+    /**
+     * @return 当前在线用户数
+     */
+    int onlineCount();
+
+    /**
+     * 发布本周期的在线摘要；周期内没有变化时不发布
+     */
+    void publishDigest();
+}
@@ -0,0 +1,66 @@
+package com.wzz.venom.service.webSocket;
+
+import com.wzz.venom.domain.dto.WsClusterStatsDto;
+
+import java.util.Collection;
+
+/**
+ * WebSocket 集群服务
+ * <p>
+ * 在 Redis 中维护 用户ID -> 连接所在节点 的分布式会话目录，并通过 Redis 发布订阅在节点间转发消息。
+ * 投递时总是先投递本节点的连接，只有本节点无法送达的部分才转发；转发消息按目标频道攒批后发布。
+ * 仅在 venom.websocket.cluster.enabled=true 时启用。
+ * </p>
+ */
+public interface WebSocketClusterService {
+
+    /**
+     * 登记用户连接在本节点
+     * @param userId 用户ID
+     */
+    void registerUser(Long userId);
+
+    /**
+     * 注销用户在本节点的连接（用户已在其他节点重新连接时不影响其登记）
+     * @param userId 用户ID
+     */
+    void unregisterUser(Long userId);
+
+    /**
+     * 将用户推送转发到用户连接所在的节点
+     * @param userId 用户ID
+     * @param json   已序列化的消息
+     * @return 是否找到在线节点并加入转发队列
+     */
+    boolean relayToUser(Long userId, String json);
+
+    /**
+     * 将管理端事件转发到其他所有节点（由各节点按本地订阅投递）
+     * @param eventType   事件类型
+     * @param userName    事件相关的用户名，可为 null
+     * @param json        已序列化的消息
+     * @param coalesceKey 合并键，可为 null
+     */
+    void relayAdminEvent(String eventType, String userName, String json, String coalesceKey);
+
+    /**
+     * 处理其他节点发来的一批转发消息
+     * @param body 消息体
+     */
+    void onRelayMessage(String body);
+
+    /**
+     * @return 本节点订阅的频道：广播频道和本节点定向频道
+     */
+    Collection<String> subscribedChannels();
+
+    /**
+     * @return 集群内在线用户数
+     */
+    long clusterOnlineCount();
+
+    /**
+     * @return 转发统计
+     */
+    WsClusterStatsDto stats();
+}
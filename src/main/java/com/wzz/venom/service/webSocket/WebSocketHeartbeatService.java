@@ -0,0 +1,44 @@
+package com.wzz.venom.service.webSocket;
+
+import com.wzz.venom.domain.dto.WsHeartbeatStatsDto;
+import com.wzz.venom.utils.WebSocketSendQueue;
+import org.springframework.web.socket.WebSocketSession;
+
+/**
+ * WebSocket 服务端心跳服务
+ * <p>
+ * 记录每个连接最近一次收到客户端数据的时间，由时间轮在到期时检查：空闲超过 Ping 间隔的连接发送协议层 Ping，
+ * 空闲超过超时时间的连接（半开连接、已失联的客户端）主动断开并从连接池移除。
+ * </p>
+ */
+public interface WebSocketHeartbeatService {
+
+    /**
+     * 开始跟踪连接
+     * @param queue 连接的发送队列
+     */
+    void register(WebSocketSendQueue queue);
+
+    /**
+     * 停止跟踪连接
+     * @param session 连接
+     */
+    void unregister(WebSocketSession session);
+
+    /**
+     * 记录收到客户端数据（文本消息、应用层 ping）
+     * @param session 连接
+     */
+    void touch(WebSocketSession session);
+
+    /**
+     * 记录收到协议层 Pong
+     * @param session 连接
+     */
+    void onPong(WebSocketSession session);
+
+    /**
+     * @return 心跳统计
+     */
+    WsHeartbeatStatsDto stats();
+}
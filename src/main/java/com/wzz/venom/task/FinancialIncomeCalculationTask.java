@@ -1,25 +1,25 @@
 package com.wzz.venom.task;
 
-import com.wzz.venom.domain.entity.UserFinancial;
-import com.wzz.venom.domain.entity.UserFinancialStatement;
+import com.wzz.venom.domain.dto.AccrualReportDto;
 import com.wzz.venom.service.config.SysConfigService;
-import com.wzz.venom.service.user.UserFinancialService;
-import com.wzz.venom.service.user.UserFinancialStatementService;
-// import com.wzz.venom.service.user.UserFundFlowService; // 不再需要，可以移除
+import com.wzz.venom.service.financial.FinancialAccrualService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.util.List;
-import java.util.stream.Collectors;
+import java.time.LocalDate;
+import java.time.ZoneId;
 
 /**
  * 每日理财收益定时计算任务（收益复投模式）
+ * <p>
+ * 本类只负责解析当日收益率和业务日期，具体的分块、并行、批量写入以及断点续跑由 {@link FinancialAccrualService} 完成。
+ * 同一天内重复执行（如手动触发）不会重复派发收益。
+ * </p>
  */
 @Component
 public class FinancialIncomeCalculationTask {
@@ -29,21 +29,15 @@ public class FinancialIncomeCalculationTask {
     // --- 定义常量 ---
     private static final String SYS_CONFIG_NAME = "sys_config";
     private static final String FINANCIAL_RATE_KEY = "financial_management";
-    /** 理财流水类型：3-收益派发 */
-    private static final int TRANSACTION_TYPE_INCOME = 3;
 
     private final SysConfigService sysConfigService;
-    private final UserFinancialService userFinancialService;
-    // private final UserFundFlowService userFundFlowService; // 已修改逻辑，不再直接操作用户余额
-    private final UserFinancialStatementService userFinancialStatementService;
+    private final FinancialAccrualService financialAccrualService;
 
     @Autowired
     public FinancialIncomeCalculationTask(SysConfigService sysConfigService,
-                                          UserFinancialService userFinancialService,
-                                          UserFinancialStatementService userFinancialStatementService) {
+                                          FinancialAccrualService financialAccrualService) {
         this.sysConfigService = sysConfigService;
-        this.userFinancialService = userFinancialService;
-        this.userFinancialStatementService = userFinancialStatementService;
+        this.financialAccrualService = financialAccrualService;
     }
 
     /**
@@ -52,6 +46,14 @@ public class FinancialIncomeCalculationTask {
      */
     @Scheduled(cron = "0 0 0 * * ?")
     public void calculateDailyFinancialIncome() {
+        runDailyIncomeCalculation();
+    }
+
+    /**
+     * 执行一次理财收益计算并返回汇总结果
+     * @return 汇总结果；收益率配置无效时返回 null
+     */
+    public AccrualReportDto runDailyIncomeCalculation() {
         log.info("【每日理财收益计算任务】开始执行...");
 
         // 1. 从系统配置中获取年收益率
@@ -60,96 +62,45 @@ public class FinancialIncomeCalculationTask {
             log.error("【每日理财收益计算任务】执行失败：未在 sys_config 表中找到名为 '{}' 的配置项。使用默认值 0.2", FINANCIAL_RATE_KEY);
             rateValue = new BigDecimal("2");
         }
-        //计算日益率
-
 
+        //计算日益率
         BigDecimal dailyRate;
         try {
-            BigDecimal dayRates = new BigDecimal(rateValue.toString())
-                    .divide(new BigDecimal(365), 10, RoundingMode.HALF_UP) // 先保留足够精度
-                    .setScale(2, RoundingMode.HALF_UP); // 再保留两位小数
-
-            log.info("计算年收益率{} --的日收益率{}",rateValue,dayRates);
-//            dailyRate = new BigDecimal(rateValue.toString());
-            dailyRate = dayRates;
+            dailyRate = calculateDailyRate(rateValue);
+            log.info("计算年收益率{} --的日收益率{}", rateValue, dailyRate);
         } catch (NumberFormatException e) {
             log.error("【每日理财收益计算任务】执行失败：理财收益率配置值 '{}' 不是有效的数字。", rateValue);
-            return;
+            return null;
         }
 
         if (dailyRate.compareTo(BigDecimal.ZERO) <= 0) {
             log.warn("【每日理财收益计算任务】理财收益率配置为非正数（{}），任务终止。", dailyRate);
-            return;
+            return null;
         }
 
         log.info("【每日理财收益计算任务】获取到当日理财收益率: {}", dailyRate);
 
-        // 2. 查询所有持有理财金额的用户
-        List<UserFinancial> activeFinancials = userFinancialService.findAll().stream()
-                .filter(uf -> uf.getAmount() != null && uf.getAmount().compareTo(BigDecimal.ZERO) > 0 && uf.getStatus() == 0)
-                .collect(Collectors.toList());
-
-        if (activeFinancials.isEmpty()) {
-            log.info("【每日理财收益计算任务】没有找到持有理财产品的用户，任务结束。");
-            return;
-        }
+        // 2. 分块并行派发收益（业务日期为北京时间当天，已完成则直接返回，中断过则从断点继续）
+        LocalDate businessDate = LocalDate.now(ZoneId.of("Asia/Shanghai"));
+        AccrualReportDto report = financialAccrualService.runDailyAccrual(businessDate, dailyRate);
 
-        log.info("【每日理财收益计算任务】发现 {} 个需要计算收益的用户。", activeFinancials.size());
-
-        // 3. 遍历用户，逐一计算并发放收益
-        int successCount = 0;
-        int failCount = 0;
-        for (UserFinancial userFinancial : activeFinancials) {
-            try {
-                processUserIncome(userFinancial, dailyRate);
-                successCount++;
-            } catch (Exception e) {
-                log.error("【每日理财收益计算任务】为用户 '{}' 计算收益时发生错误: {}", userFinancial.getUserName(), e.getMessage(), e);
-                failCount++;
-            }
+        if (report.isAlreadyCompleted()) {
+            log.info("【每日理财收益计算任务】业务日期 {} 已派发完成，本次未做处理。", businessDate);
+        } else {
+            log.info("【每日理财收益计算任务】执行完毕。成功处理 {} 个持仓，失败 {} 个。", report.getSuccessCount(), report.getFailedCount());
         }
-
-        log.info("【每日理财收益计算任务】执行完毕。成功处理 {} 个用户，失败 {} 个。", successCount, failCount);
+        return report;
     }
 
     /**
-     * 处理单个用户的收益计算和复投，此方法包含事务
-     * @param userFinancial 用户的理财信息
-     * @param dailyRate     当日收益率
+     * 将年收益率换算为日收益率：年收益率 / 365，先保留 10 位精度，再四舍五入保留两位小数
+     * @param rateValue 年收益率配置值
+     * @return 日收益率
+     * @throws NumberFormatException 配置值不是有效数字时抛出
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void processUserIncome(UserFinancial userFinancial, BigDecimal dailyRate) {
-        String userName = userFinancial.getUserName();
-        BigDecimal principal = userFinancial.getAmount();
-
-        // 4. 计算收益金额
-        BigDecimal earnings = principal.multiply(dailyRate).setScale(2, RoundingMode.HALF_UP);
-
-        if (earnings.compareTo(BigDecimal.ZERO) <= 0) {
-            log.warn("用户 '{}' 的理财本金 {} 过低，计算收益为 {}，跳过本次派发。", userName, principal, earnings);
-            return;
-        }
-
-        log.info("为用户 '{}' 计算理财收益：本金 {}, 收益率 {}, 收益 {}", userName, principal, dailyRate, earnings);
-
-        // 5. 【核心修改】将收益增加到用户的理财本金中
-        boolean updateSuccess = userFinancialService.increaseUserFinancialBalanceIncome(userName, earnings.doubleValue());
-        if (!updateSuccess) {
-            // 抛出异常，触发事务回滚
-            throw new RuntimeException("更新用户理财本金失败！");
-        }
-
-        // 6. 创建一条新的理财流水记录，记录本次收益
-        UserFinancialStatement statement = new UserFinancialStatement();
-        statement.setUserName(userName);
-        statement.setFinancialId(userFinancial.getId());
-        statement.setTransactionType(TRANSACTION_TYPE_INCOME);
-        statement.setAmount(earnings);
-
-        boolean statementSuccess = userFinancialStatementService.addUserFinancialStatements(statement);
-        if (!statementSuccess) {
-            // 抛出异常，触发事务回滚
-            throw new RuntimeException("新增用户理财流水记录失败！");
-        }
+    public static BigDecimal calculateDailyRate(Object rateValue) {
+        return new BigDecimal(rateValue.toString())
+                .divide(new BigDecimal(365), 10, RoundingMode.HALF_UP) // 先保留足够精度
+                .setScale(2, RoundingMode.HALF_UP); // 再保留两位小数
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.wzz.venom.task;
+
+import com.wzz.venom.enums.TaskCategoryEnum;
+import com.wzz.venom.service.product.PayoutOutboxService;
+import com.wzz.venom.utils.TaskQueueUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 回款发件箱中继任务
+ * <p>
+ * 定时通过 {@link TaskQueueUtil} 提交若干个中继线程，每个线程循环拉取一批到期事件入账，直到没有待投递的事件。
+ * 同时运行的中继线程数不超过配置的并发数；各线程通过 SKIP LOCKED 拉取互不重叠的批次。
+ * </p>
+ */
+@Component
+public class PayoutOutboxRelayTask {
+
+    private static final Logger log = LoggerFactory.getLogger(PayoutOutboxRelayTask.class);
+
+    private final PayoutOutboxService payoutOutboxService;
+
+    /** 正在运行的中继线程数 */
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    @Value("${venom.outbox.parallelism:4}")
+    private int parallelism;
+
+    @Autowired
+    public PayoutOutboxRelayTask(PayoutOutboxService payoutOutboxService) {
+        this.payoutOutboxService = payoutOutboxService;
+    }
+
+    @Scheduled(fixedDelayString = "${venom.outbox.poll-interval-ms:2000}",
+            initialDelayString = "${venom.outbox.initial-delay-ms:5000}")
+    public void relay() {
+        while (true) {
+            int active = activeWorkers.get();
+            if (active >= parallelism) {
+                return;
+            }
+            if (!activeWorkers.compareAndSet(active, active + 1)) {
+                continue;
+            }
+            if (!TaskQueueUtil.execute(TaskCategoryEnum.PAYOUT, this::drain)) {
+                activeWorkers.decrementAndGet();
+                return;
+            }
+            // 只有还有积压时才追加中继线程
+            if (payoutOutboxService.countPending() == 0) {
+                return;
+            }
+        }
+    }
+
+    private void drain() {
+        try {
+            int relayed;
+            do {
+                relayed = payoutOutboxService.relayBatch();
+            } while (relayed > 0);
+        } catch (Exception e) {
+            log.error("【回款中继】拉取待投递事件失败", e);
+        } finally {
+            activeWorkers.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.wzz.venom.utils;
+
+import java.util.Arrays;
+
+/**
+ * 写时复制的 long 集合
+ * <p>
+ * 内部是一个有序的 long 数组：读取无锁，一次二分查找，不装箱；写入时复制整个数组。
+ * 适合元素不多、读远多于写的场景，例如冻结用户ID集合。
+ * </p>
+ */
+public class CopyOnWriteLongSet {
+
+    private volatile long[] elements = new long[0];
+
+    /**
+     * @param value 元素
+     * @return 是否包含该元素
+     */
+    public boolean contains(long value) {
+        return Arrays.binarySearch(elements, value) >= 0;
+    }
+
+    /**
+     * 添加元素
+     * @param value 元素
+     * @return 集合是否发生变化
+     */
+    public synchronized boolean add(long value) {
+        long[] current = elements;
+        int index = Arrays.binarySearch(current, value);
+        if (index >= 0) {
+            return false;
+        }
+        int insertAt = -index - 1;
+        long[] updated = new long[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = value;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        elements = updated;
+        return true;
+    }
+
+    /**
+     * 移除元素
+     * @param value 元素
+     * @return 集合是否发生变化
+     */
+    public synchronized boolean remove(long value) {
+        long[] current = elements;
+        int index = Arrays.binarySearch(current, value);
+        if (index < 0) {
+            return false;
+        }
+        long[] updated = new long[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        elements = updated;
+        return true;
+    }
+
+    /**
+     * 整体替换集合内容
+     * @param values 新的元素，可以无序、可以重复
+     */
+    public synchronized void replaceAll(long[] values) {
+        long[] sorted = Arrays.stream(values).sorted().distinct().toArray();
+        elements = sorted;
+    }
+
+    /**
+     * @return 元素数量
+     */
+    public int size() {
+        return elements.length;
+    }
+}
@@ -0,0 +1,195 @@
+package com.wzz.venom.utils;
+
+import com.wzz.venom.domain.dto.HandshakeStatsDto;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket 握手准入控制
+ * <p>
+ * 部署或网络抖动后大量客户端会同时重连，每次握手都要读取 Redis 登录态和用户信息。这里在认证之前做三层保护：
+ * 令牌桶限制握手速率、信号量限制同时处理的握手数、按 token 缓存已认证身份（短过期时间）。
+ * 被拒绝的握手返回带随机抖动的重试时间，使客户端的重连分散开，而不是在同一时刻再次涌入。
+ * </p>
+ */
+@Component
+public class HandshakeAdmissionController {
+
+    /** 每秒补充的握手令牌数 */
+    @Value("${venom.websocket.handshake.rate-per-second:50}")
+    private double ratePerSecond;
+
+    /** 令牌桶容量（允许的突发握手数） */
+    @Value("${venom.websocket.handshake.burst:200}")
+    private int burst;
+
+    /** 同时处理的握手数上限 */
+    @Value("${venom.websocket.handshake.max-concurrent:64}")
+    private int maxConcurrent;
+
+    /** 重试时间基数（毫秒） */
+    @Value("${venom.websocket.handshake.retry-base-ms:1000}")
+    private long retryBaseMs;
+
+    /** 重试时间随机抖动范围（毫秒） */
+    @Value("${venom.websocket.handshake.retry-jitter-ms:4000}")
+    private long retryJitterMs;
+
+    /** 身份缓存过期秒数 */
+    @Value("${venom.websocket.handshake.identity-ttl-seconds:30}")
+    private long identityTtlSeconds;
+
+    /** 身份缓存最多保存的 token 数 */
+    @Value("${venom.websocket.handshake.identity-max-size:50000}")
+    private int identityMaxSize;
+
+    private Semaphore upgrades;
+
+    // --- 令牌桶，受 this 锁保护 ---
+    private double tokens;
+    private long lastRefillNanos;
+
+    /** token -> 已认证身份 */
+    private final Map<String, Identity> identities = new ConcurrentHashMap<>();
+
+    // --- 统计 ---
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejectedByRate = new AtomicLong();
+    private final AtomicLong rejectedByConcurrency = new AtomicLong();
+    private final AtomicLong unauthenticated = new AtomicLong();
+    private final AtomicLong identityHits = new AtomicLong();
+    private final AtomicLong identityMisses = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        upgrades = new Semaphore(Math.max(1, maxConcurrent));
+        tokens = Math.max(1, burst);
+        lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 从令牌桶取一个令牌
+     * @return 是否取到；取不到时应拒绝握手
+     */
+    public boolean tryAcquireRate() {
+        synchronized (this) {
+            long now = System.nanoTime();
+            tokens = Math.min(Math.max(1, burst), tokens + (now - lastRefillNanos) / 1_000_000_000.0 * ratePerSecond);
+            lastRefillNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return true;
+            }
+        }
+        rejectedByRate.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 进入握手处理，成功后必须调用 {@link #exitUpgrade()}
+     * @return 是否未超过并发上限
+     */
+    public boolean tryEnterUpgrade() {
+        if (upgrades.tryAcquire()) {
+            return true;
+        }
+        rejectedByConcurrency.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * 离开握手处理
+     * @param success 握手是否通过
+     */
+    public void exitUpgrade(boolean success) {
+        upgrades.release();
+        if (success) {
+            admitted.incrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一次认证失败
+     */
+    public void recordUnauthenticated() {
+        unauthenticated.incrementAndGet();
+    }
+
+    /**
+     * @return 建议客户端等待的毫秒数：基数加随机抖动
+     */
+    public long retryAfterMillis() {
+        return retryBaseMs + (retryJitterMs > 0 ? ThreadLocalRandom.current().nextLong(retryJitterMs + 1) : 0);
+    }
+
+    /**
+     * 查询缓存的身份
+     * @param token 登录 token
+     * @return 未过期的身份，没有时返回 null
+     */
+    public Identity getIdentity(String token) {
+        if (token == null) {
+            return null;
+        }
+        Identity identity = identities.get(token);
+        if (identity != null && System.nanoTime() - identity.expiresAtNanos() < 0) {
+            identityHits.incrementAndGet();
+            return identity;
+        }
+        if (identity != null) {
+            identities.remove(token, identity);
+        }
+        identityMisses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * 缓存已认证的身份。注销后最多在过期时间内仍能凭旧 token 建立连接
+     * @return 缓存的身份
+     */
+    public Identity putIdentity(String token, Long userId, String userName) {
+        Identity identity = new Identity(userId, userName, System.nanoTime() + Duration.ofSeconds(identityTtlSeconds).toNanos());
+        if (token == null || identityTtlSeconds <= 0) {
+            return identity;
+        }
+        if (identities.size() >= identityMaxSize) {
+            // 超过容量时整体清空，由后续握手重新加载
+            identities.clear();
+        }
+        identities.put(token, identity);
+        return identity;
+    }
+
+    /**
+     * @return 握手准入统计
+     */
+    public HandshakeStatsDto stats() {
+        HandshakeStatsDto dto = new HandshakeStatsDto();
+        dto.setAdmitted(admitted.get());
+        dto.setRejectedByRate(rejectedByRate.get());
+        dto.setRejectedByConcurrency(rejectedByConcurrency.get());
+        dto.setUnauthenticated(unauthenticated.get());
+        dto.setInFlight(Math.max(1, maxConcurrent) - upgrades.availablePermits());
+        synchronized (this) {
+            dto.setAvailableTokens(tokens);
+        }
+        dto.setIdentityHits(identityHits.get());
+        dto.setIdentityMisses(identityMisses.get());
+        dto.setIdentityCacheSize(identities.size());
+        return dto;
+    }
+
+    /**
+     * 已认证的身份
+     */
+    public record Identity(Long userId, String userName, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,215 @@
+package com.wzz.venom.utils;
+
+import java.util.Arrays;
+
+/**
+ * 分层时间轮
+ * <p>
+ * 只保存 (ID, 到期刻度) 两个 long，不保存任务对象。第 0 层每个槽位对应一个刻度，
+ * 第 n 层每个槽位对应第 n-1 层的一整圈；超出当前层范围的条目放入上一层（按需创建），
+ * 上层槽位到期时把其中的条目重新放入下层。
+ * </p>
+ * <ul>
+ *   <li>添加：O(1)，只计算槽位并追加到数组</li>
+ *   <li>推进：每个刻度检查每一层的一个槽位，整槽批量取出</li>
+ * </ul>
+ * 不提供取消：条目到期时由调用方校验是否仍然有效（结算前校验产品状态、心跳按最近活动时间重新安排），
+ * 同一个ID可以重复添加。所有修改方法在同一把锁内执行，适合"多个线程添加、一个线程推进"的场景。
+ */
+public class HierarchicalTimingWheel {
+
+    /** 每个刻度的毫秒数 */
+    private final long tickMillis;
+    /** 每层的槽位数 */
+    private final int wheelSize;
+    /** 第 0 层 */
+    private final Level root;
+    /** 已推进到的刻度（该刻度及之前到期的条目都已取出） */
+    private long currentTick;
+    /** 已到期但尚未被取走的条目（添加时已过期的条目直接放在这里） */
+    private final Bucket overdue = new Bucket();
+    /** 轮中的条目数 */
+    private int size;
+
+    /**
+     * @param tickMillis   每个刻度的毫秒数，例如 1000 表示秒级精度
+     * @param wheelSize    每层的槽位数
+     * @param startMillis  起始时间（毫秒时间戳）
+     */
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (tickMillis <= 0 || wheelSize <= 1) {
+            throw new IllegalArgumentException("tickMillis 必须为正数，wheelSize 必须大于 1");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.currentTick = startMillis / tickMillis;
+        this.root = new Level(1L, currentTick);
+    }
+
+    /**
+     * 添加一个到期条目
+     * @param id           条目ID
+     * @param expireMillis 到期时间（毫秒时间戳）
+     */
+    public synchronized void add(long id, long expireMillis) {
+        // 向上取整：到期时间落在刻度中间时，在下一个刻度触发，保证不会提前
+        long expireTick = Math.floorDiv(expireMillis + tickMillis - 1, tickMillis);
+        insert(id, expireTick);
+        size++;
+    }
+
+    /**
+     * 推进到指定时间，取出期间所有到期的条目
+     * @param nowMillis 当前时间（毫秒时间戳）
+     * @return 到期的条目ID，按刻度先后排列；没有到期条目时返回空数组
+     */
+    public synchronized long[] advanceTo(long nowMillis) {
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        Bucket due = new Bucket();
+        due.drainFrom(overdue);
+        while (currentTick < targetTick) {
+            currentTick++;
+            root.advance(currentTick);
+            // 从最高层往下处理：上层槽位的条目重新插入后可能落入本刻度的下层槽位
+            flushLevel(root, due);
+        }
+        size -= due.size;
+        return Arrays.copyOf(due.ids, due.size);
+    }
+
+    /**
+     * @return 轮中尚未到期的条目数
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return 每个刻度的毫秒数
+     */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void flushLevel(Level level, Bucket due) {
+        if (level.overflow != null) {
+            flushLevel(level.overflow, due);
+        }
+        Bucket bucket = level.buckets[level.slotOf(currentTick)];
+        if (bucket.size == 0 || bucket.expireTick > currentTick) {
+            return;
+        }
+        if (level == root) {
+            due.drainFrom(bucket);
+            return;
+        }
+        long[] ids = Arrays.copyOf(bucket.ids, bucket.size);
+        long[] ticks = Arrays.copyOf(bucket.ticks, bucket.size);
+        bucket.clear();
+        for (int i = 0; i < ids.length; i++) {
+            if (ticks[i] <= currentTick) {
+                due.add(ids[i], ticks[i]);
+            } else {
+                insert(ids[i], ticks[i]);
+            }
+        }
+    }
+
+    private void insert(long id, long expireTick) {
+        if (expireTick <= currentTick) {
+            overdue.add(id, expireTick);
+            return;
+        }
+        root.add(id, expireTick);
+    }
+
+    /**
+     * 时间轮的一层
+     */
+    private final class Level {
+        /** 每个槽位覆盖的刻度数 */
+        private final long ticksPerSlot;
+        /** 本层一整圈覆盖的刻度数 */
+        private final long interval;
+        /** 本层当前时间（按 ticksPerSlot 向下取整的刻度） */
+        private long levelTime;
+        private final Bucket[] buckets;
+        private Level overflow;
+
+        Level(long ticksPerSlot, long startTick) {
+            this.ticksPerSlot = ticksPerSlot;
+            this.interval = ticksPerSlot * wheelSize;
+            this.levelTime = startTick - Math.floorMod(startTick, ticksPerSlot);
+            this.buckets = new Bucket[wheelSize];
+            for (int i = 0; i < wheelSize; i++) {
+                buckets[i] = new Bucket();
+            }
+        }
+
+        void add(long id, long expireTick) {
+            if (expireTick < levelTime + interval) {
+                Bucket bucket = buckets[slotOf(expireTick)];
+                bucket.add(id, expireTick);
+                // 槽位的到期刻度为该槽位覆盖范围的起点
+                bucket.expireTick = expireTick - Math.floorMod(expireTick, ticksPerSlot);
+            } else {
+                if (overflow == null) {
+                    overflow = new Level(interval, levelTime);
+                }
+                overflow.add(id, expireTick);
+            }
+        }
+
+        void advance(long tick) {
+            if (tick >= levelTime + ticksPerSlot) {
+                levelTime = tick - Math.floorMod(tick, ticksPerSlot);
+                if (overflow != null) {
+                    overflow.advance(levelTime);
+                }
+            }
+        }
+
+        int slotOf(long tick) {
+            return (int) Math.floorMod(Math.floorDiv(tick, ticksPerSlot), (long) wheelSize);
+        }
+    }
+
+    /**
+     * 一个槽位：用两个平行的 long 数组保存 ID 和到期刻度，避免装箱
+     */
+    private static final class Bucket {
+        private static final int INITIAL_CAPACITY = 8;
+        private long[] ids = new long[0];
+        private long[] ticks = new long[0];
+        private int size;
+        private long expireTick = Long.MAX_VALUE;
+
+        void add(long id, long tick) {
+            if (size == ids.length) {
+                int capacity = Math.max(INITIAL_CAPACITY, ids.length << 1);
+                ids = Arrays.copyOf(ids, capacity);
+                ticks = Arrays.copyOf(ticks, capacity);
+            }
+            ids[size] = id;
+            ticks[size] = tick;
+            size++;
+        }
+
+        void drainFrom(Bucket other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.ids[i], other.ticks[i]);
+            }
+            other.clear();
+        }
+
+        void clear() {
+            size = 0;
+            expireTick = Long.MAX_VALUE;
+            // 释放大槽位占用的内存，常规大小的数组保留复用
+            if (ids.length > 1024) {
+                ids = new long[0];
+                ticks = new long[0];
+            }
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package com.wzz.venom.utils;
+
+import com.wzz.venom.domain.dto.ExecutorCategoryStatsDto;
+import com.wzz.venom.enums.RejectionPolicyEnum;
+import com.wzz.venom.enums.TaskCategoryEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界、可观测的虚拟线程执行器
+ * <p>
+ * 每个任务仍运行在独立的虚拟线程上，但按任务类别用信号量限制同时执行的数量：
+ * 超过并发上限的任务在虚拟线程中排队等待许可（排队本身几乎没有开销），排队数也有上限，
+ * 两者都满时按该类别的拒绝策略处理。这样突发任务不会同时争抢数据库连接池，而是把压力反馈给提交方。
+ * </p>
+ * 关闭时先停止接收新任务，等待执行中和排队中的任务完成（不超过排空超时），再关闭底层线程。
+ */
+public class ManagedVirtualThreadExecutor implements AsyncTaskExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(ManagedVirtualThreadExecutor.class);
+
+    private final ExecutorService delegate = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<TaskCategoryEnum, CategoryGate> gates = new EnumMap<>(TaskCategoryEnum.class);
+    private final long drainTimeoutMillis;
+    private volatile boolean shuttingDown;
+
+    /**
+     * @param limits             各任务类别的限制，未配置的类别使用 DEFAULT 的限制
+     * @param drainTimeoutMillis 关闭时等待任务完成的最长毫秒数
+     */
+    public ManagedVirtualThreadExecutor(Map<TaskCategoryEnum, CategoryLimit> limits, long drainTimeoutMillis) {
+        CategoryLimit fallback = limits.get(TaskCategoryEnum.DEFAULT);
+        if (fallback == null) {
+            throw new IllegalArgumentException("必须配置 DEFAULT 类别的限制");
+        }
+        for (TaskCategoryEnum category : TaskCategoryEnum.values()) {
+            gates.put(category, new CategoryGate(category, limits.getOrDefault(category, fallback)));
+        }
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        execute(TaskCategoryEnum.DEFAULT, task);
+    }
+
+    /**
+     * 按类别提交任务
+     * @param category 任务类别
+     * @param task     任务
+     * @throws TaskRejectedException 拒绝策略为 ABORT 且已达到上限，或执行器正在关闭
+     */
+    public void execute(TaskCategoryEnum category, Runnable task) {
+        CategoryGate gate = gates.get(category);
+        gate.submitted.incrementAndGet();
+        if (shuttingDown) {
+            gate.rejected.incrementAndGet();
+            throw new TaskRejectedException("执行器正在关闭，拒绝 " + category + " 任务");
+        }
+        long enqueuedAt = System.nanoTime();
+        if (gate.permits.tryAcquire()) {
+            start(gate, task, enqueuedAt, false);
+            return;
+        }
+        if (gate.queued.incrementAndGet() <= gate.limit.maxQueued()) {
+            start(gate, task, enqueuedAt, true);
+            return;
+        }
+        gate.queued.decrementAndGet();
+        reject(gate, task, enqueuedAt);
+    }
+
+    @Override
+    public Future<?> submit(Runnable task) {
+        FutureTask<Object> future = new FutureTask<>(task, null);
+        execute(future);
+        return future;
+    }
+
+    @Override
+    public <T> Future<T> submit(Callable<T> task) {
+        FutureTask<T> future = new FutureTask<>(task);
+        execute(future);
+        return future;
+    }
+
+    /**
+     * @return 各任务类别的统计快照
+     */
+    public List<ExecutorCategoryStatsDto> stats() {
+        List<ExecutorCategoryStatsDto> result = new ArrayList<>(gates.size());
+        for (CategoryGate gate : gates.values()) {
+            result.add(gate.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * 停止接收新任务，等待执行中和排队中的任务完成后关闭底层线程
+     */
+    public void shutdown() {
+        shuttingDown = true;
+        long deadline = System.currentTimeMillis() + drainTimeoutMillis;
+        try {
+            while (pendingCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(50L);
+            }
+            int pending = pendingCount();
+            if (pending > 0) {
+                log.warn("【虚拟线程执行器】排空超时，仍有 {} 个任务未完成，强制中断", pending);
+                delegate.shutdownNow();
+            } else {
+                delegate.shutdown();
+                delegate.awaitTermination(Math.max(0L, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            delegate.shutdownNow();
+        }
+    }
+
+    private int pendingCount() {
+        int pending = 0;
+        for (CategoryGate gate : gates.values()) {
+            pending += gate.running.get() + gate.queued.get();
+        }
+        return pending;
+    }
+
+    private void start(CategoryGate gate, Runnable task, long enqueuedAt, boolean queued) {
+        try {
+            delegate.execute(() -> {
+                if (queued) {
+                    try {
+                        gate.permits.acquire();
+                    } catch (InterruptedException e) {
+                        gate.queued.decrementAndGet();
+                        gate.rejected.incrementAndGet();
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    gate.queued.decrementAndGet();
+                }
+                run(gate, task, enqueuedAt);
+            });
+        } catch (RejectedExecutionException e) {
+            if (queued) {
+                gate.queued.decrementAndGet();
+            } else {
+                gate.permits.release();
+            }
+            gate.rejected.incrementAndGet();
+            throw new TaskRejectedException("虚拟线程执行器拒绝了 " + gate.category + " 任务", e);
+        }
+    }
+
+    private void run(CategoryGate gate, Runnable task, long enqueuedAt) {
+        long startedAt = System.nanoTime();
+        gate.recordWait(startedAt - enqueuedAt);
+        gate.running.incrementAndGet();
+        try {
+            task.run();
+            gate.completed.incrementAndGet();
+        } catch (Throwable e) {
+            gate.failed.incrementAndGet();
+            log.error("【虚拟线程执行器】{} 任务执行异常", gate.category, e);
+        } finally {
+            gate.running.decrementAndGet();
+            gate.execNanos.addAndGet(System.nanoTime() - startedAt);
+            gate.permits.release();
+        }
+    }
+
+    private void reject(CategoryGate gate, Runnable task, long enqueuedAt) {
+        switch (gate.limit.rejectionPolicy()) {
+            case CALLER_RUNS -> {
+                // 不占用许可：提交线程被占用本身就是反压
+                gate.callerRuns.incrementAndGet();
+                long startedAt = System.nanoTime();
+                try {
+                    task.run();
+                    gate.completed.incrementAndGet();
+                } catch (RuntimeException | Error e) {
+                    gate.failed.incrementAndGet();
+                    throw e;
+                } finally {
+                    gate.execNanos.addAndGet(System.nanoTime() - startedAt);
+                    gate.recordWait(startedAt - enqueuedAt);
+                }
+            }
+            case DISCARD -> {
+                gate.rejected.incrementAndGet();
+                log.warn("【虚拟线程执行器】{} 任务已达上限（执行中 {}，排队 {}），丢弃任务",
+                        gate.category, gate.limit.maxConcurrency(), gate.limit.maxQueued());
+            }
+            default -> {
+                gate.rejected.incrementAndGet();
+                throw new TaskRejectedException(String.format("%s 任务已达上限（执行中 %d，排队 %d）",
+                        gate.category, gate.limit.maxConcurrency(), gate.limit.maxQueued()));
+            }
+        }
+    }
+
+    /**
+     * 单个任务类别的限制
+     * @param maxConcurrency  同时执行的最大任务数
+     * @param maxQueued       最大排队任务数
+     * @param rejectionPolicy 两者都满时的拒绝策略
+     */
+    public record CategoryLimit(int maxConcurrency, int maxQueued, RejectionPolicyEnum rejectionPolicy) {
+    }
+
+    /**
+     * 单个任务类别的许可和计数
+     */
+    private static final class CategoryGate {
+        private final TaskCategoryEnum category;
+        private final CategoryLimit limit;
+        private final Semaphore permits;
+        private final AtomicInteger running = new AtomicInteger();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong callerRuns = new AtomicLong();
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+        private final AtomicLong maxWaitNanos = new AtomicLong();
+        private final AtomicLong execNanos = new AtomicLong();
+
+        CategoryGate(TaskCategoryEnum category, CategoryLimit limit) {
+            this.category = category;
+            this.limit = limit;
+            this.permits = new Semaphore(limit.maxConcurrency());
+        }
+
+        void recordWait(long nanos) {
+            started.incrementAndGet();
+            waitNanos.addAndGet(nanos);
+            maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        ExecutorCategoryStatsDto snapshot() {
+            ExecutorCategoryStatsDto dto = new ExecutorCategoryStatsDto();
+            dto.setCategory(category);
+            dto.setMaxConcurrency(limit.maxConcurrency());
+            dto.setMaxQueued(limit.maxQueued());
+            dto.setRejectionPolicy(limit.rejectionPolicy());
+            dto.setRunning(running.get());
+            dto.setQueued(queued.get());
+            dto.setSubmitted(submitted.get());
+            dto.setCompleted(completed.get());
+            dto.setFailed(failed.get());
+            dto.setRejected(rejected.get());
+            dto.setCallerRuns(callerRuns.get());
+            long startedCount = started.get();
+            long finished = completed.get() + failed.get();
+            dto.setAvgWaitMillis(startedCount == 0 ? 0 : waitNanos.get() / 1_000_000.0 / startedCount);
+            dto.setMaxWaitMillis(maxWaitNanos.get() / 1_000_000.0);
+            dto.setAvgExecMillis(finished == 0 ? 0 : execNanos.get() / 1_000_000.0 / finished);
+            return dto;
+        }
+    }
+}
@@ -1,48 +1,79 @@
 package com.wzz.venom.utils;
 
 import com.wzz.venom.config.ThreadPoolConfig;
+import com.wzz.venom.domain.dto.ExecutorCategoryStatsDto;
+import com.wzz.venom.enums.TaskCategoryEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * 基于虚拟线程的队列线程工具类
+ * <p>
+ * 任务按类别提交到 {@link ManagedVirtualThreadExecutor}，并发和排队数量受该类别的限制；
+ * 达到上限时按类别的拒绝策略处理，被拒绝时返回 false，由调用方决定稍后重试。统计信息可通过 {@link #stats()} 查看。
+ * </p>
  */
 @Component
 public class TaskQueueUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(TaskQueueUtil.class);
 
-    private static AsyncTaskExecutor executor;
+    private static ManagedVirtualThreadExecutor executor;
 
     /**
      * 通过构造函数注入线程池
-     * @param asyncTaskExecutor 虚拟线程池
+     * @param managedExecutor 虚拟线程池
      */
     @Autowired
-    public TaskQueueUtil(@Qualifier(ThreadPoolConfig.VIRTUAL_THREAD_EXECUTOR) AsyncTaskExecutor asyncTaskExecutor) {
-        TaskQueueUtil.executor = asyncTaskExecutor;
+    public TaskQueueUtil(@Qualifier(ThreadPoolConfig.VIRTUAL_THREAD_EXECUTOR) ManagedVirtualThreadExecutor managedExecutor) {
+        TaskQueueUtil.executor = managedExecutor;
     }
 
     /**
-     * 对外提供的唯一方法，用于提交任务到队列
+     * 提交默认类别的任务
      * @param task 需要执行的任务，使用Runnable函数式接口
+     * @return 是否提交成功
+     */
+    public static boolean execute(Runnable task) {
+        return execute(TaskCategoryEnum.DEFAULT, task);
+    }
+
+    /**
+     * 按类别提交任务
+     * @param category 任务类别
+     * @param task     需要执行的任务
+     * @return 是否提交成功；线程池未初始化、正在关闭或已达到上限被拒绝时返回 false
      */
-    public static void execute(Runnable task) {
+    public static boolean execute(TaskCategoryEnum category, Runnable task) {
         if (executor == null) {
             logger.error("线程池尚未初始化！");
             // 在某些极端情况下（例如，Spring容器还未完全初始化），可以考虑提供一个备用策略
             // throw new IllegalStateException("AsyncTaskExecutor has not been initialized.");
-            return;
+            return false;
         }
 
         try {
-            executor.execute(task);
+            executor.execute(category, task);
+            return true;
+        } catch (TaskRejectedException e) {
+            logger.warn("【任务队列】{}", e.getMessage());
+            return false;
         } catch (Exception e) {
             logger.error("向线程池提交任务时发生错误", e);
+            return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * @return 各任务类别的统计快照；线程池未初始化时返回空列表
+     */
+    public static List<ExecutorCategoryStatsDto> stats() {
+        return executor == null ? List.of() : executor.stats();
+    }
+}
@@ -1,23 +1,56 @@
 package com.wzz.venom.utils;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.dto.WsSessionStatsDto;
+import com.wzz.venom.enums.WsOverflowPolicyEnum;
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 用户端 WebSocket Session 管理工具类
- * 使用线程安全的 ConcurrentHashMap 存储 UserId -> Session 的映射
+ * 使用线程安全的 ConcurrentHashMap 存储 UserId -> 发送队列 的映射，每个连接的消息由其发送队列异步发送
+ * 开启集群转发时，连接的加入和断开同步登记到分布式会话目录，推送的用户不在本节点时转发到其连接所在的节点
  */
 @Component
 public class UserWebSocketSessionManager {
 
     private static final Logger log = LoggerFactory.getLogger(UserWebSocketSessionManager.class);
 
-    // 使用线程安全的 Map 来存储 userId 和 session 的映射
-    private final ConcurrentHashMap<Long, WebSocketSession> userSessions = new ConcurrentHashMap<>();
+    // 使用线程安全的 Map 来存储 userId 和连接发送队列的映射
+    private final ConcurrentHashMap<Long, WebSocketSendQueue> userSessions = new ConcurrentHashMap<>();
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** 每个连接最多排队的消息数 */
+    @Value("${venom.websocket.send-queue.capacity:256}")
+    private int queueCapacity;
+
+    /** 队列满时的处理方式 */
+    @Value("${venom.websocket.send-queue.overflow-policy:COALESCE}")
+    private WsOverflowPolicyEnum overflowPolicy;
+
+    /** 集群转发服务，未开启集群时不存在 */
+    @Autowired
+    private ObjectProvider<WebSocketClusterService> clusterServiceProvider;
+
+    /** 服务端心跳：空闲连接发送 Ping，超时未响应的连接断开 */
+    @Autowired
+    private WebSocketHeartbeatService heartbeatService;
 
     /**
      * 添加一个新的会话，如果该用户已有旧连接，则会替换掉
@@ -25,31 +58,46 @@ public class UserWebSocketSessionManager {
      * @param session WebSocketSession
      */
     public void addSession(Long userId, WebSocketSession session) {
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, String.valueOf(userId), queueCapacity, overflowPolicy,
+                closed -> removeSession(userId, closed.getSession()));
         // 如果用户已存在一个 session，先关闭旧的，再添加新的，防止多端登录造成混乱
-        if (userSessions.containsKey(userId)) {
-            try {
-                userSessions.get(userId).close();
-            } catch (Exception e) {
-                log.warn("关闭用户 [ID: {}] 的旧 WebSocket 连接时出错: {}", userId, e.getMessage());
-            }
+        WebSocketSendQueue previous = userSessions.put(userId, queue);
+        if (previous != null) {
+            heartbeatService.unregister(previous.getSession());
+            previous.close(CloseStatus.NORMAL.withReason("replaced by new connection"));
         }
-        userSessions.put(userId, session);
+        heartbeatService.register(queue);
         log.info("用户 WebSocket 连接池：新连接加入 [UserId: {}], [SessionId: {}], 当前在线用户数: {}",
                 userId, session.getId(), userSessions.size());
+        WebSocketClusterService clusterService = clusterServiceProvider.getIfAvailable();
+        if (clusterService != null) {
+            clusterService.registerUser(userId);
+        }
     }
 
     /**
-     * 根据 userId 移除一个会话
+     * 移除用户的指定会话；该用户已换用新连接时不影响新连接
      * @param userId 用户ID
+     * @param session 已关闭的 WebSocketSession
+     * @return 是否移除（false 表示该连接已被新连接替换）
      */
-    public void removeSession(Long userId) {
-        if (userId != null && userSessions.containsKey(userId)) {
-            WebSocketSession session = userSessions.remove(userId);
-            if (session != null) {
-                log.info("用户 WebSocket 连接池：连接断开 [UserId: {}], [SessionId: {}], 当前在线用户数: {}",
-                        userId, session.getId(), userSessions.size());
+    public boolean removeSession(Long userId, WebSocketSession session) {
+        if (userId == null || session == null) {
+            return false;
+        }
+        WebSocketSendQueue current = userSessions.get(userId);
+        if (current != null && current.getSession().getId().equals(session.getId()) && userSessions.remove(userId, current)) {
+            current.discard();
+            heartbeatService.unregister(session);
+            log.info("用户 WebSocket 连接池：连接断开 [UserId: {}], [SessionId: {}], 当前在线用户数: {}",
+                    userId, session.getId(), userSessions.size());
+            WebSocketClusterService clusterService = clusterServiceProvider.getIfAvailable();
+            if (clusterService != null) {
+                clusterService.unregisterUser(userId);
             }
+            return true;
         }
+        return false;
     }
 
     /**
@@ -58,6 +106,76 @@ public class UserWebSocketSessionManager {
      * @return WebSocketSession or null
      */
     public WebSocketSession getSession(Long userId) {
-        return userSessions.get(userId);
+        WebSocketSendQueue queue = userSessions.get(userId);
+        return queue == null ? null : queue.getSession();
+    }
+
+    /**
+     * 向用户推送消息（经由发送队列异步发送）。用户在本节点时直接投递，否则开启集群时转发到其连接所在的节点
+     * @param userId  用户ID
+     * @param message TextMessage
+     * @return 是否入队（本地发送队列或转发队列）；用户不在线时返回 false
+     */
+    public boolean send(Long userId, TextMessage message) {
+        WebSocketSendQueue queue = userSessions.get(userId);
+        if (queue != null) {
+            return queue.offer(message, null);
+        }
+        WebSocketClusterService clusterService = clusterServiceProvider.getIfAvailable();
+        return clusterService != null && clusterService.relayToUser(userId, message.getPayload());
+    }
+
+    /**
+     * 只向本节点的用户连接推送消息（心跳回复、其他节点转发来的消息）
+     * @param userId  用户ID
+     * @param message TextMessage
+     * @return 是否入队；用户不在本节点时返回 false
+     */
+    public boolean sendLocal(Long userId, TextMessage message) {
+        WebSocketSendQueue queue = userSessions.get(userId);
+        return queue != null && queue.offer(message, null);
+    }
+
+    /**
+     * 向用户推送一个对象（序列化为 JSON 字符串）
+     * @param userId  用户ID
+     * @param payload 消息内容
+     * @return 是否入队
+     */
+    public boolean send(Long userId, Object payload) {
+        if (!userSessions.containsKey(userId) && clusterServiceProvider.getIfAvailable() == null) {
+            return false;
+        }
+        try {
+            return send(userId, new TextMessage(objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            log.error("消息对象序列化为 JSON 失败: {}", payload, e);
+            return false;
+        }
+    }
+
+    /**
+     * @return 本节点在线用户数
+     */
+    public int onlineCount() {
+        return userSessions.size();
+    }
+
+    /**
+     * @return 本节点在线用户ID
+     */
+    public Set<Long> localUserIds() {
+        return userSessions.keySet();
+    }
+
+    /**
+     * @return 各用户连接的发送队列统计
+     */
+    public List<WsSessionStatsDto> stats() {
+        List<WsSessionStatsDto> result = new ArrayList<>(userSessions.size());
+        for (WebSocketSendQueue queue : userSessions.values()) {
+            result.add(queue.stats());
+        }
+        return result;
     }
-}
\ No newline at end of file
+}
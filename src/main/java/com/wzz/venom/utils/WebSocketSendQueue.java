@@ -0,0 +1,302 @@
+package com.wzz.venom.utils;
+
+import com.wzz.venom.domain.dto.WsSessionStatsDto;
+import com.wzz.venom.enums.WsOverflowPolicyEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 单个 WebSocket 连接的有界发送队列
+ * <p>
+ * 业务线程只负责入队，立即返回；有消息待发送时为该连接启动一个虚拟线程按顺序发送，队列清空后线程退出。
+ * 同一时刻只有一个线程向连接写数据（WebSocketSession.sendMessage 不支持并发调用），
+ * 慢连接或半开连接只会阻塞自己的发送线程，队列满时按溢出策略处理。
+ * </p>
+ */
+public class WebSocketSendQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(WebSocketSendQueue.class);
+
+    /** 心跳 Ping 的队列标记：队列中已有未发送的 Ping 时不再追加 */
+    private static final String PING_KEY = "\u0000ping";
+
+    /** 发送线程：每次排空队列使用一个虚拟线程 */
+    private static final ExecutorService DRAINERS = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final WebSocketSession session;
+    private final String owner;
+    private final int capacity;
+    private final WsOverflowPolicyEnum overflowPolicy;
+    private final Consumer<WebSocketSendQueue> onClosed;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Outbound> queue = new ArrayDeque<>();
+    /** 是否已有发送线程在排空队列，受 lock 保护 */
+    private boolean draining;
+    private volatile boolean closed;
+
+    // --- 统计 ---
+    private volatile long sent;
+    private volatile long dropped;
+    private volatile long coalesced;
+    private volatile long maxLagNanos;
+    private volatile long lastSendTime;
+
+    /**
+     * @param session        连接
+     * @param owner          连接所属，用于日志和统计
+     * @param capacity       最多排队的消息数
+     * @param overflowPolicy 队列满时的处理方式
+     * @param onClosed       发送失败或因慢连接断开时的回调（用于从连接池移除）
+     */
+    public WebSocketSendQueue(WebSocketSession session, String owner, int capacity,
+                              WsOverflowPolicyEnum overflowPolicy, Consumer<WebSocketSendQueue> onClosed) {
+        this.session = session;
+        this.owner = owner;
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy == null ? WsOverflowPolicyEnum.DROP_OLDEST : overflowPolicy;
+        this.onClosed = onClosed;
+    }
+
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean isOpen() {
+        return !closed && session.isOpen();
+    }
+
+    /**
+     * 消息入队，不等待发送
+     * @param message     消息（同一条消息可以放入多个连接的队列）
+     * @param coalesceKey 合并键，仅 COALESCE 策略使用，可为 null
+     * @return 是否入队；连接已关闭或因慢连接被断开时返回 false
+     */
+    public boolean offer(TextMessage message, String coalesceKey) {
+        if (!isOpen()) {
+            return false;
+        }
+        boolean startDrainer = false;
+        boolean disconnect = false;
+        lock.lock();
+        try {
+            if (overflowPolicy == WsOverflowPolicyEnum.COALESCE && coalesceKey != null && replaceQueued(message, coalesceKey)) {
+                return true;
+            }
+            if (queue.size() >= capacity) {
+                if (overflowPolicy == WsOverflowPolicyEnum.DISCONNECT) {
+                    disconnect = true;
+                } else {
+                    queue.pollFirst();
+                    dropped++;
+                }
+            }
+            if (!disconnect) {
+                queue.addLast(new Outbound(message, coalesceKey, System.nanoTime()));
+                if (!draining) {
+                    draining = true;
+                    startDrainer = true;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (disconnect) {
+            log.warn("【WebSocket发送队列】连接 [{}] ({}) 积压超过 {} 条消息，按慢连接断开", session.getId(), owner, capacity);
+            close(CloseStatus.SESSION_NOT_RELIABLE.withReason("slow consumer"));
+            return false;
+        }
+        if (startDrainer) {
+            DRAINERS.execute(this::drain);
+        }
+        return true;
+    }
+
+    /**
+     * 追加一个协议层 Ping（与普通消息一样由发送线程写出，不会与其并发写连接）
+     * @return 是否已在队列中；队列积压已满或连接已关闭时返回 false
+     */
+    public boolean ping() {
+        if (!isOpen()) {
+            return false;
+        }
+        boolean startDrainer = false;
+        lock.lock();
+        try {
+            // 积压已满说明连接写不动，不再追加，由空闲检测决定是否断开
+            if (queue.size() >= capacity) {
+                return false;
+            }
+            for (Outbound queued : queue) {
+                if (PING_KEY.equals(queued.coalesceKey)) {
+                    return true;
+                }
+            }
+            queue.addLast(new Outbound(new PingMessage(), PING_KEY, System.nanoTime()));
+            if (!draining) {
+                draining = true;
+                startDrainer = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (startDrainer) {
+            DRAINERS.execute(this::drain);
+        }
+        return true;
+    }
+
+    /**
+     * 关闭队列并关闭连接（在虚拟线程中执行，关闭握手阻塞时不影响调用方）
+     */
+    public void close(CloseStatus status) {
+        if (markClosed()) {
+            DRAINERS.execute(() -> {
+                try {
+                    session.close(status);
+                } catch (Exception e) {
+                    log.debug("关闭连接 [{}] 时出错: {}", session.getId(), e.getMessage());
+                }
+            });
+            notifyClosed();
+        }
+    }
+
+    /**
+     * 连接已由容器关闭时只清理队列，不再关闭连接
+     */
+    public void discard() {
+        markClosed();
+    }
+
+    /**
+     * @return 当前统计快照
+     */
+    public WsSessionStatsDto stats() {
+        WsSessionStatsDto dto = new WsSessionStatsDto();
+        dto.setSessionId(session.getId());
+        dto.setOwner(owner);
+        long lagNanos = 0;
+        lock.lock();
+        try {
+            dto.setQueued(queue.size());
+            Outbound head = queue.peekFirst();
+            if (head != null) {
+                lagNanos = System.nanoTime() - head.enqueuedNanos;
+            }
+        } finally {
+            lock.unlock();
+        }
+        dto.setSent(sent);
+        dto.setDropped(dropped);
+        dto.setCoalesced(coalesced);
+        dto.setLagMillis(TimeUnit.NANOSECONDS.toMillis(lagNanos));
+        dto.setMaxLagMillis(TimeUnit.NANOSECONDS.toMillis(Math.max(maxLagNanos, lagNanos)));
+        dto.setLastSendTime(lastSendTime);
+        return dto;
+    }
+
+    /**
+     * 用新消息替换队列中同键的消息（保留原位置，避免乱序），受 lock 保护
+     */
+    private boolean replaceQueued(TextMessage message, String coalesceKey) {
+        for (Outbound queued : queue) {
+            if (coalesceKey.equals(queued.coalesceKey)) {
+                queued.message = message;
+                coalesced++;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void drain() {
+        while (true) {
+            Outbound next;
+            lock.lock();
+            try {
+                next = closed ? null : queue.pollFirst();
+                if (next == null) {
+                    draining = false;
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            try {
+                session.sendMessage(next.message);
+                long lag = System.nanoTime() - next.enqueuedNanos;
+                if (lag > maxLagNanos) {
+                    maxLagNanos = lag;
+                }
+                sent++;
+                lastSendTime = System.currentTimeMillis();
+            } catch (Exception e) {
+                log.error("向 session [ID: {}] ({}) 发送消息失败: {}", session.getId(), owner, e.getMessage());
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                lock.lock();
+                try {
+                    draining = false;
+                } finally {
+                    lock.unlock();
+                }
+                return;
+            }
+        }
+    }
+
+    private boolean markClosed() {
+        lock.lock();
+        try {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            queue.clear();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void notifyClosed() {
+        if (onClosed != null) {
+            try {
+                onClosed.accept(this);
+            } catch (Exception e) {
+                log.warn("连接 [{}] 关闭回调执行失败: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 待发送消息；message 在合并时会被替换
+     */
+    private static final class Outbound {
+        private WebSocketMessage<?> message;
+        private final String coalesceKey;
+        private final long enqueuedNanos;
+
+        private Outbound(WebSocketMessage<?> message, String coalesceKey, long enqueuedNanos) {
+            this.message = message;
+            this.coalesceKey = coalesceKey;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
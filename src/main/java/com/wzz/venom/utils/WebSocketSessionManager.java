@@ -2,37 +2,98 @@ package com.wzz.venom.utils;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.dto.WsSessionStatsDto;
+import com.wzz.venom.enums.WsOverflowPolicyEnum;
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * WebSocket Session 管理与广播工具类
- * 采用线程安全的 CopyOnWriteArraySet 存储 Session
+ * <p>
+ * 每个管理端连接有自己的有界发送队列（{@link WebSocketSendQueue}），广播时消息只序列化一次，
+ * 放入各连接的队列后立即返回，由各连接的虚拟线程异步发送，慢连接不会拖慢触发通知的业务请求。
+ * </p>
+ * <p>
+ * 管理端可以按主题订阅事件：{@code event:<事件类型>}、{@code user:<用户名>}，或 {@code *} 接收全部事件。
+ * 主题到连接的路由索引使发布事件时只遍历感兴趣的连接；新连接在首次订阅前默认订阅 {@code *}，兼容未改造的客户端。
+ * </p>
+ * <p>
+ * 开启集群转发（venom.websocket.cluster.enabled）时，{@link #publish} 先投递本节点的连接，再把已序列化的消息交给
+ * {@link WebSocketClusterService} 转发到其他节点；{@link #broadcast} 只投递本节点。
+ * </p>
  */
 @Component
 public class WebSocketSessionManager {
 
     private static final Logger log = LoggerFactory.getLogger(WebSocketSessionManager.class);
 
-    // 使用线程安全的 Set 来存储所有连接的 session
-    private final CopyOnWriteArraySet<WebSocketSession> sessions = new CopyOnWriteArraySet<>();
+    private static final String OWNER = "admin";
+
+    /** 订阅全部事件的主题 */
+    public static final String TOPIC_ALL = "*";
+    private static final String EVENT_TOPIC_PREFIX = "event:";
+    private static final String USER_TOPIC_PREFIX = "user:";
+
+    // sessionId -> 发送队列
+    private final Map<String, WebSocketSendQueue> sessions = new ConcurrentHashMap<>();
+
+    // 路由索引：主题 -> 订阅该主题的连接
+    private final Map<String, Set<WebSocketSendQueue>> topicIndex = new ConcurrentHashMap<>();
+
+    // sessionId -> 该连接订阅的主题，连接断开时据此清理路由索引
+    private final Map<String, Set<String>> sessionTopics = new ConcurrentHashMap<>();
 
     // 用于 JSON 序列化
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    /** 每个连接最多排队的消息数 */
+    @Value("${venom.websocket.send-queue.capacity:256}")
+    private int queueCapacity;
+
+    /** 队列满时的处理方式 */
+    @Value("${venom.websocket.send-queue.overflow-policy:COALESCE}")
+    private WsOverflowPolicyEnum overflowPolicy;
+
+    /** 集群转发服务，未开启集群时不存在 */
+    @Autowired
+    private ObjectProvider<WebSocketClusterService> clusterServiceProvider;
+
+    /** 服务端心跳：空闲连接发送 Ping，超时未响应的连接断开 */
+    @Autowired
+    private WebSocketHeartbeatService heartbeatService;
+
     /**
      * 添加一个新的会话
      * @param session WebSocketSession
      */
     public void addSession(WebSocketSession session) {
-        sessions.add(session);
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, OWNER, queueCapacity, overflowPolicy,
+                closed -> removeSession(closed.getSession()));
+        sessions.put(session.getId(), queue);
+        // 首次订阅前接收全部事件；TOPIC_ALL 同样记入连接的主题集合，订阅具体主题、取消订阅和断开时才能从路由索引移除
+        Set<String> topics = ConcurrentHashMap.newKeySet();
+        topics.add(TOPIC_ALL);
+        sessionTopics.put(session.getId(), topics);
+        addToTopic(queue, TOPIC_ALL);
+        heartbeatService.register(queue);
         log.info("新连接加入: [ID: {}], 当前在线管理员数量: {}", session.getId(), sessions.size());
     }
 
@@ -41,36 +102,190 @@ public class WebSocketSessionManager {
      * @param session WebSocketSession
      */
     public void removeSession(WebSocketSession session) {
-        if (sessions.remove(session)) {
+        WebSocketSendQueue queue = sessions.remove(session.getId());
+        if (queue != null) {
+            queue.discard();
+            heartbeatService.unregister(session);
+            Set<String> topics = sessionTopics.remove(session.getId());
+            if (topics != null) {
+                for (String topic : topics) {
+                    removeFromTopic(queue, topic);
+                }
+            }
             log.info("连接断开: [ID: {}], 当前在线管理员数量: {}", session.getId(), sessions.size());
         }
     }
 
     /**
-     * 广播 TextMessage 消息给所有在线的会话
+     * 向单个会话发送消息（经由该会话的发送队列，如心跳回复）
+     * @param session WebSocketSession
+     * @param message TextMessage
+     * @return 是否入队
+     */
+    public boolean send(WebSocketSession session, TextMessage message) {
+        WebSocketSendQueue queue = sessions.get(session.getId());
+        return queue != null && queue.offer(message, null);
+    }
+
+    /**
+     * 订阅主题。连接首次订阅时取消默认的全部事件订阅（除非本次订阅的就是 {@link #TOPIC_ALL}）
+     * @param session WebSocketSession
+     * @param topics  主题，见 {@link #eventTopic(String)}、{@link #userTopic(String)}
+     * @return 订阅后该连接的全部主题
+     */
+    public Set<String> subscribe(WebSocketSession session, Collection<String> topics) {
+        WebSocketSendQueue queue = sessions.get(session.getId());
+        Set<String> current = sessionTopics.get(session.getId());
+        if (queue == null || current == null) {
+            return Set.of();
+        }
+        synchronized (current) {
+            if (!topics.isEmpty() && !topics.contains(TOPIC_ALL) && current.remove(TOPIC_ALL)) {
+                removeFromTopic(queue, TOPIC_ALL);
+            }
+            for (String topic : topics) {
+                if (current.add(topic)) {
+                    addToTopic(queue, topic);
+                }
+            }
+            return new TreeSet<>(current);
+        }
+    }
+
+    /**
+     * 取消订阅主题
+     * @param session WebSocketSession
+     * @param topics  主题
+     * @return 取消后该连接的全部主题
+     */
+    public Set<String> unsubscribe(WebSocketSession session, Collection<String> topics) {
+        WebSocketSendQueue queue = sessions.get(session.getId());
+        Set<String> current = sessionTopics.get(session.getId());
+        if (queue == null || current == null) {
+            return Set.of();
+        }
+        synchronized (current) {
+            for (String topic : topics) {
+                if (current.remove(topic)) {
+                    removeFromTopic(queue, topic);
+                }
+            }
+            return new TreeSet<>(current);
+        }
+    }
+
+    /**
+     * 按主题发布事件：只投递给订阅了 {@code *}、该事件类型或该用户的连接，每个连接最多投递一次；开启集群时同时转发到其他节点
+     * @param eventType   事件类型
+     * @param userName    事件相关的用户名，可为 null
+     * @param payload     消息内容（只序列化一次）
+     * @param coalesceKey 合并键，可为 null
+     */
+    public void publish(String eventType, String userName, Object payload, String coalesceKey) {
+        WebSocketClusterService clusterService = clusterServiceProvider.getIfAvailable();
+        Set<WebSocketSendQueue> targets = collectTargets(eventType, userName);
+        if (targets.isEmpty() && clusterService == null) {
+            log.debug("没有订阅事件 {} 的管理员客户端，消息未推送", eventType);
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("消息对象序列化为 JSON 失败: {}", payload, e);
+            return;
+        }
+        if (!targets.isEmpty()) {
+            deliver(eventType, targets, new TextMessage(json), coalesceKey);
+        }
+        if (clusterService != null) {
+            clusterService.relayAdminEvent(eventType, userName, json, coalesceKey);
+        }
+    }
+
+    /**
+     * 按主题发布已序列化的事件，只投递本节点的连接（用于处理其他节点转发来的事件）
+     * @param eventType   事件类型
+     * @param userName    事件相关的用户名，可为 null
+     * @param message     消息
+     * @param coalesceKey 合并键，可为 null
+     */
+    public void publishLocal(String eventType, String userName, TextMessage message, String coalesceKey) {
+        Set<WebSocketSendQueue> targets = collectTargets(eventType, userName);
+        if (!targets.isEmpty()) {
+            deliver(eventType, targets, message, coalesceKey);
+        }
+    }
+
+    private Set<WebSocketSendQueue> collectTargets(String eventType, String userName) {
+        Set<WebSocketSendQueue> targets = Collections.newSetFromMap(new IdentityHashMap<>());
+        collectSubscribers(TOPIC_ALL, targets);
+        collectSubscribers(eventTopic(eventType), targets);
+        if (userName != null && !userName.isEmpty()) {
+            collectSubscribers(userTopic(userName), targets);
+        }
+        return targets;
+    }
+
+    private void deliver(String eventType, Set<WebSocketSendQueue> targets, TextMessage message, String coalesceKey) {
+        int queuedCount = 0;
+        for (WebSocketSendQueue queue : targets) {
+            if (queue.isOpen()) {
+                if (queue.offer(message, coalesceKey)) {
+                    queuedCount++;
+                }
+            } else {
+                removeSession(queue.getSession());
+            }
+        }
+        log.debug("事件 {} 已投递给 {} 个订阅的管理员客户端", eventType, queuedCount);
+    }
+
+    /**
+     * @return 事件类型主题
+     */
+    public static String eventTopic(String eventType) {
+        return EVENT_TOPIC_PREFIX + eventType;
+    }
+
+    /**
+     * @return 用户主题
+     */
+    public static String userTopic(String userName) {
+        return USER_TOPIC_PREFIX + userName;
+    }
+
+    /**
+     * 广播 TextMessage 消息给本节点所有在线的会话
      * @param message TextMessage
      */
     public void broadcast(TextMessage message) {
+        broadcast(message, null);
+    }
+
+    /**
+     * 广播 TextMessage 消息给所有在线的会话
+     * @param message     TextMessage（所有会话共用同一个消息对象）
+     * @param coalesceKey 合并键：COALESCE 策略下队列中同键的未发送消息会被替换，可为 null
+     */
+    public void broadcast(TextMessage message, String coalesceKey) {
         if (sessions.isEmpty()) {
             log.warn("没有在线的管理员客户端，消息未能推送: {}", message.getPayload());
             return;
         }
 
-        int successCount = 0;
-        for (WebSocketSession session : sessions) {
-            if (session.isOpen()) {
-                try {
-                    session.sendMessage(message);
-                    successCount++;
-                } catch (IOException e) {
-                    log.error("向 session [ID: {}] 发送消息失败: {}", session.getId(), e.getMessage(), e);
+        int queuedCount = 0;
+        for (WebSocketSendQueue queue : sessions.values()) {
+            if (queue.isOpen()) {
+                if (queue.offer(message, coalesceKey)) {
+                    queuedCount++;
                 }
             } else {
                 // 如果 session 已经关闭，则从集合中移除
-                removeSession(session);
+                removeSession(queue.getSession());
             }
         }
-        log.info("成功向 {} 个管理员客户端广播消息: {}", successCount, message.getPayload());
+        log.debug("已向 {} 个管理员客户端投递广播消息: {}", queuedCount, message.getPayload());
     }
 
     /**
@@ -78,11 +293,55 @@ public class WebSocketSessionManager {
      * @param payload 消息内容，通常是一个 Map 或 DTO 对象
      */
     public void broadcast(Object payload) {
+        broadcast(payload, null);
+    }
+
+    /**
+     * 广播一个对象（只序列化一次）
+     * @param payload     消息内容，通常是一个 Map 或 DTO 对象
+     * @param coalesceKey 合并键，可为 null
+     */
+    public void broadcast(Object payload, String coalesceKey) {
         try {
             String jsonMessage = objectMapper.writeValueAsString(payload);
-            broadcast(new TextMessage(jsonMessage));
+            broadcast(new TextMessage(jsonMessage), coalesceKey);
         } catch (JsonProcessingException e) {
             log.error("消息对象序列化为 JSON 失败: {}", payload, e);
         }
     }
-}
\ No newline at end of file
+
+    private void collectSubscribers(String topic, Set<WebSocketSendQueue> targets) {
+        Set<WebSocketSendQueue> subscribers = topicIndex.get(topic);
+        if (subscribers != null) {
+            targets.addAll(subscribers);
+        }
+    }
+
+    private void addToTopic(WebSocketSendQueue queue, String topic) {
+        // 在 compute 内加入，避免与移除空主题并发时加入到已被移除的集合
+        topicIndex.compute(topic, (key, subscribers) -> {
+            Set<WebSocketSendQueue> result = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+            result.add(queue);
+            return result;
+        });
+    }
+
+    private void removeFromTopic(WebSocketSendQueue queue, String topic) {
+        // 最后一个订阅者离开时移除主题，避免按用户订阅的主题无限增长
+        topicIndex.computeIfPresent(topic, (key, subscribers) -> {
+            subscribers.remove(queue);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    /**
+     * @return 各管理端连接的发送队列统计
+     */
+    public List<WsSessionStatsDto> stats() {
+        List<WsSessionStatsDto> result = new ArrayList<>(sessions.size());
+        for (WebSocketSendQueue queue : sessions.values()) {
+            result.add(queue.stats());
+        }
+        return result;
+    }
+}
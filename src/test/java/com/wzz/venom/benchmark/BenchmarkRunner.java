@@ -0,0 +1,36 @@
+package com.wzz.venom.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH 基准入口：运行本包下的所有 JMH 基准，结果以 JSON 写入文件，便于不同版本之间对比回归
+ * <p>
+ * 不是单元测试，不会被 surefire 执行。运行方式：
+ * <pre>
+ * mvn -q test-compile
+ * java -cp target/classes:target/test-classes:$(mvn -q dependency:build-classpath -Dmdep.outputFile=/dev/stdout) \
+ *      com.wzz.venom.benchmark.BenchmarkRunner [基准名正则，默认全部] [结果文件，默认 target/jmh-result.json]
+ * </pre>
+ * 例如只运行收益计算：{@code ... BenchmarkRunner FinancialCalculationBenchmark}。
+ * JSON 可直接用 JMH Visualizer 等工具打开，或与上一版本的结果文件逐项比较 score。
+ * </p>
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : BenchmarkRunner.class.getPackageName() + "\\..*";
+        String resultFile = args.length > 1 ? args[1] : "target/jmh-result.json";
+
+        Options options = new OptionsBuilder()
+                .include(include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        new Runner(options).run();
+        System.out.printf("基准结果已写入 %s%n", resultFile);
+    }
+}
@@ -0,0 +1,76 @@
+package com.wzz.venom.benchmark;
+
+import com.wzz.venom.enums.ProductIncomeStatusEnum;
+import com.wzz.venom.task.FinancialIncomeCalculationTask;
+import com.wzz.venom.utils.FinancialCalculatorUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 收益计算基准：到期结算的最终金额计算、每日理财收益的日收益率换算
+ * <p>
+ * 运行方式见 {@link BenchmarkRunner}。
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FinancialCalculationBenchmark {
+
+    /** 本金 */
+    @Param({"1000.00", "123456789.12"})
+    private String principalText;
+
+    /** 年收益率配置值（与 sys_config 中读出的字符串形式一致） */
+    @Param({"2", "18.25"})
+    private String annualRate;
+
+    private BigDecimal principal;
+    private BigDecimal rate;
+    private double principalDouble;
+    private double rateDouble;
+
+    @Setup
+    public void setUp() {
+        principal = new BigDecimal(principalText);
+        rate = new BigDecimal("0.05");
+        principalDouble = principal.doubleValue();
+        rateDouble = rate.doubleValue();
+    }
+
+    @Benchmark
+    public BigDecimal finalAmountProfit() {
+        return FinancialCalculatorUtils.calculateFinalAmount(ProductIncomeStatusEnum.PROFIT, principal, rate);
+    }
+
+    @Benchmark
+    public BigDecimal finalAmountLoss() {
+        return FinancialCalculatorUtils.calculateFinalAmount(ProductIncomeStatusEnum.LOSS, principal, rate);
+    }
+
+    /** 结算时金额和利率来自实体的 Double 字段，走 double 重载 */
+    @Benchmark
+    public BigDecimal finalAmountFromDouble() {
+        return FinancialCalculatorUtils.calculateFinalAmount(ProductIncomeStatusEnum.PROFIT, principalDouble, rateDouble);
+    }
+
+    @Benchmark
+    public BigDecimal dailyRate() {
+        return FinancialIncomeCalculationTask.calculateDailyRate(annualRate);
+    }
+}
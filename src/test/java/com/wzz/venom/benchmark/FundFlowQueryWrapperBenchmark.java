@@ -0,0 +1,81 @@
+package com.wzz.venom.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.wzz.venom.domain.entity.UserFundFlow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 资金流水查询条件构造基准：与 UserFundFlowServiceImpl 中的 QueryWrapper 写法一致
+ * <p>
+ * 每个基准构造条件后生成 SQL 片段（即 Mapper 执行前所做的工作），不访问数据库。运行方式见 {@link BenchmarkRunner}。
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FundFlowQueryWrapperBenchmark {
+
+    // 与 UserFundFlowServiceImpl 中的常量保持一致
+    private static final String FUND_TYPE_RECHARGE = "RECHARGE";
+    private static final String FUND_TYPE_WITHDRAW = "WITHDRAW";
+    private static final String FUND_TYPE_WITHDRAW_REFUND = "WITHDRAW_REFUND";
+    private static final int STATUS_PROCESSING = 1;
+    private static final int EFFECTIVE_STATUS_ACTIVE = 1;
+    private static final int EFFECTIVE_STATUS_PENDING = 0;
+
+    private final String userName = "bench_user_42";
+
+    /** getPendingRecharges */
+    @Benchmark
+    public String pendingRecharges() {
+        return new QueryWrapper<UserFundFlow>()
+                .eq("fund_type", FUND_TYPE_RECHARGE)
+                .eq("is_effective", EFFECTIVE_STATUS_PENDING)
+                .orderByAsc("create_time")
+                .getCustomSqlSegment();
+    }
+
+    /** queryTheUserSFundFlowList：带嵌套 OR 条件 */
+    @Benchmark
+    public String userFundFlowList() {
+        QueryWrapper<UserFundFlow> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_name", userName)
+                .and(qw -> qw.eq("is_effective", EFFECTIVE_STATUS_ACTIVE).or().eq("fund_type", FUND_TYPE_RECHARGE))
+                .orderByDesc("create_time");
+        return queryWrapper.getCustomSqlSegment();
+    }
+
+    /** queryAllWithdrawalTransactionInformation */
+    @Benchmark
+    public String withdrawalRecords() {
+        QueryWrapper<UserFundFlow> queryWrapper = new QueryWrapper<>();
+        queryWrapper.in("fund_type", FUND_TYPE_WITHDRAW, FUND_TYPE_WITHDRAW_REFUND)
+                .orderByDesc("create_time");
+        return queryWrapper.getCustomSqlSegment();
+    }
+
+    /** modifyUserWithdrawalStatus：最近一条处理中的提现 */
+    @Benchmark
+    public String latestProcessingWithdrawal() {
+        return new QueryWrapper<UserFundFlow>()
+                .eq("user_name", userName)
+                .eq("fund_type", FUND_TYPE_WITHDRAW)
+                .eq("status", STATUS_PROCESSING)
+                .orderByDesc("create_time")
+                .last("limit 1")
+                .getCustomSqlSegment();
+    }
+}
@@ -0,0 +1,73 @@
+package com.wzz.venom.benchmark;
+
+import cn.hutool.json.JSONObject;
+import com.wzz.venom.handler.HutoolJsonObjectTypeHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 系统配置 JSON 列解析基准：{@link HutoolJsonObjectTypeHandler} 从结果集读取并解析为 JSONObject
+ * <p>
+ * 结果集用动态代理模拟，只返回固定的列值，测得的是解析本身的开销。运行方式见 {@link BenchmarkRunner}。
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonTypeHandlerBenchmark {
+
+    private static final String COLUMN = "config_value";
+
+    /** 配置项中的键数量：小配置（如 sys_config）和较大的配置 */
+    @Param({"4", "64"})
+    private int keys;
+
+    private final HutoolJsonObjectTypeHandler handler = new HutoolJsonObjectTypeHandler();
+
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        JSONObject json = new JSONObject();
+        json.set("financial_management", "2");
+        json.set("withdraw_min", 100);
+        json.set("notice", "系统维护通知：今晚 23:00 - 23:30 暂停提现");
+        json.set("enabled", true);
+        for (int i = json.size(); i < keys; i++) {
+            json.set("key_" + i, i % 2 == 0 ? "value_" + i : i * 0.01);
+        }
+        String text = json.toString();
+        resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    if ("getString".equals(method.getName())) {
+                        return text;
+                    }
+                    if ("wasNull".equals(method.getName())) {
+                        return false;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Benchmark
+    public JSONObject parseByColumnName() throws SQLException {
+        return handler.getNullableResult(resultSet, COLUMN);
+    }
+}
@@ -0,0 +1,116 @@
+package com.wzz.venom.benchmark;
+
+import com.wzz.venom.domain.entity.UserProduct;
+import com.wzz.venom.utils.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产品到期调度基准：原 ThreadPoolTaskScheduler 每产品一个定时任务 vs 分层时间轮，一次性登记大量待到期产品
+ * <p>
+ * 每次迭代从空的调度器开始登记全部产品，测一次（SingleShotTime）。堆占用可加 JMH 的 {@code -prof gc} 观察分配量。
+ * 运行方式见 {@link BenchmarkRunner}（需要较大的堆，已在 {@code @Fork} 中指定）。
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ProductExpirySchedulerBenchmark {
+
+    /** 到期时间分布在一分钟后的一小时内 */
+    private static final long HORIZON_MILLIS = 3_600_000L;
+
+    /** 待到期产品数量 */
+    @Param({"1000000"})
+    private int products;
+
+    private long[] expiries;
+
+    private ThreadPoolTaskScheduler scheduler;
+    private List<ScheduledFuture<?>> futures;
+    private HierarchicalTimingWheel wheel;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        long now = System.currentTimeMillis();
+        expiries = new long[products];
+        Random random = new Random(42);
+        for (int i = 0; i < products; i++) {
+            expiries[i] = now + 60_000L + (long) (random.nextDouble() * HORIZON_MILLIS);
+        }
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(10);
+        scheduler.setThreadNamePrefix("bench-settle-");
+        scheduler.initialize();
+        futures = new ArrayList<>(products);
+        // 与 ProductSchedulingServiceImpl 一致：第 0 层 512 个槽位，秒级刻度
+        wheel = new HierarchicalTimingWheel(1000L, 512, now);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        for (ScheduledFuture<?> future : futures) {
+            future.cancel(false);
+        }
+        futures = null;
+        scheduler.shutdown();
+        wheel = null;
+    }
+
+    /** 原实现：每个产品一个定时任务，lambda 捕获完整的产品实体 */
+    @Benchmark
+    public int scheduleAllWithTaskScheduler() {
+        for (int i = 0; i < expiries.length; i++) {
+            UserProduct product = newProduct(i, expiries[i]);
+            Runnable task = () -> product.getId();
+            futures.add(scheduler.schedule(task, Instant.ofEpochMilli(expiries[i])));
+        }
+        return futures.size();
+    }
+
+    /** 当前实现：时间轮只保存产品ID和到期刻度 */
+    @Benchmark
+    public int scheduleAllWithTimingWheel() {
+        for (int i = 0; i < expiries.length; i++) {
+            wheel.add(i, expiries[i]);
+        }
+        return wheel.size();
+    }
+
+    private static UserProduct newProduct(long id, long expireMillis) {
+        UserProduct product = new UserProduct();
+        product.setId(id);
+        product.setUserName("bench_user_" + (id % 10_000));
+        product.setProductName("秒级理财");
+        product.setAmount(1000.0);
+        product.setInterestRate(0.05);
+        product.setStatus(0);
+        product.setCycleType("s");
+        product.setEndTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(expireMillis), ZoneId.systemDefault()));
+        return product;
+    }
+}
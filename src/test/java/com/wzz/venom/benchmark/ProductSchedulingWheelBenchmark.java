@@ -0,0 +1,100 @@
+package com.wzz.venom.benchmark;
+
+import com.wzz.venom.utils.HierarchicalTimingWheel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 产品到期调度基准：ProductSchedulingServiceImpl 登记到期（结束时间换算 + 放入时间轮）和按刻度推进取出到期产品
+ * <p>
+ * 时间轮中预先放入指定数量的待到期产品，模拟线上已有积压时的单次操作开销；
+ * 一次性登记百万级产品的对比见 {@link ProductExpirySchedulerBenchmark}。运行方式见 {@link BenchmarkRunner}。
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ProductSchedulingWheelBenchmark {
+
+    /** 到期时间分布在未来两分钟内（与默认预加载窗口 venom.settlement.preload-seconds 一致） */
+    private static final long HORIZON_MILLIS = 120_000L;
+
+    /** 时间轮中已有的待到期产品数 */
+    @Param({"10000", "1000000"})
+    private int backlog;
+
+    private HierarchicalTimingWheel wheel;
+
+    private LocalDateTime[] endTimes;
+
+    private long startMillis;
+    private long nextId;
+    private int cursor;
+    private long advanceMillis;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        startMillis = System.currentTimeMillis();
+        wheel = new HierarchicalTimingWheel(1000L, 512, startMillis);
+        Random random = new Random(42);
+        for (long id = 0; id < backlog; id++) {
+            wheel.add(id, startMillis + 1000L + (long) (random.nextDouble() * HORIZON_MILLIS));
+        }
+        // 预先生成结束时间，基准中只测换算和入轮
+        endTimes = new LocalDateTime[4096];
+        for (int i = 0; i < endTimes.length; i++) {
+            long expireMillis = startMillis + 1000L + (long) (random.nextDouble() * HORIZON_MILLIS);
+            endTimes[i] = LocalDateTime.ofInstant(Instant.ofEpochMilli(expireMillis), ZoneId.systemDefault());
+        }
+        nextId = backlog;
+        cursor = 0;
+        advanceMillis = startMillis;
+    }
+
+    /** scheduleProductSettlement：结束时间换算为毫秒时间戳后放入时间轮 */
+    @Benchmark
+    public long schedule() {
+        LocalDateTime endTime = endTimes[cursor++ & (endTimes.length - 1)];
+        long expireMillis = endTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long id = nextId++;
+        wheel.add(id, expireMillis);
+        return id;
+    }
+
+    /**
+     * fireExpiredProducts：每次推进一个刻度，取出到期条目并转为待结算的ID列表；
+     * 取出的条目重新放到一个预加载窗口之后（模拟轮询预加载新的到期产品），保持积压数量不变
+     */
+    @Benchmark
+    public List<Long> advanceOneTick() {
+        advanceMillis += 1000L;
+        long[] dueIds = wheel.advanceTo(advanceMillis);
+        List<Long> ids = new ArrayList<>(dueIds.length);
+        for (long productId : dueIds) {
+            ids.add(productId);
+            wheel.add(productId, advanceMillis + HORIZON_MILLIS);
+        }
+        return ids;
+    }
+}
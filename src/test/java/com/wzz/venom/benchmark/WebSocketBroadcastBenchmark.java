@@ -0,0 +1,122 @@
+package com.wzz.venom.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.enums.WsOverflowPolicyEnum;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
+import com.wzz.venom.utils.WebSocketSessionManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 管理端广播基准：{@link WebSocketSessionManager#broadcast(Object)} 序列化一次并放入各连接的发送队列
+ * <p>
+ * 连接用动态代理模拟，发送不做任何 IO；心跳服务用空实现。与逐个连接序列化的写法对比，
+ * 可以看出连接数增加时广播开销是否只随入队线性增长。运行方式见 {@link BenchmarkRunner}。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WebSocketBroadcastBenchmark {
+
+    /** 在线管理端连接数 */
+    @Param({"1", "16", "64"})
+    private int sessions;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WebSocketSessionManager sessionManager;
+
+    private List<WebSocketSession> sessionList;
+
+    private Map<String, Object> payload;
+
+    @Setup
+    public void setUp() {
+        sessionManager = new WebSocketSessionManager();
+        ReflectionTestUtils.setField(sessionManager, "queueCapacity", 256);
+        ReflectionTestUtils.setField(sessionManager, "overflowPolicy", WsOverflowPolicyEnum.DROP_OLDEST);
+        ReflectionTestUtils.setField(sessionManager, "heartbeatService", noopHeartbeatService());
+        sessionList = new ArrayList<>(sessions);
+        for (int i = 0; i < sessions; i++) {
+            WebSocketSession session = fakeSession("bench-admin-" + i);
+            sessionList.add(session);
+            sessionManager.addSession(session);
+        }
+
+        // 与 AdminWebSocketController 推送的购买事件结构一致
+        payload = new HashMap<>();
+        payload.put("event", "USER_PURCHASE");
+        payload.put("user", "bench_user_42");
+        payload.put("productName", "秒级理财");
+        payload.put("amount", 1000.0);
+    }
+
+    @TearDown
+    public void tearDown() {
+        for (WebSocketSession session : sessionList) {
+            sessionManager.removeSession(session);
+        }
+    }
+
+    /** 当前实现：序列化一次，所有连接共用同一个消息对象 */
+    @Benchmark
+    public void broadcast() {
+        sessionManager.broadcast(payload);
+    }
+
+    /** 对照：每个连接各自序列化一次的开销 */
+    @Benchmark
+    public int serializePerSession() throws JsonProcessingException {
+        int length = 0;
+        for (int i = 0; i < sessions; i++) {
+            length += objectMapper.writeValueAsString(payload).length();
+        }
+        return length;
+    }
+
+    private static WebSocketSession fakeSession(String id) {
+        Map<String, Object> attributes = new HashMap<>();
+        return (WebSocketSession) Proxy.newProxyInstance(WebSocketSession.class.getClassLoader(),
+                new Class<?>[]{WebSocketSession.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getId" -> id;
+                    case "isOpen" -> true;
+                    case "getAttributes" -> attributes;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> id;
+                    // sendMessage / close 等：不做任何 IO
+                    default -> null;
+                });
+    }
+
+    private static WebSocketHeartbeatService noopHeartbeatService() {
+        return (WebSocketHeartbeatService) Proxy.newProxyInstance(WebSocketHeartbeatService.class.getClassLoader(),
+                new Class<?>[]{WebSocketHeartbeatService.class},
+                (proxy, method, args) -> null);
+    }
+}
@@ -0,0 +1,138 @@
+package com.wzz.venom.service.impl.financial;
+
+import com.wzz.venom.domain.dto.AccrualReportDto;
+import com.wzz.venom.domain.entity.FinancialAccrualRun;
+import com.wzz.venom.domain.entity.UserFinancial;
+import com.wzz.venom.enums.AccrualModeEnum;
+import com.wzz.venom.mapper.FinancialAccrualRunMapper;
+import com.wzz.venom.mapper.UserFinancialMapper;
+import com.wzz.venom.service.user.UserIncomeRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 理财收益批量派发：分块读取之后本金发生变化时，按事务内加锁读到的本金计息
+ */
+class FinancialAccrualServiceImplTest {
+
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2026, 10, 18);
+    private static final BigDecimal DAILY_RATE = new BigDecimal("0.01");
+
+    private FinancialAccrualServiceImpl service;
+    private UserFinancialMapper userFinancialMapper;
+    private JdbcTemplate jdbcTemplate;
+    private UserIncomeRollupService userIncomeRollupService;
+
+    @BeforeEach
+    void setUp() {
+        userFinancialMapper = mock(UserFinancialMapper.class);
+        FinancialAccrualRunMapper runMapper = mock(FinancialAccrualRunMapper.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        userIncomeRollupService = mock(UserIncomeRollupService.class);
+
+        when(runMapper.insert(any(FinancialAccrualRun.class))).thenAnswer(invocation -> {
+            invocation.<FinancialAccrualRun>getArgument(0).setId(1L);
+            return 1;
+        });
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<?> args = invocation.getArgument(1);
+            int[] counts = new int[args.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+
+        service = new FinancialAccrualServiceImpl(userFinancialMapper, runMapper, jdbcTemplate,
+                transactionTemplate, userIncomeRollupService);
+        ReflectionTestUtils.setField(service, "chunkSize", 500);
+        ReflectionTestUtils.setField(service, "parallelism", 1);
+        ReflectionTestUtils.setField(service, "mode", AccrualModeEnum.BATCH);
+        ReflectionTestUtils.setField(service, "staleSeconds", 600L);
+    }
+
+    @Test
+    void earningsUseAmountLockedInsideChunkTransaction() {
+        // 扫描时读到 1000，进入分块事务前追加到 2000
+        when(userFinancialMapper.selectActivePositionsAfterId(eq(0L), eq(BUSINESS_DATE), anyInt()))
+                .thenReturn(List.of(position(1L, "alice", "1000.00")));
+        when(jdbcTemplate.queryForList(startsWith("SELECT id, amount"), any(Object[].class)))
+                .thenReturn(List.of(Map.of("id", 1L, "amount", new BigDecimal("2000.00"))));
+
+        AccrualReportDto report = service.runDailyAccrual(BUSINESS_DATE, DAILY_RATE);
+
+        assertThat(updateArgs()).singleElement().satisfies(args ->
+                assertThat((BigDecimal) args[0]).isEqualByComparingTo("20.00"));
+        assertThat(statementArgs()).singleElement().satisfies(args ->
+                assertThat((BigDecimal) args[3]).isEqualByComparingTo("20.00"));
+        verify(userIncomeRollupService).applyIncomeBatch(
+                eq(Map.of("alice", new BigDecimal("20.00"))), eq(BUSINESS_DATE), any());
+        assertThat(report.getSuccessCount()).isEqualTo(1);
+        assertThat(report.getTotalIncome()).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    void positionRedeemedAfterScanIsSkipped() {
+        when(userFinancialMapper.selectActivePositionsAfterId(eq(0L), eq(BUSINESS_DATE), anyInt()))
+                .thenReturn(List.of(position(1L, "alice", "1000.00"), position(2L, "bob", "500.00")));
+        // 持仓 2 在扫描之后已赎回，加锁查询不再返回
+        when(jdbcTemplate.queryForList(startsWith("SELECT id, amount"), any(Object[].class)))
+                .thenReturn(List.of(Map.of("id", 1L, "amount", new BigDecimal("1000.00"))));
+
+        AccrualReportDto report = service.runDailyAccrual(BUSINESS_DATE, DAILY_RATE);
+
+        assertThat(statementArgs()).singleElement().satisfies(args -> {
+            assertThat(args[1]).isEqualTo(1L);
+            assertThat((BigDecimal) args[3]).isEqualByComparingTo("10.00");
+        });
+        assertThat(report.getSuccessCount()).isEqualTo(1);
+        assertThat(report.getSkippedCount()).isEqualTo(1);
+        assertThat(report.getFailedCount()).isZero();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> updateArgs() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE user_financial"), captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> statementArgs() {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO user_financial_statement"), captor.capture());
+        return captor.getValue();
+    }
+
+    private static UserFinancial position(Long id, String userName, String amount) {
+        UserFinancial position = new UserFinancial();
+        position.setId(id);
+        position.setUserName(userName);
+        position.setAmount(new BigDecimal(amount));
+        position.setStatus(0);
+        return position;
+    }
+}
@@ -0,0 +1,87 @@
+package com.wzz.venom.service.impl.user;
+
+import com.wzz.venom.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 冻结用户索引：全量重载与增量变更并发时不丢失变更
+ */
+class FrozenUserServiceImplTest {
+
+    private FrozenUserServiceImpl service;
+    private UserMapper userMapper;
+
+    @BeforeEach
+    void setUp() {
+        service = new FrozenUserServiceImpl();
+        userMapper = mock(UserMapper.class);
+        ReflectionTestUtils.setField(service, "userMapper", userMapper);
+        ReflectionTestUtils.setField(service, "redisSync", false);
+    }
+
+    @Test
+    void reloadReplacesIndex() {
+        when(userMapper.selectFrozenUserIds()).thenReturn(List.of(3L, 1L, 2L));
+
+        service.reload();
+
+        assertThat(service.isFrozen(1L)).isTrue();
+        assertThat(service.isFrozen(3L)).isTrue();
+        assertThat(service.isFrozen(4L)).isFalse();
+    }
+
+    @Test
+    void freezeDuringReloadIsNotOverwritten() {
+        AtomicBoolean first = new AtomicBoolean(true);
+        // 第一次读取期间用户 7 被冻结并提交，读到的是旧列表；重试时读到新列表
+        when(userMapper.selectFrozenUserIds()).thenAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                service.onFreezeStatusChanged(7L, true);
+                return List.of(1L);
+            }
+            return List.of(1L, 7L);
+        });
+
+        service.reload();
+
+        assertThat(service.isFrozen(7L)).isTrue();
+        verify(userMapper, times(2)).selectFrozenUserIds();
+    }
+
+    @Test
+    void staleReloadIsDiscardedWhenChangesKeepArriving() {
+        when(userMapper.selectFrozenUserIds()).thenReturn(List.of(1L));
+        service.reload();
+        // 每次读取期间都有新的冻结，旧列表一次都不能覆盖
+        when(userMapper.selectFrozenUserIds()).thenAnswer(invocation -> {
+            service.onFreezeStatusChanged(9L, true);
+            return List.of(1L);
+        });
+
+        service.reload();
+
+        assertThat(service.isFrozen(9L)).isTrue();
+        assertThat(service.isFrozen(1L)).isTrue();
+    }
+
+    @Test
+    void unfreezeRemovesFromIndex() {
+        when(userMapper.selectFrozenUserIds()).thenReturn(List.of(5L));
+        service.reload();
+
+        service.onFreezeStatusChanged(5L, false);
+
+        assertThat(service.isFrozen(5L)).isFalse();
+    }
+}
@@ -0,0 +1,100 @@
+package com.wzz.venom.service.impl.user;
+
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.mapper.UserMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户缓存：登录密码和提现密码不写入 Redis 和近缓存
+ */
+class UserCacheServiceImplTest {
+
+    private UserCacheServiceImpl service;
+    private UserMapper userMapper;
+    private ValueOperations<String, String> valueOperations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        service = new UserCacheServiceImpl();
+        userMapper = mock(UserMapper.class);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        ObjectProvider<StringRedisTemplate> provider = mock(ObjectProvider.class);
+        when(provider.getIfAvailable()).thenReturn(redisTemplate);
+
+        ReflectionTestUtils.setField(service, "userMapper", userMapper);
+        ReflectionTestUtils.setField(service, "redisTemplateProvider", provider);
+        ReflectionTestUtils.setField(service, "localTtlSeconds", 10L);
+        ReflectionTestUtils.setField(service, "localMaxSize", 100);
+        ReflectionTestUtils.setField(service, "redisEnabled", true);
+        ReflectionTestUtils.setField(service, "redisTtlSeconds", 300L);
+    }
+
+    @Test
+    void cachedJsonContainsNoCredentials() {
+        when(userMapper.selectById(1L)).thenReturn(userWithCredentials());
+
+        User user = service.getById(1L);
+
+        ArgumentCaptor<String> json = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(eq("venom:user:id:1"), json.capture(), any(Duration.class));
+        assertThat(json.getValue())
+                .contains("alice")
+                .doesNotContain("password", "withdrawalPassword", "login-secret", "withdraw-secret");
+        assertThat(user.getPassword()).isNull();
+        assertThat(user.getWithdrawalPassword()).isNull();
+    }
+
+    @Test
+    void nearCacheHoldsNoCredentials() {
+        when(userMapper.selectById(1L)).thenReturn(userWithCredentials());
+        service.getById(1L);
+
+        // 第二次命中近缓存
+        User cached = service.getById(1L);
+
+        assertThat(cached.getUserName()).isEqualTo("alice");
+        assertThat(cached.getPassword()).isNull();
+        assertThat(cached.getWithdrawalPassword()).isNull();
+    }
+
+    @Test
+    void credentialsInLegacyRedisEntryAreDropped() {
+        when(valueOperations.get(anyString())).thenReturn(null);
+        when(valueOperations.get("venom:user:id:1"))
+                .thenReturn("{\"id\":1,\"userName\":\"alice\",\"password\":\"login-secret\",\"withdrawalPassword\":\"withdraw-secret\"}");
+
+        User user = service.getById(1L);
+
+        assertThat(user.getUserName()).isEqualTo("alice");
+        assertThat(user.getPassword()).isNull();
+        assertThat(user.getWithdrawalPassword()).isNull();
+    }
+
+    private static User userWithCredentials() {
+        User user = new User();
+        user.setId(1L);
+        user.setUserName("alice");
+        user.setPassword("login-secret");
+        user.setWithdrawalPassword("withdraw-secret");
+        return user;
+    }
+}
@@ -0,0 +1,152 @@
+package com.wzz.venom.service.impl.user;
+
+import com.wzz.venom.domain.dto.FundFlowPageDto;
+import com.wzz.venom.domain.entity.UserFundFlow;
+import com.wzz.venom.exception.BusinessException;
+import com.wzz.venom.mapper.UserFundFlowMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 资金流水游标分页：游标编码、筛选条件指纹和非法游标
+ */
+class UserFundFlowServiceImplCursorTest {
+
+    private static final String USER = "alice";
+
+    private UserFundFlowServiceImpl service;
+    private UserFundFlowMapper mapper;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserFundFlowServiceImpl();
+        mapper = mock(UserFundFlowMapper.class);
+        ReflectionTestUtils.setField(service, "userFundFlowMapper", mapper);
+    }
+
+    @Test
+    void firstPageReturnsCursorWhenMoreRowsExist() {
+        when(mapper.selectVisibleFlowsBeforeId(eq(USER), isNull(), any(), any(), any(), anyInt(), anyString(), eq(3)))
+                .thenReturn(flows(30, 29, 28));
+
+        FundFlowPageDto page = service.queryUserFundFlowPage(USER, null, 2, null, null, null);
+
+        assertThat(page.getRecords()).extracting(UserFundFlow::getId).containsExactly(30L, 29L);
+        assertThat(page.isHasMore()).isTrue();
+        assertThat(page.getNextCursor()).isNotBlank();
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        when(mapper.selectVisibleFlowsBeforeId(eq(USER), isNull(), any(), any(), any(), anyInt(), anyString(), eq(3)))
+                .thenReturn(flows(30, 29));
+
+        FundFlowPageDto page = service.queryUserFundFlowPage(USER, null, 2, null, null, null);
+
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorResumesAfterLastReturnedId() {
+        when(mapper.selectVisibleFlowsBeforeId(eq(USER), isNull(), any(), any(), any(), anyInt(), anyString(), anyInt()))
+                .thenReturn(flows(30, 29, 28));
+        String cursor = service.queryUserFundFlowPage(USER, null, 2, List.of("RECHARGE"), null, null).getNextCursor();
+
+        service.queryUserFundFlowPage(USER, cursor, 2, List.of("RECHARGE"), null, null);
+
+        verify(mapper).selectVisibleFlowsBeforeId(eq(USER), eq(29L), eq(List.of("RECHARGE")), any(), any(), anyInt(), anyString(), eq(3));
+    }
+
+    @Test
+    void equivalentFilterInDifferentOrderKeepsCursorValid() {
+        when(mapper.selectVisibleFlowsBeforeId(eq(USER), isNull(), any(), any(), any(), anyInt(), anyString(), anyInt()))
+                .thenReturn(flows(30, 29, 28));
+        String cursor = service.queryUserFundFlowPage(USER, null, 2, List.of("WITHDRAW", "RECHARGE"), null, null).getNextCursor();
+
+        service.queryUserFundFlowPage(USER, cursor, 2, List.of("RECHARGE", " WITHDRAW", "RECHARGE", ""), null, null);
+
+        verify(mapper).selectVisibleFlowsBeforeId(eq(USER), eq(29L), eq(List.of("RECHARGE", "WITHDRAW")), any(), any(), anyInt(), anyString(), eq(3));
+    }
+
+    @Test
+    void changedFilterRejectsOldCursor() {
+        when(mapper.selectVisibleFlowsBeforeId(eq(USER), isNull(), any(), any(), any(), anyInt(), anyString(), anyInt()))
+                .thenReturn(flows(30, 29, 28));
+        LocalDate day = LocalDate.of(2025, 1, 1);
+        String cursor = service.queryUserFundFlowPage(USER, null, 2, List.of("RECHARGE"), day, day).getNextCursor();
+
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, cursor, 2, List.of("WITHDRAW"), day, day))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, cursor, 2, List.of("RECHARGE"), day, day.plusDays(1)))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage("bob", cursor, 2, List.of("RECHARGE"), day, day))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void tamperedCursorIsRejected() {
+        when(mapper.selectVisibleFlowsBeforeId(eq(USER), isNull(), any(), any(), any(), anyInt(), anyString(), anyInt()))
+                .thenReturn(flows(30, 29, 28));
+        String cursor = service.queryUserFundFlowPage(USER, null, 2, null, null, null).getNextCursor();
+        String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        String fingerprint = raw.substring(raw.lastIndexOf(':') + 1);
+
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, "not*base64", 2, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, encode("v1:abc:" + fingerprint), 2, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, encode("v1:-5:" + fingerprint), 2, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, encode("v2:29:" + fingerprint), 2, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, encode("v1:29"), 2, null, null, null))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    @Test
+    void invalidArgumentsAreRejected() {
+        assertThatThrownBy(() -> service.queryUserFundFlowPage("", null, 2, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, null, 0, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, null, 101, null, null, null))
+                .isInstanceOf(BusinessException.class);
+        assertThatThrownBy(() -> service.queryUserFundFlowPage(USER, null, 2, null,
+                LocalDate.of(2025, 1, 2), LocalDate.of(2025, 1, 1)))
+                .isInstanceOf(BusinessException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<UserFundFlow> flows(long... ids) {
+        List<UserFundFlow> rows = new ArrayList<>();
+        for (long id : ids) {
+            UserFundFlow flow = new UserFundFlow();
+            flow.setId(id);
+            flow.setUserName(USER);
+            rows.add(flow);
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,193 @@
+package com.wzz.venom.service.impl.webSocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wzz.venom.domain.entity.User;
+import com.wzz.venom.domain.entity.UserNotification;
+import com.wzz.venom.enums.NotificationEventEnum;
+import com.wzz.venom.mapper.UserNotificationMapper;
+import com.wzz.venom.service.user.UserCacheService;
+import com.wzz.venom.utils.UserWebSocketSessionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.socket.TextMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 通知收件箱重连补发：环形缓冲回绕后仍能从内存补发，缓冲未覆盖或序号有缺口时改为查库
+ */
+class NotificationInboxServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+    private static final String USER_NAME = "alice";
+    private static final int RING_SIZE = 4;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private NotificationInboxServiceImpl service;
+    private UserNotificationMapper userNotificationMapper;
+    private UserWebSocketSessionManager sessionManager;
+    /** 模拟 user_notification_seq 中该用户的 last_seq */
+    private final AtomicLong lastSeq = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        service = new NotificationInboxServiceImpl();
+        userNotificationMapper = mock(UserNotificationMapper.class);
+        sessionManager = mock(UserWebSocketSessionManager.class);
+        UserCacheService userCacheService = mock(UserCacheService.class);
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+        User user = new User();
+        user.setId(USER_ID);
+        when(userCacheService.getByUserName(USER_NAME)).thenReturn(user);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(userNotificationMapper.allocateSeq(eq(USER_ID), anyInt(), any())).thenAnswer(invocation -> {
+            lastSeq.addAndGet(invocation.<Integer>getArgument(1));
+            return 1;
+        });
+        when(userNotificationMapper.selectLastSeq(USER_ID)).thenAnswer(invocation -> lastSeq.get());
+        when(userNotificationMapper.selectAfterSeq(eq(USER_ID), anyLong(), anyInt())).thenReturn(List.of());
+
+        ReflectionTestUtils.setField(service, "userNotificationMapper", userNotificationMapper);
+        ReflectionTestUtils.setField(service, "userCacheService", userCacheService);
+        ReflectionTestUtils.setField(service, "userWebSocketSessionManager", sessionManager);
+        ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(service, "ringSize", RING_SIZE);
+        ReflectionTestUtils.setField(service, "replayMax", 100);
+    }
+
+    @Test
+    void replaysFromRingAfterWraparound() throws Exception {
+        service.onConnected(USER_ID, null);
+        push(6);
+        clearInvocations(sessionManager);
+
+        // 缓冲只保留 3..6，断线前已收到 3
+        service.onConnected(USER_ID, 3L);
+
+        assertThat(replayedSeqs()).containsExactly(4L, 5L, 6L);
+        assertThat(syncMessage().get("lastSeq").asLong()).isEqualTo(6L);
+        verify(userNotificationMapper, never()).selectAfterSeq(anyLong(), anyLong(), anyInt());
+    }
+
+    @Test
+    void upToDateClientOnlyReceivesSync() throws Exception {
+        service.onConnected(USER_ID, null);
+        push(2);
+        clearInvocations(sessionManager);
+
+        service.onConnected(USER_ID, 2L);
+
+        assertThat(replayedSeqs()).isEmpty();
+        assertThat(syncMessage().get("truncated").asBoolean()).isFalse();
+    }
+
+    @Test
+    void fallsBackToDatabaseWhenRingWasOverwritten() {
+        service.onConnected(USER_ID, null);
+        push(6);
+
+        // 缓冲最早是 3，缺少 2
+        service.onConnected(USER_ID, 1L);
+
+        verify(userNotificationMapper).selectAfterSeq(USER_ID, 1L, 101);
+    }
+
+    @Test
+    void fallsBackToDatabaseOnSeqGap() {
+        service.onConnected(USER_ID, null);
+        push(2);
+        // 序号 3 由其他节点分配并推送，不在本节点缓冲中
+        lastSeq.incrementAndGet();
+        push(1);
+
+        service.onConnected(USER_ID, 1L);
+
+        verify(userNotificationMapper).selectAfterSeq(USER_ID, 1L, 101);
+    }
+
+    @Test
+    void fallsBackToDatabaseWhenRingIsBehindLatestSeq() {
+        service.onConnected(USER_ID, null);
+        push(2);
+        lastSeq.incrementAndGet();
+
+        service.onConnected(USER_ID, 1L);
+
+        verify(userNotificationMapper).selectAfterSeq(USER_ID, 1L, 101);
+    }
+
+    @Test
+    void databaseReplayIsTruncatedAtReplayMax() throws Exception {
+        ReflectionTestUtils.setField(service, "replayMax", 2);
+        lastSeq.set(10);
+        List<UserNotification> rows = new ArrayList<>();
+        for (long seq = 6; seq <= 8; seq++) {
+            UserNotification row = new UserNotification();
+            row.setUserId(USER_ID);
+            row.setSeq(seq);
+            row.setEventType(NotificationEventEnum.SYSTEM_ANNOUNCEMENT.name());
+            rows.add(row);
+        }
+        when(userNotificationMapper.selectAfterSeq(USER_ID, 5L, 3)).thenReturn(rows);
+
+        service.onConnected(USER_ID, 5L);
+
+        assertThat(replayedSeqs()).containsExactly(6L, 7L);
+        assertThat(syncMessage().get("truncated").asBoolean()).isTrue();
+    }
+
+    private void push(int count) {
+        for (int i = 0; i < count; i++) {
+            service.push(USER_NAME, NotificationEventEnum.SYSTEM_ANNOUNCEMENT, "n");
+        }
+    }
+
+    private List<JsonNode> sentLocal() throws Exception {
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(sessionManager, atLeastOnce()).sendLocal(eq(USER_ID), captor.capture());
+        List<JsonNode> result = new ArrayList<>();
+        for (TextMessage message : captor.getAllValues()) {
+            result.add(objectMapper.readTree(message.getPayload()));
+        }
+        return result;
+    }
+
+    private List<Long> replayedSeqs() throws Exception {
+        List<Long> seqs = new ArrayList<>();
+        for (JsonNode node : sentLocal()) {
+            if (node.has("seq")) {
+                seqs.add(node.get("seq").asLong());
+            }
+        }
+        return seqs;
+    }
+
+    private JsonNode syncMessage() throws Exception {
+        List<JsonNode> messages = sentLocal();
+        JsonNode last = messages.get(messages.size() - 1);
+        assertThat(last.get("event").asText()).isEqualTo(NotificationInboxServiceImpl.SYNC_EVENT);
+        return last;
+    }
+}
@@ -0,0 +1,112 @@
+package com.wzz.venom.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 写时复制 long 集合：有序插入、删除、整体替换和并发写入
+ */
+class CopyOnWriteLongSetTest {
+
+    @Test
+    void emptySetContainsNothing() {
+        CopyOnWriteLongSet set = new CopyOnWriteLongSet();
+
+        assertThat(set.contains(0L)).isFalse();
+        assertThat(set.size()).isZero();
+        assertThat(set.remove(1L)).isFalse();
+    }
+
+    @Test
+    void addKeepsElementsSortedAndUnique() {
+        CopyOnWriteLongSet set = new CopyOnWriteLongSet();
+
+        assertThat(set.add(5L)).isTrue();
+        assertThat(set.add(1L)).isTrue();
+        assertThat(set.add(9L)).isTrue();
+        assertThat(set.add(3L)).isTrue();
+        assertThat(set.add(5L)).isFalse();
+
+        assertThat(set.size()).isEqualTo(4);
+        for (long value : new long[]{1L, 3L, 5L, 9L}) {
+            assertThat(set.contains(value)).isTrue();
+        }
+        assertThat(set.contains(4L)).isFalse();
+        assertThat(set.contains(10L)).isFalse();
+    }
+
+    @Test
+    void removeAtEveryPosition() {
+        CopyOnWriteLongSet set = new CopyOnWriteLongSet();
+        set.replaceAll(new long[]{1L, 2L, 3L, 4L, 5L});
+
+        assertThat(set.remove(1L)).isTrue();
+        assertThat(set.remove(3L)).isTrue();
+        assertThat(set.remove(5L)).isTrue();
+        assertThat(set.remove(3L)).isFalse();
+
+        assertThat(set.size()).isEqualTo(2);
+        assertThat(set.contains(2L)).isTrue();
+        assertThat(set.contains(4L)).isTrue();
+        assertThat(set.contains(1L)).isFalse();
+        assertThat(set.contains(5L)).isFalse();
+    }
+
+    @Test
+    void replaceAllSortsAndDeduplicates() {
+        CopyOnWriteLongSet set = new CopyOnWriteLongSet();
+        set.add(100L);
+
+        set.replaceAll(new long[]{7L, -2L, 7L, Long.MAX_VALUE, Long.MIN_VALUE});
+
+        assertThat(set.size()).isEqualTo(4);
+        assertThat(set.contains(100L)).isFalse();
+        assertThat(set.contains(-2L)).isTrue();
+        assertThat(set.contains(Long.MAX_VALUE)).isTrue();
+        assertThat(set.contains(Long.MIN_VALUE)).isTrue();
+
+        set.replaceAll(new long[0]);
+        assertThat(set.size()).isZero();
+    }
+
+    @Test
+    void concurrentAddsAreNotLost() throws Exception {
+        CopyOnWriteLongSet set = new CopyOnWriteLongSet();
+        int threads = 8;
+        int perThread = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long base = (long) t * perThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < perThread; i++) {
+                        set.add(base + i);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(set.size()).isEqualTo(threads * perThread);
+        for (long value = 0; value < threads * perThread; value++) {
+            assertThat(set.contains(value)).isTrue();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.wzz.venom.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 分层时间轮：到期精度、跨层级联、过期条目和计数
+ */
+class HierarchicalTimingWheelTest {
+
+    private static final long TICK = 1000L;
+    private static final long START = 1_700_000_000_000L;
+
+    @Test
+    void entryFiresAtItsTickAndNotBefore() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, START);
+        wheel.add(1L, START + 3 * TICK);
+
+        assertThat(wheel.advanceTo(START + 2 * TICK)).isEmpty();
+        assertThat(wheel.advanceTo(START + 3 * TICK - 1)).isEmpty();
+        assertThat(wheel.advanceTo(START + 3 * TICK)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void expiryInsideATickRoundsUp() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, START);
+        wheel.add(1L, START + TICK + 1);
+
+        assertThat(wheel.advanceTo(START + TICK)).isEmpty();
+        assertThat(wheel.advanceTo(START + 2 * TICK)).containsExactly(1L);
+    }
+
+    @Test
+    void pastExpiryIsReturnedOnNextAdvance() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, START);
+        wheel.advanceTo(START + 10 * TICK);
+        wheel.add(7L, START);
+
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advanceTo(START + 10 * TICK)).containsExactly(7L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void entriesCascadeThroughUpperLevelsWithoutFiringEarly() {
+        // 每层 4 个槽位：第 0 层 4 个刻度，第 1 层 16 个，第 2 层 64 个，100 个刻度后的条目落在第 3 层
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 4, START);
+        wheel.add(1L, START + 100 * TICK);
+        wheel.add(2L, START + 17 * TICK);
+        wheel.add(3L, START + 5 * TICK);
+
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long tick = 1; tick <= 120; tick++) {
+            for (long id : wheel.advanceTo(START + tick * TICK)) {
+                firedAt.put(id, tick);
+            }
+        }
+
+        assertThat(firedAt).containsEntry(1L, 100L).containsEntry(2L, 17L).containsEntry(3L, 5L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void largeJumpReturnsAllDueEntriesInTickOrder() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 4, START);
+        wheel.add(3L, START + 50 * TICK);
+        wheel.add(1L, START + 2 * TICK);
+        wheel.add(2L, START + 9 * TICK);
+        wheel.add(4L, START + 500 * TICK);
+
+        assertThat(wheel.advanceTo(START + 60 * TICK)).containsExactly(1L, 2L, 3L);
+        assertThat(wheel.size()).isEqualTo(1);
+        assertThat(wheel.advanceTo(START + 500 * TICK)).containsExactly(4L);
+    }
+
+    @Test
+    void randomEntriesAllFireExactlyOnceAtTheirTick() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 16, START);
+        Random random = new Random(7);
+        Map<Long, Long> expected = new HashMap<>();
+        for (long id = 0; id < 5000; id++) {
+            long tick = 1 + random.nextInt(5000);
+            expected.put(id, tick);
+            wheel.add(id, START + tick * TICK);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        for (long tick = 1; tick <= 5000; tick += 1 + random.nextInt(3)) {
+            long now = START + tick * TICK;
+            for (long id : wheel.advanceTo(now)) {
+                assertThat(expected.get(id) * TICK).isLessThanOrEqualTo(now - START);
+                fired.add(id);
+            }
+        }
+        fired.addAll(toList(wheel.advanceTo(START + 5000 * TICK)));
+
+        assertThat(fired).hasSize(5000).doesNotHaveDuplicates();
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void sameIdAddedTwiceFiresTwice() {
+        HierarchicalTimingWheel wheel = new HierarchicalTimingWheel(TICK, 8, START);
+        wheel.add(1L, START + TICK);
+        wheel.add(1L, START + 2 * TICK);
+
+        assertThat(wheel.advanceTo(START + TICK)).containsExactly(1L);
+        assertThat(wheel.advanceTo(START + 2 * TICK)).containsExactly(1L);
+    }
+
+    @Test
+    void invalidConstructionIsRejected() {
+        assertThatThrownBy(() -> new HierarchicalTimingWheel(0, 8, START)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HierarchicalTimingWheel(TICK, 1, START)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<Long> toList(long[] ids) {
+        List<Long> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            result.add(id);
+        }
+        return result;
+    }
+}
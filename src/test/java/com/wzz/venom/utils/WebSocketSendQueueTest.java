@@ -0,0 +1,224 @@
+package com.wzz.venom.utils;
+
+import com.wzz.venom.enums.WsOverflowPolicyEnum;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 连接发送队列：顺序发送、溢出策略（丢弃最早 / 合并 / 断开）、Ping 去重和关闭回调
+ * <p>
+ * 第一条消息在发送时阻塞，后续消息留在队列中，以便构造积压。
+ * </p>
+ */
+class WebSocketSendQueueTest {
+
+    private final List<WebSocketMessage<?>> sent = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstSendEntered = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstSend = new CountDownLatch(1);
+    private final AtomicInteger closedCallbacks = new AtomicInteger();
+
+    private WebSocketSession session;
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstSend.countDown();
+    }
+
+    @Test
+    void messagesAreSentInOrder() throws Exception {
+        WebSocketSendQueue queue = newQueue(16, WsOverflowPolicyEnum.DROP_OLDEST, false);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(queue.offer(new TextMessage("m" + i), null)).isTrue();
+        }
+
+        awaitSent(5);
+        assertThat(payloads()).containsExactly("m0", "m1", "m2", "m3", "m4");
+        assertThat(queue.stats().getSent()).isEqualTo(5);
+    }
+
+    @Test
+    void dropOldestDiscardsHeadOfBacklog() throws Exception {
+        WebSocketSendQueue queue = newQueue(2, WsOverflowPolicyEnum.DROP_OLDEST, true);
+        queue.offer(new TextMessage("first"), null);
+        assertThat(firstSendEntered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        queue.offer(new TextMessage("a"), null);
+        queue.offer(new TextMessage("b"), null);
+        queue.offer(new TextMessage("c"), null);
+        assertThat(queue.stats().getQueued()).isEqualTo(2);
+        assertThat(queue.stats().getDropped()).isEqualTo(1);
+
+        releaseFirstSend.countDown();
+        awaitSent(3);
+        assertThat(payloads()).containsExactly("first", "b", "c");
+    }
+
+    @Test
+    void coalesceReplacesQueuedMessageInPlace() throws Exception {
+        WebSocketSendQueue queue = newQueue(8, WsOverflowPolicyEnum.COALESCE, true);
+        queue.offer(new TextMessage("first"), null);
+        assertThat(firstSendEntered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        queue.offer(new TextMessage("digest-1"), "digest");
+        queue.offer(new TextMessage("other"), null);
+        queue.offer(new TextMessage("digest-2"), "digest");
+        assertThat(queue.stats().getQueued()).isEqualTo(2);
+        assertThat(queue.stats().getCoalesced()).isEqualTo(1);
+
+        releaseFirstSend.countDown();
+        awaitSent(3);
+        assertThat(payloads()).containsExactly("first", "digest-2", "other");
+    }
+
+    @Test
+    void coalesceWithoutMatchFallsBackToDropOldest() throws Exception {
+        WebSocketSendQueue queue = newQueue(1, WsOverflowPolicyEnum.COALESCE, true);
+        queue.offer(new TextMessage("first"), null);
+        assertThat(firstSendEntered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        queue.offer(new TextMessage("a"), "k1");
+        queue.offer(new TextMessage("b"), "k2");
+        assertThat(queue.stats().getDropped()).isEqualTo(1);
+
+        releaseFirstSend.countDown();
+        awaitSent(2);
+        assertThat(payloads()).containsExactly("first", "b");
+    }
+
+    @Test
+    void disconnectPolicyClosesSlowConsumer() throws Exception {
+        WebSocketSendQueue queue = newQueue(1, WsOverflowPolicyEnum.DISCONNECT, true);
+        queue.offer(new TextMessage("first"), null);
+        assertThat(firstSendEntered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(queue.offer(new TextMessage("a"), null)).isTrue();
+        assertThat(queue.offer(new TextMessage("b"), null)).isFalse();
+
+        assertThat(queue.isOpen()).isFalse();
+        assertThat(closedCallbacks.get()).isEqualTo(1);
+        verify(session, timeout(1000)).close(any(CloseStatus.class));
+        assertThat(queue.offer(new TextMessage("c"), null)).isFalse();
+    }
+
+    @Test
+    void sendFailureClosesQueueAndNotifiesOnce() throws Exception {
+        session = openSession();
+        doAnswer(invocation -> {
+            throw new IOException("broken pipe");
+        }).when(session).sendMessage(any());
+        WebSocketSendQueue queue = new WebSocketSendQueue(session, "1", 8, WsOverflowPolicyEnum.DROP_OLDEST,
+                closed -> closedCallbacks.incrementAndGet());
+
+        queue.offer(new TextMessage("m"), null);
+
+        verify(session, timeout(1000)).close(CloseStatus.SESSION_NOT_RELIABLE);
+        awaitClosedCallbacks(1);
+        assertThat(queue.isOpen()).isFalse();
+        queue.close(CloseStatus.NORMAL);
+        assertThat(closedCallbacks.get()).isEqualTo(1);
+    }
+
+    @Test
+    void pingIsQueuedOnceAndSentAsPingFrame() throws Exception {
+        WebSocketSendQueue queue = newQueue(8, WsOverflowPolicyEnum.DROP_OLDEST, true);
+        queue.offer(new TextMessage("first"), null);
+        assertThat(firstSendEntered.await(1, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(queue.ping()).isTrue();
+        assertThat(queue.ping()).isTrue();
+        assertThat(queue.stats().getQueued()).isEqualTo(1);
+
+        releaseFirstSend.countDown();
+        awaitSent(2);
+        assertThat(sent.get(1)).isInstanceOf(PingMessage.class);
+    }
+
+    @Test
+    void pingIsSkippedWhenBacklogIsFull() throws Exception {
+        WebSocketSendQueue queue = newQueue(1, WsOverflowPolicyEnum.DROP_OLDEST, true);
+        queue.offer(new TextMessage("first"), null);
+        assertThat(firstSendEntered.await(1, TimeUnit.SECONDS)).isTrue();
+        queue.offer(new TextMessage("a"), null);
+
+        assertThat(queue.ping()).isFalse();
+        assertThat(queue.stats().getDropped()).isZero();
+    }
+
+    @Test
+    void discardDoesNotCloseSessionOrNotify() {
+        WebSocketSendQueue queue = newQueue(8, WsOverflowPolicyEnum.DROP_OLDEST, false);
+
+        queue.discard();
+
+        assertThat(queue.isOpen()).isFalse();
+        assertThat(queue.offer(new TextMessage("m"), null)).isFalse();
+        assertThat(queue.ping()).isFalse();
+        assertThat(closedCallbacks.get()).isZero();
+    }
+
+    private WebSocketSendQueue newQueue(int capacity, WsOverflowPolicyEnum policy, boolean blockFirstSend) {
+        session = openSession();
+        try {
+            doAnswer(invocation -> {
+                WebSocketMessage<?> message = invocation.getArgument(0);
+                if (blockFirstSend && sent.isEmpty()) {
+                    firstSendEntered.countDown();
+                    releaseFirstSend.await(5, TimeUnit.SECONDS);
+                }
+                sent.add(message);
+                return null;
+            }).when(session).sendMessage(any());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new WebSocketSendQueue(session, "1", capacity, policy, closed -> closedCallbacks.incrementAndGet());
+    }
+
+    private static WebSocketSession openSession() {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+
+    private void awaitSent(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (sent.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(sent).hasSize(count);
+    }
+
+    private void awaitClosedCallbacks(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (closedCallbacks.get() < count && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(closedCallbacks.get()).isEqualTo(count);
+    }
+
+    private List<String> payloads() {
+        return sent.stream().map(message -> String.valueOf(message.getPayload())).toList();
+    }
+}
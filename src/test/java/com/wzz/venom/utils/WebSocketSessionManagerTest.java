@@ -0,0 +1,125 @@
+package com.wzz.venom.utils;
+
+import com.wzz.venom.enums.WsOverflowPolicyEnum;
+import com.wzz.venom.service.webSocket.WebSocketClusterService;
+import com.wzz.venom.service.webSocket.WebSocketHeartbeatService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 管理端连接的主题订阅与路由索引
+ */
+class WebSocketSessionManagerTest {
+
+    private WebSocketSessionManager manager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        manager = new WebSocketSessionManager();
+        ObjectProvider<WebSocketClusterService> clusterProvider = mock(ObjectProvider.class);
+        ReflectionTestUtils.setField(manager, "queueCapacity", 16);
+        ReflectionTestUtils.setField(manager, "overflowPolicy", WsOverflowPolicyEnum.DROP_OLDEST);
+        ReflectionTestUtils.setField(manager, "clusterServiceProvider", clusterProvider);
+        ReflectionTestUtils.setField(manager, "heartbeatService", mock(WebSocketHeartbeatService.class));
+    }
+
+    @Test
+    void newSessionReceivesAllEvents() throws Exception {
+        WebSocketSession session = openSession("a");
+        manager.addSession(session);
+
+        manager.publish("USER_RECHARGE", "alice", Map.of("event", "USER_RECHARGE"), null);
+
+        verify(session, timeout(1000)).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void subscribeNarrowsDelivery() throws Exception {
+        WebSocketSession session = openSession("a");
+        manager.addSession(session);
+
+        Set<String> topics = manager.subscribe(session, List.of(WebSocketSessionManager.eventTopic("USER_WITHDRAWAL")));
+        assertThat(topics).containsExactly("event:USER_WITHDRAWAL");
+
+        manager.publish("USER_RECHARGE", "alice", Map.of("event", "USER_RECHARGE"), null);
+        verify(session, after(200).never()).sendMessage(any());
+
+        manager.publish("USER_WITHDRAWAL", "alice", Map.of("event", "USER_WITHDRAWAL"), null);
+        verify(session, timeout(1000)).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void userTopicMatchesAnyEventOfThatUser() throws Exception {
+        WebSocketSession session = openSession("a");
+        manager.addSession(session);
+        manager.subscribe(session, List.of(WebSocketSessionManager.userTopic("bob")));
+
+        manager.publish("USER_RECHARGE", "alice", Map.of("event", "USER_RECHARGE"), null);
+        verify(session, after(200).never()).sendMessage(any());
+
+        manager.publish("USER_RECHARGE", "bob", Map.of("event", "USER_RECHARGE"), null);
+        verify(session, timeout(1000)).sendMessage(any(TextMessage.class));
+    }
+
+    @Test
+    void unsubscribeAllStopsDelivery() throws Exception {
+        WebSocketSession session = openSession("a");
+        manager.addSession(session);
+
+        Set<String> topics = manager.unsubscribe(session, List.of(WebSocketSessionManager.TOPIC_ALL));
+        assertThat(topics).isEmpty();
+
+        manager.publish("USER_RECHARGE", "alice", Map.of("event", "USER_RECHARGE"), null);
+        verify(session, after(200).never()).sendMessage(any());
+    }
+
+    @Test
+    void removeSessionClearsTopicIndex() {
+        WebSocketSession first = openSession("a");
+        WebSocketSession second = openSession("b");
+        manager.addSession(first);
+        manager.addSession(second);
+        manager.subscribe(second, List.of(WebSocketSessionManager.eventTopic("USER_PURCHASE")));
+
+        manager.removeSession(first);
+        manager.removeSession(second);
+
+        assertThat(topicIndex()).isEmpty();
+        assertThat(sessionTopics()).isEmpty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Set<WebSocketSendQueue>> topicIndex() {
+        return (Map<String, Set<WebSocketSendQueue>>) ReflectionTestUtils.getField(manager, "topicIndex");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Set<String>> sessionTopics() {
+        return (Map<String, Set<String>>) ReflectionTestUtils.getField(manager, "sessionTopics");
+    }
+
+    private static WebSocketSession openSession(String id) {
+        WebSocketSession session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn(id);
+        when(session.isOpen()).thenReturn(true);
+        return session;
+    }
+}